@@ -0,0 +1,134 @@
+package com.oreilly.maventoys.benchmarks;
+
+import com.oreilly.maventoys.mapper.ProductMapper;
+import com.oreilly.maventoys.mapper.ProductMapperImpl;
+import com.oreilly.maventoys.mapper.SaleMapper;
+import com.oreilly.maventoys.mapper.SaleMapperImpl;
+import com.oreilly.maventoys.mapper.StoreMapper;
+import com.oreilly.maventoys.mapper.StoreMapperImpl;
+import com.oreilly.maventoys.model.DTO.ProductDTO;
+import com.oreilly.maventoys.model.DTO.SaleDTO;
+import com.oreilly.maventoys.model.DTO.StoreDTO;
+import com.oreilly.maventoys.model.entity.Category;
+import com.oreilly.maventoys.model.entity.Employee;
+import com.oreilly.maventoys.model.entity.Product;
+import com.oreilly.maventoys.model.entity.Sale;
+import com.oreilly.maventoys.model.entity.Store;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the MapStruct conversions applied to every row of the sale, product and store listings, in both
+ * directions where the API accepts the DTO as input.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+  private final SaleMapper saleMapper = new SaleMapperImpl();
+
+  private final ProductMapper productMapper = new ProductMapperImpl();
+
+  private final StoreMapper storeMapper = new StoreMapperImpl();
+
+  private Sale sale;
+
+  private SaleDTO saleDTO;
+
+  private Product product;
+
+  private ProductDTO productDTO;
+
+  private Store store;
+
+  private StoreDTO storeDTO;
+
+  /**
+   * Builds one fully populated entity of each kind, and its DTO.
+   */
+  @Setup
+  public void setUp() {
+    store = new Store();
+    store.setId(7);
+    store.setName("Maven Toys Guadalajara 1");
+    store.setCity("Guadalajara");
+    store.setLocation("Residential");
+    store.setOpenDate(LocalDate.of(1992, 9, 18));
+    store.setActive(true);
+
+    Employee employee = new Employee();
+    employee.setId(42);
+
+    Category category = new Category();
+    category.setId(3);
+    category.setName("Toys");
+
+    product = new Product();
+    product.setId(11);
+    product.setName("Lego Bricks");
+    product.setCost(34.99);
+    product.setPrice(39.99);
+    product.setCategory(category);
+    product.setCreationDate(new Date());
+    product.setActive(true);
+
+    sale = new Sale();
+    sale.setId(1001);
+    sale.setStore(store);
+    sale.setStoreId(store.getId());
+    sale.setEmployee(employee);
+    sale.setEmployeeId(employee.getId());
+    sale.setDate(LocalDate.of(2023, 4, 1));
+    sale.setTotal(119.97);
+
+    saleDTO = saleMapper.saleToSaleDTO(sale);
+    productDTO = productMapper.productToProductDTO(product);
+    storeDTO = storeMapper.storeToStoreDTO(store);
+  }
+
+  @Benchmark
+  public SaleDTO saleToSaleDTO() {
+    return saleMapper.saleToSaleDTO(sale);
+  }
+
+  @Benchmark
+  public Sale saleDTOToSale() {
+    return saleMapper.saleDTOToSale(saleDTO);
+  }
+
+  @Benchmark
+  public ProductDTO productToProductDTO() {
+    return productMapper.productToProductDTO(product);
+  }
+
+  @Benchmark
+  public Product productDTOToProduct() {
+    return productMapper.productDTOToProduct(productDTO);
+  }
+
+  @Benchmark
+  public StoreDTO storeToStoreDTO() {
+    return storeMapper.storeToStoreDTO(store);
+  }
+
+  @Benchmark
+  public Store storeDTOToStore() {
+    return storeMapper.storeDTOToStore(storeDTO);
+  }
+}
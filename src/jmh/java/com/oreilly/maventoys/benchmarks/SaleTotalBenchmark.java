@@ -0,0 +1,97 @@
+package com.oreilly.maventoys.benchmarks;
+
+import com.oreilly.maventoys.model.entity.Invoice;
+import com.oreilly.maventoys.model.entity.Product;
+import com.oreilly.maventoys.model.entity.Sale;
+import com.oreilly.maventoys.service.SaleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the total computed by {@code SaleService.createSale} for sales of growing size, with and without the cost
+ * of building the invoice lines the total is summed over.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaleTotalBenchmark {
+
+  /**
+   * Number of invoice lines in the sale.
+   */
+  @Param({"1", "10", "100"})
+  private int lines;
+
+  private Product[] products;
+
+  private List<Invoice> invoices;
+
+  /**
+   * Builds a catalog of products with varied prices and one invoice line per product, each with its own discount.
+   */
+  @Setup
+  public void setUp() {
+    products = new Product[lines];
+    invoices = new ArrayList<>(lines);
+    Sale sale = new Sale();
+    for (int i = 0; i < lines; i++) {
+      Product product = new Product();
+      product.setId(i + 1);
+      product.setPrice(4.99 + i);
+      products[i] = product;
+      invoices.add(invoice(product, 1 + i % 5, i % 20, sale));
+    }
+  }
+
+  @Benchmark
+  public double saleTotal() {
+    return SaleService.saleTotal(invoices);
+  }
+
+  @Benchmark
+  public double invoicesAndTotal() {
+    Sale sale = new Sale();
+    List<Invoice> built = new ArrayList<>(lines);
+    for (int i = 0; i < lines; i++) {
+      built.add(invoice(products[i], 1 + i % 5, i % 20, sale));
+    }
+    sale.setInvoices(built);
+    return SaleService.saleTotal(built);
+  }
+
+  /**
+   * Builds an invoice line the way {@link SaleService#newInvoice(Product, int, int, Sale)} does.
+   *
+   * @param product  the product sold.
+   * @param quantity the units sold.
+   * @param discount the discount, as a percentage.
+   * @param sale     the sale the line belongs to.
+   *
+   * @return the invoice line.
+   */
+  private static Invoice invoice(final Product product, final int quantity, final int discount, final Sale sale) {
+    Invoice invoice = new Invoice();
+    invoice.setProduct(product);
+    invoice.setSale(sale);
+    invoice.setDiscount(discount);
+    invoice.setQuantity(quantity);
+    invoice.setSubtotal(quantity * product.getPrice());
+    return invoice;
+  }
+}
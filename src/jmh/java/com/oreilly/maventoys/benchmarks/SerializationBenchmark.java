@@ -0,0 +1,93 @@
+package com.oreilly.maventoys.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.model.DTO.ProductDTO;
+import com.oreilly.maventoys.model.DTO.SaleDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Jackson serialization of {@link CustomApiResponse} bodies holding listings of 1k and 10k products and
+ * sales, using a mapper built with Spring's defaults as the message converters do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+  /**
+   * Number of elements in the listing.
+   */
+  @Param({"1000", "10000"})
+  private int size;
+
+  private ObjectWriter writer;
+
+  private CustomApiResponse<List<ProductDTO>> products;
+
+  private CustomApiResponse<List<SaleDTO>> sales;
+
+  /**
+   * Builds the mapper and both listings.
+   */
+  @Setup
+  public void setUp() {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    writer = objectMapper.writer();
+    List<ProductDTO> productList = new ArrayList<>(size);
+    List<SaleDTO> saleList = new ArrayList<>(size);
+    LocalDate day = LocalDate.of(2023, 1, 1);
+    for (int i = 0; i < size; i++) {
+      ProductDTO product = new ProductDTO();
+      product.setId(i + 1);
+      product.setName("Product " + i);
+      product.setCost(2.5 + i % 50);
+      product.setPrice(4.99 + i % 50);
+      product.setCategoryId(1 + i % 5);
+      product.setActive(true);
+      product.setCreationDate(day.plusDays(i % 365));
+      productList.add(product);
+
+      SaleDTO sale = new SaleDTO();
+      sale.setId(i + 1);
+      sale.setStoreId(1 + i % 50);
+      sale.setEmployeeId(1 + i % 200);
+      sale.setTotal(19.99 + i % 100);
+      sale.setDate(day.plusDays(i % 365));
+      saleList.add(sale);
+    }
+    products = new CustomApiResponse<>("Products retrieved successfully", productList);
+    sales = new CustomApiResponse<>("Sales retrieved successfully", saleList);
+  }
+
+  @Benchmark
+  public byte[] products() throws JsonProcessingException {
+    return writer.writeValueAsBytes(products);
+  }
+
+  @Benchmark
+  public byte[] sales() throws JsonProcessingException {
+    return writer.writeValueAsBytes(sales);
+  }
+}
@@ -0,0 +1,119 @@
+package com.oreilly.maventoys.benchmarks;
+
+import com.oreilly.maventoys.model.entity.Category;
+import com.oreilly.maventoys.model.entity.DailySalesRollup;
+import com.oreilly.maventoys.model.entity.Employee;
+import com.oreilly.maventoys.model.entity.Inventory;
+import com.oreilly.maventoys.model.entity.Invoice;
+import com.oreilly.maventoys.model.entity.Product;
+import com.oreilly.maventoys.model.entity.Sale;
+import com.oreilly.maventoys.model.entity.Store;
+import com.oreilly.maventoys.repository.specifications.EmployeeSpec;
+import com.oreilly.maventoys.repository.specifications.MatchMode;
+import com.oreilly.maventoys.repository.specifications.ProductSpec;
+import com.oreilly.maventoys.repository.specifications.SaleCursor;
+import com.oreilly.maventoys.repository.specifications.SaleSpec;
+import com.oreilly.maventoys.repository.specifications.StoreSpec;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.dialect.H2Dialect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the building of the criteria predicates of the filtered listings, from a fresh query and root as each
+ * repository call does. The metamodel comes from a session factory over the application's entities that never
+ * connects to a database, so no SQL is rendered or run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpecificationBenchmark {
+
+  private SessionFactory sessionFactory;
+
+  private CriteriaBuilder criteriaBuilder;
+
+  private final StoreSpec storeByName = new StoreSpec(null, "Guadalajara", "Downtown", MatchMode.CONTAINS);
+
+  private final ProductSpec productByPrefix = new ProductSpec(null, "Lego", MatchMode.PREFIX);
+
+  private final Specification<Employee> employeeByEitherName =
+      Specification.where(new EmployeeSpec(null, "Ana", null, MatchMode.CONTAINS))
+          .or(new EmployeeSpec(null, null, "Ana", MatchMode.CONTAINS));
+
+  private final Specification<Sale> salesAfterCursor = new SaleSpec(null, 7, 42)
+      .and(SaleSpec.orderable(SaleCursor.Order.DATE))
+      .and(SaleSpec.after(new SaleCursor(SaleCursor.Order.DATE, LocalDate.of(2023, 4, 1), 1001)));
+
+  /**
+   * Bootstraps Hibernate over the entity classes, without JDBC metadata access or a second-level cache.
+   */
+  @Setup
+  public void setUp() {
+    sessionFactory = new Configuration()
+        .addAnnotatedClass(Category.class)
+        .addAnnotatedClass(Product.class)
+        .addAnnotatedClass(Inventory.class)
+        .addAnnotatedClass(Store.class)
+        .addAnnotatedClass(Employee.class)
+        .addAnnotatedClass(Sale.class)
+        .addAnnotatedClass(Invoice.class)
+        .addAnnotatedClass(DailySalesRollup.class)
+        .setProperty(AvailableSettings.DIALECT, H2Dialect.class.getName())
+        .setProperty("hibernate.boot.allow_jdbc_metadata_access", "false")
+        .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+        .setProperty(AvailableSettings.HBM2DDL_AUTO, "none")
+        .buildSessionFactory();
+    criteriaBuilder = sessionFactory.getCriteriaBuilder();
+  }
+
+  @TearDown
+  public void tearDown() {
+    sessionFactory.close();
+  }
+
+  @Benchmark
+  public Predicate storeByName() {
+    CriteriaQuery<Store> query = criteriaBuilder.createQuery(Store.class);
+    return storeByName.toPredicate(query.from(Store.class), query, criteriaBuilder);
+  }
+
+  @Benchmark
+  public Predicate productByPrefix() {
+    CriteriaQuery<Product> query = criteriaBuilder.createQuery(Product.class);
+    return productByPrefix.toPredicate(query.from(Product.class), query, criteriaBuilder);
+  }
+
+  @Benchmark
+  public Predicate employeeByEitherName() {
+    CriteriaQuery<Employee> query = criteriaBuilder.createQuery(Employee.class);
+    return employeeByEitherName.toPredicate(query.from(Employee.class), query, criteriaBuilder);
+  }
+
+  @Benchmark
+  public Predicate salesAfterCursor() {
+    CriteriaQuery<Sale> query = criteriaBuilder.createQuery(Sale.class);
+    return salesAfterCursor.toPredicate(query.from(Sale.class), query, criteriaBuilder);
+  }
+}
@@ -0,0 +1,13 @@
+/**
+ * This package contains JMH micro-benchmarks of the application's hot paths.
+ * <p>
+ * The benchmarks are compiled and run only by the {@code benchmarks} Maven profile, which writes the results to
+ * {@code target/jmh-result.json}. Each benchmark exercises production classes directly, without a Spring context,
+ * so the numbers reflect the code under test rather than the container around it.
+ * </p>
+ * <p>
+ * For example, {@code mvn -Pbenchmarks verify -DskipTests -Djmh.includes=MapperBenchmark} runs the mapper suite
+ * only.
+ * </p>
+ */
+package com.oreilly.maventoys.benchmarks;
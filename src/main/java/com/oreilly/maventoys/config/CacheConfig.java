@@ -0,0 +1,42 @@
+package com.oreilly.maventoys.config;
+
+import com.oreilly.maventoys.service.CatalogCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the Caffeine caches used by {@link CatalogCache}.
+ *
+ * <p>The caches are declared up front so that actuator exposes them under {@code /actuator/caches} and binds their
+ * hit, miss, put and eviction counts to the {@code cache.*} metrics. The Caffeine specification comes from
+ * {@code cache.catalog.spec}; it must include {@code recordStats} for those counts to be collected.</p>
+ *
+ * <p>The cache manager is transaction aware: puts and evictions made inside a transaction are applied only after
+ * it commits, so a rolled back write never reaches the cache.</p>
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+  /**
+   * Creates the cache manager holding the catalog caches.
+   *
+   * @param spec Caffeine specification applied to every catalog cache.
+   *
+   * @return the transaction aware cache manager.
+   */
+  @Bean
+  public CacheManager cacheManager(
+      @Value("${cache.catalog.spec:maximumSize=10000,expireAfterWrite=10m,recordStats}") final String spec) {
+    CaffeineCacheManager caffeine =
+        new CaffeineCacheManager(CatalogCache.PRODUCTS, CatalogCache.CATEGORIES, CatalogCache.STORES);
+    caffeine.setCacheSpecification(spec);
+    caffeine.setAllowNullValues(false);
+    return new TransactionAwareCacheManagerProxy(caffeine);
+  }
+}
@@ -0,0 +1,168 @@
+package com.oreilly.maventoys.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Data source that bounds the number of connections borrowed at the same time.
+ *
+ * <p>A caller must take a permit before a connection is borrowed from the target pool, and gives it back when it
+ * closes the connection. Callers beyond the limit queue on a fair semaphore instead of on the pool, so a burst of
+ * requests on virtual threads parks cheaply, is served in arrival order, and gives up with a
+ * {@link SQLTransientConnectionException} once the acquire timeout has elapsed. With the limit set to the pool size,
+ * the pool itself never has waiters.</p>
+ */
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+  /**
+   * Permits for the connections that may be borrowed at once.
+   */
+  private final Semaphore permits;
+
+  /**
+   * How long a caller waits for a permit before giving up.
+   */
+  private final Duration acquireTimeout;
+
+  /**
+   * Constructs a new ConcurrencyLimitedDataSource.
+   *
+   * @param target            the pooled data source to guard.
+   * @param maxConcurrency    connections that may be borrowed at once.
+   * @param newAcquireTimeout how long a caller waits for a permit.
+   */
+  public ConcurrencyLimitedDataSource(final DataSource target, final int maxConcurrency,
+                                      final Duration newAcquireTimeout) {
+    super(target);
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("datasource.limiter.max-concurrency must be at least 1");
+    }
+    this.permits = new Semaphore(maxConcurrency, true);
+    this.acquireTimeout = newAcquireTimeout;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    return borrow(() -> getTargetDataSource().getConnection());
+  }
+
+  @Override
+  public Connection getConnection(final String username, final String password) throws SQLException {
+    acquire();
+    return borrow(() -> getTargetDataSource().getConnection(username, password));
+  }
+
+  /**
+   * Returns the number of connections that can still be borrowed without waiting.
+   *
+   * @return the free permits.
+   */
+  public int availablePermits() {
+    return permits.availablePermits();
+  }
+
+  /**
+   * Waits for a permit.
+   *
+   * @throws SQLException if no permit is freed within the acquire timeout or the caller is interrupted.
+   */
+  private void acquire() throws SQLException {
+    try {
+      if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+        throw new SQLTransientConnectionException(
+            "No database connection available within " + acquireTimeout.toMillis() + " ms");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+    }
+  }
+
+  /**
+   * Borrows a connection from the pool with a permit already held, and wraps it so that closing it gives the permit
+   * back. The permit is given back at once if the pool fails to hand out a connection.
+   *
+   * @param pool borrows the connection from the target data source.
+   *
+   * @return the wrapped connection.
+   *
+   * @throws SQLException if the pool fails to hand out a connection.
+   */
+  private Connection borrow(final ConnectionSupplier pool) throws SQLException {
+    Connection connection;
+    try {
+      connection = pool.get();
+    } catch (SQLException | RuntimeException | Error e) {
+      permits.release();
+      throw e;
+    }
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+        new PermitReleasingHandler(connection));
+  }
+
+  /**
+   * Source of a pooled connection.
+   */
+  @FunctionalInterface
+  private interface ConnectionSupplier {
+    Connection get() throws SQLException;
+  }
+
+  /**
+   * Forwards every call to the pooled connection and gives the permit back the first time the connection is closed.
+   */
+  private final class PermitReleasingHandler implements InvocationHandler {
+
+    private final Connection target;
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private PermitReleasingHandler(final Connection newTarget) {
+      this.target = newTarget;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "unwrap":
+          if (((Class<?>) args[0]).isInstance(proxy)) {
+            return proxy;
+          }
+          break;
+        case "isWrapperFor":
+          if (((Class<?>) args[0]).isInstance(proxy)) {
+            return true;
+          }
+          break;
+        default:
+          break;
+      }
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getTargetException();
+      } finally {
+        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+          permits.release();
+        }
+      }
+    }
+  }
+}
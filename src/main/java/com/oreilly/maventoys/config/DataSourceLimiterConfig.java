@@ -0,0 +1,49 @@
+package com.oreilly.maventoys.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts a {@link ConcurrencyLimitedDataSource} in front of the connection pool when
+ * {@code datasource.limiter.enabled} is set, as it is by the {@code virtual-threads} profile.
+ *
+ * <p>On platform threads the Tomcat pool already bounds the requests that can reach the database. On virtual threads
+ * that bound is gone, and the limiter takes its place: {@code datasource.limiter.max-concurrency} (the Hikari pool
+ * size by default) requests hold a connection at once, and the rest wait up to
+ * {@code datasource.limiter.acquire-timeout}.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.limiter.enabled", havingValue = "true")
+public class DataSourceLimiterConfig {
+
+  /**
+   * Wraps the application data source once it is created. Declared static so that it is registered before any
+   * data source is instantiated.
+   *
+   * @param environment source of the limiter settings.
+   *
+   * @return the post processor wrapping the data source.
+   */
+  @Bean
+  public static BeanPostProcessor dataSourceLimiter(final Environment environment) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+          return bean;
+        }
+        int maxConcurrency = environment.getProperty("datasource.limiter.max-concurrency", Integer.class,
+            environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        Duration acquireTimeout = environment.getProperty("datasource.limiter.acquire-timeout", Duration.class,
+            Duration.ofSeconds(5));
+        return new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, acquireTimeout);
+      }
+    };
+  }
+}
@@ -0,0 +1,46 @@
+package com.oreilly.maventoys.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Declares the executors that run parts of one request concurrently.
+ *
+ * <p>Independent lookups each get their own virtual thread, so a task blocked on the database costs no platform
+ * thread and the executor needs no sizing; the connection pool remains the limit on concurrent queries. Sales reports
+ * split their work recursively and run on a fork/join pool whose parallelism bounds the connections one report
+ * holds.</p>
+ *
+ * @see com.oreilly.maventoys.service.StoreDashboardService
+ * @see com.oreilly.maventoys.service.SalesReportService
+ */
+@Configuration
+public class ExecutorConfig {
+
+  /**
+   * Creates the virtual-thread-per-task executor, shut down with the application context.
+   *
+   * @return the executor.
+   */
+  @Bean(destroyMethod = "close")
+  public ExecutorService virtualThreadExecutor() {
+    return Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  /**
+   * Creates the pool the chunks of sales reports are read and merged on, shut down with the application context.
+   *
+   * @param parallelism number of chunks read at once, across all reports.
+   *
+   * @return the pool.
+   */
+  @Bean(destroyMethod = "close")
+  public ForkJoinPool salesReportPool(@Value("${sales.report.parallelism:4}") final int parallelism) {
+    return new ForkJoinPool(parallelism);
+  }
+}
@@ -0,0 +1,19 @@
+package com.oreilly.maventoys.config;
+
+import com.oreilly.maventoys.repository.PagedSpecificationRepository;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Enables the Spring Data JPA repositories with {@link PagedSpecificationRepository} as their base class.
+ * <p>
+ * Kept out of the application class so that test slices without JPA, such as {@code @WebMvcTest}, do not try to
+ * create the repositories. Data JPA test slices import it through
+ * {@code META-INF/spring/org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa.imports}.
+ * </p>
+ */
+@Configuration
+@EnableJpaRepositories(basePackageClasses = PagedSpecificationRepository.class,
+    repositoryBaseClass = PagedSpecificationRepository.class)
+public class JpaRepositoriesConfig {
+}
@@ -0,0 +1,52 @@
+package com.oreilly.maventoys.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the service method metrics: the {@link SqlStatementCounter} is installed as Hibernate's statement inspector,
+ * and the {@link ServiceMetricsAspect} publishes a timer and a statement count per service method to the Micrometer
+ * registry, from where actuator serves them at {@code /actuator/metrics} and {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+  /**
+   * Creates the inspector counting the statements Hibernate prepares.
+   *
+   * @return the statement counter.
+   */
+  @Bean
+  public SqlStatementCounter sqlStatementCounter() {
+    return new SqlStatementCounter();
+  }
+
+  /**
+   * Installs the statement counter in the session factory.
+   *
+   * @param sqlStatementCounter the statement counter.
+   *
+   * @return the customizer adding the statement inspector to the Hibernate properties.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer statementInspectorCustomizer(final SqlStatementCounter sqlStatementCounter) {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+  }
+
+  /**
+   * Creates the aspect recording the service method metrics.
+   *
+   * @param registry            registry the meters are published to.
+   * @param sqlStatementCounter the statement counter.
+   *
+   * @return the aspect.
+   */
+  @Bean
+  public ServiceMetricsAspect serviceMetricsAspect(final MeterRegistry registry,
+                                                   final SqlStatementCounter sqlStatementCounter) {
+    return new ServiceMetricsAspect(registry, sqlStatementCounter);
+  }
+}
@@ -0,0 +1,15 @@
+package com.oreilly.maventoys.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables Spring's scheduled task execution, used to periodically reconcile the in-memory leaderboards with the
+ * database.
+ *
+ * @see com.oreilly.maventoys.service.LeaderboardService#reconcile()
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,102 @@
+package com.oreilly.maventoys.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the product, sale, store, employee and category services and records how many SQL
+ * statements each call issued.
+ *
+ * <p>Each call is recorded under the {@value #TIMER} timer and the {@value #STATEMENTS} distribution summary, both
+ * tagged with the service class, the method and the exception thrown ({@code none} on success). A method whose
+ * statement count grows with the size of its result shows up as a rising maximum or mean of
+ * {@value #STATEMENTS}, which is how N+1 regressions are spotted.</p>
+ *
+ * <p>The aspect runs outside the transaction advice, so statements flushed at commit are counted against the method
+ * that committed. Calls between methods of the same service are not intercepted and count towards the caller.</p>
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+  /**
+   * Name of the timer of service method calls.
+   */
+  public static final String TIMER = "maventoys.service.calls";
+
+  /**
+   * Name of the distribution of SQL statements per service method call.
+   */
+  public static final String STATEMENTS = "maventoys.service.sql.statements";
+
+  /**
+   * Registry the meters are published to.
+   */
+  private final MeterRegistry registry;
+
+  /**
+   * Source of the per-thread statement counts.
+   */
+  private final SqlStatementCounter statementCounter;
+
+  /**
+   * Constructs a new ServiceMetricsAspect.
+   *
+   * @param newRegistry         registry the meters are published to.
+   * @param newStatementCounter the inspector counting Hibernate statements.
+   */
+  public ServiceMetricsAspect(final MeterRegistry newRegistry, final SqlStatementCounter newStatementCounter) {
+    this.registry = newRegistry;
+    this.statementCounter = newStatementCounter;
+  }
+
+  /**
+   * Times a service method call and records the statements it issued.
+   *
+   * @param call the intercepted call.
+   *
+   * @return the value returned by the method.
+   *
+   * @throws Throwable whatever the method throws, unchanged.
+   */
+  @Around("execution(public * com.oreilly.maventoys.service.ProductService.*(..))"
+      + " || execution(public * com.oreilly.maventoys.service.SaleService.*(..))"
+      + " || execution(public * com.oreilly.maventoys.service.StoreService.*(..))"
+      + " || execution(public * com.oreilly.maventoys.service.EmployeeService.*(..))"
+      + " || execution(public * com.oreilly.maventoys.service.CategoryService.*(..))")
+  public Object measure(final ProceedingJoinPoint call) throws Throwable {
+    long statementsBefore = statementCounter.count();
+    long start = System.nanoTime();
+    String exception = "none";
+    try {
+      return call.proceed();
+    } catch (Throwable error) {
+      exception = error.getClass().getSimpleName();
+      throw error;
+    } finally {
+      long elapsed = System.nanoTime() - start;
+      Tags tags = Tags.of("class", call.getSignature().getDeclaringType().getSimpleName(),
+                          "method", call.getSignature().getName(), "exception", exception);
+      Timer.builder(TIMER)
+          .description("Time spent in service methods")
+          .tags(tags)
+          .register(registry)
+          .record(elapsed, TimeUnit.NANOSECONDS);
+      DistributionSummary.builder(STATEMENTS)
+          .description("SQL statements prepared by Hibernate per service method call")
+          .baseUnit("statements")
+          .tags(tags)
+          .register(registry)
+          .record(statementCounter.count() - statementsBefore);
+    }
+  }
+}
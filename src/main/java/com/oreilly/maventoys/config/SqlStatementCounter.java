@@ -0,0 +1,36 @@
+package com.oreilly.maventoys.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread.
+ *
+ * <p>Hibernate passes every statement it prepares through this inspector, including flushes and lazy loads, on the
+ * thread that triggers it; callers read {@link #count()} before and after a unit of work to learn how many
+ * statements it issued. Statements prepared directly on a JDBC connection, such as the batches run through
+ * {@code Session.doWork}, do not pass through Hibernate and are not counted. The SQL itself is left unchanged.</p>
+ *
+ * @see ServiceMetricsAspect
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+  /**
+   * Statements prepared so far by the current thread.
+   */
+  private final ThreadLocal<long[]> counts = ThreadLocal.withInitial(() -> new long[1]);
+
+  @Override
+  public String inspect(final String sql) {
+    counts.get()[0]++;
+    return sql;
+  }
+
+  /**
+   * Returns the number of statements the current thread has prepared so far.
+   *
+   * @return the running count; only differences between two reads are meaningful.
+   */
+  public long count() {
+    return counts.get()[0];
+  }
+}
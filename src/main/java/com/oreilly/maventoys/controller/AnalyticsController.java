@@ -0,0 +1,67 @@
+package com.oreilly.maventoys.controller;
+
+import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.model.DTO.SalesReportDTO;
+import com.oreilly.maventoys.service.SalesFactCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Controller for ad-hoc sales analytics answered from the in-memory {@link SalesFactCache}, without touching the
+ * database. Only present when {@code analytics.facts.enabled=true}.
+ */
+@RestController
+@RequestMapping(value = "/analytics", produces = "application/json")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "analytics.facts.enabled", havingValue = "true")
+@Tag(name = "Analytics", description = "Sales analytics over the in-memory sales facts.")
+public class AnalyticsController {
+
+  /**
+   * Injected columnar copy of the sales and invoice lines.
+   */
+  private final SalesFactCache salesFactCache;
+
+  /**
+   * Groups the revenue, sales and units of the invoice lines matching every given filter.
+   *
+   * @param by         what the report is grouped by.
+   * @param storeId    The store of the lines, or any store if absent.
+   * @param employeeId The employee of the lines, or any employee if absent.
+   * @param productId  The product of the lines, or any product if absent.
+   * @param categoryId The category of the lines, or any category if absent.
+   * @param startDate  The first day of the lines, or no lower bound if absent.
+   * @param endDate    The last day of the lines, included, or no upper bound if absent.
+   *
+   * @return ResponseEntity containing an ApiResponse with one SalesReportDTO per store, employee, product, category
+   * or day.
+   */
+  @Operation(summary = "Group sales by store, employee, product, category or day with optional filters")
+  @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Grouped sales.", content = {
+      @Content(mediaType = "application/json")})})
+  @GetMapping("/sales")
+  public ResponseEntity<CustomApiResponse<List<SalesReportDTO>>> getSales(
+      @RequestParam(value = "by", defaultValue = "STORE") final SalesFactCache.GroupBy by,
+      @RequestParam(value = "storeId", required = false) final Integer storeId,
+      @RequestParam(value = "employeeId", required = false) final Integer employeeId,
+      @RequestParam(value = "productId", required = false) final Integer productId,
+      @RequestParam(value = "categoryId", required = false) final Integer categoryId,
+      @RequestParam(value = "startDate", required = false) final LocalDate startDate,
+      @RequestParam(value = "endDate", required = false) final LocalDate endDate) {
+    return ResponseEntity.ok(salesFactCache.scan(by, new SalesFactCache.Filter(storeId, employeeId, productId,
+                                                                                categoryId, startDate, endDate)));
+  }
+}
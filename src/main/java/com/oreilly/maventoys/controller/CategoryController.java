@@ -3,16 +3,19 @@ package com.oreilly.maventoys.controller;
 import com.oreilly.maventoys.model.DTO.CategoryDTO;
 import com.oreilly.maventoys.model.DTO.ProductDTO;
 import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.repository.CountMode;
 import com.oreilly.maventoys.service.CategoryService;
+import com.oreilly.maventoys.service.TableVersions;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -22,6 +25,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -42,22 +46,40 @@ public class CategoryController {
    */
   private final CategoryService categoryService;
 
+  /**
+   * Modification counters the listings below derive their {@code ETag} and {@code Last-Modified} headers from.
+   */
+  private final TableVersions tableVersions;
+
+  /**
+   * Serialized body of {@code GET /categories}, rebuilt once the categories table version changes.
+   */
+  private final SerializedResponseCache responseCache;
+
 
   /**
-   * Retrieves all categories.
+   * Retrieves all categories, or {@code 304 Not Modified} if no category has been written since the version the
+   * client holds.
    *
-   * @return A list of all CategoryDTOs wrapped in an ApiResponse.
+   * @param request the request, whose {@code If-None-Match} or {@code If-Modified-Since} header is checked first.
+   *
+   * @return A list of all CategoryDTOs wrapped in an ApiResponse, as cached JSON bytes.
    */
   @Operation(summary = "Retrieve a list of all active categories.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Get all categories",
           content = {
           @Content(mediaType = "application/json")}),
+      @ApiResponse(responseCode = "304", description = "Not modified", content = @Content),
       @ApiResponse(responseCode = "400", description = "Bad Request / ID not " +
           "found", content = @Content)})
   @GetMapping
-  public ResponseEntity<CustomApiResponse<List<CategoryDTO>>> getAllCategories() {
-    return ResponseEntity.ok(categoryService.getAllCategories());
+  public ResponseEntity<byte[]> getAllCategories(final WebRequest request) {
+    TableVersions.Version version = tableVersions.current(TableVersions.Table.CATEGORIES);
+    if (request.checkNotModified(version.etag(), version.lastModified())) {
+      return null;
+    }
+    return responseCache.get("categories", version, categoryService::getAllCategories, request);
   }
 
 
@@ -150,18 +172,25 @@ public class CategoryController {
    * @param size  The number of records per page. If not provided, defaults to 10.
    * @param id    An optional parameter. If provided, the method will return categories with this id.
    * @param name  An optional parameter. If provided, the method will return categories with this name.
+   * @param withTotal        Whether to report the total number of categories; {@code false} skips the count query
+   *                         and returns a slice.
+   * @param approximateTotal Whether an estimate from the table statistics is good enough for the total of an
+   *                         unfiltered listing.
    *
    * @return ResponseEntity containing a paginated ApiResponse of CategoryDTOs.
    */
   @GetMapping("/paged")
-  public ResponseEntity<CustomApiResponse<Page<CategoryDTO>>> getCategoriesPaged(
+  public ResponseEntity<CustomApiResponse<Slice<CategoryDTO>>> getCategoriesPaged(
       @RequestParam(defaultValue = "0") final int page,
       @RequestParam(defaultValue = "10") final int size,
       @RequestParam(value = "id", required = false) final Integer id,
-      @RequestParam(value = "name", required = false) final String name
+      @RequestParam(value = "name", required = false) final String name,
+      @RequestParam(value = "withTotal", defaultValue = "true") final boolean withTotal,
+      @RequestParam(value = "approximateTotal", defaultValue = "false") final boolean approximateTotal
   ) {
     Pageable pageable = PageRequest.of(page, size);
-    CustomApiResponse<Page<CategoryDTO>> response = categoryService.getCategoriesPaged(pageable, id, name);
+    CustomApiResponse<Slice<CategoryDTO>> response =
+        categoryService.getCategoriesPaged(pageable, id, name, CountMode.of(withTotal, approximateTotal));
     return ResponseEntity.ok(response);
   }
 
@@ -177,11 +206,19 @@ public class CategoryController {
    * Usage is intended for clients requiring a report of sales by category where each category
    * is active and the total sales are calculated from associated active products.
    *
+   * @param request the request; {@code 304 Not Modified} is returned without a query if no category, product or
+   *                sale has been written since the version the client holds.
+   *
    * @return a CustomApiResponse containing a list of CategoryDTOs representing the sales data.
    */
   @GetMapping("/sales")
-  public CustomApiResponse<List<CategoryDTO>> getCategorySales() {
-    return categoryService.getCategorySales();
+  public ResponseEntity<CustomApiResponse<List<CategoryDTO>>> getCategorySales(final WebRequest request) {
+    TableVersions.Version version = tableVersions.current(TableVersions.Table.CATEGORIES, TableVersions.Table.PRODUCTS,
+        TableVersions.Table.SALES);
+    if (request.checkNotModified(version.etag(), version.lastModified())) {
+      return null;
+    }
+    return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(categoryService.getCategorySales());
   }
 
 
@@ -3,7 +3,10 @@ package com.oreilly.maventoys.controller;
 import com.oreilly.maventoys.model.DTO.EmployeeDTO;
 import com.oreilly.maventoys.model.DTO.SaleDTO;
 import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.repository.CountMode;
+import com.oreilly.maventoys.repository.specifications.MatchMode;
 import com.oreilly.maventoys.service.EmployeeService;
+import com.oreilly.maventoys.service.TableVersions;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,6 +16,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -23,6 +28,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -45,6 +51,11 @@ public class EmployeeController {
    */
   private final EmployeeService employeeService;
 
+  /**
+   * Modification counters the listings below derive their {@code ETag} and {@code Last-Modified} headers from.
+   */
+  private final TableVersions tableVersions;
+
 
   /**
    * Retrieves a list of all active employees.
@@ -177,6 +188,11 @@ public class EmployeeController {
    *                  applied.
    * @param lastName  an optional parameter to filter by employees' last names. If not provided, this filter is not
    *                  applied.
+   * @param match     how the names are matched: {@code CONTAINS} (default) or {@code PREFIX}, which uses an index.
+   * @param withTotal        Whether to report the total number of employees; {@code false} skips the count query
+   *                         and returns a slice.
+   * @param approximateTotal Whether an estimate from the table statistics is good enough for the total of an
+   *                         unfiltered listing.
    *
    * @return a {@link ResponseEntity} containing a {@link CustomApiResponse} with a {@link Page} of {@link EmployeeDTO},
    * indicating the current slice of data depending on the pagination and any applied filters. The response is
@@ -194,15 +210,18 @@ public class EmployeeController {
                          @ApiResponse(responseCode = "400", description = "Bad Request / ID not " +
                              "found", content = @Content)})
   @GetMapping("/paged")
-  public ResponseEntity<CustomApiResponse<Page<EmployeeDTO>>> getActiveEmployeesPaged(
+  public ResponseEntity<CustomApiResponse<Slice<EmployeeDTO>>> getActiveEmployeesPaged(
       @RequestParam(value = "page", defaultValue = "0") final int page,
       @RequestParam(value = "limit", defaultValue = "10") final int limit,
       @RequestParam(value = "id", required = false) final Integer id,
       @RequestParam(value = "firstName", required = false) final String firstName,
-      @RequestParam(value = "lastName", required = false) final String lastName) {
+      @RequestParam(value = "lastName", required = false) final String lastName,
+      @RequestParam(value = "match", defaultValue = "CONTAINS") final MatchMode match,
+      @RequestParam(value = "withTotal", defaultValue = "true") final boolean withTotal,
+      @RequestParam(value = "approximateTotal", defaultValue = "false") final boolean approximateTotal) {
     Pageable pageable = PageRequest.of(page, limit);
-    CustomApiResponse<Page<EmployeeDTO>> response =
-        employeeService.getAllEmployeesPaged(pageable, id, firstName, lastName);
+    CustomApiResponse<Slice<EmployeeDTO>> response = employeeService.getAllEmployeesPaged(
+        pageable, id, firstName, lastName, match, CountMode.of(withTotal, approximateTotal));
     return ResponseEntity.ok(response);
   }
 
@@ -215,14 +234,21 @@ public class EmployeeController {
    * with an HTTP status code of 200 (OK), indicating successful retrieval of the data.
    * </p>
    *
+   * @param request the request; {@code 304 Not Modified} is returned without a lookup if no employee or sale has been
+   *                written since the version the client holds.
+   *
    * @return a {@link ResponseEntity} containing a list of {@link EmployeeDTO}s representing the top sellers,
    * along with an HTTP 200 (OK) status code. Each {@link EmployeeDTO} includes employee details
    * and their sales performance metrics.
    */
   @GetMapping("/top-sellers")
-  public ResponseEntity<List<EmployeeDTO>> getTopSellers() {
+  public ResponseEntity<List<EmployeeDTO>> getTopSellers(final WebRequest request) {
+    TableVersions.Version version = tableVersions.current(TableVersions.Table.EMPLOYEES, TableVersions.Table.SALES);
+    if (request.checkNotModified(version.etag(), version.lastModified())) {
+      return null;
+    }
     List<EmployeeDTO> topSellers = (List<EmployeeDTO>) employeeService.getTopSellers();
-    return ResponseEntity.ok(topSellers);
+    return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(topSellers);
   }
 
 }
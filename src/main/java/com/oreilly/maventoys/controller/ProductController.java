@@ -3,17 +3,21 @@ package com.oreilly.maventoys.controller;
 import com.oreilly.maventoys.model.DTO.ProductDTO;
 import com.oreilly.maventoys.model.DTO.SaleDTO;
 import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.repository.CountMode;
+import com.oreilly.maventoys.repository.specifications.MatchMode;
 import com.oreilly.maventoys.model.DTO.StockResponse;
 import com.oreilly.maventoys.service.ProductService;
+import com.oreilly.maventoys.service.TableVersions;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -24,6 +28,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -43,21 +48,38 @@ public class ProductController {
    */
   private final ProductService productService;
 
+  /**
+   * Modification counters the listings below derive their {@code ETag} and {@code Last-Modified} headers from.
+   */
+  private final TableVersions tableVersions;
+
+  /**
+   * Serialized body of {@code GET /products}, rebuilt once the products table version changes.
+   */
+  private final SerializedResponseCache responseCache;
+
 
   /**
-   * Retrieves a list of all active products.
+   * Retrieves a list of all active products, or {@code 304 Not Modified} if no product has been written since the
+   * version the client holds.
    *
-   * @return ResponseEntity containing an ApiResponse with a list of ProductDTOs.
+   * @param request the request, whose {@code If-None-Match} or {@code If-Modified-Since} header is checked first.
+   *
+   * @return ResponseEntity containing an ApiResponse with a list of ProductDTOs, as cached JSON bytes.
    */
   @Operation(summary = "Retrieve a list of all active products")
   @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Get all products", content = {
       @Content(mediaType = "application/json")}),
+                         @ApiResponse(responseCode = "304", description = "Not modified", content = @Content),
                          @ApiResponse(responseCode = "400", description = "Bad Request / ID not " +
                              "found", content = @Content)})
   @GetMapping
-  public ResponseEntity<CustomApiResponse<List<ProductDTO>>> getActiveProducts() {
-    CustomApiResponse<List<ProductDTO>> response = productService.getProducts();
-    return ResponseEntity.ok(response);
+  public ResponseEntity<byte[]> getActiveProducts(final WebRequest request) {
+    TableVersions.Version version = tableVersions.current(TableVersions.Table.PRODUCTS);
+    if (request.checkNotModified(version.etag(), version.lastModified())) {
+      return null;
+    }
+    return responseCache.get("products", version, productService::getProducts, request);
   }
 
   /**
@@ -205,6 +227,11 @@ public class ProductController {
    * @param limit The number of records per page. If not provided, defaults to 10.
    * @param id    An optional parameter. If provided, the method will return products with this id.
    * @param name  An optional parameter. If provided, the method will return products with this name.
+   * @param match How the name is matched: {@code CONTAINS} (default) or {@code PREFIX}, which uses an index.
+   * @param withTotal        Whether to report the total number of products; {@code false} skips the count query
+   *                         and returns a slice.
+   * @param approximateTotal Whether an estimate from the table statistics is good enough for the total of an
+   *                         unfiltered listing.
    *
    * @return ResponseEntity containing a paginated ApiResponse of ProductDTOs.
    *
@@ -217,12 +244,16 @@ public class ProductController {
                          @ApiResponse(responseCode = "400", description = "Bad Request / ID not " +
                              "found", content = @Content)})
   @GetMapping("/paged")
-  public ResponseEntity<CustomApiResponse<Page<ProductDTO>>> getProductsPaged(
+  public ResponseEntity<CustomApiResponse<Slice<ProductDTO>>> getProductsPaged(
       @RequestParam(defaultValue = "0") final int page, @RequestParam(defaultValue = "10") final int limit,
       @RequestParam(value = "id", required = false) final Integer id,
-      @RequestParam(value = "name", required = false) final String name) {
+      @RequestParam(value = "name", required = false) final String name,
+      @RequestParam(value = "match", defaultValue = "CONTAINS") final MatchMode match,
+      @RequestParam(value = "withTotal", defaultValue = "true") final boolean withTotal,
+      @RequestParam(value = "approximateTotal", defaultValue = "false") final boolean approximateTotal) {
     Pageable pageable = PageRequest.of(page, limit);
-    CustomApiResponse<Page<ProductDTO>> response = productService.getAllProductsPag(pageable, id, name);
+    CustomApiResponse<Slice<ProductDTO>> response =
+        productService.getAllProductsPag(pageable, id, name, match, CountMode.of(withTotal, approximateTotal));
     return ResponseEntity.ok(response);
   }
 
@@ -236,6 +267,8 @@ public class ProductController {
    *
    * @param categoryId The category ID for which the best-selling products are requested, passed as a query parameter.
    *                   This must be a valid integer value that corresponds to an existing category in the database.
+   * @param request    the request; {@code 304 Not Modified} is returned without a lookup if no product or sale has
+   *                   been written since the version the client holds.
    *
    * @return A {@link CustomApiResponse} containing the HTTP status {@link}, a message indicating
    * the successful retrieval of best sellers, and the list of {@link ProductDTO} objects representing the
@@ -243,8 +276,14 @@ public class ProductController {
    * by clients of the API, ensuring they receive both the data and the context of the request's outcome.
    */
   @GetMapping("/category/best-sellers")
-  public CustomApiResponse<List<ProductDTO>> getBestSellersByCategory(final @RequestParam int categoryId) {
-    return productService.getBestSellersByCategory(categoryId);
+  public ResponseEntity<CustomApiResponse<List<ProductDTO>>> getBestSellersByCategory(
+      final @RequestParam int categoryId, final WebRequest request) {
+    TableVersions.Version version = tableVersions.current(TableVersions.Table.PRODUCTS, TableVersions.Table.SALES);
+    if (request.checkNotModified(version.etag(), version.lastModified())) {
+      return null;
+    }
+    return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+        .body(productService.getBestSellersByCategory(categoryId));
   }
 
 
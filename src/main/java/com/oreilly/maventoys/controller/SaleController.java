@@ -2,17 +2,27 @@ package com.oreilly.maventoys.controller;
 
 
 import com.oreilly.maventoys.model.DTO.SaleDTO;
+import com.oreilly.maventoys.model.DTO.SalesReportDTO;
 import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.repository.CountMode;
+import com.oreilly.maventoys.repository.specifications.SaleCursor;
+import com.oreilly.maventoys.service.SaleBulkService;
+import com.oreilly.maventoys.service.SaleExportService;
 import com.oreilly.maventoys.service.SaleService;
+import com.oreilly.maventoys.service.SalesReportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -22,9 +32,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * Controller for managing sales transactions within the MavenToys application.
@@ -42,11 +60,133 @@ public class SaleController {
    */
   private final SaleService saleService;
 
+  /**
+   * Injected service for bulk sale ingestion.
+   */
+  private final SaleBulkService saleBulkService;
 
   /**
-   * Retrieves a paginated list of all sales transactions.
+   * Injected service for date-ranged sales reports.
+   */
+  private final SalesReportService salesReportService;
+
+  /**
+   * Injected service for streaming sale exports.
+   */
+  private final SaleExportService saleExportService;
+
+  /**
+   * How long a streaming export may run before its request times out.
+   */
+  @Value("${sales.export.timeout:PT10M}")
+  private Duration exportTimeout;
+
+
+  /**
+   * Streams sales transactions within a specified date range as newline-delimited JSON. Rows are written as they are
+   * read from the database, so memory use does not depend on the size of the range.
+   *
+   * @param startDate The start date of the range.
+   * @param endDate   The end date of the range.
+   * @param request   The current request, whose async timeout is raised to {@code sales.export.timeout}.
    *
-   * @param pageable Pagination details.
+   * @return ResponseEntity whose body writes the rows directly to the response.
+   */
+  @Operation(summary = "Stream sales by date as NDJSON")
+  @ApiResponses(value = {
+      @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Sales streamed.",
+          content = {
+          @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE)}),
+      @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Bad Request",
+          content = @Content)})
+  @GetMapping(value = "/byDateRange", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamSalesByDateRangeAsNdjson(
+      @RequestParam("startDate") final LocalDate startDate, @RequestParam("endDate") final LocalDate endDate,
+      final HttpServletRequest request) {
+    return streamSales(startDate, endDate, SaleExportService.Format.NDJSON, MediaType.APPLICATION_NDJSON, request);
+  }
+
+  /**
+   * Streams sales transactions within a specified date range as CSV with a header row. Rows are written as they are
+   * read from the database, so memory use does not depend on the size of the range.
+   *
+   * @param startDate The start date of the range.
+   * @param endDate   The end date of the range.
+   * @param request   The current request, whose async timeout is raised to {@code sales.export.timeout}.
+   *
+   * @return ResponseEntity whose body writes the rows directly to the response.
+   */
+  @Operation(summary = "Stream sales by date as CSV")
+  @ApiResponses(value = {
+      @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Sales streamed.",
+          content = {
+          @Content(mediaType = SaleExportService.TEXT_CSV_VALUE)}),
+      @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Bad Request",
+          content = @Content)})
+  @GetMapping(value = "/byDateRange", produces = SaleExportService.TEXT_CSV_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamSalesByDateRangeAsCsv(
+      @RequestParam("startDate") final LocalDate startDate, @RequestParam("endDate") final LocalDate endDate,
+      final HttpServletRequest request) {
+    return streamSales(startDate, endDate, SaleExportService.Format.CSV,
+                       MediaType.parseMediaType(SaleExportService.TEXT_CSV_VALUE), request);
+  }
+
+  /**
+   * Builds the streaming response of an export and gives this request, and no other, the export timeout instead of
+   * the default async request timeout.
+   */
+  private ResponseEntity<StreamingResponseBody> streamSales(final LocalDate startDate, final LocalDate endDate,
+                                                            final SaleExportService.Format format,
+                                                            final MediaType mediaType,
+                                                            final HttpServletRequest request) {
+    WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ExportTimeout.class.getName(),
+                                                                       new ExportTimeout(exportTimeout.toMillis()));
+    StreamingResponseBody body = out -> saleExportService.exportSalesByDate(startDate, endDate, format, out);
+    return ResponseEntity.ok().contentType(mediaType).body(body);
+  }
+
+  /**
+   * Sets the timeout of an export on its request just before the export starts writing asynchronously.
+   */
+  private record ExportTimeout(long timeoutMillis) implements CallableProcessingInterceptor {
+
+    @Override
+    public <T> void beforeConcurrentHandling(final NativeWebRequest request, final Callable<T> task) {
+      ((AsyncWebRequest) request).setTimeout(timeoutMillis);
+    }
+  }
+
+  /**
+   * Reports the revenue, sales and units of every store, employee, category or day within a date range.
+   *
+   * @param by        what the report is grouped by.
+   * @param startDate The start date of the range.
+   * @param endDate   The end date of the range, included.
+   *
+   * @return ResponseEntity containing an ApiResponse with one SalesReportDTO per store, employee, category or day.
+   */
+  @Operation(summary = "Report sales by store, employee, category or day within a date range")
+  @ApiResponses(value = {
+      @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = ".", content = {
+          @Content(mediaType = "application/json")}),
+      @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Bad Request",
+          content = @Content)})
+  @GetMapping("/report")
+  public ResponseEntity<CustomApiResponse<List<SalesReportDTO>>> getSalesReport(
+      @RequestParam(value = "by", defaultValue = "STORE") final SalesReportService.Dimension by,
+      @RequestParam("startDate") final LocalDate startDate, @RequestParam("endDate") final LocalDate endDate) {
+    return ResponseEntity.ok(salesReportService.getReport(by, startDate, endDate));
+  }
+
+
+  /**
+   * Retrieves a paginated list of all sales transactions. When {@code after} is present, even empty, the sales are
+   * listed with keyset pagination instead: the response is a slice without a total count, whose
+   * {@code nextCursor} is passed back as {@code after} to fetch the next one.
+   *
+   * @param pageable Pagination details; only the page size is used in keyset mode.
+   * @param after    The continuation token of the previous slice, or empty to start a keyset listing.
+   * @param order    The order of a new keyset listing.
    *
    * @return ResponseEntity containing a paginated ApiResponse of SaleDTOs.
    */
@@ -58,7 +198,13 @@ public class SaleController {
       @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Bad Request / ID not " +
           "found", content = @Content)})
   @GetMapping()
-  public ResponseEntity<CustomApiResponse<Page<SaleDTO>>> getAllSales(final Pageable pageable) {
+  public ResponseEntity<CustomApiResponse<? extends Slice<SaleDTO>>> getAllSales(
+      final Pageable pageable, @RequestParam(value = "after", required = false) final String after,
+      @RequestParam(value = "order", defaultValue = "ID") final SaleCursor.Order order) {
+    if (after != null) {
+      return ResponseEntity.ok(
+          saleService.getSalesAfter(after, order, pageable.getPageSize(), null, null, null));
+    }
     return ResponseEntity.ok(saleService.getAllSales(pageable));
   }
 
@@ -96,13 +242,43 @@ public class SaleController {
           content = {
           @Content(mediaType = "application/json")}),
       @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Bad Request / ID not " +
-          "found", content = @Content)})
+          "found", content = @Content),
+      @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Insufficient stock",
+          content = @Content)})
   @PostMapping
   public ResponseEntity<CustomApiResponse<SaleDTO>> createSale(@RequestBody final SaleDTO saleDTO) {
     return ResponseEntity.status(HttpStatus.CREATED).body(saleService.createSale(saleDTO));
   }
 
 
+  /**
+   * Ingests many sales in a single request. The body is either a JSON array of sales or newline-delimited JSON
+   * (one sale per line) and is parsed incrementally; the response streams one result line per record, in payload
+   * order. A payload found to be malformed before the first chunk completes is refused with a 400; past that point,
+   * the response has already started and instead ends with a single {@code MALFORMED} result giving the index of the
+   * first record that was not saved.
+   *
+   * @param request  the HTTP request whose body holds the sales.
+   * @param response the HTTP response the per-record results are streamed to.
+   *
+   * @throws IOException if reading the request or writing the response fails.
+   */
+  @Operation(summary = "Create many sales from a JSON array or newline-delimited JSON upload")
+  @ApiResponses(value = {
+      @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "One result line per " +
+          "submitted sale.", content = {
+          @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE)}),
+      @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Malformed payload, " +
+          "found before any result was sent", content = @Content)})
+  @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public void createSalesBulk(final HttpServletRequest request, final HttpServletResponse response)
+      throws IOException {
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    saleBulkService.importSales(request.getInputStream(), response.getOutputStream());
+  }
+
+
   /**
    * Updates details of an existing sale identified by its ID.
    *
@@ -149,22 +325,37 @@ public class SaleController {
    * Retrieves a paginated list of all sales transactions.
    *
    * @param page The page number to retrieve.
-   * @param size The number of items per page.
+   * @param size The number of items per page, from 1 to {@link SaleService#MAX_PAGE_SIZE}.
    * @param id The ID of the sale to retrieve.
    * @param storeId The ID of the store to retrieve.
    * @param employeeId The ID of the employee to retrieve.
+   * @param after The continuation token of the previous slice, or empty to start a keyset listing; when present,
+   *              {@code page} is ignored and a slice without a total count is returned.
+   * @param order The order of a new keyset listing.
+   * @param withTotal        Whether to report the total number of sales; {@code false} skips the count query
+   *                         and returns a slice.
+   * @param approximateTotal Whether an estimate from the table statistics is good enough for the total of an
+   *                         unfiltered listing.
    *
    * @return ResponseEntity containing a paginated ApiResponse of SaleDTOs.
    */
   @GetMapping("/paged")
-  public ResponseEntity<CustomApiResponse<Page<SaleDTO>>> getSalesPaged(
+  public ResponseEntity<CustomApiResponse<? extends Slice<SaleDTO>>> getSalesPaged(
       @RequestParam(defaultValue = "0") final int page, @RequestParam(defaultValue = "10") final int size,
       @RequestParam(value = "id", required = false) final Integer id,
       @RequestParam(value = "storeId", required = false) final Integer storeId,
-      @RequestParam(value = "employeeId", required = false) final Integer employeeId) {
+      @RequestParam(value = "employeeId", required = false) final Integer employeeId,
+      @RequestParam(value = "after", required = false) final String after,
+      @RequestParam(value = "order", defaultValue = "ID") final SaleCursor.Order order,
+      @RequestParam(value = "withTotal", defaultValue = "true") final boolean withTotal,
+      @RequestParam(value = "approximateTotal", defaultValue = "false") final boolean approximateTotal) {
+    SaleService.checkPageSize(size);
+    if (after != null) {
+      return ResponseEntity.ok(saleService.getSalesAfter(after, order, size, id, storeId, employeeId));
+    }
     Pageable pageable = PageRequest.of(page, size);
-    CustomApiResponse<Page<SaleDTO>> response = saleService.getAllSalesPaged(pageable, id, storeId, employeeId);
-    return ResponseEntity.ok(response);
+    return ResponseEntity.ok(saleService.getAllSalesPaged(pageable, id, storeId, employeeId,
+                                                          CountMode.of(withTotal, approximateTotal)));
   }
 
 }
@@ -0,0 +1,65 @@
+package com.oreilly.maventoys.controller;
+
+import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.model.DTO.SalesReportDTO;
+import com.oreilly.maventoys.service.SalesTimeSeriesService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Controller for charting sales over time, answered from the in-memory daily sales of
+ * {@link SalesTimeSeriesService}. Unlike the other analytics endpoints, it is always available.
+ */
+@RestController
+@RequestMapping(value = "/analytics/sales", produces = "application/json")
+@RequiredArgsConstructor
+@Tag(name = "Analytics", description = "Sales analytics over the in-memory sales facts.")
+public class SalesTimeSeriesController {
+
+  /**
+   * Injected service holding the daily sales per store and category.
+   */
+  private final SalesTimeSeriesService salesTimeSeriesService;
+
+  /**
+   * Retrieves the revenue, sales and units of a store, a category, both or everything, one point per day, week or
+   * month, over at most {@link SalesTimeSeriesService#MAX_DAYS} days.
+   *
+   * @param storeId    The store, or all stores if absent.
+   * @param categoryId The category, or all categories if absent.
+   * @param bucket     The width of each point: {@code day}, {@code week} or {@code month}.
+   * @param startDate  The first day of the range; a year before {@code endDate} if absent.
+   * @param endDate    The last day of the range, included; today if absent.
+   *
+   * @return ResponseEntity containing an ApiResponse with one SalesReportDTO per bucket, in date order.
+   */
+  @Operation(summary = "Chart sales over time by day, week or month")
+  @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Sales per bucket.", content = {
+      @Content(mediaType = "application/json")}),
+      @ApiResponse(responseCode = "400", description = "Inverted or too long date range", content = @Content)})
+  @GetMapping("/timeseries")
+  public ResponseEntity<CustomApiResponse<List<SalesReportDTO>>> getTimeSeries(
+      @RequestParam(value = "storeId", required = false) final Integer storeId,
+      @RequestParam(value = "categoryId", required = false) final Integer categoryId,
+      @RequestParam(value = "bucket", defaultValue = "day") final String bucket,
+      @RequestParam(value = "startDate", required = false) final LocalDate startDate,
+      @RequestParam(value = "endDate", required = false) final LocalDate endDate) {
+    LocalDate end = endDate == null ? LocalDate.now() : endDate;
+    LocalDate start = startDate == null ? end.minusYears(1).plusDays(1) : startDate;
+    return ResponseEntity.ok(salesTimeSeriesService.getTimeSeries(storeId, categoryId,
+                                                                  SalesTimeSeriesService.Bucket.of(bucket), start,
+                                                                  end));
+  }
+}
@@ -0,0 +1,85 @@
+package com.oreilly.maventoys.controller;
+
+import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.model.DTO.SearchResultDTO;
+import com.oreilly.maventoys.service.NameSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller for the search-as-you-type endpoints over product, store and employee names. Names containing the
+ * term, ignoring case and accents, are returned; names starting with it come first.
+ */
+@RestController
+@RequestMapping(value = "/search", produces = "application/json")
+@RequiredArgsConstructor
+@Tag(name = "Search", description = "Search products, stores and employees by name.")
+public class SearchController {
+
+  /**
+   * Injected service answering name searches from the in-memory index.
+   */
+  private final NameSearchService nameSearchService;
+
+  /**
+   * Searches products by name.
+   *
+   * @param term  The text typed by the user.
+   * @param limit The maximum number of hits.
+   *
+   * @return ResponseEntity containing an ApiResponse with the matching products' IDs and names.
+   */
+  @Operation(summary = "Search products by name")
+  @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Matching products.", content = {
+      @Content(mediaType = "application/json")})})
+  @GetMapping("/products")
+  public ResponseEntity<CustomApiResponse<List<SearchResultDTO>>> searchProducts(
+      @RequestParam("q") final String term, @RequestParam(value = "limit", defaultValue = "10") final int limit) {
+    return ResponseEntity.ok(nameSearchService.search(NameSearchService.Kind.PRODUCT, term, limit));
+  }
+
+  /**
+   * Searches stores by name.
+   *
+   * @param term  The text typed by the user.
+   * @param limit The maximum number of hits.
+   *
+   * @return ResponseEntity containing an ApiResponse with the matching stores' IDs and names.
+   */
+  @Operation(summary = "Search stores by name")
+  @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Matching stores.", content = {
+      @Content(mediaType = "application/json")})})
+  @GetMapping("/stores")
+  public ResponseEntity<CustomApiResponse<List<SearchResultDTO>>> searchStores(
+      @RequestParam("q") final String term, @RequestParam(value = "limit", defaultValue = "10") final int limit) {
+    return ResponseEntity.ok(nameSearchService.search(NameSearchService.Kind.STORE, term, limit));
+  }
+
+  /**
+   * Searches employees by first and last name.
+   *
+   * @param term  The text typed by the user.
+   * @param limit The maximum number of hits.
+   *
+   * @return ResponseEntity containing an ApiResponse with the matching employees' IDs and full names.
+   */
+  @Operation(summary = "Search employees by name")
+  @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Matching employees.", content = {
+      @Content(mediaType = "application/json")})})
+  @GetMapping("/employees")
+  public ResponseEntity<CustomApiResponse<List<SearchResultDTO>>> searchEmployees(
+      @RequestParam("q") final String term, @RequestParam(value = "limit", defaultValue = "10") final int limit) {
+    return ResponseEntity.ok(nameSearchService.search(NameSearchService.Kind.EMPLOYEE, term, limit));
+  }
+}
@@ -0,0 +1,178 @@
+package com.oreilly.maventoys.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oreilly.maventoys.exceptions.GeneralException;
+import com.oreilly.maventoys.service.TableVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of hot JSON responses held already serialized, and gzip-compressed when they are large enough to benefit.
+ * <p>
+ * Each endpoint keeps one entry, tagged with the {@link TableVersions.Version} it was built from. A request carrying
+ * the same version is answered with the cached bytes, which Spring writes to the servlet output stream as they are;
+ * a newer version, which follows any write to the underlying tables, rebuilds the entry. Clients that accept gzip
+ * get the compressed bytes with {@code Content-Encoding: gzip}, so the container does not compress them again.
+ * </p>
+ * <p>
+ * The cached arrays are shared by every response and must not be modified.
+ * </p>
+ */
+@Component
+public class SerializedResponseCache {
+
+  /**
+   * Mapper serializing response bodies, configured like the one used by the message converters.
+   */
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Smallest body, in bytes, that is also held gzip-compressed.
+   */
+  private final int gzipMinSize;
+
+  /**
+   * Latest serialized response of each endpoint.
+   */
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs a new SerializedResponseCache.
+   *
+   * @param newObjectMapper  mapper serializing response bodies.
+   * @param newGzipMinSize   smallest body, in bytes, that is also held gzip-compressed.
+   */
+  public SerializedResponseCache(final ObjectMapper newObjectMapper,
+                                 @Value("${response-cache.gzip-min-size:1024}") final int newGzipMinSize) {
+    this.objectMapper = newObjectMapper;
+    this.gzipMinSize = newGzipMinSize;
+  }
+
+  /**
+   * Returns the serialized response of an endpoint at the given version, building and caching it on a miss.
+   *
+   * @param endpoint name of the endpoint, unique among the callers of this cache.
+   * @param version  version of the data the response is built from, read before the body.
+   * @param body     builds the response body on a miss.
+   * @param request  the request, whose {@code Accept-Encoding} header selects the plain or compressed bytes.
+   *
+   * @return a {@code 200 OK} response holding the cached JSON bytes.
+   *
+   * @throws GeneralException if the body cannot be serialized.
+   */
+  public ResponseEntity<byte[]> get(final String endpoint, final TableVersions.Version version,
+                                    final Supplier<?> body, final WebRequest request) {
+    Entry entry = entries.get(endpoint);
+    if (entry == null || !entry.etag().equals(version.etag())) {
+      entry = serialize(version.etag(), body.get());
+      entries.put(endpoint, entry);
+    }
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .cacheControl(CacheControl.noCache())
+        .contentType(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (entry.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+      return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.gzip());
+    }
+    return response.body(entry.json());
+  }
+
+  /**
+   * Drops every cached response.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * Serializes a body and, if it is large enough, compresses it.
+   *
+   * @param etag the version the body was built from.
+   * @param body the response body.
+   *
+   * @return the new entry.
+   */
+  private Entry serialize(final String etag, final Object body) {
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(body);
+      return new Entry(etag, json, json.length >= gzipMinSize ? gzip(json) : null);
+    } catch (JsonProcessingException error) {
+      throw new GeneralException("Error serializing response: " + "CAUSE: " + error.getMessage());
+    }
+  }
+
+  /**
+   * Compresses bytes with gzip.
+   *
+   * @param bytes the bytes to compress.
+   *
+   * @return the compressed bytes.
+   */
+  private static byte[] gzip(final byte[] bytes) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Tells whether an {@code Accept-Encoding} header admits gzip, either by name or through {@code *}, with a
+   * non-zero quality.
+   *
+   * @param acceptEncoding the header value, or {@code null} if absent.
+   *
+   * @return {@code true} if the compressed bytes may be sent.
+   */
+  static boolean acceptsGzip(final String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      String name = parts[0].trim();
+      if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+        continue;
+      }
+      boolean refused = false;
+      for (int i = 1; i < parts.length; i++) {
+        String parameter = parts[i].trim();
+        if (parameter.startsWith("q=")) {
+          try {
+            refused = Double.parseDouble(parameter.substring(2)) <= 0;
+          } catch (NumberFormatException e) {
+            refused = true;
+          }
+        }
+      }
+      return !refused;
+    }
+    return false;
+  }
+
+  /**
+   * A serialized response.
+   *
+   * @param etag the version it was built from.
+   * @param json the JSON bytes.
+   * @param gzip the gzip-compressed JSON bytes, or {@code null} if the body is too small to compress.
+   */
+  private record Entry(String etag, byte[] json, byte[] gzip) {
+  }
+}
@@ -3,8 +3,13 @@ package com.oreilly.maventoys.controller;
 import com.oreilly.maventoys.model.DTO.EmployeeDTO;
 import com.oreilly.maventoys.model.DTO.SaleDTO;
 import com.oreilly.maventoys.model.DTO.StoreDTO;
+import com.oreilly.maventoys.model.DTO.StoreDashboardDTO;
 import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.repository.CountMode;
+import com.oreilly.maventoys.repository.specifications.MatchMode;
+import com.oreilly.maventoys.service.StoreDashboardService;
 import com.oreilly.maventoys.service.StoreService;
+import com.oreilly.maventoys.service.TableVersions;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -14,9 +19,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -26,6 +33,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -47,23 +55,45 @@ public class StoreController {
    */
   private final StoreService storeService;
 
+  /**
+   * Injected service composing the store dashboard from concurrent lookups.
+   */
+  private final StoreDashboardService storeDashboardService;
+
+  /**
+   * Modification counters the listings below derive their {@code ETag} and {@code Last-Modified} headers from.
+   */
+  private final TableVersions tableVersions;
 
   /**
-   * Retrieve all active stores.
+   * Serialized body of {@code GET /stores}, rebuilt once the stores table version changes.
+   */
+  private final SerializedResponseCache responseCache;
+
+
+  /**
+   * Retrieve all active stores, or {@code 304 Not Modified} if no store has been written since the version the
+   * client holds.
    *
-   * @return ResponseEntity with ApiResponse containing a list of StoreDTOs.
+   * @param request the request, whose {@code If-None-Match} or {@code If-Modified-Since} header is checked first.
+   *
+   * @return ResponseEntity with ApiResponse containing a list of StoreDTOs, as cached JSON bytes.
    */
   @Operation(summary = "Retrieve a list of all active stores")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Get all stores",
           content = {
           @Content(mediaType = "application/json")}),
+      @ApiResponse(responseCode = "304", description = "Not modified", content = @Content),
       @ApiResponse(responseCode = "400", description = "Bad Request / ID not " +
           "found", content = @Content)})
   @GetMapping()
-  public ResponseEntity<CustomApiResponse<List<StoreDTO>>> getActiveStores() {
-    CustomApiResponse<List<StoreDTO>> response = storeService.getStores();
-    return ResponseEntity.ok(response);
+  public ResponseEntity<byte[]> getActiveStores(final WebRequest request) {
+    TableVersions.Version version = tableVersions.current(TableVersions.Table.STORES);
+    if (request.checkNotModified(version.etag(), version.lastModified())) {
+      return null;
+    }
+    return responseCache.get("stores", version, storeService::getStores, request);
   }
 
 
@@ -215,6 +245,27 @@ public class StoreController {
   }
 
 
+  /**
+   * Retrieve everything the store screen shows in one call: the store's details, employees, sales and total sales.
+   * The four lookups run concurrently; a section that fails or times out is left out and named in
+   * {@code unavailable}.
+   *
+   * @param id Store's unique identifier.
+   *
+   * @return ResponseEntity with ApiResponse containing the StoreDashboardDTO.
+   */
+  @Operation(summary = "Retrieve the dashboard of a store by Store ID")
+  @ApiResponses(value = {
+      @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Get the store " +
+          "dashboard", content = {@Content(mediaType = "application/json")}),
+      @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Store not found",
+          content = @Content)})
+  @GetMapping("/{id}/dashboard")
+  public ResponseEntity<CustomApiResponse<StoreDashboardDTO>> getStoreDashboard(final @PathVariable Integer id) {
+    return ResponseEntity.ok(storeDashboardService.getDashboard(id));
+  }
+
+
   /**
    * Retrieves a paginated list of stores based on optional filter parameters.
    * This method supports pagination and filtering by store ID, name, or location.
@@ -227,6 +278,11 @@ public class StoreController {
    *                 stores with this name.
    * @param location Optional. The location of the store. If specified, the method filters the result to include only
    *                stores in this location.
+   * @param match    How the name is matched: {@code CONTAINS} (default) or {@code PREFIX}, which uses an index.
+   * @param withTotal        Whether to report the total number of stores; {@code false} skips the count query
+   *                         and returns a slice.
+   * @param approximateTotal Whether an estimate from the table statistics is good enough for the total of an
+   *                         unfiltered listing.
    *
    * @return ResponseEntity containing a {@link CustomApiResponse} with a {@link Page} of {@link StoreDTO},
    * representing the paginated list of stores. The response is always successful with an HTTP OK status.
@@ -239,13 +295,18 @@ public class StoreController {
       @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Bad Request / ID not " +
           "found", content = @Content)})
   @GetMapping("/paged")
-  public ResponseEntity<CustomApiResponse<Page<StoreDTO>>> getStoresPaged(
+  public ResponseEntity<CustomApiResponse<Slice<StoreDTO>>> getStoresPaged(
       final @RequestParam(defaultValue = "0") int page, final @RequestParam(defaultValue = "10") int size,
       final @RequestParam(required = false) Integer id, final @RequestParam(required = false) String name,
-      final @RequestParam(required = false) String location) {
+      final @RequestParam(required = false) String location,
+      final @RequestParam(defaultValue = "CONTAINS") MatchMode match,
+      final @RequestParam(defaultValue = "true") boolean withTotal,
+      final @RequestParam(defaultValue = "false") boolean approximateTotal) {
 
     Pageable pageable = PageRequest.of(page, size);
-    CustomApiResponse<Page<StoreDTO>> response = storeService.getAllStoresPag(id, name, location, pageable);
+    CustomApiResponse<Slice<StoreDTO>> response =
+        storeService.getAllStoresPag(id, name, location, pageable, match,
+                                     CountMode.of(withTotal, approximateTotal));
     return ResponseEntity.ok(response);
   }
 
@@ -258,10 +319,17 @@ public class StoreController {
    *
    * @return A {@link CustomApiResponse} object that contains a list of {@link StoreDTO} objects, each representing a
    * store's sales data.
+   *
+   * @param request the request; {@code 304 Not Modified} is returned without a lookup if no store or sale has been
+   *                written since the version the client holds.
    */
   @GetMapping("/sales")
-  public CustomApiResponse<List<StoreDTO>> getStoreSales() {
-    return storeService.getStoreSales();
+  public ResponseEntity<CustomApiResponse<List<StoreDTO>>> getStoreSales(final WebRequest request) {
+    TableVersions.Version version = tableVersions.current(TableVersions.Table.STORES, TableVersions.Table.SALES);
+    if (request.checkNotModified(version.etag(), version.lastModified())) {
+      return null;
+    }
+    return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(storeService.getStoreSales());
   }
 
 
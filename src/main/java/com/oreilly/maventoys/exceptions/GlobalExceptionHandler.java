@@ -5,6 +5,7 @@ import com.oreilly.maventoys.model.CustomApiResponse;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.Getter;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -50,5 +51,86 @@ public class GlobalExceptionHandler {
     CustomApiResponse<ApiError> customApiResponse = new CustomApiResponse<>("Entity not found", apiError);
     return new ResponseEntity<>(customApiResponse, HttpStatus.NOT_FOUND);
   }
-}
 
+  /**
+   * Handles malformed continuation tokens sent to keyset-paginated listings.
+   *
+   * @param invalidCursor The caught InvalidCursor exception.
+   *
+   * @return A {@link ResponseEntity} containing an {@link CustomApiResponse} with a BAD_REQUEST status and the
+   * error details.
+   */
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  @ExceptionHandler(InvalidCursor.class)
+  public ResponseEntity<CustomApiResponse<ApiError>> invalidCursor(final InvalidCursor invalidCursor) {
+    ApiError apiError = new ApiError(invalidCursor.getMessage());
+    CustomApiResponse<ApiError> customApiResponse = new CustomApiResponse<>("Invalid cursor", apiError);
+    return new ResponseEntity<>(customApiResponse, HttpStatus.BAD_REQUEST);
+  }
+
+  /**
+   * Handles page sizes outside the range a listing accepts.
+   *
+   * @param invalidPageSize The caught InvalidPageSize exception.
+   *
+   * @return A {@link ResponseEntity} containing an {@link CustomApiResponse} with a BAD_REQUEST status and the
+   * error details.
+   */
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  @ExceptionHandler(InvalidPageSize.class)
+  public ResponseEntity<CustomApiResponse<ApiError>> invalidPageSize(final InvalidPageSize invalidPageSize) {
+    ApiError apiError = new ApiError(invalidPageSize.getMessage());
+    CustomApiResponse<ApiError> customApiResponse = new CustomApiResponse<>("Invalid page size", apiError);
+    return new ResponseEntity<>(customApiResponse, HttpStatus.BAD_REQUEST);
+  }
+
+  /**
+   * Handles date ranges that are inverted, incomplete or too long.
+   *
+   * @param invalidDateRange The caught InvalidDateRange exception.
+   *
+   * @return A {@link ResponseEntity} containing an {@link CustomApiResponse} with a BAD_REQUEST status and the
+   * error details.
+   */
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  @ExceptionHandler(InvalidDateRange.class)
+  public ResponseEntity<CustomApiResponse<ApiError>> invalidDateRange(final InvalidDateRange invalidDateRange) {
+    ApiError apiError = new ApiError(invalidDateRange.getMessage());
+    CustomApiResponse<ApiError> customApiResponse = new CustomApiResponse<>("Invalid date range", apiError);
+    return new ResponseEntity<>(customApiResponse, HttpStatus.BAD_REQUEST);
+  }
+
+  /**
+   * Handles uploads that could not be read before any part of the response was sent. The content type is set
+   * explicitly, as the failing endpoint may only produce newline-delimited JSON.
+   *
+   * @param malformedPayload The caught MalformedPayload exception.
+   *
+   * @return A {@link ResponseEntity} containing an {@link CustomApiResponse} with a BAD_REQUEST status and the
+   * error details.
+   */
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  @ExceptionHandler(MalformedPayload.class)
+  public ResponseEntity<CustomApiResponse<ApiError>> malformedPayload(final MalformedPayload malformedPayload) {
+    ApiError apiError = new ApiError(malformedPayload.getMessage());
+    CustomApiResponse<ApiError> customApiResponse = new CustomApiResponse<>("Malformed payload", apiError);
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+                         .body(customApiResponse);
+  }
+
+  /**
+   * Handles sales rejected because a product does not have enough units on hand.
+   *
+   * @param insufficientStock The caught InsufficientStock exception.
+   *
+   * @return A {@link ResponseEntity} containing an {@link CustomApiResponse} with a CONFLICT status and the error
+   * details.
+   */
+  @ResponseStatus(HttpStatus.CONFLICT)
+  @ExceptionHandler(InsufficientStock.class)
+  public ResponseEntity<CustomApiResponse<ApiError>> insufficientStock(final InsufficientStock insufficientStock) {
+    ApiError apiError = new ApiError(insufficientStock.getMessage());
+    CustomApiResponse<ApiError> customApiResponse = new CustomApiResponse<>("Insufficient stock", apiError);
+    return new ResponseEntity<>(customApiResponse, HttpStatus.CONFLICT);
+  }
+}
@@ -0,0 +1,17 @@
+package com.oreilly.maventoys.exceptions;
+
+/**
+ * Custom exception class that extends {@link RuntimeException}. It signals that a sale asks for more units of one or
+ * more products than are on hand, so the whole sale is rejected.
+ */
+public class InsufficientStock extends RuntimeException {
+  /**
+   * Constructs a new InsufficientStock exception with the specified detail message.
+   *
+   * @param message the detail message. The detail message is saved for later retrieval by the
+   *                {@link Throwable#getMessage()} method.
+   */
+  public InsufficientStock(final String message) {
+    super(message);
+  }
+}
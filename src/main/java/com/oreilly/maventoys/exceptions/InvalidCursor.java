@@ -0,0 +1,17 @@
+package com.oreilly.maventoys.exceptions;
+
+/**
+ * Custom exception class that extends {@link RuntimeException}. It signals that a continuation token sent by a
+ * client to resume a keyset-paginated listing is malformed or was not issued by this application.
+ */
+public class InvalidCursor extends RuntimeException {
+  /**
+   * Constructs a new InvalidCursor exception with the specified detail message.
+   *
+   * @param message the detail message. The detail message is saved for later retrieval by the
+   *                {@link Throwable#getMessage()} method.
+   */
+  public InvalidCursor(final String message) {
+    super(message);
+  }
+}
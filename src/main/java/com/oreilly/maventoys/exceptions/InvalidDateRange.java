@@ -0,0 +1,17 @@
+package com.oreilly.maventoys.exceptions;
+
+/**
+ * Custom exception class that extends {@link RuntimeException}. It signals that a client asked for a date range that
+ * is inverted, incomplete or longer than an endpoint allows.
+ */
+public class InvalidDateRange extends RuntimeException {
+  /**
+   * Constructs a new InvalidDateRange exception with the specified detail message.
+   *
+   * @param message the detail message. The detail message is saved for later retrieval by the
+   *                {@link Throwable#getMessage()} method.
+   */
+  public InvalidDateRange(final String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,17 @@
+package com.oreilly.maventoys.exceptions;
+
+/**
+ * Custom exception class that extends {@link RuntimeException}. It signals that a client asked for a page or slice
+ * with fewer than one element or more than a listing allows.
+ */
+public class InvalidPageSize extends RuntimeException {
+  /**
+   * Constructs a new InvalidPageSize exception with the specified detail message.
+   *
+   * @param message the detail message. The detail message is saved for later retrieval by the
+   *                {@link Throwable#getMessage()} method.
+   */
+  public InvalidPageSize(final String message) {
+    super(message);
+  }
+}
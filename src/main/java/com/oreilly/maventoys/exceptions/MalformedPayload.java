@@ -0,0 +1,17 @@
+package com.oreilly.maventoys.exceptions;
+
+/**
+ * Custom exception class that extends {@link RuntimeException}. It signals that an uploaded payload could not be
+ * read, before any part of the response was sent.
+ */
+public class MalformedPayload extends RuntimeException {
+  /**
+   * Constructs a new MalformedPayload exception with the specified detail message.
+   *
+   * @param message the detail message. The detail message is saved for later retrieval by the
+   *                {@link Throwable#getMessage()} method.
+   */
+  public MalformedPayload(final String message) {
+    super(message);
+  }
+}
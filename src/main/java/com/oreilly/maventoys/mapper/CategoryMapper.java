@@ -2,8 +2,10 @@ package com.oreilly.maventoys.mapper;
 
 import com.oreilly.maventoys.model.DTO.CategoryDTO;
 import com.oreilly.maventoys.model.entity.Category;
+import com.oreilly.maventoys.repository.projections.CategorySummary;
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValueCheckStrategy;
 import org.mapstruct.NullValuePropertyMappingStrategy;
@@ -27,6 +29,16 @@ public interface CategoryMapper {
    */
   CategoryDTO categoryToCategoryDTO(Category category);
 
+  /**
+   * Converts a read-only CategorySummary projection to a CategoryDTO.
+   *
+   * @param summary The projection to convert.
+   *
+   * @return The converted CategoryDTO.
+   */
+  @Mapping(target = "totalSales", ignore = true)
+  CategoryDTO categorySummaryToCategoryDTO(CategorySummary summary);
+
   /**
    * Converts a CategoryDTO to a Category entity.
    *
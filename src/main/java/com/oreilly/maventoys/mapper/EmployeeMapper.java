@@ -2,6 +2,7 @@ package com.oreilly.maventoys.mapper;
 
 import com.oreilly.maventoys.model.DTO.EmployeeDTO;
 import com.oreilly.maventoys.model.entity.Employee;
+import com.oreilly.maventoys.repository.projections.EmployeeSummary;
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -29,6 +30,16 @@ public interface EmployeeMapper {
   @Mapping(source = "store.id", target = "storeId")
   EmployeeDTO employeeToEmployeeDTO(Employee employee);
 
+  /**
+   * Converts a read-only EmployeeSummary projection to an EmployeeDTO.
+   *
+   * @param summary The projection to convert.
+   *
+   * @return The converted EmployeeDTO, carrying the store ID selected by the projection.
+   */
+  @Mapping(target = "numberOfSales", ignore = true)
+  EmployeeDTO employeeSummaryToEmployeeDTO(EmployeeSummary summary);
+
   /**
    * Converts an EmployeeDTO to an Employee entity, with a custom mapping for the store association based on store ID.
    *
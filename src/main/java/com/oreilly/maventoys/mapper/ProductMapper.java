@@ -2,6 +2,7 @@ package com.oreilly.maventoys.mapper;
 
 import com.oreilly.maventoys.model.DTO.ProductDTO;
 import com.oreilly.maventoys.model.entity.Product;
+import com.oreilly.maventoys.repository.projections.ProductSummary;
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -30,6 +31,16 @@ public interface ProductMapper {
   @Mapping(target = "stockOnHand", ignore = true)
   ProductDTO productToProductDTO(Product product);
 
+  /**
+   * Converts a read-only ProductSummary projection to a ProductDTO.
+   *
+   * @param summary The projection to convert.
+   *
+   * @return The converted ProductDTO.
+   */
+  @Mapping(target = "stockOnHand", ignore = true)
+  ProductDTO productSummaryToProductDTO(ProductSummary summary);
+
   /**
    * Converts a ProductDTO object to a Product object.
    *
@@ -33,15 +33,14 @@ public interface SaleMapper {
 
   /**
    * Converts a Sale entity to a SaleDTO.
-   * This method extracts the IDs from the Store and Employee associations in the
-   * entity to populate the storeId and employeeId fields in the DTO.
+   * The storeId and employeeId fields are copied from the foreign key columns mapped on
+   * the entity, so the lazy Store and Employee associations are never touched and
+   * mapping a list of sales issues no additional queries.
    *
    * @param sale the entity containing sale information
    *
    * @return a SaleDTO with storeId and employeeId fields set from the entity
    */
-  @Mapping(source = "store.id", target = "storeId")
-  @Mapping(source = "employee.id", target = "employeeId")
   @Mapping(target = "products", ignore = true)
   SaleDTO saleToSaleDTO(Sale sale);
 
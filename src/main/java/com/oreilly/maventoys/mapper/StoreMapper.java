@@ -2,6 +2,7 @@ package com.oreilly.maventoys.mapper;
 
 import com.oreilly.maventoys.model.DTO.StoreDTO;
 import com.oreilly.maventoys.model.entity.Store;
+import com.oreilly.maventoys.repository.projections.StoreSummary;
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -29,6 +30,17 @@ public interface StoreMapper {
   StoreDTO storeToStoreDTO(Store store);
 
 
+  /**
+   * Converts a read-only StoreSummary projection to a StoreDTO.
+   *
+   * @param summary The projection to convert.
+   *
+   * @return The converted StoreDTO.
+   */
+  @Mapping(target = "totalSales", ignore = true)
+  StoreDTO storeSummaryToStoreDTO(StoreSummary summary);
+
+
   /**
    * Converts a StoreDTO to a Store entity.
    *
@@ -0,0 +1,34 @@
+package com.oreilly.maventoys.model;
+
+import lombok.Getter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+/**
+ * A slice of a keyset-paginated listing. Unlike a page it carries no total count, which would cost a full scan on
+ * every request; instead it holds the opaque token that resumes the listing right after its last element.
+ *
+ * @param <T> The type of the elements of the slice.
+ */
+@Getter
+public class CursorSlice<T> extends SliceImpl<T> {
+
+  /**
+   * Token to send back as {@code after} to fetch the next slice, or {@code null} when this is the last one.
+   */
+  private final String nextCursor;
+
+  /**
+   * Constructs a new CursorSlice.
+   *
+   * @param content       The elements of the slice.
+   * @param size          The requested slice size.
+   * @param newNextCursor The token resuming the listing after this slice, or {@code null} if there is none.
+   */
+  public CursorSlice(final List<T> content, final int size, final String newNextCursor) {
+    super(content, PageRequest.ofSize(size), newNextCursor != null);
+    this.nextCursor = newNextCursor;
+  }
+}
@@ -0,0 +1,105 @@
+package com.oreilly.maventoys.model.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+/**
+ * Outcome of a single record submitted to the bulk sale ingestion endpoint. One result is emitted per record, in
+ * the same order as the records appear in the uploaded payload, except that an upload which turns out to be
+ * malformed ends with a single {@link Status#MALFORMED} result instead.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkSaleResult {
+
+  /**
+   * Possible outcomes for a submitted record.
+   */
+  public enum Status {
+    /**
+     * The sale was validated and committed.
+     */
+    CREATED,
+    /**
+     * The sale was not persisted; {@link BulkSaleResult#getMessage()} explains why.
+     */
+    REJECTED,
+    /**
+     * The payload could not be read past this point. Always the last result: neither this record nor any later one
+     * was persisted.
+     */
+    MALFORMED
+  }
+
+  /**
+   * Zero-based position of the record in the uploaded payload.
+   */
+  private final long index;
+
+  /**
+   * Whether the record was persisted or rejected.
+   */
+  private final Status status;
+
+  /**
+   * Identifier of the created sale, present only when the record was persisted.
+   */
+  private final Integer saleId;
+
+  /**
+   * Reason the record was rejected, present only for rejected records.
+   */
+  private final String message;
+
+  /**
+   * Constructs a new BulkSaleResult.
+   *
+   * @param newIndex   position of the record in the payload.
+   * @param newStatus  outcome of the record.
+   * @param newSaleId  identifier of the created sale, or {@code null}.
+   * @param newMessage rejection reason, or {@code null}.
+   */
+  public BulkSaleResult(final long newIndex, final Status newStatus, final Integer newSaleId,
+                        final String newMessage) {
+    this.index = newIndex;
+    this.status = newStatus;
+    this.saleId = newSaleId;
+    this.message = newMessage;
+  }
+
+  /**
+   * Creates a result for a record that was persisted.
+   *
+   * @param index  position of the record in the payload.
+   * @param saleId identifier of the created sale.
+   *
+   * @return a {@link Status#CREATED} result.
+   */
+  public static BulkSaleResult created(final long index, final Integer saleId) {
+    return new BulkSaleResult(index, Status.CREATED, saleId, null);
+  }
+
+  /**
+   * Creates a result for a record that was rejected.
+   *
+   * @param index   position of the record in the payload.
+   * @param message reason for the rejection.
+   *
+   * @return a {@link Status#REJECTED} result.
+   */
+  public static BulkSaleResult rejected(final long index, final String message) {
+    return new BulkSaleResult(index, Status.REJECTED, null, message);
+  }
+
+  /**
+   * Creates the final result of an upload that could not be read to the end.
+   *
+   * @param index   position of the first record that was not persisted.
+   * @param message reason the payload could not be read.
+   *
+   * @return a {@link Status#MALFORMED} result.
+   */
+  public static BulkSaleResult malformed(final long index, final String message) {
+    return new BulkSaleResult(index, Status.MALFORMED, null, message);
+  }
+}
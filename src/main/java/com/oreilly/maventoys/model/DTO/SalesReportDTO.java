@@ -0,0 +1,59 @@
+package com.oreilly.maventoys.model.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * One row of a sales report: the revenue, number of sales and units sold of a store, employee, product, category or day
+ * over the period of the report.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SalesReportDTO {
+  /**
+   * The ID of the store, employee, product or category the row is about; absent in a report by day, and {@code 0}
+   * for the lines of products without a category.
+   */
+  private final Integer id;
+
+  /**
+   * The day the row is about, or the first day of its week or month in a time series; absent unless the report is by
+   * day.
+   */
+  private final LocalDate day;
+
+  /**
+   * Revenue after discounts.
+   */
+  private final double revenue;
+
+  /**
+   * Number of sales. In a report by product or category, each sale is counted with its first line.
+   */
+  private final long sales;
+
+  /**
+   * Units sold.
+   */
+  private final long units;
+
+  /**
+   * Constructs a new SalesReportDTO.
+   *
+   * @param newId      the ID of the store, employee, product or category, or {@code null} in a report by day.
+   * @param newDay     the day or first day of the bucket, or {@code null} unless the report is by day.
+   * @param newRevenue revenue after discounts.
+   * @param newSales   number of sales.
+   * @param newUnits   units sold.
+   */
+  public SalesReportDTO(final Integer newId, final LocalDate newDay, final double newRevenue, final long newSales,
+                        final long newUnits) {
+    this.id = newId;
+    this.day = newDay;
+    this.revenue = newRevenue;
+    this.sales = newSales;
+    this.units = newUnits;
+  }
+}
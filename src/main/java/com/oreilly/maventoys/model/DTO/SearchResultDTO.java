@@ -0,0 +1,30 @@
+package com.oreilly.maventoys.model.DTO;
+
+import lombok.Getter;
+
+/**
+ * A single hit of a name search: the ID of the product, store or employee found and the name that matched.
+ */
+@Getter
+public class SearchResultDTO {
+  /**
+   * The ID of the entity found.
+   */
+  private final Integer id;
+
+  /**
+   * The name of the entity, as written; for employees, the first and last names.
+   */
+  private final String name;
+
+  /**
+   * Constructs a new SearchResultDTO.
+   *
+   * @param newId   the ID of the entity found.
+   * @param newName the name of the entity.
+   */
+  public SearchResultDTO(final Integer newId, final String newName) {
+    this.id = newId;
+    this.name = newName;
+  }
+}
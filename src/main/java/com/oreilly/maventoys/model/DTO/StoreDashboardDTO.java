@@ -0,0 +1,44 @@
+package com.oreilly.maventoys.model.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the store dashboard.
+ * Combines a store's details, employees, sales and total sales, so a single call fills the whole screen. Sections
+ * that could not be loaded in time are left out and named in {@link #unavailable}.
+ */
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StoreDashboardDTO {
+
+  /**
+   * The store's details.
+   */
+  private StoreDTO store;
+
+  /**
+   * The employees working at the store.
+   */
+  private List<EmployeeDTO> employees;
+
+  /**
+   * The sales made at the store.
+   */
+  private List<SaleDTO> sales;
+
+  /**
+   * The total amount of the store's sales.
+   */
+  private Double totalSales;
+
+  /**
+   * Names of the sections that failed or timed out: {@code employees}, {@code sales} or {@code totalSales}.
+   */
+  private List<String> unavailable = new ArrayList<>();
+}
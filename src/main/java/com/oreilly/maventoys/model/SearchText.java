@@ -0,0 +1,72 @@
+package com.oreilly.maventoys.model;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalization shared by the indexed search columns, the search specifications and the in-memory name index, so a
+ * name and the term typed to find it are always compared in the same form: lower case, without accents, with runs
+ * of whitespace collapsed to a single space.
+ */
+public final class SearchText {
+
+  /**
+   * Combining marks left behind by canonical decomposition, i.e. the accents.
+   */
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+  /**
+   * Runs of whitespace.
+   */
+  private static final Pattern SPACES = Pattern.compile("\\s+");
+
+  private SearchText() {
+  }
+
+  /**
+   * Normalizes a name or a search term.
+   *
+   * @param text the text to normalize, possibly {@code null}.
+   *
+   * @return the normalized text, or {@code null} if the text was {@code null}.
+   */
+  public static String normalize(final String text) {
+    if (text == null) {
+      return null;
+    }
+    String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+    return SPACES.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+  }
+
+  /**
+   * Builds a {@code LIKE} pattern matching the normalized values that start with the given term. {@code %},
+   * {@code _} and the escape character itself are escaped with {@code \}.
+   *
+   * @param term the search term.
+   *
+   * @return the pattern.
+   */
+  public static String prefixPattern(final String term) {
+    return escape(normalize(term)) + "%";
+  }
+
+  /**
+   * Builds a {@code LIKE} pattern matching the normalized values that contain the given term anywhere, escaped as
+   * in {@link #prefixPattern(String)}.
+   *
+   * @param term the search term.
+   *
+   * @return the pattern.
+   */
+  public static String containsPattern(final String term) {
+    return "%" + escape(normalize(term)) + "%";
+  }
+
+  /**
+   * Escapes the {@code LIKE} wildcards and the escape character itself with {@code \}.
+   */
+  private static String escape(final String key) {
+    return key.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
@@ -1,5 +1,6 @@
 package com.oreilly.maventoys.model.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -8,6 +9,8 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
@@ -17,8 +20,11 @@ import java.util.List;
  * linked to multiple products through a one-to-many relationship, indicating its contents.
  * Categories can be marked as active or inactive, controlling their visibility and availability
  * for product association.
+ * Categories and their product lists are kept in the Hibernate second-level cache.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @Table(name = "categories")
@@ -51,6 +57,7 @@ public class Category {
    * within the Product entity.
    */
   @OneToMany(mappedBy = "category")
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
   private List<Product> products;
 
 
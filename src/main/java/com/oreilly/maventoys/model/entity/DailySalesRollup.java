@@ -0,0 +1,71 @@
+package com.oreilly.maventoys.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pre-aggregated sales figures for one day, store, employee and product category. Rows are
+ * updated in the same transaction as the sale they summarize, so the sales analytics can be
+ * answered from this table instead of scanning {@code sales} and {@code invoices}.
+ * <p>
+ * The revenue of a sale is split across the categories of its invoice lines, and the sale is
+ * counted once, in the row of its first line's category; summing any column over categories
+ * therefore gives the exact per-sale figures.
+ * </p>
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "daily_sales_rollup")
+public class DailySalesRollup {
+
+  /**
+   * Day, store, employee and category this row aggregates.
+   */
+  @EmbeddedId
+  private DailySalesRollupId id;
+
+  /**
+   * Sum of the discounted line amounts sold.
+   */
+  @Column(name = "revenue")
+  private double revenue;
+
+  /**
+   * Number of sales counted in this row.
+   */
+  @Column(name = "sale_count")
+  private long saleCount;
+
+  /**
+   * Number of units sold.
+   */
+  @Column(name = "units")
+  private long units;
+
+  /**
+   * Creates an empty row for the given key.
+   *
+   * @param newId the day, store, employee and category of the row.
+   */
+  public DailySalesRollup(final DailySalesRollupId newId) {
+    this.id = newId;
+  }
+
+  /**
+   * Adds (or, with negative values, removes) a contribution to this row.
+   *
+   * @param revenueDelta   revenue to add.
+   * @param saleCountDelta number of sales to add.
+   * @param unitsDelta     number of units to add.
+   */
+  public void add(final double revenueDelta, final long saleCountDelta, final long unitsDelta) {
+    this.revenue += revenueDelta;
+    this.saleCount += saleCountDelta;
+    this.units += unitsDelta;
+  }
+}
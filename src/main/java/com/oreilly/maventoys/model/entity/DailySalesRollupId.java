@@ -0,0 +1,53 @@
+package com.oreilly.maventoys.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Composite key of a {@link DailySalesRollup} row: one row exists per day, store, employee and
+ * product category.
+ */
+@Embeddable
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesRollupId implements Serializable {
+
+  /**
+   * Category ID used for sales that have no invoice lines, so their count and total still
+   * land in a row.
+   */
+  public static final int NO_CATEGORY = 0;
+
+  /**
+   * Day the sales were made.
+   */
+  @Column(name = "sale_day")
+  private LocalDate day;
+
+  /**
+   * Store where the sales were made.
+   */
+  @Column(name = "store_id")
+  private Integer storeId;
+
+  /**
+   * Employee who made the sales.
+   */
+  @Column(name = "employee_id")
+  private Integer employeeId;
+
+  /**
+   * Category of the products sold, or {@link #NO_CATEGORY}.
+   */
+  @Column(name = "category_id")
+  private Integer categoryId;
+}
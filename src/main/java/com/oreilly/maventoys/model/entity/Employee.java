@@ -1,16 +1,21 @@
 package com.oreilly.maventoys.model.entity;
 
+import com.oreilly.maventoys.model.SearchText;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -25,7 +30,9 @@ import java.util.List;
 @Entity
 @Getter
 @Setter
-@Table(name = "employees")
+@Table(name = "employees", indexes = {
+    @Index(name = "idx_employees_first_name_key", columnList = "first_name_key"),
+    @Index(name = "idx_employees_last_name_key", columnList = "last_name_key")})
 public class Employee {
 
   /**
@@ -50,6 +57,20 @@ public class Employee {
   @Column(name = "last_name")
   private String lastName;
 
+  /**
+   * Normalized copy of {@link #firstName} (see {@link SearchText#normalize(String)}), indexed for prefix searches.
+   */
+  @Setter(AccessLevel.NONE)
+  @Column(name = "first_name_key")
+  private String firstNameKey;
+
+  /**
+   * Normalized copy of {@link #lastName}, indexed for prefix searches.
+   */
+  @Setter(AccessLevel.NONE)
+  @Column(name = "last_name_key")
+  private String lastNameKey;
+
   /**
    * The date the employee was hired by the company. This is important for tracking
    * employment duration and for various HR and operational purposes.
@@ -96,6 +117,16 @@ public class Employee {
   @OneToMany(mappedBy = "employee")
   private List<Sale> sales;
 
+  /**
+   * Refreshes the normalized name keys from the current first and last names before every insert and update.
+   */
+  @PrePersist
+  @PreUpdate
+  void updateSearchKeys() {
+    this.firstNameKey = SearchText.normalize(firstName);
+    this.lastNameKey = SearchText.normalize(lastName);
+  }
+
 
   // Getters and setters
 
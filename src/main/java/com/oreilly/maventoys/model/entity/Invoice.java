@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
@@ -25,11 +26,18 @@ import lombok.Setter;
 public class Invoice {
 
   /**
-   * Unique identifier for the invoice. This ID is generated automatically
-   * and used to uniquely identify an invoice within the database.
+   * Size of the block of invoice IDs fetched from {@code invoices_seq} at once, letting
+   * the lines of a basket be inserted as one JDBC batch.
+   */
+  private static final int ID_ALLOCATION_SIZE = 50;
+
+  /**
+   * Unique identifier for the invoice. This ID is assigned from a pooled sequence
+   * before the insert, which allows Hibernate to batch invoice inserts.
    */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoices_seq")
+  @SequenceGenerator(name = "invoices_seq", sequenceName = "invoices_seq", allocationSize = ID_ALLOCATION_SIZE)
   private Long id;
 
   /**
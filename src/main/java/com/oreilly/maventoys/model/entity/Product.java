@@ -1,18 +1,26 @@
 package com.oreilly.maventoys.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.oreilly.maventoys.model.SearchText;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Date;
 import java.util.List;
@@ -23,11 +31,14 @@ import java.util.Set;
      * each with specific pricing, cost, and categorization details. Products are managed within
      * categories to organize the inventory effectively and are associated with inventory records
      * and invoices to track stock levels and sales transactions.
+     * Products are kept in the Hibernate second-level cache; their inventory and invoices are not.
      */
     @Entity
+    @Cacheable
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @Getter
     @Setter
-    @Table(name = "products")
+    @Table(name = "products", indexes = @Index(name = "idx_products_name_key", columnList = "name_key"))
 
     public class Product {
 
@@ -45,6 +56,14 @@ import java.util.Set;
          */
         private String name;
 
+        /**
+         * Normalized copy of {@link #name} (see {@link SearchText#normalize(String)}), kept in step before every
+         * insert and update. It is indexed so prefix searches on the name never scan the table.
+         */
+        @Setter(AccessLevel.NONE)
+        @Column(name = "name_key")
+        private String nameKey;
+
         /**
          * Cost of the product to the business, used for financial calculations such as
          * profit margin analysis.
@@ -93,4 +112,13 @@ import java.util.Set;
         @OneToMany(mappedBy = "product")
         private List<Invoice> invoices;
 
+        /**
+         * Refreshes {@link #nameKey} from the current name.
+         */
+        @PrePersist
+        @PreUpdate
+        void updateSearchKeys() {
+            this.nameKey = SearchText.normalize(name);
+        }
+
     }
@@ -0,0 +1,36 @@
+package com.oreilly.maventoys.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Units sold of one product by one store, over all time. Rows are updated in the same
+ * transaction as the sale they summarize, so the best-seller rankings can be rebuilt from this
+ * table instead of grouping every invoice line.
+ * <p>
+ * Only lines of sales that also count in {@link DailySalesRollup} are included, so the units of
+ * both tables add up to the same figure.
+ * </p>
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "product_sales_rollup")
+public class ProductSalesRollup {
+
+  /**
+   * Store and product this row aggregates.
+   */
+  @EmbeddedId
+  private ProductSalesRollupId id;
+
+  /**
+   * Number of units sold.
+   */
+  @Column(name = "units")
+  private long units;
+}
@@ -0,0 +1,33 @@
+package com.oreilly.maventoys.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Composite key of a {@link ProductSalesRollup} row: one row exists per store and product.
+ */
+@Embeddable
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesRollupId implements Serializable {
+
+  /**
+   * Store where the units were sold.
+   */
+  @Column(name = "store_id")
+  private Integer storeId;
+
+  /**
+   * Product sold.
+   */
+  @Column(name = "product_id")
+  private Integer productId;
+}
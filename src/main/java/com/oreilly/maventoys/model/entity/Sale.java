@@ -8,10 +8,13 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -22,19 +25,28 @@ import java.util.List;
  * Entity representing a sales transaction within the application. Sale encapsulate the
  * details of transactions conducted, including total amount, associated store, employee
  * who handled the sale, and the specific invoices generated as a result of the sale.
+ * The {@code (date, id)} index backs the newest-first keyset listing of sales.
  */
 @Entity
 @Getter
 @Setter
-@Table(name = "sales")
+@Table(name = "sales", indexes = @Index(name = "idx_sales_date_id", columnList = "date, id"))
 public class Sale {
 
   /**
-   * Unique identifier for the sales transaction. This ID is automatically generated
-   * and used to uniquely identify a sales transaction within the database.
+   * Number of identifiers reserved per round trip to the ID sequence. It matches
+   * {@code hibernate.jdbc.batch_size} so a whole batch of inserts can be assigned IDs
+   * with a single sequence call.
+   */
+  private static final int ID_ALLOCATION_SIZE = 50;
+
+  /**
+   * Unique identifier for the sales transaction. This ID is drawn from the pooled
+   * {@code sales_seq} sequence (a table on MySQL) so it is known before the insert runs.
    */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_seq")
+  @SequenceGenerator(name = "sales_seq", sequenceName = "sales_seq", allocationSize = ID_ALLOCATION_SIZE)
   private Integer id;
 
   /**
@@ -46,6 +58,15 @@ public class Sale {
   @JoinColumn(name = "store_id")
   private Store store;
 
+  /**
+   * Read-only copy of the {@code store_id} foreign key. Reading it never initializes the
+   * {@link #store} proxy, so sale listings can expose the store ID without extra selects.
+   * It only changes through {@link #setStore(Store)}.
+   */
+  @Setter(AccessLevel.NONE)
+  @Column(name = "store_id", insertable = false, updatable = false)
+  private Integer storeId;
+
   /**
    * Total amount of the sales transaction. This field captures the financial volume
    * of the transaction, including all items sold in the transaction.
@@ -68,6 +89,14 @@ public class Sale {
   @JoinColumn(name = "employee_id")
   private Employee employee;
 
+  /**
+   * Read-only copy of the {@code employee_id} foreign key, populated on load. It is kept in
+   * sync with {@link #employee} by {@link #setEmployee(Employee)}.
+   */
+  @Setter(AccessLevel.NONE)
+  @Column(name = "employee_id", insertable = false, updatable = false)
+  private Integer employeeId;
+
   /**
    * Invoices generated from the sales transaction. This one-to-many relationship links
    * the sale to its detailed invoices, each representing a part of the transaction or
@@ -77,4 +106,25 @@ public class Sale {
   @OneToMany(mappedBy = "sale", cascade = CascadeType.ALL)
   private List<Invoice> invoices;
 
+
+  /**
+   * Sets the store of the sale and the matching read-only {@link #storeId}.
+   *
+   * @param newStore the store where the sale took place.
+   */
+  public void setStore(final Store newStore) {
+    this.store = newStore;
+    this.storeId = newStore == null ? null : newStore.getId();
+  }
+
+  /**
+   * Sets the employee of the sale and the matching read-only {@link #employeeId}.
+   *
+   * @param newEmployee the employee who made the sale.
+   */
+  public void setEmployee(final Employee newEmployee) {
+    this.employee = newEmployee;
+    this.employeeId = newEmployee == null ? null : newEmployee.getId();
+  }
+
 }
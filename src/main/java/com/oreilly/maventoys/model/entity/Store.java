@@ -1,14 +1,22 @@
 package com.oreilly.maventoys.model.entity;
 
+import com.oreilly.maventoys.model.SearchText;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
@@ -21,11 +29,14 @@ import java.util.List;
  * locations where sales transactions occur. This entity captures essential details about
  * each store, including its name, location, and operational status, and associates it with
  * sales transactions to facilitate tracking and management of business activities.
+ * Stores are kept in the Hibernate second-level cache; their sales collection is not.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
-@Table(name = "stores")
+@Table(name = "stores", indexes = @Index(name = "idx_stores_name_key", columnList = "name_key"))
 public class Store {
 
 
@@ -61,6 +72,15 @@ public class Store {
   @NotBlank(message = "Name is required")
   @Size(min = 1, max = MAX_NAME_LENGTH, message = "Name must be between 1 and 100 characters")
   private String name;
+
+  /**
+   * Normalized copy of {@link #name} (see {@link SearchText#normalize(String)}), kept in step before every insert
+   * and update. It is indexed so prefix searches on the name never scan the table.
+   */
+  @Setter(AccessLevel.NONE)
+  @Column(name = "name_key")
+  private String nameKey;
+
   /**
    * City where the store is located. This field is required and helps categorize stores
    * by geographic location, facilitating regional management and marketing strategies.
@@ -89,6 +109,15 @@ public class Store {
    */
   private Boolean active;
 
+  /**
+   * Refreshes {@link #nameKey} from the current name.
+   */
+  @PrePersist
+  @PreUpdate
+  void updateSearchKeys() {
+    this.nameKey = SearchText.normalize(name);
+  }
+
   // Getters y setters...
 
 }
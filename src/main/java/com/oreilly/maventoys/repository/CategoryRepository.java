@@ -1,9 +1,13 @@
 package com.oreilly.maventoys.repository;
 
 import com.oreilly.maventoys.model.entity.Category;
+import com.oreilly.maventoys.repository.projections.CategorySummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,7 +18,8 @@ import java.util.List;
  * {@link Category} entities based on their active status.
  */
 @Repository
-public interface CategoryRepository extends JpaRepository<Category, Integer>, JpaSpecificationExecutor<Category> {
+public interface CategoryRepository extends JpaRepository<Category, Integer>, JpaSpecificationExecutor<Category>,
+    PagedSpecificationExecutor<Category> {
 
   /**
    * Finds all categories that match the specified active status.
@@ -24,12 +29,24 @@ public interface CategoryRepository extends JpaRepository<Category, Integer>, Jp
    *
    * @return A list of {@link Category} entities that match the specified active status.
    */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<Category> findByActiveTrue();
 
   /**
-   * Retrieves a summary of total sales by category for all active categories and products.
-   * This query performs a JOIN operation across multiple tables: categories, products, invoices, and sales
-   * to calculate the sum of sales totals. Only active categories and products are considered in this summary.
+   * Lists active categories as read-only {@link CategorySummary} projections, without loading
+   * their products.
+   *
+   * @return A list of summaries of the active categories.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query("SELECT new com.oreilly.maventoys.repository.projections.CategorySummary(c.id, c.name, c.active) "
+      + "FROM Category c WHERE c.active = true")
+  List<CategorySummary> findActiveSummaries();
+
+  /**
+   * Retrieves a summary of total sales by category for all active categories.
+   * This query reads the pre-aggregated {@code daily_sales_rollup} table, where the revenue of each sale is
+   * split across the categories of its invoice lines, instead of joining products, invoices and sales.
    *
    * The results are grouped by the category ID and name, ensuring that the sales totals are aggregated
    * at the category level. The final output is sorted in descending order based on the total sales amount,
@@ -47,18 +64,13 @@ public interface CategoryRepository extends JpaRepository<Category, Integer>, Jp
       SELECT
           c.id AS CategoryID,
           c.name AS CategoryName,
-          SUM(s.total) AS TotalSales
+          SUM(r.revenue) AS TotalSales
       FROM
           categories c
       JOIN
-          products p ON c.id = p.category_id
-      JOIN
-          invoices i ON p.id = i.product_id
-      JOIN
-          sales s ON i.sales_id = s.id
+          daily_sales_rollup r ON c.id = r.category_id
       WHERE
-          c.active = TRUE AND
-          p.active = TRUE
+          c.active = TRUE
       GROUP BY
           c.id, c.name
       ORDER BY
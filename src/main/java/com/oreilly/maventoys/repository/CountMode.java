@@ -0,0 +1,57 @@
+package com.oreilly.maventoys.repository;
+
+/**
+ * How the total number of matching rows is reported alongside a page of results.
+ */
+public enum CountMode {
+  /**
+   * Runs a {@code COUNT} query with the same predicates as the page and returns a {@code Page} with the exact total.
+   */
+  EXACT,
+
+  /**
+   * Reads the table's row estimate from the database statistics instead of counting, and returns a {@code Page}
+   * whose total may be off by a few percent. Only meaningful for unfiltered listings.
+   */
+  APPROXIMATE,
+
+  /**
+   * Skips the count entirely and returns a {@code Slice} that only tells whether a next page exists.
+   */
+  NONE;
+
+  /**
+   * Maps the {@code withTotal} and {@code approximateTotal} request parameters of the paged endpoints to a mode.
+   *
+   * @param withTotal        whether the client wants a total at all.
+   * @param approximateTotal whether an estimated total is good enough.
+   *
+   * @return the matching count mode.
+   */
+  public static CountMode of(final boolean withTotal, final boolean approximateTotal) {
+    if (!withTotal) {
+      return NONE;
+    }
+    return approximateTotal ? APPROXIMATE : EXACT;
+  }
+
+  /**
+   * Falls back to {@link #EXACT} when an approximate total was requested for a filtered listing, since table
+   * statistics only describe the whole table.
+   *
+   * @param filters the filter values of the listing; {@code null} and empty strings mean "not filtered".
+   *
+   * @return the mode to use for this listing.
+   */
+  public CountMode unlessFiltered(final Object... filters) {
+    if (this != APPROXIMATE) {
+      return this;
+    }
+    for (Object filter : filters) {
+      if (filter != null && !"".equals(filter)) {
+        return EXACT;
+      }
+    }
+    return this;
+  }
+}
@@ -2,6 +2,7 @@ package com.oreilly.maventoys.repository;
 
 import com.oreilly.maventoys.model.entity.Employee;
 import com.oreilly.maventoys.model.entity.Sale;
+import com.oreilly.maventoys.repository.projections.EmployeeSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -18,7 +19,8 @@ import java.util.List;
  * based on store affiliation, active status, and their sales records.
  */
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Integer>, JpaSpecificationExecutor<Employee> {
+public interface EmployeeRepository extends JpaRepository<Employee, Integer>, JpaSpecificationExecutor<Employee>,
+    PagedSpecificationExecutor<Employee> {
 
   /**
    * Finds all employees associated with a specific store by the store's ID.
@@ -41,6 +43,19 @@ public interface EmployeeRepository extends JpaRepository<Employee, Integer>, Jp
   List<Employee> getByActiveTrue();
 
 
+  /**
+   * Lists active employees as read-only {@link EmployeeSummary} projections. Like
+   * {@link #getByActiveTrue()}, only employees assigned to a store are returned, but just the
+   * store ID is selected instead of fetching the whole store.
+   *
+   * @return A list of summaries of the active employees.
+   */
+  @Query("SELECT new com.oreilly.maventoys.repository.projections.EmployeeSummary("
+      + "e.id, e.firstName, e.lastName, e.hireDate, e.gender, e.birthDate, e.active, s.id) "
+      + "FROM Employee e JOIN e.store s WHERE e.active = true")
+  List<EmployeeSummary> findActiveSummaries();
+
+
   /**
    * Finds all sales records by an employee's ID, facilitating the tracking of sales activities
    * and performance for individual employees.
@@ -71,7 +86,9 @@ public interface EmployeeRepository extends JpaRepository<Employee, Integer>, Jp
    * Retrieves a list of the top 10 selling employees along with their store ID and the total number of sales.
    * <p>
    * This method executes a native SQL query to select the employee's ID, first name, last name, store ID,
-   * and the count of sales associated with each employee. The results are grouped by the employee's ID,
+   * and the number of sales associated with each employee, read from the sale counts of the
+   * {@code daily_sales_rollup} table rather than by counting rows of {@code sales}. The results are grouped by the
+   * employee's ID,
    * first name, last name, and store ID, and are ordered in descending order by the count of sales to
    * identify the top sellers. Each record in the returned list includes the employee's ID, first name,
    * last name, store ID, and the total number of sales, represented as an array of objects.
@@ -84,14 +101,29 @@ public interface EmployeeRepository extends JpaRepository<Employee, Integer>, Jp
    *         first name (index 1), last name (index 2), store ID (index 3), and the count of their total sales
    *         (index 4). The list is limited to the top 10 employees based on the number of sales.
    */
-  @Query(value = "SELECT e.id, e.first_name, e.last_name, e.store_id, COUNT(s.id) AS numberOfSales " +
+  @Query(value = "SELECT e.id, e.first_name, e.last_name, e.store_id, SUM(r.sale_count) AS numberOfSales " +
       "FROM employees e " +
-      "JOIN sales s ON e.id = s.employee_id " +
+      "JOIN daily_sales_rollup r ON e.id = r.employee_id " +
       "GROUP BY e.id, e.first_name, e.last_name, e.store_id " +
-      "ORDER BY COUNT(s.id) DESC " +
+      "ORDER BY numberOfSales DESC " +
       "LIMIT 5", nativeQuery = true)
   List<Object[]> findTopSellersWithStoreId();
 
 
+  /**
+   * Sums the number of sales of every employee from the daily sales rollup. Used to seed and reconcile the
+   * in-memory employee leaderboard.
+   *
+   * @return a list of {@link Object[]} holding the employee ID (index 0) and their number of sales (index 1).
+   */
+  @Query("SELECT r.id.employeeId, SUM(r.saleCount) FROM DailySalesRollup r GROUP BY r.id.employeeId")
+  List<Object[]> findSaleCountsPerEmployee();
 
+  /**
+   * Reads the ID, first name and last name of every employee, used to seed the in-memory name search index.
+   *
+   * @return rows of {@code [id, firstName, lastName]}.
+   */
+  @Query("SELECT e.id, e.firstName, e.lastName FROM Employee e")
+  List<Object[]> findAllNames();
 }
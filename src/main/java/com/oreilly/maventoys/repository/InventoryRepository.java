@@ -1,11 +1,15 @@
 package com.oreilly.maventoys.repository;
 
 import com.oreilly.maventoys.model.entity.Inventory;
+import com.oreilly.maventoys.repository.projections.StockLevel;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository interface for managing {@link Inventory} entities. Extends {@link JpaRepository}
  * to provide standard CRUD operations. Includes custom queries for inventory management, such as
@@ -25,4 +29,24 @@ public interface InventoryRepository extends JpaRepository<Inventory, Integer> {
   @Query("SELECT i.stockOnHand FROM Inventory i WHERE i.product.id = :productId")
   Integer getStockByProductId(@Param("productId") Integer productId);
 
+  /**
+   * Reads a product's stock in a single lookup that also tells whether the product exists, so the stock endpoint
+   * needs no separate product query.
+   *
+   * @param productId The ID of the product whose stock level is queried.
+   *
+   * @return The product's stock level, or empty if the product does not exist.
+   */
+  @Query("SELECT new com.oreilly.maventoys.repository.projections.StockLevel(p.id, i.stockOnHand) "
+      + "FROM Product p LEFT JOIN p.inventory i WHERE p.id = :productId")
+  Optional<StockLevel> findStockLevel(@Param("productId") Integer productId);
+
+  /**
+   * Lists the stock on hand of every product with an inventory record, used to load the in-memory stock ledger.
+   *
+   * @return rows of {@code [productId, stockOnHand]}.
+   */
+  @Query("SELECT i.product.id, i.stockOnHand FROM Inventory i")
+  List<Object[]> findAllStock();
+
 }
@@ -0,0 +1,27 @@
+package com.oreilly.maventoys.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specification queries whose total count is optional. Implemented for every repository by
+ * {@link PagedSpecificationRepository}.
+ *
+ * @param <T> the entity type.
+ */
+public interface PagedSpecificationExecutor<T> {
+
+  /**
+   * Returns a page of the entities matching the specification, reporting the total as requested. With
+   * {@link CountMode#NONE} no count is run and the result is a plain {@link Slice}; otherwise it is a
+   * {@link org.springframework.data.domain.Page}.
+   *
+   * @param spec      the filter, or {@code null} for all entities.
+   * @param pageable  the page to return.
+   * @param countMode how to compute the total.
+   *
+   * @return the requested page.
+   */
+  Slice<T> findPage(Specification<T> spec, Pageable pageable, CountMode countMode);
+}
@@ -0,0 +1,115 @@
+package com.oreilly.maventoys.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Table;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Base class of every repository, adding {@link PagedSpecificationExecutor} to the standard Spring Data JPA
+ * implementation.
+ * <p>
+ * Pages without an exact total are read with one row more than requested, which tells whether a next page exists
+ * without a {@code COUNT} query. Approximate totals come from {@code information_schema} on MySQL and H2; on other
+ * databases, or when the table has no statistics yet, an exact count is run instead. InnoDB row estimates are only
+ * refreshed as often as {@code information_schema_stats_expiry} allows, so they can lag recent writes.
+ * </p>
+ *
+ * @param <T>  the entity type.
+ * @param <ID> the type of the entity's identifier.
+ */
+public class PagedSpecificationRepository<T, ID> extends SimpleJpaRepository<T, ID>
+    implements PagedSpecificationExecutor<T> {
+
+  /**
+   * Row estimate of a table in the current MySQL schema.
+   */
+  private static final String MYSQL_ESTIMATE =
+      "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?1";
+
+  /**
+   * Row estimate of a table in the current H2 schema, whose unquoted table names are stored upper case.
+   */
+  private static final String H2_ESTIMATE = "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES "
+      + "WHERE TABLE_SCHEMA = CURRENT_SCHEMA AND UPPER(TABLE_NAME) = UPPER(?1)";
+
+  /**
+   * Entity manager the queries run against.
+   */
+  private final EntityManager entityManager;
+
+  /**
+   * Name of the table mapped by the entity.
+   */
+  private final String tableName;
+
+  /**
+   * Constructs a new PagedSpecificationRepository. Called by Spring Data for every repository interface.
+   *
+   * @param entityInformation metadata of the managed entity.
+   * @param newEntityManager  the entity manager to use.
+   */
+  public PagedSpecificationRepository(final JpaEntityInformation<T, ?> entityInformation,
+                                      final EntityManager newEntityManager) {
+    super(entityInformation, newEntityManager);
+    this.entityManager = newEntityManager;
+    Table table = entityInformation.getJavaType().getAnnotation(Table.class);
+    this.tableName = table != null && !table.name().isEmpty() ? table.name() : entityInformation.getEntityName();
+  }
+
+  @Override
+  public Slice<T> findPage(final Specification<T> spec, final Pageable pageable, final CountMode countMode) {
+    if (countMode == CountMode.EXACT || pageable.isUnpaged()) {
+      return findAll(spec, pageable);
+    }
+    TypedQuery<T> query = getQuery(spec, pageable);
+    query.setFirstResult((int) pageable.getOffset());
+    query.setMaxResults(pageable.getPageSize() + 1);
+    List<T> rows = query.getResultList();
+    boolean hasNext = rows.size() > pageable.getPageSize();
+    List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+    if (countMode == CountMode.NONE) {
+      return new SliceImpl<>(content, pageable, hasNext);
+    }
+    long seen = pageable.getOffset() + content.size() + (hasNext ? 1 : 0);
+    OptionalLong estimate = estimateRowCount();
+    long total = estimate.isPresent() ? Math.max(estimate.getAsLong(), seen) : count(spec);
+    return new PageImpl<>(content, pageable, total);
+  }
+
+  /**
+   * Reads the number of rows of the entity's table estimated by the database statistics.
+   *
+   * @return the estimate, or empty if the database keeps none.
+   */
+  private OptionalLong estimateRowCount() {
+    Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                                   .getJdbcServices().getDialect();
+    String sql;
+    if (dialect instanceof MySQLDialect) {
+      sql = MYSQL_ESTIMATE;
+    } else if (dialect instanceof H2Dialect) {
+      sql = H2_ESTIMATE;
+    } else {
+      return OptionalLong.empty();
+    }
+    List<?> result = entityManager.createNativeQuery(sql).setParameter(1, tableName).getResultList();
+    if (result.isEmpty() || result.get(0) == null) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(((Number) result.get(0)).longValue());
+  }
+}
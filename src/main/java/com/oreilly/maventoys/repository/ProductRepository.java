@@ -4,9 +4,13 @@ package com.oreilly.maventoys.repository;
 import com.oreilly.maventoys.model.entity.Product;
 
 import com.oreilly.maventoys.model.entity.Sale;
+import com.oreilly.maventoys.repository.projections.ProductSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -18,7 +22,8 @@ import java.util.List;
  * category, and sales history.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product>,
+    PagedSpecificationExecutor<Product> {
 
   /**
    * Finds products by their active status. This allows for filtering products that are
@@ -26,9 +31,24 @@ public interface ProductRepository extends JpaRepository<Product, Integer>, JpaS
    *
    * @return A list of products matching the active status.
    */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<Product> getByActiveTrue();
 
 
+  /**
+   * Lists active products as read-only {@link ProductSummary} projections. Only the product's own
+   * columns and its category foreign key are selected, and no entity is added to the persistence
+   * context.
+   *
+   * @return A list of summaries of the active products.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  @Query("SELECT new com.oreilly.maventoys.repository.projections.ProductSummary("
+      + "p.id, p.name, p.cost, p.price, p.category.id, p.active, p.creationDate) "
+      + "FROM Product p WHERE p.active = true")
+  List<ProductSummary> findActiveSummaries();
+
+
   /**
    * Retrieves all sales transactions associated with a given product ID.
    * This can be used to analyze the sales performance of specific products.
@@ -48,6 +68,7 @@ public interface ProductRepository extends JpaRepository<Product, Integer>, JpaS
    *
    * @return A list of products belonging to the specified category.
    */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<Product> getByCategoryId(Integer categoryId);
 
 
@@ -85,4 +106,23 @@ public interface ProductRepository extends JpaRepository<Product, Integer>, JpaS
           "from products p " + "join invoices i on p.id = i.product_id " + "where p.category_id = ?1 " +
           "group by p.id " + "order by top desc " + "limit 5", nativeQuery = true)
   List<Product> findBestSellersByCategory(int categoryId);
+
+  /**
+   * Sums the units sold of every product that has been sold from the product sales rollup, with the product's
+   * current category. Used to seed and reconcile the in-memory best-seller leaderboards.
+   *
+   * @return a list of {@link Object[]} holding the product ID (index 0), its category ID (index 1) and the
+   *         units sold (index 2).
+   */
+  @Query("SELECT p.id, p.category.id, SUM(r.units) FROM ProductSalesRollup r JOIN Product p ON p.id = r.id.productId "
+      + "GROUP BY p.id, p.category.id")
+  List<Object[]> findUnitsSoldPerProduct();
+
+  /**
+   * Reads the ID and name of every product, used to seed the in-memory name search index.
+   *
+   * @return rows of {@code [id, name]}.
+   */
+  @Query("SELECT p.id, p.name FROM Product p")
+  List<Object[]> findAllNames();
 }
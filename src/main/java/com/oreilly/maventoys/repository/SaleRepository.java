@@ -1,14 +1,18 @@
 package com.oreilly.maventoys.repository;
 
 import com.oreilly.maventoys.model.entity.Sale;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for {@link Sale} entities. Extends {@link JpaRepository} to provide
@@ -16,7 +20,13 @@ import java.util.Optional;
  * employee, and over time periods.
  */
 @Repository
-public interface SaleRepository extends JpaRepository<Sale, Integer>, JpaSpecificationExecutor<Sale> {
+public interface SaleRepository extends JpaRepository<Sale, Integer>, JpaSpecificationExecutor<Sale>,
+    PagedSpecificationExecutor<Sale> {
+
+  /**
+   * Number of rows the JDBC driver fetches per round trip when streaming sales.
+   */
+  int STREAM_FETCH_SIZE = 500;
 
   /**
    * Finds sales transactions by store ID, useful for reporting and analyzing sales
@@ -31,16 +41,28 @@ public interface SaleRepository extends JpaRepository<Sale, Integer>, JpaSpecifi
 
   /**
    * Calculates the sum of total sales amounts for a given store ID. This aggregate function
-   * is beneficial for financial summaries and sales performance analysis by store.
+   * is beneficial for financial summaries and sales performance analysis by store. The sum is
+   * taken over the store's daily sales rollup rows instead of its individual sales.
    *
    * @param storeId The ID of the store for which the sales total is calculated.
    *
    * @return The sum of total sales amounts for the store.
    */
-  @Query("SELECT SUM(s.total) FROM Sale s WHERE s.store.id = :storeId")
+  @Query("SELECT SUM(r.revenue) FROM DailySalesRollup r WHERE r.id.storeId = :storeId")
   Optional<Double> getTotalByStoreId(Integer storeId);
 
 
+  /**
+   * Sums the daily sales rollup per day, store and category, over all employees. Used to seed the in-memory sales
+   * time series.
+   *
+   * @return Rows of {@code [day, storeId, categoryId, revenue, saleCount, units]}.
+   */
+  @Query("SELECT r.id.day, r.id.storeId, r.id.categoryId, SUM(r.revenue), SUM(r.saleCount), SUM(r.units) " +
+      "FROM DailySalesRollup r GROUP BY r.id.day, r.id.storeId, r.id.categoryId")
+  List<Object[]> findDailyTotalsPerStoreAndCategory();
+
+
   /**
    * Finds sales transactions by employee ID, assisting in evaluating individual
    * employee sales performance.
@@ -64,4 +86,23 @@ public interface SaleRepository extends JpaRepository<Sale, Integer>, JpaSpecifi
   List<Sale> findByDateBetween(LocalDate startDate, LocalDate endDate);
 
 
+  /**
+   * Streams the sales transactions within a specified date range, ordered by ID. Rows are
+   * pulled from the database in blocks of {@link #STREAM_FETCH_SIZE} and loaded read-only,
+   * so exports of arbitrarily large ranges run in constant memory. The returned stream
+   * must be consumed inside a transaction and closed afterwards.
+   *
+   * @param startDate The start date of the period.
+   * @param endDate   The end date of the period.
+   *
+   * @return A stream of sales transactions within the specified date range.
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")})
+  @Query("SELECT s FROM Sale s WHERE s.date BETWEEN :startDate AND :endDate ORDER BY s.id")
+  Stream<Sale> streamByDateBetween(LocalDate startDate, LocalDate endDate);
+
+
 }
@@ -1,9 +1,13 @@
 package com.oreilly.maventoys.repository;
 
 import com.oreilly.maventoys.model.entity.Store;
+import com.oreilly.maventoys.repository.projections.StoreSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,20 +18,35 @@ import java.util.List;
  * for querying stores based on their active status.
  */
 @Repository
-public interface StoreRepository extends JpaRepository<Store, Integer>, JpaSpecificationExecutor<Store> {
+public interface StoreRepository extends JpaRepository<Store, Integer>, JpaSpecificationExecutor<Store>,
+    PagedSpecificationExecutor<Store> {
 
     /**
      * Retrieves a list of stores by their active status.
      *
      * @return List of Store objects filtered by the active status.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Store> getByActiveTrue();
 
+    /**
+     * Lists active stores as read-only {@link StoreSummary} projections, without hydrating
+     * {@link Store} entities or their sales collections.
+     *
+     * @return A list of summaries of the active stores.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.oreilly.maventoys.repository.projections.StoreSummary("
+        + "s.id, s.name, s.city, s.location, s.openDate, s.active) "
+        + "FROM Store s WHERE s.active = true")
+    List<StoreSummary> findActiveSummaries();
+
     /**
      * Retrieves a list of the top 5 selling stores based on total sales.
-     * This method executes a native SQL query to join the {@code stores} and {@code sales} tables,
-     * summing up the total sales per store, grouping the results by store ID, and ordering them
-     * in descending order of total sales.
+     * This method executes a native SQL query that joins {@code stores} with the pre-aggregated
+     * {@code daily_sales_rollup} table, summing up the revenue per store and ordering the stores
+     * in descending order of total sales. The rollup is maintained on every sale write, so the
+     * cost of this query depends on the number of store-days rather than on the number of sales.
      *
      * <p>The result is a list of object arrays where each array contains the store's ID, store's name,
      * and the total sales for that store. This allows for easy identification of the top-performing stores
@@ -41,13 +60,28 @@ public interface StoreRepository extends JpaRepository<Store, Integer>, JpaSpeci
      *         </ol>
      *         The list is limited to the top 5 stores with the highest total sales.
      */
-    @Query(value = "SELECT s.id, s.name, SUM(sa.total) AS total_sales " +
+    @Query(value = "SELECT s.id, s.name, SUM(r.revenue) AS total_sales " +
         "FROM stores s " +
-        "JOIN sales sa ON s.id = sa.store_id " +
-        "GROUP BY s.id " +
+        "JOIN daily_sales_rollup r ON s.id = r.store_id " +
+        "GROUP BY s.id, s.name " +
         "ORDER BY total_sales DESC " +
         "LIMIT 5", nativeQuery = true)
     List<Object[]> findStoresTopSellers();
 
+    /**
+     * Sums the revenue of every store from the daily sales rollup. Used to seed and reconcile the
+     * in-memory store leaderboard.
+     *
+     * @return a list of {@link Object[]} holding the store ID (index 0) and its total sales (index 1).
+     */
+    @Query("SELECT r.id.storeId, SUM(r.revenue) FROM DailySalesRollup r GROUP BY r.id.storeId")
+    List<Object[]> findSalesTotalsPerStore();
 
+    /**
+     * Reads the ID and name of every store, used to seed the in-memory name search index.
+     *
+     * @return rows of {@code [id, name]}.
+     */
+    @Query("SELECT s.id, s.name FROM Store s")
+    List<Object[]> findAllNames();
 }
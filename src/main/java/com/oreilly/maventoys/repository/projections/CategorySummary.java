@@ -0,0 +1,11 @@
+package com.oreilly.maventoys.repository.projections;
+
+/**
+ * Read-only projection of a category without its products collection.
+ *
+ * @param id     the category ID.
+ * @param name   the category name.
+ * @param active whether the category is active.
+ */
+public record CategorySummary(Integer id, String name, Boolean active) {
+}
@@ -0,0 +1,19 @@
+package com.oreilly.maventoys.repository.projections;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of an employee carrying the ID of their store instead of the store itself.
+ *
+ * @param id        the employee ID.
+ * @param firstName the employee's first name.
+ * @param lastName  the employee's last name.
+ * @param hireDate  the date the employee was hired.
+ * @param gender    the employee's gender.
+ * @param birthDate the employee's birth date.
+ * @param active    whether the employee is active.
+ * @param storeId   the ID of the store the employee works at.
+ */
+public record EmployeeSummary(Integer id, String firstName, String lastName, LocalDate hireDate, String gender,
+                              LocalDate birthDate, Boolean active, Integer storeId) {
+}
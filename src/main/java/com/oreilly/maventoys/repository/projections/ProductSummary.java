@@ -0,0 +1,18 @@
+package com.oreilly.maventoys.repository.projections;
+
+import java.util.Date;
+
+/**
+ * Read-only projection of the scalar columns of a product used by product listings.
+ *
+ * @param id           the product ID.
+ * @param name         the product name.
+ * @param cost         the unit cost.
+ * @param price        the unit price.
+ * @param categoryId   the ID of the product's category, read from the foreign key.
+ * @param active       whether the product is active.
+ * @param creationDate the date the product was created.
+ */
+public record ProductSummary(Integer id, String name, double cost, double price, Integer categoryId,
+                             boolean active, Date creationDate) {
+}
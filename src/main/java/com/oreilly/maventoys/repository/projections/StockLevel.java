@@ -0,0 +1,10 @@
+package com.oreilly.maventoys.repository.projections;
+
+/**
+ * Read-only projection of a product's stock on hand.
+ *
+ * @param productId   the product ID.
+ * @param stockOnHand the units on hand, or {@code null} if the product has no inventory record.
+ */
+public record StockLevel(Integer productId, Integer stockOnHand) {
+}
@@ -0,0 +1,17 @@
+package com.oreilly.maventoys.repository.projections;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a store without its sales collection.
+ *
+ * @param id       the store ID.
+ * @param name     the store name.
+ * @param city     the city the store is in.
+ * @param location the store's location within the city.
+ * @param openDate the date the store opened.
+ * @param active   whether the store is active.
+ */
+public record StoreSummary(Integer id, String name, String city, String location, LocalDate openDate,
+                           Boolean active) {
+}
@@ -0,0 +1,9 @@
+/**
+ * This package contains read-only projections returned by repository queries.
+ * <p>
+ * Projections are Java records populated through JPQL constructor expressions. They carry only the
+ * columns a listing needs, are never attached to the persistence context and are therefore not
+ * subject to dirty checking; the mappers turn them into the DTOs exposed by the API.
+ * </p>
+ */
+package com.oreilly.maventoys.repository.projections;
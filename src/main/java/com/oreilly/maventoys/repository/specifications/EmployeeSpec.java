@@ -40,6 +40,11 @@ public class EmployeeSpec implements Specification<Employee> {
    */
   private String lastName;
 
+  /**
+   * How the first and last names are matched; {@code null} means {@link MatchMode#CONTAINS}.
+   */
+  private MatchMode match;
+
   /**
    * This method is part of the Specification interface and is used to create a Predicate (a boolean-valued function)
    * that can be used in a CriteriaQuery to filter Employees based on their id, first name, and last name.
@@ -61,14 +66,21 @@ public class EmployeeSpec implements Specification<Employee> {
     }
 
     if (firstName != null) {
-      predicates.add(
-          criteriaBuilder.like(criteriaBuilder.lower(root.get("firstName")), "%" + firstName.toLowerCase() + "%"));
+      predicates.add(matchMode().toPredicate(root, criteriaBuilder, "firstName", "firstNameKey", firstName));
     }
 
     if (lastName != null) {
-      predicates.add(
-          criteriaBuilder.like(criteriaBuilder.lower(root.get("lastName")), "%" + lastName.toLowerCase() + "%"));
+      predicates.add(matchMode().toPredicate(root, criteriaBuilder, "lastName", "lastNameKey", lastName));
     }
     return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
   }
+
+  /**
+   * Returns the match mode applied to both the first-name and last-name filters.
+   *
+   * @return the mode given to the constructor, or {@link MatchMode#CONTAINS} when it was {@code null}.
+   */
+  private MatchMode matchMode() {
+    return match == null ? MatchMode.CONTAINS : match;
+  }
 }
@@ -0,0 +1,50 @@
+package com.oreilly.maventoys.repository.specifications;
+
+import com.oreilly.maventoys.model.SearchText;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * How a name filter is matched by the search specifications.
+ */
+public enum MatchMode {
+  /**
+   * Case-insensitive substring match on the raw column. It cannot use an index, so every query scans the table.
+   */
+  CONTAINS,
+
+  /**
+   * Prefix match on the normalized, indexed copy of the column, answered with an index range scan.
+   */
+  PREFIX,
+
+  /**
+   * Substring match on the normalized copy of the column, so it ignores accents as well as case. Like
+   * {@link #CONTAINS}, it cannot use an index.
+   */
+  KEY_CONTAINS;
+
+  /**
+   * Builds the predicate matching a name filter in this mode.
+   *
+   * @param root            the root of the query.
+   * @param criteriaBuilder the criteria builder.
+   * @param attribute       the raw name attribute, matched in {@link #CONTAINS} mode.
+   * @param keyAttribute    the normalized key attribute, matched in {@link #PREFIX} and {@link #KEY_CONTAINS} modes.
+   * @param term            the search term.
+   * @param <T>             the entity type.
+   *
+   * @return the predicate.
+   */
+  <T> Predicate toPredicate(final Root<T> root, final CriteriaBuilder criteriaBuilder, final String attribute,
+                            final String keyAttribute, final String term) {
+    if (this == PREFIX) {
+      return criteriaBuilder.like(root.get(keyAttribute), SearchText.prefixPattern(term), '\\');
+    }
+    if (this == KEY_CONTAINS) {
+      return criteriaBuilder.like(root.get(keyAttribute), SearchText.containsPattern(term), '\\');
+    }
+    return criteriaBuilder.like(criteriaBuilder.lower(root.get(attribute)), "%" + term.toLowerCase() + "%");
+  }
+}
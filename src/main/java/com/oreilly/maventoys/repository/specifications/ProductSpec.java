@@ -24,6 +24,11 @@ public class ProductSpec implements Specification<Product> {
    */
   private String name;
 
+  /**
+   * How {@link #name} is matched; {@code null} means {@link MatchMode#CONTAINS}.
+   */
+  private MatchMode match;
+
   /**
    * Builds a {@link Predicate} for a criteria query filtering {@link Product} entities based on specified conditions.
    * <p>
@@ -48,9 +53,17 @@ public class ProductSpec implements Specification<Product> {
       predicates.add(criteriaBuilder.equal(root.get("id"), id));
     }
     if (name != null) {
-      predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + name.toLowerCase() + "%"));
+      predicates.add(matchMode().toPredicate(root, criteriaBuilder, "name", "nameKey", name));
     }
     return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
   }
 
+  /**
+   * Returns the match mode to apply to the name filters.
+   *
+   * @return {@link #match}, or {@link MatchMode#CONTAINS} if none was given.
+   */
+  private MatchMode matchMode() {
+    return match == null ? MatchMode.CONTAINS : match;
+  }
 }
@@ -0,0 +1,110 @@
+package com.oreilly.maventoys.repository.specifications;
+
+import com.oreilly.maventoys.exceptions.InvalidCursor;
+import com.oreilly.maventoys.model.entity.Sale;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Position of the last sale returned by a keyset-paginated listing, from which the next slice resumes.
+ * <p>
+ * Clients receive it as an opaque, URL-safe token built by {@link #encode()} and send it back unchanged; the token
+ * records the sort order as well as the key, so a listing cannot switch order halfway through.
+ * </p>
+ *
+ * @param order the order of the listing.
+ * @param date  the date of the last sale; only set for {@link Order#DATE}.
+ * @param id    the ID of the last sale.
+ */
+public record SaleCursor(Order order, LocalDate date, int id) {
+
+  /**
+   * Separator between the fields of a decoded token.
+   */
+  private static final String SEPARATOR = ":";
+
+  /**
+   * Sort orders supported by keyset pagination. Each one is backed by an index, so seeking to any position costs
+   * the same as reading the first slice.
+   */
+  public enum Order {
+    /**
+     * Ascending sale ID, using the primary key.
+     */
+    ID(Sort.by(Sort.Direction.ASC, "id")),
+
+    /**
+     * Newest first: descending date, then descending ID for sales of the same day. Sales without a date are not
+     * listed in this order.
+     */
+    DATE(Sort.by(Sort.Direction.DESC, "date", "id"));
+
+    /**
+     * The sort applied to the query.
+     */
+    private final Sort sort;
+
+    Order(final Sort newSort) {
+      this.sort = newSort;
+    }
+
+    /**
+     * Returns the sort that matches the keyset predicate of this order.
+     *
+     * @return the sort.
+     */
+    public Sort sort() {
+      return sort;
+    }
+  }
+
+  /**
+   * Builds the cursor that resumes a listing right after the given sale.
+   *
+   * @param order the order of the listing.
+   * @param sale  the last sale returned.
+   *
+   * @return the cursor.
+   */
+  public static SaleCursor after(final Order order, final Sale sale) {
+    return new SaleCursor(order, order == Order.DATE ? sale.getDate() : null, sale.getId());
+  }
+
+  /**
+   * Encodes the cursor as an opaque, URL-safe token.
+   *
+   * @return the token.
+   */
+  public String encode() {
+    String raw = order == Order.DATE ? order + SEPARATOR + date + SEPARATOR + id : order + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a token produced by {@link #encode()}.
+   *
+   * @param token the token sent by the client.
+   *
+   * @return the cursor.
+   *
+   * @throws InvalidCursor if the token is malformed.
+   */
+  public static SaleCursor decode(final String token) {
+    try {
+      String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR);
+      Order order = Order.valueOf(parts[0]);
+      if (order == Order.DATE && parts.length == 3) {
+        return new SaleCursor(order, LocalDate.parse(parts[1]), Integer.parseInt(parts[2]));
+      }
+      if (order == Order.ID && parts.length == 2) {
+        return new SaleCursor(order, null, Integer.parseInt(parts[1]));
+      }
+    } catch (RuntimeException error) {
+      throw new InvalidCursor("Malformed cursor: " + token);
+    }
+    throw new InvalidCursor("Malformed cursor: " + token);
+  }
+}
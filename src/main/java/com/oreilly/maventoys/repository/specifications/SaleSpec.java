@@ -16,6 +16,7 @@ import java.util.List;
  * It is used to add additional constraints to a CriteriaQuery for Sales based on the Sale's id, storeId, and
  * employeeId.
  * This class uses Lombok's @AllArgsConstructor to automatically generate a constructor with parameters for all fields.
+ * Its static factories add the keyset predicates used to resume a listing from a {@link SaleCursor}.
  */
 @AllArgsConstructor
 public class SaleSpec implements Specification<Sale> {
@@ -66,4 +67,36 @@ public class SaleSpec implements Specification<Sale> {
     return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
   }
 
+  /**
+   * Builds the keyset predicate selecting the sales that come after the given cursor in its order, so a listing can
+   * seek straight to the next slice through an index instead of skipping rows with an offset.
+   *
+   * @param cursor the position of the last sale returned.
+   *
+   * @return a specification matching the sales after the cursor.
+   */
+  public static Specification<Sale> after(final SaleCursor cursor) {
+    return (root, query, criteriaBuilder) -> {
+      if (cursor.order() == SaleCursor.Order.ID) {
+        return criteriaBuilder.greaterThan(root.get("id"), cursor.id());
+      }
+      return criteriaBuilder.or(
+          criteriaBuilder.lessThan(root.get("date"), cursor.date()),
+          criteriaBuilder.and(criteriaBuilder.equal(root.get("date"), cursor.date()),
+                              criteriaBuilder.lessThan(root.get("id"), cursor.id())));
+    };
+  }
+
+  /**
+   * Restricts a listing to the sales that can take part in the given order. Sales without a date have no position
+   * in {@link SaleCursor.Order#DATE}, so they are only listed in ID order.
+   *
+   * @param order the order of the listing.
+   *
+   * @return a specification matching the sales that can be listed in that order.
+   */
+  public static Specification<Sale> orderable(final SaleCursor.Order order) {
+    return (root, query, criteriaBuilder) -> order == SaleCursor.Order.DATE
+        ? criteriaBuilder.isNotNull(root.get("date")) : criteriaBuilder.conjunction();
+  }
 }
@@ -35,6 +35,12 @@ public class StoreSpec implements Specification<Store> {
    */
   private String location;
 
+  /**
+   * How {@link #name} is matched; {@code null} means {@link MatchMode#CONTAINS}. The location is always matched as
+   * a substring.
+   */
+  private MatchMode match;
+
 
   /**
    * Constructs a predicate for a criteria query filtering {@code Store} entities based on their ID, name, and location.
@@ -58,7 +64,7 @@ public class StoreSpec implements Specification<Store> {
       predicates.add(criteriaBuilder.equal(root.get("id"), id));
     }
     if (name != null && !name.isEmpty()) {
-      predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + name.toLowerCase() + "%"));
+      predicates.add(matchMode().toPredicate(root, criteriaBuilder, "name", "nameKey", name));
     }
     if (location != null && !location.isEmpty()) {
       predicates.add(
@@ -67,6 +73,13 @@ public class StoreSpec implements Specification<Store> {
 
     return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
   }
-}
-
 
+  /**
+   * Resolves the match mode of the name filter.
+   *
+   * @return the requested mode, defaulting to {@link MatchMode#CONTAINS}.
+   */
+  private MatchMode matchMode() {
+    return match == null ? MatchMode.CONTAINS : match;
+  }
+}
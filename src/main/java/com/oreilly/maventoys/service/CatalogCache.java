@@ -0,0 +1,153 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.mapper.CategoryMapper;
+import com.oreilly.maventoys.mapper.ProductMapper;
+import com.oreilly.maventoys.mapper.StoreMapper;
+import com.oreilly.maventoys.model.DTO.CategoryDTO;
+import com.oreilly.maventoys.model.DTO.ProductDTO;
+import com.oreilly.maventoys.model.DTO.StoreDTO;
+import com.oreilly.maventoys.repository.CategoryRepository;
+import com.oreilly.maventoys.repository.ProductRepository;
+import com.oreilly.maventoys.repository.StoreRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Read-through cache of products, categories and stores by ID, kept in front of their repositories.
+ * <p>
+ * Entries are DTOs rather than entities, so they can be shared between threads and never hold a persistence
+ * context. Services that write one of these entities put the saved DTO back with the matching {@code put*} method,
+ * which replaces exactly that entry; the cache manager defers the write until the surrounding transaction commits.
+ * Lookups for an ID that does not exist are not cached. Size and expiry are set by {@code cache.catalog.spec}.
+ * </p>
+ * <p>
+ * Cached DTOs are shared by every caller and must not be modified.
+ * </p>
+ *
+ * @see com.oreilly.maventoys.config.CacheConfig
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogCache {
+
+  /**
+   * Name of the cache holding {@link ProductDTO}s by product ID.
+   */
+  public static final String PRODUCTS = "products";
+
+  /**
+   * Name of the cache holding {@link CategoryDTO}s by category ID.
+   */
+  public static final String CATEGORIES = "categories";
+
+  /**
+   * Name of the cache holding {@link StoreDTO}s by store ID.
+   */
+  public static final String STORES = "stores";
+
+  /**
+   * Repository products are loaded from on a cache miss.
+   */
+  private final ProductRepository productRepository;
+
+  /**
+   * Repository categories are loaded from on a cache miss.
+   */
+  private final CategoryRepository categoryRepository;
+
+  /**
+   * Repository stores are loaded from on a cache miss.
+   */
+  private final StoreRepository storeRepository;
+
+  /**
+   * Mapper for product DTOs.
+   */
+  private final ProductMapper productMapper;
+
+  /**
+   * Mapper for category DTOs.
+   */
+  private final CategoryMapper categoryMapper;
+
+  /**
+   * Mapper for store DTOs.
+   */
+  private final StoreMapper storeMapper;
+
+  /**
+   * Finds a product by ID, reading the database only on a cache miss.
+   *
+   * @param id the product ID.
+   *
+   * @return the product, or an empty {@link Optional} if it does not exist.
+   */
+  @Cacheable(cacheNames = PRODUCTS, key = "#id", unless = "#result == null")
+  public Optional<ProductDTO> findProduct(final Integer id) {
+    return productRepository.findById(id).map(productMapper::productToProductDTO);
+  }
+
+  /**
+   * Finds a category by ID, reading the database only on a cache miss.
+   *
+   * @param id the category ID.
+   *
+   * @return the category, or an empty {@link Optional} if it does not exist.
+   */
+  @Cacheable(cacheNames = CATEGORIES, key = "#id", unless = "#result == null")
+  public Optional<CategoryDTO> findCategory(final Integer id) {
+    return categoryRepository.findById(id).map(categoryMapper::categoryToCategoryDTO);
+  }
+
+  /**
+   * Finds a store by ID, reading the database only on a cache miss.
+   *
+   * @param id the store ID.
+   *
+   * @return the store, or an empty {@link Optional} if it does not exist.
+   */
+  @Cacheable(cacheNames = STORES, key = "#id", unless = "#result == null")
+  public Optional<StoreDTO> findStore(final Integer id) {
+    return storeRepository.findById(id).map(storeMapper::storeToStoreDTO);
+  }
+
+  /**
+   * Replaces the cached entry of a product that has just been saved.
+   *
+   * @param product the saved product.
+   *
+   * @return the same product.
+   */
+  @CachePut(cacheNames = PRODUCTS, key = "#product.id")
+  public ProductDTO putProduct(final ProductDTO product) {
+    return product;
+  }
+
+  /**
+   * Replaces the cached entry of a category that has just been saved.
+   *
+   * @param category the saved category.
+   *
+   * @return the same category.
+   */
+  @CachePut(cacheNames = CATEGORIES, key = "#category.id")
+  public CategoryDTO putCategory(final CategoryDTO category) {
+    return category;
+  }
+
+  /**
+   * Replaces the cached entry of a store that has just been saved.
+   *
+   * @param store the saved store.
+   *
+   * @return the same store.
+   */
+  @CachePut(cacheNames = STORES, key = "#store.id")
+  public StoreDTO putStore(final StoreDTO store) {
+    return store;
+  }
+}
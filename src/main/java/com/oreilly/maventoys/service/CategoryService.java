@@ -12,10 +12,12 @@ import com.oreilly.maventoys.repository.CategoryRepository;
 import com.oreilly.maventoys.repository.ProductRepository;
 import com.oreilly.maventoys.model.CustomApiResponse;
 import com.oreilly.maventoys.repository.specifications.CategorySpec;
+import com.oreilly.maventoys.repository.CountMode;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -55,12 +57,23 @@ public class CategoryService {
    */
   private final CategoryMapper categoryMapper;
 
+  /**
+   * Cache of categories by ID, refreshed whenever a category is written here.
+   */
+  private final CatalogCache catalogCache;
+
+  /**
+   * Modification counters answering conditional requests for {@code GET /categories} and the sales per category,
+   * bumped whenever a category is written.
+   */
+  private final TableVersions tableVersions;
+
 
   /**
    * Retrieves all active categories from the database and converts them to CategoryDTOs.
    * This method is designed to fetch categories that are marked active, ensuring that
-   * only relevant data is returned to the client. The conversion to DTOs aids in
-   * abstracting the domain model and facilitating easier data handling.
+   * only relevant data is returned to the client. Categories are read as projections,
+   * so their products are never loaded and nothing is left in the persistence context.
    *
    * @return ApiResponse containing a list of CategoryDTOs for active categories
    * and a success status, indicating successful retrieval.
@@ -70,9 +83,8 @@ public class CategoryService {
    */
   public CustomApiResponse<List<CategoryDTO>> getAllCategories() {
     try {
-      List<Category> activeCategories = categoryRepository.findByActiveTrue();
-      List<CategoryDTO> categoryDTOs =
-          activeCategories.stream().map(categoryMapper::categoryToCategoryDTO).collect(Collectors.toList());
+      List<CategoryDTO> categoryDTOs = categoryRepository.findActiveSummaries().stream()
+          .map(categoryMapper::categorySummaryToCategoryDTO).collect(Collectors.toList());
       return new CustomApiResponse<>("Categories retrieved successfully", categoryDTOs);
     } catch (Exception error) {
       throw new GeneralException("Error finding all active categories: " + "CAUSE: " + error.getCause());
@@ -92,11 +104,15 @@ public class CategoryService {
    * @throws GeneralException if an error occurs during the creation process,
    *                          encapsulating any underlying database or data integrity issues.
    */
+  @Transactional
   public CustomApiResponse<CategoryDTO> createCategory(final CategoryDTO categoryDTO) {
     try {
       Category category = categoryMapper.categoryDTOToCategory(categoryDTO);
       category = categoryRepository.save(category);
-      return new CustomApiResponse<>("Category created successfully", categoryMapper.categoryToCategoryDTO(category));
+      CategoryDTO createdCategoryDTO = categoryMapper.categoryToCategoryDTO(category);
+      catalogCache.putCategory(createdCategoryDTO);
+      tableVersions.bump(TableVersions.Table.CATEGORIES);
+      return new CustomApiResponse<>("Category created successfully", createdCategoryDTO);
     } catch (Exception error) {
       throw new GeneralException("Error creating category: " + "CAUSE: " + error.getCause());
     }
@@ -118,9 +134,8 @@ public class CategoryService {
    */
   public CustomApiResponse<CategoryDTO> getCategoryById(final Integer id) {
     try {
-      Category category =
-          categoryRepository.findById(id).orElseThrow(() -> new IdNotFound("Category not found with the ID: " + id));
-      CategoryDTO categoryDTO = categoryMapper.categoryToCategoryDTO(category);
+      CategoryDTO categoryDTO =
+          catalogCache.findCategory(id).orElseThrow(() -> new IdNotFound("Category not found with the ID: " + id));
       return new CustomApiResponse<>("Category details fetched successfully", categoryDTO);
     } catch (IdNotFound e) {
       return new CustomApiResponse<>(e.getMessage(), null);
@@ -143,6 +158,7 @@ public class CategoryService {
    * @throws GeneralException if an error occurs during the update process,
    *                          encapsulating any underlying issue.
    */
+  @Transactional
   public CustomApiResponse<CategoryDTO> patchCategory(final Integer id, final CategoryDTO categoryDTO) {
     try {
       Category category = categoryRepository.findById(id).map(existingCategory -> {
@@ -150,6 +166,8 @@ public class CategoryService {
         return categoryRepository.save(existingCategory);
       }).orElseThrow(() -> new IdNotFound("Category not found with the ID: " + id));
       CategoryDTO updatedCategoryDTO = categoryMapper.categoryToCategoryDTO(category);
+      catalogCache.putCategory(updatedCategoryDTO);
+      tableVersions.bump(TableVersions.Table.CATEGORIES);
       return new CustomApiResponse<>("Category updated successfully", updatedCategoryDTO);
     } catch (IdNotFound e) {
       return new CustomApiResponse<>(e.getMessage(), null);
@@ -199,18 +217,20 @@ public class CategoryService {
     * @param pageable The pagination information for the category list.
     * @param id       The unique identifier of the category to filter by.
     * @param name     The name of the category to filter by.
+    * @param countMode How the total number of categories is reported; with {@link CountMode#NONE} no count query
+    *                  is run and a slice is returned.
     *
     * @return ApiResponse containing a paged list of CategoryDTOs and a success status.
     *
     * @throws GeneralException if an error occurs during the retrieval process,
     *                          encapsulating any underlying database or application issues.
     */
-  public CustomApiResponse<Page<CategoryDTO>> getCategoriesPaged(final Pageable pageable, final Integer id,
-                                                                 final String name) {
+  public CustomApiResponse<Slice<CategoryDTO>> getCategoriesPaged(final Pageable pageable, final Integer id,
+                                                                  final String name, final CountMode countMode) {
     try {
       CategorySpec spec = new CategorySpec(id, name);
-      Page<Category> categoryPage = categoryRepository.findAll(spec, pageable);
-      Page<CategoryDTO> resultDTOPage = categoryPage.map(categoryMapper::categoryToCategoryDTO);
+      Slice<Category> categoryPage = categoryRepository.findPage(spec, pageable, countMode.unlessFiltered(id, name));
+      Slice<CategoryDTO> resultDTOPage = categoryPage.map(categoryMapper::categoryToCategoryDTO);
       return new CustomApiResponse<>("All categories retrieved successfully", resultDTOPage);
     } catch (Exception error) {
       throw new GeneralException("Error finding all categories: " + "CAUSE: " + error.getCause());
@@ -8,14 +8,16 @@ import com.oreilly.maventoys.mapper.EmployeeMapper;
 import com.oreilly.maventoys.mapper.SaleMapper;
 import com.oreilly.maventoys.model.entity.Employee;
 import com.oreilly.maventoys.model.entity.Sale;
-import com.oreilly.maventoys.model.entity.Store;
 import com.oreilly.maventoys.repository.EmployeeRepository;
 import com.oreilly.maventoys.repository.StoreRepository;
 import com.oreilly.maventoys.model.CustomApiResponse;
 import com.oreilly.maventoys.repository.specifications.EmployeeSpec;
+import com.oreilly.maventoys.repository.specifications.MatchMode;
+import com.oreilly.maventoys.repository.CountMode;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -71,6 +73,27 @@ public class EmployeeService {
    */
   private final SaleMapper saleMapper;
 
+  /**
+   * In-memory leaderboards answering the top-sellers ranking once they are seeded.
+   */
+  private final LeaderboardService leaderboardService;
+
+  /**
+   * Cache of stores by ID, used to validate store assignments without reading the store.
+   */
+  private final CatalogCache catalogCache;
+
+  /**
+   * Modification counters answering conditional requests for the top sellers ranking, bumped whenever an employee
+   * is written.
+   */
+  private final TableVersions tableVersions;
+
+  /**
+   * Publishes a {@link NameChangedEvent} for every employee written, keeping the name search index current.
+   */
+  private final ApplicationEventPublisher eventPublisher;
+
   /**
    * Fetches all employees currently marked as active within the database and converts their information into Data
    * Transfer Objects (DTOs).
@@ -79,6 +102,7 @@ public class EmployeeService {
    * and have not been marked as inactive or terminated. The conversion to DTOs facilitates easy data handling and
    * encapsulation, ensuring that
    * the information can be utilized efficiently in various parts of the application or external systems.
+   * Employees are selected as read-only projections carrying only their store ID.
    *
    * @return A {@link List<EmployeeDTO>} containing the DTOs of all active employees. This list provides a
    * standardized format for employee data,
@@ -91,9 +115,8 @@ public class EmployeeService {
    */
   public CustomApiResponse<List<EmployeeDTO>> getAllEmployees() {
     try {
-      List<Employee> activeEmployees = employeeRepository.getByActiveTrue();
-      List<EmployeeDTO> employeeDTOs =
-          activeEmployees.stream().map(employeeMapper::employeeToEmployeeDTO).collect(Collectors.toList());
+      List<EmployeeDTO> employeeDTOs = employeeRepository.findActiveSummaries().stream()
+          .map(employeeMapper::employeeSummaryToEmployeeDTO).collect(Collectors.toList());
       return new CustomApiResponse<>("Employees retrieved successfully", employeeDTOs);
     } catch (Exception error) {
       throw new GeneralException("Error fetching all active employees: " + "CAUSE: " + error.getCause());
@@ -150,6 +173,8 @@ public class EmployeeService {
       Employee employee = employeeMapper.employeeDTOToEmployee(employeeDTO);
       Employee savedEmployee = employeeRepository.save(employee);
       EmployeeDTO savedEmployeeDTO = employeeMapper.employeeToEmployeeDTO(savedEmployee);
+      publishNameChanged(savedEmployee);
+      tableVersions.bump(TableVersions.Table.EMPLOYEES);
       return new CustomApiResponse<>("Employee created successfully", savedEmployeeDTO);
     } catch (Exception error) {
       throw new GeneralException("Error creating employee: " + "CAUSE: " + error.getCause());
@@ -180,12 +205,14 @@ public class EmployeeService {
 
         // por si le asignamos un StoreID que no existe:
         if (employeeDTO.getStoreId() != null) {
-          Store store = storeRepository.findById(employeeDTO.getStoreId()).orElseThrow(
+          catalogCache.findStore(employeeDTO.getStoreId()).orElseThrow(
               () -> new IdNotFound("Store not found for the given ID: " + employeeDTO.getStoreId()));
-          employee.setStore(store);
+          employee.setStore(storeRepository.getReferenceById(employeeDTO.getStoreId()));
         }
 
         Employee updatedEmployee = employeeRepository.save(employee);
+        publishNameChanged(updatedEmployee);
+        tableVersions.bump(TableVersions.Table.EMPLOYEES);
         return employeeMapper.employeeToEmployeeDTO(updatedEmployee);
       }).orElseThrow(() -> new IdNotFound("Employee not found for the given ID: " + id));
       return new CustomApiResponse<>("Employee updated successfully", updatedEmployeeDTO);
@@ -218,6 +245,8 @@ public class EmployeeService {
           employeeRepository.findById(id).orElseThrow(() -> new IdNotFound("Employee not found with ID: " + id));
       Employee updatedEmployee = employeeMapper.updateEmployeeFromDto(employeeDTO, employee);
       employeeRepository.save(updatedEmployee);
+      publishNameChanged(updatedEmployee);
+      tableVersions.bump(TableVersions.Table.EMPLOYEES);
       EmployeeDTO updatedEmployeeDTO = employeeMapper.employeeToEmployeeDTO(updatedEmployee);
       return new CustomApiResponse<>("Employee updated successfully", updatedEmployeeDTO);
     } catch (IdNotFound idNotFound) {
@@ -268,19 +297,25 @@ public class EmployeeService {
    * @param id        The unique identifier of the employee to search for.
    * @param firstName The first name of the employee to search for.
    * @param lastName  The last name of the employee to search for.
+   * @param match     How the names are matched; {@link MatchMode#PREFIX} uses the indexed normalized names.
+   * @param countMode How the total number of employees is reported; with {@link CountMode#NONE} no count query is
+   *                  run and a slice is returned.
    *
-   * @return {@link CustomApiResponse <Page<EmployeeDTO>>} containing a paginated list of employee DTOs
+   * @return {@link CustomApiResponse <Slice<EmployeeDTO>>} containing a paginated list of employee DTOs
    * based on the search criteria and a success status.
    *
    * @throws GeneralException if an error occurs during the process of fetching the employees based on the search
    *                          criteria.
    */
-  public CustomApiResponse<Page<EmployeeDTO>> getAllEmployeesPaged(final Pageable pageable, final Integer id,
-                                                                   final String firstName, final String lastName) {
+  public CustomApiResponse<Slice<EmployeeDTO>> getAllEmployeesPaged(final Pageable pageable, final Integer id,
+                                                                    final String firstName, final String lastName,
+                                                                    final MatchMode match,
+                                                                    final CountMode countMode) {
     try {
-      EmployeeSpec specifications = new EmployeeSpec(id, firstName, lastName);
-      Page<Employee> activeEmployees = employeeRepository.findAll(specifications, pageable);
-      Page<EmployeeDTO> activeEmployeesDTOs = activeEmployees.map(employeeMapper::employeeToEmployeeDTO);
+      EmployeeSpec specifications = new EmployeeSpec(id, firstName, lastName, match);
+      Slice<Employee> activeEmployees = employeeRepository.findPage(specifications, pageable,
+                                                                    countMode.unlessFiltered(id, firstName, lastName));
+      Slice<EmployeeDTO> activeEmployeesDTOs = activeEmployees.map(employeeMapper::employeeToEmployeeDTO);
       return new CustomApiResponse<>("Active employees fetched successfully", activeEmployeesDTOs);
     } catch (Exception error) {
       throw new GeneralException("Error fetching active employees: " + "CAUSE: " + error.getCause());
@@ -300,12 +335,18 @@ public class EmployeeService {
    * It also includes a safeguard to prevent index out of bounds exceptions by checking the result array's length
    * before attempting to access the number of sales, ensuring robustness in handling incomplete data.
    * </p>
+   * <p>
+   * Once the leaderboards are seeded the ranking is served from {@link LeaderboardService} instead.
+   * </p>
    *
    * @return a {@link List} of {@link EmployeeDTO} objects representing the top-selling employees,
    * each with their associated sales count. The list is intended for use in reporting and
    * analytics contexts, providing insights into employee performance.
    */
   public List<EmployeeDTO> getTopSellers() {
+    if (leaderboardService.isReady()) {
+      return leaderboardService.topEmployees();
+    }
     List<Object[]> results = employeeRepository.findTopSellersWithStoreId();
     List<EmployeeDTO> topSellers = new ArrayList<>();
     for (Object[] result : results) {
@@ -321,4 +362,14 @@ public class EmployeeService {
     }
     return topSellers;
   }
+
+  /**
+   * Announces the current names of a saved employee to the name search index.
+   *
+   * @param employee the saved employee.
+   */
+  private void publishNameChanged(final Employee employee) {
+    eventPublisher.publishEvent(
+        NameChangedEvent.employee(employee.getId(), employee.getFirstName(), employee.getLastName()));
+  }
 }
@@ -0,0 +1,120 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.InsufficientStock;
+import com.oreilly.maventoys.model.DTO.InvoicesDTO;
+import com.oreilly.maventoys.repository.InventoryRepository;
+import com.oreilly.maventoys.repository.projections.StockLevel;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Keeps {@code inventory.stock_on_hand} in step with the sales written by {@link SaleService}.
+ * <p>
+ * Stock is taken with one conditional {@code UPDATE} per product that only succeeds while enough units are on hand,
+ * so an oversell is detected by the database without reading the stock first or locking the basket's rows up front.
+ * The updates of a sale are sent as a single JDBC batch, in ascending product ID order so that concurrent baskets
+ * lock shared rows in the same order and cannot deadlock. Each product is expected to have a single inventory record,
+ * as created by {@link ProductService#createProduct}.
+ * </p>
+ * <p>
+ * When the {@link StockLedger} is enabled, stock is taken and read from memory instead and reaches the table through
+ * its periodic flushes.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryService {
+
+  /**
+   * Takes {@code quantity} units of a product if at least that many are on hand.
+   */
+  private static final String DECREMENT_STOCK = "UPDATE inventory SET stock_on_hand = stock_on_hand - ? "
+      + "WHERE product_id = ? AND stock_on_hand >= ?";
+
+  /**
+   * Entity manager whose connection runs the batched updates, inside the caller's transaction.
+   */
+  private final EntityManager entityManager;
+
+  /**
+   * Repository reading stock levels when the ledger is disabled.
+   */
+  private final InventoryRepository inventoryRepository;
+
+  /**
+   * The in-memory stock engine, if enabled.
+   */
+  private final Optional<StockLedger> stockLedger;
+
+  /**
+   * Takes the units sold by the given sale lines from stock. Lines for the same product are added up first.
+   *
+   * @param lines the sale lines; lines without a product or with no positive quantity are ignored.
+   *
+   * @throws InsufficientStock if any product has fewer units on hand than requested, or no inventory record. The
+   *                           exception rolls back the enclosing transaction, so no product's stock is taken.
+   */
+  @Transactional
+  public void takeStock(final List<InvoicesDTO> lines) {
+    Map<Integer, Integer> quantities = new TreeMap<>();
+    for (InvoicesDTO line : lines) {
+      if (line.getProduct_id() != null && line.getQuantity() != null && line.getQuantity() > 0) {
+        quantities.merge(line.getProduct_id(), line.getQuantity(), Integer::sum);
+      }
+    }
+    if (quantities.isEmpty()) {
+      return;
+    }
+    if (stockLedger.isPresent()) {
+      stockLedger.get().take(quantities);
+      return;
+    }
+    int[] updated = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(DECREMENT_STOCK)) {
+        for (Map.Entry<Integer, Integer> quantity : quantities.entrySet()) {
+          statement.setInt(1, quantity.getValue());
+          statement.setInt(2, quantity.getKey());
+          statement.setInt(3, quantity.getValue());
+          statement.addBatch();
+        }
+        return statement.executeBatch();
+      }
+    });
+    List<Integer> shortfall = new ArrayList<>();
+    int index = 0;
+    for (Integer productId : quantities.keySet()) {
+      if (updated[index++] == 0) {
+        shortfall.add(productId);
+      }
+    }
+    if (!shortfall.isEmpty()) {
+      throw new InsufficientStock("Insufficient stock for products with IDs: " + shortfall);
+    }
+  }
+
+  /**
+   * Reads a product's stock on hand, from the ledger when it is enabled and knows the product, otherwise with a
+   * single query that also tells whether the product exists.
+   *
+   * @param productId the product ID.
+   *
+   * @return the product's stock level, or empty if the product does not exist.
+   */
+  public Optional<StockLevel> findStockLevel(final Integer productId) {
+    Integer onHand = stockLedger.map(ledger -> ledger.stockOnHand(productId)).orElse(null);
+    if (onHand != null) {
+      return Optional.of(new StockLevel(productId, onHand));
+    }
+    return inventoryRepository.findStockLevel(productId);
+  }
+}
@@ -0,0 +1,128 @@
+package com.oreilly.maventoys.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Thread-safe running totals keyed by entity ID, with a cached top-N ranking.
+ * <p>
+ * Updates only touch the total of one ID and bump a version counter. The ranking is rebuilt with a bounded
+ * min-heap of {@code size} entries the first time it is read after a change and then served from the cache
+ * until the next update, so repeated reads cost no more than a volatile read.
+ * </p>
+ */
+final class Leaderboard {
+
+  /**
+   * Orders entries by descending score, then ascending ID so ties are ranked deterministically.
+   */
+  private static final Comparator<Ranked> RANKING =
+      Comparator.comparingDouble(Ranked::score).reversed().thenComparingInt(Ranked::id);
+
+  /**
+   * Number of entries kept in the ranking.
+   */
+  private final int size;
+
+  /**
+   * Running total per entity ID.
+   */
+  private final Map<Integer, DoubleAdder> totals = new ConcurrentHashMap<>();
+
+  /**
+   * Incremented on every update; a cached ranking is valid only for the version it was built from.
+   */
+  private final AtomicLong version = new AtomicLong();
+
+  /**
+   * Last ranking built, or {@code null} before the first read.
+   */
+  private volatile Snapshot snapshot;
+
+  /**
+   * Creates an empty leaderboard.
+   *
+   * @param newSize number of entries kept in the ranking.
+   */
+  Leaderboard(final int newSize) {
+    this.size = newSize;
+  }
+
+  /**
+   * Creates a leaderboard seeded with the given totals.
+   *
+   * @param newSize number of entries kept in the ranking.
+   * @param seed    initial total per entity ID.
+   *
+   * @return the seeded leaderboard.
+   */
+  static Leaderboard of(final int newSize, final Map<Integer, Double> seed) {
+    Leaderboard leaderboard = new Leaderboard(newSize);
+    seed.forEach(leaderboard::add);
+    return leaderboard;
+  }
+
+  /**
+   * Adds {@code delta} (which may be negative) to the total of {@code id}.
+   *
+   * @param id    the entity ID.
+   * @param delta the amount to add.
+   */
+  void add(final Integer id, final double delta) {
+    totals.computeIfAbsent(id, key -> new DoubleAdder()).add(delta);
+    version.incrementAndGet();
+  }
+
+  /**
+   * Returns the entries with the highest totals, best first. Entries whose total is not positive are left out, as
+   * they would not appear in the equivalent SQL aggregate either.
+   *
+   * @return at most {@code size} ranked entries.
+   */
+  List<Ranked> top() {
+    long current = version.get();
+    Snapshot cached = snapshot;
+    if (cached != null && cached.version() == current) {
+      return cached.ranking();
+    }
+    PriorityQueue<Ranked> heap = new PriorityQueue<>(size + 1, RANKING.reversed());
+    totals.forEach((id, total) -> {
+      double score = total.sum();
+      if (score > 0) {
+        heap.offer(new Ranked(id, score));
+        if (heap.size() > size) {
+          heap.poll();
+        }
+      }
+    });
+    List<Ranked> ranking = new ArrayList<>(heap);
+    ranking.sort(RANKING);
+    List<Ranked> result = List.copyOf(ranking);
+    snapshot = new Snapshot(current, result);
+    return result;
+  }
+
+  /**
+   * An entity ID with its total.
+   *
+   * @param id    the entity ID.
+   * @param score the running total.
+   */
+  record Ranked(int id, double score) {
+  }
+
+  /**
+   * A ranking together with the version it was built from.
+   *
+   * @param version the leaderboard version.
+   * @param ranking the ranking.
+   */
+  private record Snapshot(long version, List<Ranked> ranking) {
+  }
+}
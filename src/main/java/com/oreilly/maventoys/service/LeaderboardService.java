@@ -0,0 +1,377 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.mapper.ProductMapper;
+import com.oreilly.maventoys.model.DTO.EmployeeDTO;
+import com.oreilly.maventoys.model.DTO.ProductDTO;
+import com.oreilly.maventoys.model.DTO.StoreDTO;
+import com.oreilly.maventoys.model.entity.Employee;
+import com.oreilly.maventoys.model.entity.Product;
+import com.oreilly.maventoys.model.entity.Store;
+import com.oreilly.maventoys.repository.EmployeeRepository;
+import com.oreilly.maventoys.repository.ProductRepository;
+import com.oreilly.maventoys.repository.StoreRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory top-N leaderboards of stores by revenue, employees by number of sales and products by units sold
+ * within their category.
+ * <p>
+ * The leaderboards are seeded from the database once the application is ready, updated with every
+ * {@link SaleTotalsChangedEvent} after its transaction commits, and periodically rebuilt from the daily and product
+ * sales rollups ({@code leaderboard.reconcile-interval}) to correct any drift, such as sales written by other
+ * application instances or products moved between categories. Names and other display fields are cached the first
+ * time an entity enters a ranking and refreshed on every reconciliation.
+ * </p>
+ * <p>
+ * A rebuild reads all rollups from one snapshot, and the events applied while it reads are replayed onto the new
+ * leaderboards before they replace the old ones, so sales committed during a rebuild are not lost.
+ * </p>
+ */
+@Service
+public class LeaderboardService {
+
+  /**
+   * Repository used to seed the store leaderboard and look up store names.
+   */
+  private final StoreRepository storeRepository;
+
+  /**
+   * Repository used to seed the employee leaderboard and look up employee details.
+   */
+  private final EmployeeRepository employeeRepository;
+
+  /**
+   * Repository used to seed the product leaderboards and look up product details.
+   */
+  private final ProductRepository productRepository;
+
+  /**
+   * Mapper converting products to the DTOs returned by the best-seller ranking.
+   */
+  private final ProductMapper productMapper;
+
+  /**
+   * Number of entries returned by each ranking.
+   */
+  private final int size;
+
+  /**
+   * Read-only transaction in which a rebuild reads every rollup from the same snapshot.
+   */
+  private final TransactionTemplate readTemplate;
+
+  /**
+   * Guards {@link #replay} and the swap of {@link #boards}.
+   */
+  private final Object swapLock = new Object();
+
+  /**
+   * Current leaderboards, or {@code null} until they are seeded.
+   */
+  private volatile Boards boards;
+
+  /**
+   * Events applied while a rebuild reads the database, to replay onto the rebuilt leaderboards, or {@code null} when
+   * no rebuild is running.
+   */
+  private List<SaleTotalsChangedEvent> replay;
+
+  /**
+   * Cached store names by store ID.
+   */
+  private final Map<Integer, String> storeNames = new ConcurrentHashMap<>();
+
+  /**
+   * Cached employee details by employee ID.
+   */
+  private final Map<Integer, EmployeeDTO> employees = new ConcurrentHashMap<>();
+
+  /**
+   * Cached product details by product ID.
+   */
+  private final Map<Integer, ProductDTO> products = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs a new LeaderboardService.
+   *
+   * @param newStoreRepository    repository for store totals and names.
+   * @param newEmployeeRepository repository for employee sale counts and details.
+   * @param newProductRepository  repository for product units and details.
+   * @param newProductMapper      mapper for product DTOs.
+   * @param transactionManager    transaction manager backing the rebuild reads.
+   * @param newSize               number of entries returned by each ranking.
+   */
+  public LeaderboardService(final StoreRepository newStoreRepository,
+                            final EmployeeRepository newEmployeeRepository,
+                            final ProductRepository newProductRepository, final ProductMapper newProductMapper,
+                            final PlatformTransactionManager transactionManager,
+                            @Value("${leaderboard.size:5}") final int newSize) {
+    if (newSize < 1) {
+      throw new IllegalArgumentException("leaderboard.size must be at least 1");
+    }
+    this.storeRepository = newStoreRepository;
+    this.employeeRepository = newEmployeeRepository;
+    this.productRepository = newProductRepository;
+    this.productMapper = newProductMapper;
+    this.size = newSize;
+    this.readTemplate = new TransactionTemplate(transactionManager);
+    this.readTemplate.setReadOnly(true);
+    this.readTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+  }
+
+  /**
+   * Seeds the leaderboards once the application has started.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    reconcile();
+  }
+
+  /**
+   * Rebuilds every leaderboard from the daily and product sales rollups and drops the cached display fields,
+   * replacing the running totals in a single swap. Events applied while the rollups are read are replayed onto the
+   * rebuilt leaderboards first; a sale committed just as the read starts may therefore be counted twice until the
+   * next rebuild, where dropping it would lose it until then.
+   */
+  @Scheduled(fixedDelayString = "${leaderboard.reconcile-interval:PT10M}",
+      initialDelayString = "${leaderboard.reconcile-interval:PT10M}")
+  public synchronized void reconcile() {
+    synchronized (swapLock) {
+      replay = new ArrayList<>();
+    }
+    try {
+      Boards rebuilt = readTemplate.execute(status -> read());
+      synchronized (swapLock) {
+        replay.forEach(event -> apply(rebuilt, event));
+        boards = rebuilt;
+      }
+    } finally {
+      synchronized (swapLock) {
+        replay = null;
+      }
+    }
+    storeNames.clear();
+    employees.clear();
+    products.clear();
+  }
+
+  /**
+   * Applies a committed sale to the running totals, and keeps it for replay if a rebuild is reading the database.
+   * Events received before the first seed are otherwise ignored, as the seed reads committed data and already
+   * includes them.
+   *
+   * @param event the change in sales figures.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSaleTotalsChanged(final SaleTotalsChangedEvent event) {
+    Boards current;
+    synchronized (swapLock) {
+      if (replay != null) {
+        replay.add(event);
+      }
+      current = boards;
+    }
+    if (current != null) {
+      apply(current, event);
+    }
+  }
+
+  /**
+   * Tells whether the leaderboards have been seeded and can answer queries.
+   *
+   * @return {@code true} once the leaderboards are available.
+   */
+  public boolean isReady() {
+    return boards != null;
+  }
+
+  /**
+   * Returns the stores with the highest revenue.
+   *
+   * @return the top stores, best first, with their ID, name and total sales.
+   */
+  public List<StoreDTO> topStores() {
+    List<Leaderboard.Ranked> ranking = boards.stores().top();
+    cacheMissing(ranking, storeNames, ids -> storeRepository.findAllById(ids).stream()
+        .collect(Collectors.toMap(Store::getId, Store::getName)));
+    List<StoreDTO> result = new ArrayList<>(ranking.size());
+    for (Leaderboard.Ranked entry : ranking) {
+      StoreDTO dto = new StoreDTO();
+      dto.setId(entry.id());
+      dto.setName(storeNames.get(entry.id()));
+      dto.setTotalSales(entry.score());
+      result.add(dto);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the employees with the most sales.
+   *
+   * @return the top employees, best first, with their ID, name, store ID and number of sales.
+   */
+  public List<EmployeeDTO> topEmployees() {
+    List<Leaderboard.Ranked> ranking = boards.sellers().top();
+    cacheMissing(ranking, employees, ids -> employeeRepository.findAllById(ids).stream()
+        .collect(Collectors.toMap(Employee::getId, LeaderboardService::employeeDetails)));
+    List<EmployeeDTO> result = new ArrayList<>(ranking.size());
+    for (Leaderboard.Ranked entry : ranking) {
+      EmployeeDTO details = employees.get(entry.id());
+      EmployeeDTO dto = new EmployeeDTO();
+      dto.setId(entry.id());
+      if (details != null) {
+        dto.setFirstName(details.getFirstName());
+        dto.setLastName(details.getLastName());
+        dto.setStoreId(details.getStoreId());
+      }
+      dto.setNumberOfSales((long) entry.score());
+      result.add(dto);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the best-selling products of a category by units sold.
+   *
+   * @param categoryId the category.
+   *
+   * @return the top products of the category, best first.
+   */
+  public List<ProductDTO> topProducts(final int categoryId) {
+    Leaderboard leaderboard = boards.bestSellers().get(categoryId);
+    if (leaderboard == null) {
+      return List.of();
+    }
+    List<Leaderboard.Ranked> ranking = leaderboard.top();
+    cacheMissing(ranking, products, ids -> productRepository.findAllById(ids).stream()
+        .collect(Collectors.toMap(Product::getId, productMapper::productToProductDTO)));
+    List<ProductDTO> result = new ArrayList<>(ranking.size());
+    for (Leaderboard.Ranked entry : ranking) {
+      ProductDTO dto = products.get(entry.id());
+      if (dto != null) {
+        result.add(dto);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Reads new leaderboards from the daily and product sales rollups.
+   *
+   * @return the leaderboards as of the read.
+   */
+  private Boards read() {
+    Leaderboard stores = Leaderboard.of(size, totals(storeRepository.findSalesTotalsPerStore(), 0, 1));
+    Leaderboard sellers = Leaderboard.of(size, totals(employeeRepository.findSaleCountsPerEmployee(), 0, 1));
+    Map<Integer, Leaderboard> bestSellers = new ConcurrentHashMap<>();
+    for (Object[] row : productRepository.findUnitsSoldPerProduct()) {
+      if (row[1] != null && row[2] != null) {
+        bestSellers.computeIfAbsent(((Number) row[1]).intValue(), id -> new Leaderboard(size))
+            .add(((Number) row[0]).intValue(), ((Number) row[2]).doubleValue());
+      }
+    }
+    return new Boards(stores, sellers, bestSellers);
+  }
+
+  /**
+   * Adds a sale to a set of leaderboards.
+   *
+   * @param target the leaderboards to update.
+   * @param event  the change in sales figures.
+   */
+  private void apply(final Boards target, final SaleTotalsChangedEvent event) {
+    if (event.storeId() != null) {
+      target.stores().add(event.storeId(), event.revenue());
+    }
+    if (event.employeeId() != null) {
+      target.sellers().add(event.employeeId(), event.sales());
+    }
+    for (SaleTotalsChangedEvent.ProductUnits line : event.lines()) {
+      if (line.categoryId() != null) {
+        target.bestSellers().computeIfAbsent(line.categoryId(), id -> new Leaderboard(size))
+            .add(line.productId(), line.units());
+      }
+    }
+  }
+
+  /**
+   * Loads the display fields of ranked entities that are not cached yet, with one lookup for all of them.
+   *
+   * @param ranking the ranking about to be returned.
+   * @param cache   the cache of display fields.
+   * @param loader  loads the display fields of the given IDs.
+   * @param <T>     the type of the display fields.
+   */
+  private static <T> void cacheMissing(final List<Leaderboard.Ranked> ranking, final Map<Integer, T> cache,
+                                       final Function<List<Integer>, Map<Integer, T>> loader) {
+    List<Integer> missing = new ArrayList<>();
+    for (Leaderboard.Ranked entry : ranking) {
+      if (!cache.containsKey(entry.id())) {
+        missing.add(entry.id());
+      }
+    }
+    if (!missing.isEmpty()) {
+      cache.putAll(loader.apply(missing));
+    }
+  }
+
+  /**
+   * Converts rows of {@code [id, total]} to a map of totals.
+   *
+   * @param rows        the query rows.
+   * @param idIndex     index of the ID column.
+   * @param totalIndex  index of the total column.
+   *
+   * @return the total per ID.
+   */
+  private static Map<Integer, Double> totals(final List<Object[]> rows, final int idIndex, final int totalIndex) {
+    Map<Integer, Double> totals = new HashMap<>();
+    for (Object[] row : rows) {
+      if (row[idIndex] != null && row[totalIndex] != null) {
+        totals.put(((Number) row[idIndex]).intValue(), ((Number) row[totalIndex]).doubleValue());
+      }
+    }
+    return totals;
+  }
+
+  /**
+   * Copies the fields shown in the employee ranking.
+   *
+   * @param employee the employee.
+   *
+   * @return a DTO holding the employee's first name, last name and store ID.
+   */
+  private static EmployeeDTO employeeDetails(final Employee employee) {
+    EmployeeDTO dto = new EmployeeDTO();
+    dto.setFirstName(employee.getFirstName());
+    dto.setLastName(employee.getLastName());
+    dto.setStoreId(employee.getStore() == null ? null : employee.getStore().getId());
+    return dto;
+  }
+
+  /**
+   * The set of leaderboards swapped in by each reconciliation.
+   *
+   * @param stores      stores by revenue.
+   * @param sellers     employees by number of sales.
+   * @param bestSellers products by units sold, per category ID.
+   */
+  private record Boards(Leaderboard stores, Leaderboard sellers, Map<Integer, Leaderboard> bestSellers) {
+  }
+}
@@ -0,0 +1,37 @@
+package com.oreilly.maventoys.service;
+
+/**
+ * Published whenever a product, store or employee is written, so the in-memory name search index can follow the new
+ * name once the transaction commits.
+ *
+ * @param kind the kind of entity that was written.
+ * @param id   the ID of the entity; events without one are ignored.
+ * @param name the name to index; for employees, the first and last names separated by a space.
+ */
+public record NameChangedEvent(NameSearchService.Kind kind, Integer id, String name) {
+
+  /**
+   * Builds the event for an employee.
+   *
+   * @param id        the ID of the employee.
+   * @param firstName the employee's first name.
+   * @param lastName  the employee's last name.
+   *
+   * @return the event.
+   */
+  public static NameChangedEvent employee(final Integer id, final String firstName, final String lastName) {
+    return new NameChangedEvent(NameSearchService.Kind.EMPLOYEE, id, employeeName(firstName, lastName));
+  }
+
+  /**
+   * Joins an employee's names into the single name that is indexed.
+   *
+   * @param firstName the first name, possibly {@code null}.
+   * @param lastName  the last name, possibly {@code null}.
+   *
+   * @return the full name.
+   */
+  static String employeeName(final String firstName, final String lastName) {
+    return ((firstName == null ? "" : firstName) + " " + (lastName == null ? "" : lastName)).trim();
+  }
+}
@@ -0,0 +1,323 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.model.SearchText;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index answering substring searches over names.
+ * <p>
+ * Names are kept in parallel arrays indexed by slot, so checking a candidate is an array read rather than a map
+ * lookup. Every normalized name is split into its overlapping three-character grams, and each gram keeps the slots
+ * of the names that contain it. A search reads the shortest posting list among the grams of the term and checks each
+ * candidate against its full name, so the cost depends on how selective the term is rather than on the number of
+ * names. Terms shorter than a gram are answered by a scan of the slots. Either way, once enough hits are found,
+ * candidates that could not outrank the worst of them are skipped on their ID alone, without reading their name.
+ * Updates are applied in place under a write lock; searches share a read lock.
+ * </p>
+ */
+final class NameIndex {
+
+  /**
+   * Length of the grams names are split into.
+   */
+  static final int GRAM = 3;
+
+  /**
+   * Order of search results: names starting with the term first, then by ascending ID.
+   */
+  private static final Comparator<Hit> RANKING =
+      Comparator.comparing((Hit hit) -> !hit.prefix()).thenComparingInt(Hit::id);
+
+  /**
+   * Slot of each indexed ID.
+   */
+  private final Map<Integer, Integer> slots = new HashMap<>();
+
+  /**
+   * ID held by each slot.
+   */
+  private int[] ids = new int[16];
+
+  /**
+   * Normalized name held by each slot, or {@code null} for a free slot.
+   */
+  private String[] keys = new String[16];
+
+  /**
+   * Name as written held by each slot.
+   */
+  private String[] names = new String[16];
+
+  /**
+   * Number of slots ever used; slots below it are either held or on {@link #free}.
+   */
+  private int used;
+
+  /**
+   * Slots released by removed names, reused before new ones.
+   */
+  private final Postings free = new Postings();
+
+  /**
+   * Slots of the names containing each gram.
+   */
+  private final Map<String, Postings> postings = new HashMap<>();
+
+  /**
+   * Guards the slots and {@link #postings}.
+   */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /**
+   * Adds a name, or replaces the name indexed under the same ID.
+   *
+   * @param id   the ID of the named entity.
+   * @param name the name; {@code null} removes the entry.
+   */
+  void put(final int id, final String name) {
+    lock.writeLock().lock();
+    try {
+      putLocked(id, name);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds a name unless the ID is already indexed. Used when seeding the index, so a name loaded from an older
+   * snapshot never overwrites one applied by a later write.
+   *
+   * @param id   the ID of the named entity.
+   * @param name the name.
+   */
+  void putIfAbsent(final int id, final String name) {
+    lock.writeLock().lock();
+    try {
+      if (!slots.containsKey(id)) {
+        putLocked(id, name);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Finds the names containing the term, ignoring case and accents. Names starting with the term come first, then
+   * the others; ties are ordered by ascending ID.
+   *
+   * @param term  the search term.
+   * @param limit the maximum number of hits.
+   *
+   * @return the matching entries, best first.
+   */
+  List<Hit> search(final String term, final int limit) {
+    String key = SearchText.normalize(term);
+    if (key == null || key.isEmpty() || limit < 1) {
+      return List.of();
+    }
+    PriorityQueue<Hit> hits = new PriorityQueue<>(limit + 1, RANKING.reversed());
+    lock.readLock().lock();
+    try {
+      if (key.length() < GRAM) {
+        for (int slot = 0; slot < used; slot++) {
+          collect(slot, key, hits, limit);
+        }
+      } else {
+        Postings candidates = shortestPostings(key);
+        if (candidates != null) {
+          for (int i = 0; i < candidates.size; i++) {
+            collect(candidates.ids[i], key, hits, limit);
+          }
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    List<Hit> ranked = new ArrayList<>(hits);
+    ranked.sort(RANKING);
+    return ranked;
+  }
+
+  /**
+   * Returns the number of indexed names.
+   *
+   * @return the number of entries.
+   */
+  int size() {
+    lock.readLock().lock();
+    try {
+      return slots.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the entry of an ID and its postings. The caller holds the write lock.
+   *
+   * @param id   the ID of the named entity.
+   * @param name the new name, or {@code null} to only remove the entry.
+   */
+  private void putLocked(final int id, final String name) {
+    Integer previous = slots.remove(id);
+    if (previous != null) {
+      for (String gram : grams(keys[previous])) {
+        Postings list = postings.get(gram);
+        if (list != null && list.remove(previous) && list.size == 0) {
+          postings.remove(gram);
+        }
+      }
+      keys[previous] = null;
+      names[previous] = null;
+      free.add(previous);
+    }
+    String key = SearchText.normalize(name);
+    if (key == null) {
+      return;
+    }
+    int slot = free.size > 0 ? free.ids[--free.size] : newSlot();
+    ids[slot] = id;
+    keys[slot] = key;
+    names[slot] = name;
+    slots.put(id, slot);
+    for (String gram : grams(key)) {
+      postings.computeIfAbsent(gram, g -> new Postings()).add(slot);
+    }
+  }
+
+  /**
+   * Takes the next unused slot, growing the arrays when they are full.
+   *
+   * @return the slot.
+   */
+  private int newSlot() {
+    if (used == ids.length) {
+      ids = Arrays.copyOf(ids, used * 2);
+      keys = Arrays.copyOf(keys, used * 2);
+      names = Arrays.copyOf(names, used * 2);
+    }
+    return used++;
+  }
+
+  /**
+   * Finds the shortest posting list among the grams of a term.
+   *
+   * @param key the normalized term, at least one gram long.
+   *
+   * @return the shortest list, or {@code null} if some gram of the term appears in no name.
+   */
+  private Postings shortestPostings(final String key) {
+    Postings shortest = null;
+    for (String gram : grams(key)) {
+      Postings list = postings.get(gram);
+      if (list == null) {
+        return null;
+      }
+      if (shortest == null || list.size < shortest.size) {
+        shortest = list;
+      }
+    }
+    return shortest;
+  }
+
+  /**
+   * Offers the name of a slot to the bounded heap of best hits if it contains the term, evicting the worst hit once
+   * the heap holds more than {@code limit}. When the heap is full, a name that could not outrank the worst hit is
+   * skipped: any name with a higher ID if the worst hit is a prefix, or one that does not start with the term
+   * otherwise.
+   *
+   * @param slot  the slot of the candidate.
+   * @param key   the normalized term.
+   * @param hits  the heap of best hits, worst on top.
+   * @param limit the maximum number of hits kept.
+   */
+  private void collect(final int slot, final String key, final PriorityQueue<Hit> hits, final int limit) {
+    String candidate = keys[slot];
+    if (candidate == null) {
+      return;
+    }
+    int id = ids[slot];
+    boolean prefix;
+    if (hits.size() < limit) {
+      prefix = candidate.startsWith(key);
+    } else {
+      Hit worst = hits.peek();
+      if (worst.prefix() && id > worst.id()) {
+        return;
+      }
+      prefix = candidate.startsWith(key);
+      if (!prefix && (worst.prefix() || id > worst.id())) {
+        return;
+      }
+    }
+    if (prefix || candidate.contains(key)) {
+      hits.offer(new Hit(id, names[slot], prefix));
+      if (hits.size() > limit) {
+        hits.poll();
+      }
+    }
+  }
+
+  /**
+   * Splits a normalized name into its distinct grams.
+   *
+   * @param key the normalized name.
+   *
+   * @return the grams, in order of first occurrence.
+   */
+  private static Set<String> grams(final String key) {
+    Set<String> grams = new LinkedHashSet<>();
+    for (int i = 0; i + GRAM <= key.length(); i++) {
+      grams.add(key.substring(i, i + GRAM));
+    }
+    return grams;
+  }
+
+  /**
+   * A search result.
+   *
+   * @param id     the ID of the named entity.
+   * @param name   the name as written.
+   * @param prefix whether the name starts with the term.
+   */
+  record Hit(int id, String name, boolean prefix) {
+  }
+
+  /**
+   * Unordered, growable list of slots.
+   */
+  private static final class Postings {
+
+    private int[] ids = new int[2];
+
+    private int size;
+
+    void add(final int id) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+      }
+      ids[size++] = id;
+    }
+
+    boolean remove(final int id) {
+      for (int i = 0; i < size; i++) {
+        if (ids[i] == id) {
+          ids[i] = ids[--size];
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
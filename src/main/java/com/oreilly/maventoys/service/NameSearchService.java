@@ -0,0 +1,240 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.GeneralException;
+import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.model.DTO.SearchResultDTO;
+import com.oreilly.maventoys.model.SearchText;
+import com.oreilly.maventoys.model.entity.Employee;
+import com.oreilly.maventoys.repository.CountMode;
+import com.oreilly.maventoys.repository.EmployeeRepository;
+import com.oreilly.maventoys.repository.ProductRepository;
+import com.oreilly.maventoys.repository.StoreRepository;
+import com.oreilly.maventoys.repository.specifications.EmployeeSpec;
+import com.oreilly.maventoys.repository.specifications.MatchMode;
+import com.oreilly.maventoys.repository.specifications.ProductSpec;
+import com.oreilly.maventoys.repository.specifications.StoreSpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Search-as-you-type over product, store and employee names, answered from an in-memory {@link NameIndex} per kind
+ * of entity.
+ * <p>
+ * The indexes are seeded from the database once the application is ready and then follow every
+ * {@link NameChangedEvent} after its transaction commits. Until seeding completes, searches fall back to queries
+ * on the normalized name columns with the same matching and ranking, so results are the same either way, except that
+ * a term spanning an employee's first and last names is only found by the index.
+ * </p>
+ */
+@Service
+public class NameSearchService {
+
+  /**
+   * The kinds of entity that can be searched by name.
+   */
+  public enum Kind {
+    /**
+     * Products, by name.
+     */
+    PRODUCT,
+
+    /**
+     * Stores, by name.
+     */
+    STORE,
+
+    /**
+     * Employees, by first and last name.
+     */
+    EMPLOYEE
+  }
+
+  /**
+   * Repository used to seed the product index and answer searches before it is ready.
+   */
+  private final ProductRepository productRepository;
+
+  /**
+   * Repository used to seed the store index and answer searches before it is ready.
+   */
+  private final StoreRepository storeRepository;
+
+  /**
+   * Repository used to seed the employee index and answer searches before it is ready.
+   */
+  private final EmployeeRepository employeeRepository;
+
+  /**
+   * Upper bound on the number of hits returned by a single search.
+   */
+  private final int maxResults;
+
+  /**
+   * One index per kind of entity.
+   */
+  private final Map<Kind, NameIndex> indexes = new EnumMap<>(Kind.class);
+
+  /**
+   * Whether the indexes have been seeded.
+   */
+  private volatile boolean ready;
+
+  /**
+   * Constructs a new NameSearchService.
+   *
+   * @param newProductRepository  repository for product names.
+   * @param newStoreRepository    repository for store names.
+   * @param newEmployeeRepository repository for employee names.
+   * @param newMaxResults         upper bound on the hits returned by a search.
+   */
+  public NameSearchService(final ProductRepository newProductRepository, final StoreRepository newStoreRepository,
+                           final EmployeeRepository newEmployeeRepository,
+                           @Value("${search.max-results:50}") final int newMaxResults) {
+    this.productRepository = newProductRepository;
+    this.storeRepository = newStoreRepository;
+    this.employeeRepository = newEmployeeRepository;
+    this.maxResults = newMaxResults;
+    for (Kind kind : Kind.values()) {
+      indexes.put(kind, new NameIndex());
+    }
+  }
+
+  /**
+   * Seeds the indexes once the application has started. Names already applied by a {@link NameChangedEvent} are
+   * kept, as they are at least as recent as the snapshot read here.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    for (Object[] row : productRepository.findAllNames()) {
+      indexes.get(Kind.PRODUCT).putIfAbsent(((Number) row[0]).intValue(), (String) row[1]);
+    }
+    for (Object[] row : storeRepository.findAllNames()) {
+      indexes.get(Kind.STORE).putIfAbsent(((Number) row[0]).intValue(), (String) row[1]);
+    }
+    for (Object[] row : employeeRepository.findAllNames()) {
+      indexes.get(Kind.EMPLOYEE).putIfAbsent(((Number) row[0]).intValue(),
+                                             NameChangedEvent.employeeName((String) row[1], (String) row[2]));
+    }
+    ready = true;
+  }
+
+  /**
+   * Applies a committed name change to the matching index.
+   *
+   * @param event the entity whose name was written.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onNameChanged(final NameChangedEvent event) {
+    if (event.id() != null) {
+      indexes.get(event.kind()).put(event.id(), event.name());
+    }
+  }
+
+  /**
+   * Tells whether the indexes have been seeded and answer searches.
+   *
+   * @return {@code true} once the indexes are available.
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Searches the names of one kind of entity. Names containing the term, ignoring case and accents, are returned;
+   * names starting with it come first.
+   *
+   * @param kind  the kind of entity to search.
+   * @param term  the search term.
+   * @param limit the maximum number of hits, capped at {@code search.max-results}.
+   *
+   * @return ApiResponse containing the hits, best first.
+   *
+   * @throws GeneralException if the fallback query fails.
+   */
+  public CustomApiResponse<List<SearchResultDTO>> search(final Kind kind, final String term, final int limit) {
+    int size = Math.max(1, Math.min(limit, maxResults));
+    if (ready) {
+      List<SearchResultDTO> hits = indexes.get(kind).search(term, size).stream()
+          .map(hit -> new SearchResultDTO(hit.id(), hit.name())).collect(Collectors.toList());
+      return new CustomApiResponse<>("Search completed successfully", hits);
+    }
+    try {
+      return new CustomApiResponse<>("Search completed successfully", searchDatabase(kind, term, size));
+    } catch (Exception error) {
+      throw new GeneralException("Error searching names: " + "CAUSE: " + error.getCause());
+    }
+  }
+
+  /**
+   * Answers a search from the database, used until the indexes are seeded. Names starting with the term are read
+   * first with an index range scan on the normalized column; only if they do not fill the page are the names
+   * containing it read as well, skipping the prefix matches already found.
+   *
+   * @param kind the kind of entity to search.
+   * @param term the search term.
+   * @param size the maximum number of hits.
+   *
+   * @return the hits, names starting with the term first, then by ascending ID.
+   */
+  private List<SearchResultDTO> searchDatabase(final Kind kind, final String term, final int size) {
+    String key = SearchText.normalize(term);
+    if (key == null || key.isEmpty()) {
+      return List.of();
+    }
+    List<SearchResultDTO> hits = new ArrayList<>(findNames(kind, term, MatchMode.PREFIX, size));
+    if (hits.size() < size) {
+      Set<Integer> prefixes = hits.stream().map(SearchResultDTO::getId).collect(Collectors.toSet());
+      for (SearchResultDTO hit : findNames(kind, term, MatchMode.KEY_CONTAINS, size + prefixes.size())) {
+        if (hits.size() < size && !prefixes.contains(hit.getId())) {
+          hits.add(hit);
+        }
+      }
+    }
+    return hits;
+  }
+
+  /**
+   * Reads the names of one kind of entity matching a term, by ascending ID.
+   *
+   * @param kind  the kind of entity to search.
+   * @param term  the search term.
+   * @param match how the normalized name columns are matched. Employees are indexed first name first, so they match
+   *              a prefix on their first name and a substring on either name.
+   * @param size  the maximum number of hits.
+   *
+   * @return the hits, by ascending ID.
+   */
+  private List<SearchResultDTO> findNames(final Kind kind, final String term, final MatchMode match,
+                                          final int size) {
+    PageRequest page = PageRequest.of(0, size, Sort.by("id"));
+    switch (kind) {
+      case PRODUCT:
+        return productRepository.findPage(new ProductSpec(null, term, match), page, CountMode.NONE)
+            .map(product -> new SearchResultDTO(product.getId(), product.getName())).getContent();
+      case STORE:
+        return storeRepository.findPage(new StoreSpec(null, term, null, match), page, CountMode.NONE)
+            .map(store -> new SearchResultDTO(store.getId(), store.getName())).getContent();
+      default:
+        Specification<Employee> spec = Specification.where(new EmployeeSpec(null, term, null, match));
+        if (match != MatchMode.PREFIX) {
+          spec = spec.or(new EmployeeSpec(null, null, term, match));
+        }
+        return employeeRepository.findPage(spec, page, CountMode.NONE)
+            .map(employee -> new SearchResultDTO(employee.getId(),
+                NameChangedEvent.employeeName(employee.getFirstName(), employee.getLastName()))).getContent();
+    }
+  }
+}
@@ -11,14 +11,17 @@ import com.oreilly.maventoys.model.entity.Inventory;
 import com.oreilly.maventoys.model.entity.Product;
 import com.oreilly.maventoys.model.entity.Sale;
 import com.oreilly.maventoys.repository.CategoryRepository;
-import com.oreilly.maventoys.repository.InventoryRepository;
 import com.oreilly.maventoys.repository.ProductRepository;
 import com.oreilly.maventoys.model.CustomApiResponse;
 import com.oreilly.maventoys.model.DTO.StockResponse;
+import com.oreilly.maventoys.repository.specifications.MatchMode;
 import com.oreilly.maventoys.repository.specifications.ProductSpec;
+import com.oreilly.maventoys.repository.CountMode;
+import com.oreilly.maventoys.repository.projections.StockLevel;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,7 +35,7 @@ import java.util.stream.Collectors;
  * This includes the management of product records such as creating, retrieving, updating,
  * and deleting product data, as well as handling inventory and sales data associated with products.
  * The service uses ProductRepository for persistence operations and ProductMapper for
- * converting between entity and DTO representations. CategoryRepository and InventoryRepository
+ * converting between entity and DTO representations. CategoryRepository and InventoryService
  * are also utilized for handling product categories and stock levels, respectively.
  */
 @Service
@@ -53,9 +56,9 @@ public class ProductService {
 
 
   /**
-   * Repository for managing inventory data.
+   * Service reading stock levels, from the in-memory stock ledger when it is enabled.
    */
-  private final InventoryRepository inventoryRepository;
+  private final InventoryService inventoryService;
 
   /**
    * Repository for managing product data.
@@ -67,13 +70,34 @@ public class ProductService {
    */
   private final SaleMapper saleMapper;
 
+  /**
+   * In-memory leaderboards answering the best-sellers ranking once they are seeded.
+   */
+  private final LeaderboardService leaderboardService;
+
+  /**
+   * Cache of products and categories by ID, refreshed whenever a product is written here.
+   */
+  private final CatalogCache catalogCache;
+
+  /**
+   * Modification counters answering conditional requests for {@code GET /products} and the best sellers ranking,
+   * bumped whenever a product is written.
+   */
+  private final TableVersions tableVersions;
+
+  /**
+   * Publishes a {@link NameChangedEvent} for every product written, keeping the name search index current.
+   */
+  private final ApplicationEventPublisher eventPublisher;
+
   /**
    * Retrieves all products currently marked as active in the database and converts them to a collection of
    * {@link ProductDTO} objects.
    * This operation filters only those products that are active, ensuring that any inactive or discontinued products
    * are not included in the response.
-   * Each active product is then mapped to a {@link ProductDTO}, facilitating easier data transfer and encapsulation
-   * of product information.
+   * Each active product is read as a ProductSummary projection, without hydrating the entity or its collections,
+   * and then mapped to a {@link ProductDTO}.
    *
    * @return {@link CustomApiResponse <List<ProductDTO>>} containing a list of all active {@link ProductDTO}s along
    * with a success status.
@@ -83,9 +107,8 @@ public class ProductService {
    */
   public CustomApiResponse<List<ProductDTO>> getProducts() {
     try {
-      List<Product> activeProducts = productRepository.getByActiveTrue();
-      List<ProductDTO> productDTOs =
-          activeProducts.stream().map(productMapper::productToProductDTO).collect(Collectors.toList());
+      List<ProductDTO> productDTOs = productRepository.findActiveSummaries().stream()
+          .map(productMapper::productSummaryToProductDTO).collect(Collectors.toList());
 
       // Construir y devolver ApiResponse directamente desde el servicio
       return new CustomApiResponse<>("Active products retrieved successfully", productDTOs);
@@ -119,8 +142,8 @@ public class ProductService {
    */
   public CustomApiResponse<ProductDTO> getProductById(final Integer id) {
     try {
-      ProductDTO productDTO = productRepository.findById(id).map(productMapper::productToProductDTO)
-                                               .orElseThrow(() -> new IdNotFound("Product not found with ID: " + id));
+      ProductDTO productDTO =
+          catalogCache.findProduct(id).orElseThrow(() -> new IdNotFound("Product not found with ID: " + id));
       return new CustomApiResponse<>("Product details fetched successfully", productDTO);
     } catch (IdNotFound error) {
       throw error;
@@ -152,13 +175,15 @@ public class ProductService {
   public CustomApiResponse<ProductDTO> createProduct(final ProductDTO productDTO, final int initialStock) {
     try {
       Product product = productMapper.productDTOToProduct(productDTO);
-      Category category = categoryRepository.findById(productDTO.getCategoryId())
-                                            .orElseThrow(() -> new IdNotFound("Category ID not found."));
       product.setInventory(createInventory(product, initialStock));
-      product.setCategory(category);
+      product.setCategory(categoryReference(productDTO.getCategoryId()));
       product = productRepository.save(product);
 
       ProductDTO createdProductDTO = productMapper.productToProductDTO(product);
+      catalogCache.putProduct(createdProductDTO);
+      tableVersions.bump(TableVersions.Table.PRODUCTS);
+      eventPublisher.publishEvent(new NameChangedEvent(NameSearchService.Kind.PRODUCT, product.getId(),
+                                                       product.getName()));
 
       return new CustomApiResponse<>("Product created successfully", createdProductDTO);
     } catch (Exception error) {
@@ -202,6 +227,7 @@ public class ProductService {
    * @throws IdNotFound       if the product or related category by the given ID is not found.
    * @throws GeneralException if an error occurs during the update process.
    */
+  @Transactional
   public CustomApiResponse<ProductDTO> patchProduct(final Integer id, final ProductDTO productDTO) {
     try {
       ProductDTO updatedProductDTO = productRepository.findById(id).map(product -> {
@@ -209,13 +235,16 @@ public class ProductService {
         productMapper.updateProductFromDto(productDTO, product);
 
         if (productDTO.getCategoryId() != null) {
-          Category category = categoryRepository.findById(productDTO.getCategoryId()).orElseThrow(
-              () -> new IdNotFound("Category not found with ID: " + productDTO.getCategoryId()));
-          product.setCategory(category);
+          product.setCategory(categoryReference(productDTO.getCategoryId()));
         }
 
         Product updatedProduct = productRepository.save(product);
-        return productMapper.productToProductDTO(updatedProduct);
+        ProductDTO patchedProductDTO = productMapper.productToProductDTO(updatedProduct);
+        catalogCache.putProduct(patchedProductDTO);
+        tableVersions.bump(TableVersions.Table.PRODUCTS);
+        eventPublisher.publishEvent(new NameChangedEvent(NameSearchService.Kind.PRODUCT, updatedProduct.getId(),
+                                                         updatedProduct.getName()));
+        return patchedProductDTO;
       }).orElseThrow(() -> new IdNotFound("Product not found for the given ID: " + id));
 
       return new CustomApiResponse<>("Product updated successfully", updatedProductDTO);
@@ -241,6 +270,7 @@ public class ProductService {
    * @throws IdNotFound       if the product or related category by the given ID is not found.
    * @throws GeneralException if an error occurs during the product's update process.
    */
+  @Transactional
   public CustomApiResponse<ProductDTO> updateProduct(final Integer id, final ProductDTO productDTO) {
     try {
       Product product =
@@ -248,13 +278,15 @@ public class ProductService {
       productMapper.updateProductFromDto(productDTO, product);
 
       if (productDTO.getCategoryId() != null) {
-        Category category = categoryRepository.findById(productDTO.getCategoryId()).orElseThrow(
-            () -> new IdNotFound("Category not found with ID: " + productDTO.getCategoryId()));
-        product.setCategory(category);
+        product.setCategory(categoryReference(productDTO.getCategoryId()));
       }
 
       Product updatedProduct = productRepository.save(product);
       ProductDTO updatedProductDTO = productMapper.productToProductDTO(updatedProduct);
+      catalogCache.putProduct(updatedProductDTO);
+      tableVersions.bump(TableVersions.Table.PRODUCTS);
+      eventPublisher.publishEvent(new NameChangedEvent(NameSearchService.Kind.PRODUCT, updatedProduct.getId(),
+                                                       updatedProduct.getName()));
 
       return new CustomApiResponse<>("Product details updated successfully", updatedProductDTO);
     } catch (IdNotFound idNotFound) {
@@ -265,9 +297,27 @@ public class ProductService {
   }
 
 
+  /**
+   * Returns a reference to an existing category without loading it. Existence is checked against the catalog cache,
+   * so assigning a cached category to a product costs no query.
+   *
+   * @param categoryId The ID of the category.
+   *
+   * @return An uninitialized reference to the category.
+   *
+   * @throws IdNotFound if the category does not exist.
+   */
+  private Category categoryReference(final Integer categoryId) {
+    catalogCache.findCategory(categoryId)
+                .orElseThrow(() -> new IdNotFound("Category not found with ID: " + categoryId));
+    return categoryRepository.getReferenceById(categoryId);
+  }
+
+
   /**
    * Retrieves the current stock level for a specific product identified by its ID.
    * This method looks up the inventory record associated with the given product ID to fetch the current stock on hand.
+   * The product and its stock are read in a single lookup, served from memory when the stock ledger is enabled.
    * It is useful for inventory management and stock level monitoring.
    *
    * @param productId The ID of the product to retrieve stock for.
@@ -280,9 +330,9 @@ public class ProductService {
    */
   public CustomApiResponse<StockResponse> getProductInventory(final Integer productId) {
     try {
-      productRepository.findById(productId).orElseThrow(() -> new IdNotFound("Product ID not found: " + productId));
-      Integer stock = inventoryRepository.getStockByProductId(productId);
-      StockResponse stockResponse = new StockResponse(stock);
+      StockLevel stockLevel = inventoryService.findStockLevel(productId)
+          .orElseThrow(() -> new IdNotFound("Product ID not found: " + productId));
+      StockResponse stockResponse = new StockResponse(stockLevel.stockOnHand());
       return new CustomApiResponse<>("Stock fetched successfully", stockResponse);
     } catch (IdNotFound e) {
       throw e;
@@ -362,19 +412,24 @@ public class ProductService {
    * @param pageable a Pageable object containing the pagination information.
    * @param id       an Integer representing the id of the product to be included in the filter. Can be null.
    * @param name     a String representing the name of the product to be included in the filter. Can be null.
+   * @param match    how the name is matched; {@link MatchMode#PREFIX} uses the indexed normalized name.
+   * @param countMode how the total number of products is reported; with {@link CountMode#NONE} no count query is
+   *                  run and a Slice is returned.
    *
-   * @return a CustomApiResponse containing a Page of ProductDTO objects representing the filtered and paginated
-   * products.
+   * @return a CustomApiResponse containing a Page or Slice of ProductDTO objects representing the filtered and
+   * paginated products.
    *
    * @throws GeneralException if there is an error during the retrieval process. This exception includes a detailed
    * cause of the failure.
    */
-  public CustomApiResponse<Page<ProductDTO>> getAllProductsPag(final Pageable pageable, final Integer id,
-                                                               final String name) {
+  public CustomApiResponse<Slice<ProductDTO>> getAllProductsPag(final Pageable pageable, final Integer id,
+                                                                final String name, final MatchMode match,
+                                                                final CountMode countMode) {
     try {
-      ProductSpec specification = new ProductSpec(id, name);
-      Page<Product> productPage = productRepository.findAll(specification, pageable);
-      Page<ProductDTO> productDTOPage = productPage.map(productMapper::productToProductDTO);
+      ProductSpec specification = new ProductSpec(id, name, match);
+      Slice<Product> productPage = productRepository.findPage(specification, pageable,
+                                                              countMode.unlessFiltered(id, name));
+      Slice<ProductDTO> productDTOPage = productPage.map(productMapper::productToProductDTO);
       return new CustomApiResponse<>("Paged products retrieved successfully", productDTOPage);
     } catch (Exception error) {
       throw new GeneralException("Error retrieving paged products: " + "CAUSE: " + error.getCause());
@@ -394,7 +449,8 @@ public class ProductService {
    * @return {@link CustomApiResponse} containing a message and a list of {@link ProductDTO}
    * objects representing the best-selling products in the specified category. The
    * message "Best sellers retrieved successfully" is included in the response to
-   * indicate the operation's success.
+   * indicate the operation's success. Once the leaderboards are seeded the
+   * ranking is served from {@link LeaderboardService} without querying the database.
    *
    * @throws GeneralException if there is an error during the retrieval process. This exception
    *                          includes a detailed cause of the failure, making it easier to diagnose and
@@ -403,6 +459,10 @@ public class ProductService {
    */
   public CustomApiResponse<List<ProductDTO>> getBestSellersByCategory(final int categoryId) {
     try {
+      if (leaderboardService.isReady()) {
+        return new CustomApiResponse<>("Best sellers retrieved successfully",
+                                       leaderboardService.topProducts(categoryId));
+      }
       List<Product> productList = productRepository.findBestSellersByCategory(categoryId);
       List<ProductDTO> productDTOList =
           productList.stream().map(productMapper::productToProductDTO).collect(Collectors.toList());
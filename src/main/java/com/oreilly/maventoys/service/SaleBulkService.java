@@ -0,0 +1,274 @@
+package com.oreilly.maventoys.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oreilly.maventoys.exceptions.MalformedPayload;
+import com.oreilly.maventoys.model.DTO.BulkSaleResult;
+import com.oreilly.maventoys.model.DTO.InvoicesDTO;
+import com.oreilly.maventoys.model.DTO.SaleDTO;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service responsible for ingesting large batches of sales uploaded in a single request.
+ * <p>
+ * The payload is read incrementally with the Jackson streaming parser, either as a JSON array of sales or as
+ * newline-delimited JSON (one sale per line). Records are validated as they are read and accumulated into chunks
+ * of {@code sales.bulk.chunk-size}; the valid sales of each chunk are committed in its own transaction. If a chunk
+ * fails to commit, its sales are retried one by one so that a single bad record does not reject its neighbours.
+ * </p>
+ * <p>
+ * A {@link BulkSaleResult} is written to the output as newline-delimited JSON for every record, in payload order,
+ * as soon as its chunk completes, so neither the request nor the response is ever fully held in memory. A payload
+ * that cannot be read fails with {@link MalformedPayload} while nothing has been written yet; once results have been
+ * sent, the output instead ends with a {@link BulkSaleResult.Status#MALFORMED} result, and the chunk being read is
+ * discarded rather than committed.
+ * </p>
+ */
+@Service
+public class SaleBulkService {
+
+  /**
+   * Largest discount percentage accepted for an invoice line.
+   */
+  private static final int MAX_DISCOUNT = 100;
+
+  /**
+   * Service used to persist each individual sale.
+   */
+  private final SaleService saleService;
+
+  /**
+   * Object mapper used to read sales from the parser and to write per-record results.
+   */
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Template that wraps each chunk (or each retried record) in its own transaction.
+   */
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Entity manager cleared after every chunk so the persistence context does not grow with the upload.
+   */
+  private final EntityManager entityManager;
+
+  /**
+   * Number of sales committed per transaction.
+   */
+  private final int chunkSize;
+
+  /**
+   * Constructs a new SaleBulkService.
+   *
+   * @param newSaleService        service used to persist each sale.
+   * @param newObjectMapper       mapper used to read sales and write results.
+   * @param transactionManager    transaction manager backing the chunk transactions.
+   * @param newEntityManager      shared entity manager, cleared after each chunk.
+   * @param newChunkSize          number of sales committed per transaction.
+   */
+  public SaleBulkService(final SaleService newSaleService, final ObjectMapper newObjectMapper,
+                         final PlatformTransactionManager transactionManager, final EntityManager newEntityManager,
+                         @Value("${sales.bulk.chunk-size:500}") final int newChunkSize) {
+    if (newChunkSize < 1) {
+      throw new IllegalArgumentException("sales.bulk.chunk-size must be at least 1");
+    }
+    this.saleService = newSaleService;
+    this.objectMapper = newObjectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.entityManager = newEntityManager;
+    this.chunkSize = newChunkSize;
+  }
+
+  /**
+   * Reads sales from {@code in} and writes one newline-delimited {@link BulkSaleResult} per record to {@code out}.
+   * The input may be a JSON array of sales or newline-delimited JSON objects.
+   *
+   * @param in  the uploaded payload.
+   * @param out the stream receiving the per-record results.
+   *
+   * @return the number of records read.
+   *
+   * @throws IOException       if reading the request or writing the response fails.
+   * @throws MalformedPayload  if the payload cannot be read before any result has been written.
+   */
+  public long importSales(final InputStream in, final OutputStream out) throws IOException {
+    long index = 0;
+    boolean written = false;
+    List<PendingRecord> chunk = new ArrayList<>(chunkSize);
+    try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+      JsonToken token = parser.nextToken();
+      boolean array = token == JsonToken.START_ARRAY;
+      if (array) {
+        token = parser.nextToken();
+      }
+      while (token == JsonToken.START_OBJECT) {
+        SaleDTO saleDTO = objectMapper.readValue(parser, SaleDTO.class);
+        String violation = validate(saleDTO);
+        chunk.add(new PendingRecord(index, violation == null ? saleDTO : null,
+                                    violation == null ? null : BulkSaleResult.rejected(index, violation)));
+        index++;
+        if (chunk.size() == chunkSize) {
+          flushChunk(chunk, out);
+          written = true;
+        }
+        token = parser.nextToken();
+      }
+      if (token != null && !(array && token == JsonToken.END_ARRAY)) {
+        throw new JsonParseException(parser, "Unexpected token " + token
+            + "; expected a JSON array or newline-delimited sale objects");
+      }
+    } catch (JsonProcessingException malformed) {
+      long firstLost = index - chunk.size();
+      String message = "Malformed payload after record " + index + ": " + malformed.getOriginalMessage();
+      if (!written) {
+        throw new MalformedPayload(message);
+      }
+      write(out, BulkSaleResult.malformed(firstLost, message + "; records from " + firstLost + " on were not saved"));
+      out.flush();
+      return index;
+    }
+    flushChunk(chunk, out);
+    return index;
+  }
+
+  /**
+   * Commits the valid sales of the pending chunk and writes the results of all its records in payload order. When
+   * the chunk transaction fails, every sale of the chunk is retried in its own transaction to isolate the offending
+   * ones.
+   *
+   * @param chunk the pending records; cleared on return.
+   * @param out   the stream receiving the results.
+   *
+   * @throws IOException if writing the results fails.
+   */
+  private void flushChunk(final List<PendingRecord> chunk, final OutputStream out) throws IOException {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    BulkSaleResult[] results = new BulkSaleResult[chunk.size()];
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        for (int i = 0; i < results.length; i++) {
+          PendingRecord record = chunk.get(i);
+          results[i] = record.sale() == null
+              ? record.rejection() : BulkSaleResult.created(record.index(), persist(record.sale()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+      });
+    } catch (RuntimeException chunkError) {
+      for (int i = 0; i < results.length; i++) {
+        PendingRecord record = chunk.get(i);
+        results[i] = record.sale() == null ? record.rejection() : persistAlone(record);
+      }
+    }
+    for (BulkSaleResult result : results) {
+      write(out, result);
+    }
+    out.flush();
+    chunk.clear();
+  }
+
+  /**
+   * Persists a single record in its own transaction, turning any failure into a rejected result.
+   *
+   * @param record the record to persist.
+   *
+   * @return the outcome for the record.
+   */
+  private BulkSaleResult persistAlone(final PendingRecord record) {
+    try {
+      Integer saleId = transactionTemplate.execute(status -> {
+        Integer id = persist(record.sale());
+        entityManager.flush();
+        entityManager.clear();
+        return id;
+      });
+      return BulkSaleResult.created(record.index(), saleId);
+    } catch (RuntimeException error) {
+      entityManager.clear();
+      return BulkSaleResult.rejected(record.index(), error.getMessage());
+    }
+  }
+
+  /**
+   * Persists a sale through {@link SaleService#createSale(SaleDTO)}.
+   *
+   * @param saleDTO the sale to persist.
+   *
+   * @return the identifier of the created sale.
+   */
+  private Integer persist(final SaleDTO saleDTO) {
+    return saleService.createSale(saleDTO).getData().getId();
+  }
+
+  /**
+   * Checks the fields a sale needs before it is handed to {@link SaleService#createSale(SaleDTO)}.
+   *
+   * @param saleDTO the sale to validate.
+   *
+   * @return a description of the first violation found, or {@code null} if the sale is valid.
+   */
+  private String validate(final SaleDTO saleDTO) {
+    if (saleDTO.getStoreId() == null) {
+      return "storeId is required";
+    }
+    if (saleDTO.getEmployeeId() == null) {
+      return "employeeId is required";
+    }
+    if (saleDTO.getDate() == null) {
+      return "date is required";
+    }
+    if (saleDTO.getProducts() == null || saleDTO.getProducts().isEmpty()) {
+      return "at least one product is required";
+    }
+    for (InvoicesDTO line : saleDTO.getProducts()) {
+      if (line.getProduct_id() == null) {
+        return "product_id is required on every line";
+      }
+      if (line.getQuantity() == null || line.getQuantity() < 1) {
+        return "quantity must be positive for product " + line.getProduct_id();
+      }
+      if (line.getDiscount() == null || line.getDiscount() < 0 || line.getDiscount() > MAX_DISCOUNT) {
+        return "discount must be between 0 and 100 for product " + line.getProduct_id();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Writes a single result followed by a newline.
+   *
+   * @param out    the target stream.
+   * @param result the result to write.
+   *
+   * @throws IOException if writing fails.
+   */
+  private void write(final OutputStream out, final BulkSaleResult result) throws IOException {
+    out.write(objectMapper.writeValueAsBytes(result));
+    out.write('\n');
+  }
+
+  /**
+   * A record read from the payload together with its position, holding either a valid sale or its rejection.
+   *
+   * @param index     position of the record in the payload.
+   * @param sale      the parsed sale, or {@code null} if it failed validation.
+   * @param rejection the result of a record that failed validation, or {@code null}.
+   */
+  private record PendingRecord(long index, SaleDTO sale, BulkSaleResult rejection) {
+  }
+}
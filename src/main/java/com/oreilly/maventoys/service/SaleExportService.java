@@ -0,0 +1,174 @@
+package com.oreilly.maventoys.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.oreilly.maventoys.mapper.SaleMapper;
+import com.oreilly.maventoys.model.DTO.SaleDTO;
+import com.oreilly.maventoys.model.entity.Sale;
+import com.oreilly.maventoys.repository.SaleRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service that exports sales straight to an output stream instead of building the whole result in memory.
+ * <p>
+ * Sales are read through {@link SaleRepository#streamByDateBetween(LocalDate, LocalDate)} inside a read-only
+ * transaction; each row is written and then detached from the persistence context, so memory use stays flat
+ * regardless of the size of the date range.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class SaleExportService {
+
+  /**
+   * Media type of the CSV export.
+   */
+  public static final String TEXT_CSV_VALUE = "text/csv";
+
+  /**
+   * Header row of the CSV export; the columns match the scalar fields of {@link SaleDTO}.
+   */
+  private static final String CSV_HEADER = "id,storeId,employeeId,date,total";
+
+  /**
+   * Supported export formats.
+   */
+  public enum Format {
+    /**
+     * One JSON-encoded {@link SaleDTO} per line.
+     */
+    NDJSON,
+    /**
+     * Comma-separated values with a header row.
+     */
+    CSV
+  }
+
+  /**
+   * Repository used to stream sales from the database.
+   */
+  private final SaleRepository saleRepository;
+
+  /**
+   * Mapper converting each streamed sale to its DTO.
+   */
+  private final SaleMapper saleMapper;
+
+  /**
+   * Object mapper used to write NDJSON rows.
+   */
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Entity manager used to detach each sale once written.
+   */
+  private final EntityManager entityManager;
+
+  /**
+   * Writes every sale between {@code startDate} and {@code endDate} (inclusive) to {@code out} in the given format.
+   * The output stream is flushed but not closed.
+   *
+   * @param startDate The start date of the range.
+   * @param endDate   The end date of the range.
+   * @param format    The format of the rows.
+   * @param out       The stream receiving the rows.
+   *
+   * @return The number of sales written.
+   *
+   * @throws IOException if writing to {@code out} fails.
+   */
+  @Transactional(readOnly = true)
+  public long exportSalesByDate(final LocalDate startDate, final LocalDate endDate, final Format format,
+                                final OutputStream out) throws IOException {
+    try (Stream<Sale> sales = saleRepository.streamByDateBetween(startDate, endDate)) {
+      Iterator<SaleDTO> rows = sales.map(this::toDetachedDTO).iterator();
+      return format == Format.CSV ? writeCsv(rows, out) : writeNdjson(rows, out);
+    }
+  }
+
+  /**
+   * Maps a sale to its DTO and evicts it from the persistence context.
+   *
+   * @param sale The sale to convert.
+   *
+   * @return The mapped DTO.
+   */
+  private SaleDTO toDetachedDTO(final Sale sale) {
+    SaleDTO saleDTO = saleMapper.saleToSaleDTO(sale);
+    entityManager.detach(sale);
+    return saleDTO;
+  }
+
+  /**
+   * Writes the rows as newline-delimited JSON.
+   *
+   * @param rows The rows to write.
+   * @param out  The target stream.
+   *
+   * @return The number of rows written.
+   *
+   * @throws IOException if writing fails.
+   */
+  private long writeNdjson(final Iterator<SaleDTO> rows, final OutputStream out) throws IOException {
+    long count = 0;
+    try (SequenceWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .withRootValueSeparator("\n").writeValues(out)) {
+      while (rows.hasNext()) {
+        writer.write(rows.next());
+        count++;
+      }
+    }
+    if (count > 0) {
+      out.write('\n');
+    }
+    out.flush();
+    return count;
+  }
+
+  /**
+   * Writes the rows as CSV preceded by a header row.
+   *
+   * @param rows The rows to write.
+   * @param out  The target stream.
+   *
+   * @return The number of rows written.
+   *
+   * @throws IOException if writing fails.
+   */
+  private long writeCsv(final Iterator<SaleDTO> rows, final OutputStream out) throws IOException {
+    long count = 0;
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    writer.write(CSV_HEADER);
+    writer.write('\n');
+    while (rows.hasNext()) {
+      SaleDTO sale = rows.next();
+      writer.write(String.valueOf(sale.getId()));
+      writer.write(',');
+      writer.write(String.valueOf(sale.getStoreId()));
+      writer.write(',');
+      writer.write(String.valueOf(sale.getEmployeeId()));
+      writer.write(',');
+      writer.write(String.valueOf(sale.getDate()));
+      writer.write(',');
+      writer.write(String.valueOf(sale.getTotal()));
+      writer.write('\n');
+      count++;
+    }
+    writer.flush();
+    return count;
+  }
+}
@@ -1,28 +1,43 @@
 package com.oreilly.maventoys.service;
 
+import com.oreilly.maventoys.model.DTO.InvoicesDTO;
 import com.oreilly.maventoys.model.DTO.SaleDTO;
 import com.oreilly.maventoys.exceptions.GeneralException;
 import com.oreilly.maventoys.exceptions.IdNotFound;
+import com.oreilly.maventoys.exceptions.InsufficientStock;
+import com.oreilly.maventoys.exceptions.InvalidCursor;
+import com.oreilly.maventoys.exceptions.InvalidPageSize;
 import com.oreilly.maventoys.mapper.SaleMapper;
 import com.oreilly.maventoys.model.entity.Employee;
 import com.oreilly.maventoys.model.entity.Invoice;
 import com.oreilly.maventoys.model.entity.Product;
 import com.oreilly.maventoys.model.entity.Sale;
-import com.oreilly.maventoys.model.entity.Store;
 import com.oreilly.maventoys.repository.EmployeeRepository;
 import com.oreilly.maventoys.repository.ProductRepository;
 import com.oreilly.maventoys.repository.SaleRepository;
 import com.oreilly.maventoys.repository.StoreRepository;
+import com.oreilly.maventoys.model.CursorSlice;
 import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.repository.specifications.SaleCursor;
 import com.oreilly.maventoys.repository.specifications.SaleSpec;
+import com.oreilly.maventoys.repository.CountMode;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -36,6 +51,12 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class SaleService {
+  /**
+   * Largest number of sales a client may ask for in one page or slice, the same as Spring Data's default limit for
+   * {@link Pageable} parameters.
+   */
+  public static final int MAX_PAGE_SIZE = 2000;
+
   /**
    * Repository for managing sales records. It provides CRUD operations on sales,
    * enabling the service to retrieve sales data, create new sales records, and update
@@ -71,6 +92,26 @@ public class SaleService {
    */
   private final SaleMapper saleMapper;
 
+  /**
+   * Service keeping the daily sales rollup in step with every sale written here.
+   */
+  private final SalesRollupService salesRollupService;
+
+  /**
+   * Publishes a {@link SaleTotalsChangedEvent} for every sale written, keeping the in-memory leaderboards current.
+   */
+  private final ApplicationEventPublisher eventPublisher;
+
+  /**
+   * Cache of stores by ID, used to validate a sale's new store without reading it.
+   */
+  private final CatalogCache catalogCache;
+
+  /**
+   * Service taking the units sold by every new sale from stock, rejecting oversells.
+   */
+  private final InventoryService inventoryService;
+
   /**
    * Retrieves all sales records from the database with pagination support.
    * This method is designed to efficiently handle large volumes of sales data
@@ -125,9 +166,9 @@ public class SaleService {
 
 
   /**
-   * Creates a list of {@link Invoice} objects for a given sale. Each invoice is generated based on the products
-   * included in the sale, with each product's ID used to fetch the product details. An invoice is then
-   * created for each product with the specified quantity and discount.
+   * Creates a list of {@link Invoice} objects for a given sale. Every product referenced by the sale lines is
+   * resolved in a single round trip through {@link #fetchProducts(List)}, and an invoice is then created for each
+   * line with the specified quantity and discount.
    *
    * @param saleDTO The {@link SaleDTO} object containing the details of the sale, including the products to be
    *                included in the sale.
@@ -136,12 +177,14 @@ public class SaleService {
    *
    * @return A list of {@link Invoice} objects, each representing an invoice for a product included in the sale.
    * This list is then used to update the {@link Sale} entity with the invoices for the sale.
+   *
+   * @throws IdNotFound if any of the referenced products does not exist.
    */
   private List<Invoice> createInvoices(final SaleDTO saleDTO, final Sale sale) {
-    List<Invoice> invoices = new ArrayList<>();
+    Map<Integer, Product> products = fetchProducts(saleDTO.getProducts());
+    List<Invoice> invoices = new ArrayList<>(saleDTO.getProducts().size());
     saleDTO.getProducts().forEach(p -> {
-      Product product = fetchProduct(p.getProduct_id());
-      Invoice invoice = newInvoice(product, p.getQuantity(), p.getDiscount(), sale);
+      Invoice invoice = newInvoice(products.get(p.getProduct_id()), p.getQuantity(), p.getDiscount(), sale);
       invoices.add(invoice);
     });
     return invoices;
@@ -162,23 +205,42 @@ public class SaleService {
    * @implNote This method starts by mapping the {@link SaleDTO} to a {@link Sale} entity. It then assigns invoices
    * to the sale by calling {@link #createInvoices(SaleDTO, Sale)}. The total for the sale is calculated by
    * iterating over the invoices, taking into account any discounts. Finally, the sale is saved to the
-   * database, and a response is generated and returned.
+   * database, and a response is generated and returned. The sale and its invoices are written in one
+   * transaction; since both use pooled sequence IDs, Hibernate sends the invoice inserts as JDBC batches.
+   * The daily sales rollup is updated in the same transaction, and a {@link SaleTotalsChangedEvent} is published
+   * for the leaderboards once it commits. The units sold are taken from stock first through
+   * {@link InventoryService#takeStock(List)}; if any product is short, nothing is written.
+   * @throws InsufficientStock if a product does not have enough units on hand.
    * @see SaleMapper#saleDTOToSale(SaleDTO) Method to map {@link SaleDTO} to {@link Sale}.
    * @see #createInvoices(SaleDTO, Sale) Method to create and assign invoices to the sale.
    * @see SaleMapper#saleToSaleDTO(Sale) Method to convert {@link Sale} entity back to {@link SaleDTO}.
    */
+  @Transactional
   public CustomApiResponse<SaleDTO> createSale(final SaleDTO saleDTO) {
     Sale sale = saleMapper.saleDTOToSale(saleDTO); // mapeo inicial de SaleDTO a Sale
     sale.setInvoices(createInvoices(saleDTO, sale)); // creacion y asignacion de las facturas
+    inventoryService.takeStock(saleDTO.getProducts());
     // calcular  total de la venta
-    final int hundredPercent = 100;
-    Double total = sale.getInvoices().stream().mapToDouble(
-        invoice -> invoice.getSubtotal() - (invoice.getSubtotal() * invoice.getDiscount() / hundredPercent)).sum();
-    sale.setTotal(total);
+    sale.setTotal(saleTotal(sale.getInvoices()));
     // guardar la venta en la base de datos y retornar respuesta
-    return new CustomApiResponse<>("Sale created successfully", saleMapper.saleToSaleDTO(saleRepository.save(sale)));
+    Sale saved = saleRepository.save(sale);
+    salesRollupService.recordSale(saved);
+    eventPublisher.publishEvent(SaleTotalsChangedEvent.of(saved, 1));
+    return new CustomApiResponse<>("Sale created successfully", saleMapper.saleToSaleDTO(saved));
   }
 
+  /**
+   * Computes the total of a sale as the sum of its invoice subtotals, each reduced by its percentage discount.
+   *
+   * @param invoices The invoices of the sale.
+   *
+   * @return The amount due after discounts.
+   */
+  public static double saleTotal(final List<Invoice> invoices) {
+    final int hundredPercent = 100;
+    return invoices.stream().mapToDouble(
+        invoice -> invoice.getSubtotal() - (invoice.getSubtotal() * invoice.getDiscount() / hundredPercent)).sum();
+  }
 
   /**
    * Creates a new invoice for a product within a sale transaction.
@@ -202,17 +264,26 @@ public class SaleService {
   }
 
   /**
-   * Fetches a product by its ID.
-   * Throws a {@link RuntimeException} if the product cannot be found.
+   * Fetches every product referenced by the given invoice lines with a single {@code findAllById} query and indexes
+   * them by ID. Duplicate product IDs across lines are only looked up once.
    *
-   * @param id The ID of the product to fetch.
+   * @param lines The invoice lines of the sale being created.
    *
-   * @return The {@link Product} with the given ID.
+   * @return A map of the referenced products keyed by their ID.
    *
-   * @throws RuntimeException if the product with the specified ID is not found.
+   * @throws IdNotFound if one or more product IDs are missing or do not exist; the message lists every bad ID.
    */
-  private Product fetchProduct(final Integer id) {
-    return productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
+  private Map<Integer, Product> fetchProducts(final List<InvoicesDTO> lines) {
+    Set<Integer> ids = lines.stream().map(InvoicesDTO::getProduct_id)
+                            .collect(Collectors.toCollection(LinkedHashSet::new));
+    Map<Integer, Product> products = productRepository.findAllById(
+        ids.stream().filter(Objects::nonNull).collect(Collectors.toList())).stream()
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
+    List<Integer> missing = ids.stream().filter(id -> !products.containsKey(id)).collect(Collectors.toList());
+    if (!missing.isEmpty()) {
+      throw new IdNotFound("Products not found with IDs: " + missing);
+    }
+    return products;
   }
 
 
@@ -220,7 +291,8 @@ public class SaleService {
    * Updates an existing sale record identified by its ID, using the data provided in the SaleDTO.
    * This method ensures that only specified fields are updated, preserving any other existing
    * sale data. It validates associated entities such as Store and Employee, linking them
-   * accordingly.
+   * accordingly. The sale's previous contribution to the daily sales rollup is removed and its
+   * new one added, so moving a sale to another store, employee or day moves its figures too.
    *
    * @param id      The unique identifier of the sale to update.
    * @param saleDTO The SaleDTO containing updated data for the sale.
@@ -232,15 +304,18 @@ public class SaleService {
    * @throws GeneralException if an error occurs during the update process,
    *                          encapsulating any underlying issue.
    */
+  @Transactional
   public CustomApiResponse<SaleDTO> updateSale(final Integer id, final SaleDTO saleDTO) {
     try {
       Sale sale = saleRepository.findById(id).orElseThrow(() -> new IdNotFound("Sale not found with ID: " + id));
+      salesRollupService.retractSale(sale);
+      eventPublisher.publishEvent(SaleTotalsChangedEvent.of(sale, -1));
       saleMapper.updateSaleFromDto(saleDTO, sale);
 
       if (saleDTO.getStoreId() != null) {
-        Store store = storeRepository.findById(saleDTO.getStoreId()).orElseThrow(
+        catalogCache.findStore(saleDTO.getStoreId()).orElseThrow(
             () -> new IdNotFound("Store with ID " + saleDTO.getStoreId() + " not found."));
-        sale.setStore(store);
+        sale.setStore(storeRepository.getReferenceById(saleDTO.getStoreId()));
       }
 
       if (saleDTO.getEmployeeId() != null) {
@@ -250,6 +325,8 @@ public class SaleService {
       }
 
       sale = saleRepository.save(sale);
+      salesRollupService.recordSale(sale);
+      eventPublisher.publishEvent(SaleTotalsChangedEvent.of(sale, 1));
       SaleDTO resultDTO = saleMapper.saleToSaleDTO(sale);
       return new CustomApiResponse<>("Sale updated successfully", resultDTO);
     } catch (IdNotFound idNotFound) {
@@ -293,20 +370,80 @@ public class SaleService {
    * @param id The id of the sale to be retrieved.
    * @param storeId The id of the store related to the sales.
    * @param employeeId The id of the employee related to the sales.
+   * @param countMode How the total number of sales is reported; with {@link CountMode#NONE} no count query is run
+   *                  and a slice is returned.
    * @return A CustomApiResponse containing a paged list of SaleDTO objects.
    * @throws GeneralException if an error occurs while retrieving the sales.
    */
-  public CustomApiResponse<Page<SaleDTO>> getAllSalesPaged(final Pageable pageable, final Integer id,
-                                                           final Integer storeId, final Integer employeeId) {
+  public CustomApiResponse<Slice<SaleDTO>> getAllSalesPaged(final Pageable pageable, final Integer id,
+                                                            final Integer storeId, final Integer employeeId,
+                                                            final CountMode countMode) {
     try {
       SaleSpec specifications = new SaleSpec(id, storeId, employeeId);
-      Page<Sale> salePage = saleRepository.findAll(specifications, pageable);
-      Page<SaleDTO> resultDTOPage = salePage.map(saleMapper::saleToSaleDTO);
+      Slice<Sale> salePage = saleRepository.findPage(specifications, pageable,
+                                                     countMode.unlessFiltered(id, storeId, employeeId));
+      Slice<SaleDTO> resultDTOPage = salePage.map(saleMapper::saleToSaleDTO);
       return new CustomApiResponse<>("All sales retrieved successfully", resultDTOPage);
     } catch (Exception error) {
       throw new GeneralException("Error finding all sales" + "CAUSE: " + error.getCause());
     }
   }
 
+  /**
+   * Retrieves a slice of sales filtered by the provided parameters using keyset pagination. Instead of skipping
+   * rows with an offset, the query seeks directly past the last sale of the previous slice, and no count query is
+   * run, so every slice costs the same however deep the client has paged.
+   *
+   * @param after      The token returned as {@code nextCursor} by the previous slice, or {@code null} or empty to
+   *                   start from the beginning.
+   * @param order      The order of a new listing; ignored when resuming, as the token records its own order.
+   * @param size       The maximum number of sales in the slice.
+   * @param id         The id of the sale to be retrieved.
+   * @param storeId    The id of the store related to the sales.
+   * @param employeeId The id of the employee related to the sales.
+   *
+   * @return A CustomApiResponse containing the slice of SaleDTO objects and the token for the next slice.
+   *
+   * @throws InvalidCursor    if the token is malformed.
+   * @throws InvalidPageSize  if the size is outside 1 to {@link #MAX_PAGE_SIZE}.
+   * @throws GeneralException if an error occurs while retrieving the sales.
+   */
+  public CustomApiResponse<CursorSlice<SaleDTO>> getSalesAfter(final String after, final SaleCursor.Order order,
+                                                               final int size, final Integer id,
+                                                               final Integer storeId, final Integer employeeId) {
+    checkPageSize(size);
+    SaleCursor cursor = after == null || after.isEmpty() ? null : SaleCursor.decode(after);
+    SaleCursor.Order effectiveOrder = cursor == null ? order : cursor.order();
+    try {
+      Specification<Sale> specifications = new SaleSpec(id, storeId, employeeId)
+          .and(SaleSpec.orderable(effectiveOrder));
+      if (cursor != null) {
+        specifications = specifications.and(SaleSpec.after(cursor));
+      }
+      List<Sale> sales = saleRepository.findBy(specifications,
+          query -> query.sortBy(effectiveOrder.sort()).limit(size + 1).all());
+      String nextCursor = null;
+      if (sales.size() > size) {
+        sales = sales.subList(0, size);
+        nextCursor = SaleCursor.after(effectiveOrder, sales.get(size - 1)).encode();
+      }
+      List<SaleDTO> content = sales.stream().map(saleMapper::saleToSaleDTO).collect(Collectors.toList());
+      return new CustomApiResponse<>("All sales retrieved successfully", new CursorSlice<>(content, size, nextCursor));
+    } catch (Exception error) {
+      throw new GeneralException("Error finding all sales" + "CAUSE: " + error.getCause());
+    }
+  }
 
+  /**
+   * Checks a page size requested by a client.
+   *
+   * @param size The requested number of sales per page or slice.
+   *
+   * @throws InvalidPageSize if the size is outside 1 to {@link #MAX_PAGE_SIZE}.
+   */
+  public static void checkPageSize(final int size) {
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new InvalidPageSize("Page size must be between 1 and " + MAX_PAGE_SIZE + ", got " + size);
+    }
+  }
 }
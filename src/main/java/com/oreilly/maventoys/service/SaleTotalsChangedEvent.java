@@ -0,0 +1,72 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.model.entity.Invoice;
+import com.oreilly.maventoys.model.entity.Sale;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Published by {@link SaleService} whenever a sale is written, describing how the sale changes the running sales
+ * figures. Listeners should consume it after the transaction commits, so rolled back sales are never counted.
+ *
+ * @param storeId    the store of the sale.
+ * @param employeeId the employee who made the sale.
+ * @param day        the day of the sale.
+ * @param revenue    the change in revenue.
+ * @param sales      the change in the number of sales; {@code 1} for a recorded sale, {@code -1} for a retracted one.
+ * @param lines      the change in units sold and revenue per invoice line, lowest invoice ID first.
+ */
+public record SaleTotalsChangedEvent(Integer storeId, Integer employeeId, LocalDate day, double revenue, long sales,
+                                     List<ProductUnits> lines) {
+
+  /**
+   * Builds the event that adds ({@code sign = 1}) or removes ({@code sign = -1}) a sale.
+   *
+   * @param sale the sale, with its invoices set.
+   * @param sign {@code 1} to add the sale, {@code -1} to remove it.
+   *
+   * @return the event.
+   */
+  public static SaleTotalsChangedEvent of(final Sale sale, final int sign) {
+    List<ProductUnits> lines = new ArrayList<>();
+    if (sale.getInvoices() != null) {
+      List<Invoice> invoices = new ArrayList<>(sale.getInvoices());
+      invoices.sort(Comparator.comparing(Invoice::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+      for (Invoice invoice : invoices) {
+        if (invoice.getProduct() != null && invoice.getQuantity() != null) {
+          Integer categoryId =
+              invoice.getProduct().getCategory() == null ? null : invoice.getProduct().getCategory().getId();
+          lines.add(new ProductUnits(invoice.getProduct().getId(), categoryId, (long) sign * invoice.getQuantity(),
+                                     sign * lineRevenue(invoice)));
+        }
+      }
+    }
+    return new SaleTotalsChangedEvent(sale.getStoreId(), sale.getEmployeeId(), sale.getDate(), sign * sale.getTotal(),
+                                      sign, List.copyOf(lines));
+  }
+
+  /**
+   * Computes the revenue of an invoice line: its subtotal reduced by its percentage discount, if any.
+   *
+   * @param invoice the line.
+   *
+   * @return the amount due for the line.
+   */
+  private static double lineRevenue(final Invoice invoice) {
+    return invoice.getDiscount() == null ? invoice.getSubtotal() : SaleService.saleTotal(List.of(invoice));
+  }
+
+  /**
+   * Change in units sold and revenue for one invoice line.
+   *
+   * @param productId  the product.
+   * @param categoryId the product's category, or {@code null}.
+   * @param units      the change in units sold.
+   * @param revenue    the change in revenue, after the line's discount.
+   */
+  public record ProductUnits(Integer productId, Integer categoryId, long units, double revenue) {
+  }
+}
@@ -0,0 +1,533 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.GeneralException;
+import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.model.DTO.SalesReportDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * In-memory columnar copy of every invoice line joined with its sale, for ad-hoc analytics that never touch the
+ * database. Enabled with {@code analytics.facts.enabled=true}.
+ * <p>
+ * Each line is one row across parallel primitive arrays holding its store, employee, product, category, epoch day,
+ * units and revenue after discount; a further column marks the first line of each sale, so a sale is counted once
+ * in any grouping, with its first line. A scan filters and groups the rows in a single pass over the arrays, adding
+ * into arrays indexed by the grouping key, so it allocates nothing per row. A row takes 33 bytes, about 330 MB for
+ * ten million lines.
+ * </p>
+ * <p>
+ * The rows are loaded once the application is ready and appended to with every {@link SaleTotalsChangedEvent} after
+ * its transaction commits: a retracted sale is appended with negated figures, so rows are never changed in place.
+ * Scans read an immutable snapshot of the row count and arrays, so they never block appends. The cache is rebuilt
+ * every {@code analytics.facts.reload-interval} to correct drift, such as sales written by other application
+ * instances; the events applied while it loads are appended to the new rows before they replace the old ones, so
+ * sales committed during a load are not lost. Store, employee, product and category IDs that are absent are held as
+ * {@code 0}; sales without a date are left out.
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = "analytics.facts.enabled", havingValue = "true")
+public class SalesFactCache {
+
+  /**
+   * Reads every invoice line with its sale and category, the lines of a sale together and first line first.
+   */
+  private static final String LOAD_QUERY = "SELECT s.store_id, s.employee_id, s.date, i.product_id, p.category_id, "
+      + "i.quantity, i.subtotal, i.discount, i.sales_id FROM sales s JOIN invoices i ON i.sales_id = s.id "
+      + "LEFT JOIN products p ON p.id = i.product_id WHERE s.date IS NOT NULL ORDER BY i.sales_id, i.id";
+
+  /**
+   * Rows fetched per round trip while loading, so the load never holds the whole result set.
+   */
+  private static final int FETCH_SIZE = 10_000;
+
+  /**
+   * Largest grouping key range accumulated in arrays indexed by key; wider ranges use a hash table.
+   */
+  private static final int DENSE_LIMIT = 1 << 22;
+
+  /**
+   * Percentage base used by invoice discounts.
+   */
+  private static final int HUNDRED_PERCENT = 100;
+
+  /**
+   * Filter value matching every ID.
+   */
+  private static final int ANY = Integer.MIN_VALUE;
+
+  /**
+   * What a scan is grouped by.
+   */
+  public enum GroupBy {
+    /**
+     * One row per store.
+     */
+    STORE,
+    /**
+     * One row per employee.
+     */
+    EMPLOYEE,
+    /**
+     * One row per product.
+     */
+    PRODUCT,
+    /**
+     * One row per product category.
+     */
+    CATEGORY,
+    /**
+     * One row per day.
+     */
+    DAY
+  }
+
+  /**
+   * Restricts a scan to the lines matching every given value.
+   *
+   * @param storeId    the store, or {@code null} for any.
+   * @param employeeId the employee, or {@code null} for any.
+   * @param productId  the product, or {@code null} for any.
+   * @param categoryId the category, or {@code null} for any.
+   * @param startDate  the first day, or {@code null} for no lower bound.
+   * @param endDate    the last day, included, or {@code null} for no upper bound.
+   */
+  public record Filter(Integer storeId, Integer employeeId, Integer productId, Integer categoryId,
+                       LocalDate startDate, LocalDate endDate) {
+  }
+
+  /**
+   * Source of the connection the rows are loaded over.
+   */
+  private final DataSource dataSource;
+
+  /**
+   * Number of rows the arrays are first sized for, before the load knows how many lines there are.
+   */
+  private final int initialCapacity;
+
+  /**
+   * Serializes loads, so only one at a time collects the events to replay.
+   */
+  private final Object reloadLock = new Object();
+
+  /**
+   * Rows being appended to; guarded by {@code this}.
+   */
+  private Columns columns;
+
+  /**
+   * Events applied while a load reads the database, to append to the loaded rows, or {@code null} when no load is
+   * running; guarded by {@code this}.
+   */
+  private List<SaleTotalsChangedEvent> replay;
+
+  /**
+   * Rows visible to scans, or {@code null} until the first load completes.
+   */
+  private volatile Snapshot snapshot;
+
+  /**
+   * Constructs a new SalesFactCache.
+   *
+   * @param newDataSource      source of the connection the rows are loaded over.
+   * @param newInitialCapacity number of rows the arrays are first sized for.
+   */
+  public SalesFactCache(final DataSource newDataSource,
+                        @Value("${analytics.facts.initial-capacity:1048576}") final int newInitialCapacity) {
+    if (newInitialCapacity < 1) {
+      throw new IllegalArgumentException("analytics.facts.initial-capacity must be at least 1");
+    }
+    this.dataSource = newDataSource;
+    this.initialCapacity = newInitialCapacity;
+  }
+
+  /**
+   * Loads the rows once the application has started.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    reload();
+  }
+
+  /**
+   * Reads every invoice line from the database into new arrays and swaps them in, dropping the rows appended since
+   * the previous load. Events applied while the lines are read are appended to the new arrays first; a sale
+   * committed just as the read starts may therefore be counted twice until the next load, where dropping it would
+   * lose it until then.
+   */
+  @Scheduled(fixedDelayString = "${analytics.facts.reload-interval:PT1H}",
+      initialDelayString = "${analytics.facts.reload-interval:PT1H}")
+  public void reload() {
+    synchronized (reloadLock) {
+      synchronized (this) {
+        replay = new ArrayList<>();
+      }
+      try {
+        Columns loaded = load();
+        synchronized (this) {
+          replay.forEach(event -> append(loaded, event));
+          columns = loaded;
+          snapshot = loaded.snapshot();
+        }
+      } finally {
+        synchronized (this) {
+          replay = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads every invoice line from the database into new arrays.
+   *
+   * @return the loaded rows.
+   */
+  private Columns load() {
+    Columns loaded = new Columns(initialCapacity);
+    try (Connection connection = dataSource.getConnection();
+         PreparedStatement statement = connection.prepareStatement(LOAD_QUERY)) {
+      statement.setFetchSize(FETCH_SIZE);
+      try (ResultSet lines = statement.executeQuery()) {
+        long previousSale = Long.MIN_VALUE;
+        while (lines.next()) {
+          long sale = lines.getLong(9);
+          double subtotal = lines.getDouble(7);
+          double revenue = subtotal - (subtotal * lines.getInt(8) / HUNDRED_PERCENT);
+          loaded.append(lines.getInt(1), lines.getInt(2),
+                        (int) lines.getTimestamp(3).toLocalDateTime().toLocalDate().toEpochDay(), lines.getInt(4),
+                        lines.getInt(5), lines.getInt(6), revenue, sale == previousSale ? 0 : 1);
+          previousSale = sale;
+        }
+      }
+    } catch (SQLException error) {
+      throw new GeneralException("Error loading the sales facts: CAUSE: " + error.getMessage());
+    }
+    return loaded;
+  }
+
+  /**
+   * Appends the lines of a committed sale, or their negation for a retracted one, and keeps the event for replay if
+   * a load is reading the database. Events received before the first load are otherwise ignored, as the load reads
+   * committed data and already includes them.
+   *
+   * @param event the change in sales figures.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSaleTotalsChanged(final SaleTotalsChangedEvent event) {
+    if (event.day() == null || event.lines().isEmpty()) {
+      return;
+    }
+    synchronized (this) {
+      if (replay != null) {
+        replay.add(event);
+      }
+      if (columns == null) {
+        return;
+      }
+      append(columns, event);
+      snapshot = columns.snapshot();
+    }
+  }
+
+  /**
+   * Appends the lines of a sale to a set of rows, the first one marked as the start of the sale.
+   *
+   * @param target the rows to append to.
+   * @param event  the change in sales figures, with a day and at least one line.
+   */
+  private static void append(final Columns target, final SaleTotalsChangedEvent event) {
+    int store = event.storeId() == null ? 0 : event.storeId();
+    int employee = event.employeeId() == null ? 0 : event.employeeId();
+    int day = (int) event.day().toEpochDay();
+    int saleStart = (int) event.sales();
+    for (SaleTotalsChangedEvent.ProductUnits line : event.lines()) {
+      target.append(store, employee, day, line.productId(), line.categoryId() == null ? 0 : line.categoryId(),
+                    (int) line.units(), line.revenue(), saleStart);
+      saleStart = 0;
+    }
+  }
+
+  /**
+   * Tells whether the rows have been loaded and can answer scans.
+   *
+   * @return {@code true} once the first load has completed.
+   */
+  public boolean isReady() {
+    return snapshot != null;
+  }
+
+  /**
+   * Returns the number of rows scans currently read.
+   *
+   * @return the number of invoice lines held, including retractions.
+   */
+  public int size() {
+    Snapshot current = snapshot;
+    return current == null ? 0 : current.size();
+  }
+
+  /**
+   * Reports the revenue, sales and units of every store, employee, product, category or day among the lines
+   * matching a filter.
+   *
+   * @param groupBy what the report is grouped by.
+   * @param filter  the lines to include.
+   *
+   * @return {@link CustomApiResponse} containing one row per store, employee, product or category, highest revenue
+   * first, or one row per day in date order; only rows with sales are included.
+   *
+   * @throws GeneralException if the rows are not loaded yet.
+   */
+  public CustomApiResponse<List<SalesReportDTO>> scan(final GroupBy groupBy, final Filter filter) {
+    Snapshot current = snapshot;
+    if (current == null) {
+      throw new GeneralException("Error scanning the sales facts: CAUSE: they are still loading");
+    }
+    int from = filter.startDate() == null ? current.minDay() : (int) filter.startDate().toEpochDay();
+    int to = filter.endDate() == null ? current.maxDay() : (int) filter.endDate().toEpochDay();
+    int[] keys = switch (groupBy) {
+      case STORE -> current.stores();
+      case EMPLOYEE -> current.employees();
+      case PRODUCT -> current.products();
+      case CATEGORY -> current.categories();
+      case DAY -> current.days();
+    };
+    int offset = groupBy == GroupBy.DAY ? Math.max(from, current.minDay()) : 0;
+    long range = (groupBy == GroupBy.DAY ? Math.min(to, current.maxDay()) : current.maxKey(groupBy)) - offset + 1L;
+    List<SalesReportDTO> rows = new ArrayList<>();
+    if (range > 0 && from <= to) {
+      Totals totals = range <= DENSE_LIMIT ? new DenseTotals((int) range) : new SparseTotals();
+      scan(current, keys, offset, totals, new Bounds(filter, from, to));
+      totals.forEach((key, revenue, sales, units) -> {
+        if (sales != 0 || units != 0 || revenue != 0) {
+          rows.add(groupBy == GroupBy.DAY ? new SalesReportDTO(null, LocalDate.ofEpochDay(key + offset), revenue,
+                                                               sales, units)
+                       : new SalesReportDTO(key, null, revenue, sales, units));
+        }
+      });
+    }
+    rows.sort(groupBy == GroupBy.DAY ? Comparator.comparing(SalesReportDTO::getDay)
+                  : Comparator.comparingDouble(SalesReportDTO::getRevenue).reversed());
+    return new CustomApiResponse<>("Sales facts scanned successfully", rows);
+  }
+
+  /**
+   * Adds the matching rows to their key, in one pass over the columns.
+   */
+  private static void scan(final Snapshot facts, final int[] keys, final int offset, final Totals totals,
+                           final Bounds bounds) {
+    int[] stores = facts.stores();
+    int[] employees = facts.employees();
+    int[] products = facts.products();
+    int[] categories = facts.categories();
+    int[] days = facts.days();
+    int[] units = facts.units();
+    double[] revenue = facts.revenue();
+    byte[] saleStarts = facts.saleStarts();
+    for (int row = 0, size = facts.size(); row < size; row++) {
+      int day = days[row];
+      if (day < bounds.from() || day > bounds.to()
+          || (bounds.store() != ANY && stores[row] != bounds.store())
+          || (bounds.employee() != ANY && employees[row] != bounds.employee())
+          || (bounds.product() != ANY && products[row] != bounds.product())
+          || (bounds.category() != ANY && categories[row] != bounds.category())) {
+        continue;
+      }
+      totals.add(keys[row] - offset, revenue[row], saleStarts[row], units[row]);
+    }
+  }
+
+  /**
+   * The filter of a scan, with absent IDs replaced by {@link #ANY} and the days resolved.
+   */
+  private record Bounds(int store, int employee, int product, int category, int from, int to) {
+
+    Bounds(final Filter filter, final int from, final int to) {
+      this(orAny(filter.storeId()), orAny(filter.employeeId()), orAny(filter.productId()),
+           orAny(filter.categoryId()), from, to);
+    }
+
+    private static int orAny(final Integer id) {
+      return id == null ? ANY : id;
+    }
+  }
+
+  /**
+   * Accumulates the figures of a scan per key.
+   */
+  private interface Totals {
+
+    void add(int key, double revenue, long sales, long units);
+
+    void forEach(SalesTotals.Visitor visitor);
+  }
+
+  /**
+   * Figures held in arrays indexed by key, for keys in a narrow range.
+   */
+  private static final class DenseTotals implements Totals {
+
+    private final double[] revenue;
+
+    private final long[] sales;
+
+    private final long[] units;
+
+    DenseTotals(final int range) {
+      revenue = new double[range];
+      sales = new long[range];
+      units = new long[range];
+    }
+
+    @Override
+    public void add(final int key, final double addedRevenue, final long addedSales, final long addedUnits) {
+      revenue[key] += addedRevenue;
+      sales[key] += addedSales;
+      units[key] += addedUnits;
+    }
+
+    @Override
+    public void forEach(final SalesTotals.Visitor visitor) {
+      for (int key = 0; key < revenue.length; key++) {
+        visitor.accept(key, revenue[key], sales[key], units[key]);
+      }
+    }
+  }
+
+  /**
+   * Figures held in a hash table, for keys spread over a wide range.
+   */
+  private static final class SparseTotals implements Totals {
+
+    private final SalesTotals totals = new SalesTotals();
+
+    @Override
+    public void add(final int key, final double revenue, final long sales, final long units) {
+      totals.add(key, revenue, sales, units);
+    }
+
+    @Override
+    public void forEach(final SalesTotals.Visitor visitor) {
+      totals.forEach(visitor);
+    }
+  }
+
+  /**
+   * The rows visible to scans: a row count and the arrays holding at least that many rows, with the largest key of
+   * every column. Appends write past {@code size} or into new arrays, so a snapshot never changes.
+   */
+  private record Snapshot(int size, int[] stores, int[] employees, int[] products, int[] categories, int[] days,
+                          int[] units, double[] revenue, byte[] saleStarts, int maxStore, int maxEmployee,
+                          int maxProduct, int maxCategory, int minDay, int maxDay) {
+
+    int maxKey(final GroupBy groupBy) {
+      return switch (groupBy) {
+        case STORE -> maxStore;
+        case EMPLOYEE -> maxEmployee;
+        case PRODUCT -> maxProduct;
+        case CATEGORY -> maxCategory;
+        case DAY -> maxDay;
+      };
+    }
+  }
+
+  /**
+   * Growable columns the rows are appended to; not thread-safe.
+   */
+  private static final class Columns {
+
+    private int size;
+
+    private int[] stores;
+
+    private int[] employees;
+
+    private int[] products;
+
+    private int[] categories;
+
+    private int[] days;
+
+    private int[] units;
+
+    private double[] revenue;
+
+    private byte[] saleStarts;
+
+    private int maxStore;
+
+    private int maxEmployee;
+
+    private int maxProduct;
+
+    private int maxCategory;
+
+    private int minDay = Integer.MAX_VALUE;
+
+    private int maxDay = Integer.MIN_VALUE;
+
+    Columns(final int capacity) {
+      stores = new int[capacity];
+      employees = new int[capacity];
+      products = new int[capacity];
+      categories = new int[capacity];
+      days = new int[capacity];
+      units = new int[capacity];
+      revenue = new double[capacity];
+      saleStarts = new byte[capacity];
+    }
+
+    void append(final int store, final int employee, final int day, final int product, final int category,
+                final int quantity, final double amount, final int saleStart) {
+      if (size == days.length) {
+        int capacity = size * 2;
+        stores = Arrays.copyOf(stores, capacity);
+        employees = Arrays.copyOf(employees, capacity);
+        products = Arrays.copyOf(products, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        days = Arrays.copyOf(days, capacity);
+        units = Arrays.copyOf(units, capacity);
+        revenue = Arrays.copyOf(revenue, capacity);
+        saleStarts = Arrays.copyOf(saleStarts, capacity);
+      }
+      stores[size] = store;
+      employees[size] = employee;
+      products[size] = product;
+      categories[size] = category;
+      days[size] = day;
+      units[size] = quantity;
+      revenue[size] = amount;
+      saleStarts[size] = (byte) saleStart;
+      size++;
+      maxStore = Math.max(maxStore, store);
+      maxEmployee = Math.max(maxEmployee, employee);
+      maxProduct = Math.max(maxProduct, product);
+      maxCategory = Math.max(maxCategory, category);
+      minDay = Math.min(minDay, day);
+      maxDay = Math.max(maxDay, day);
+    }
+
+    Snapshot snapshot() {
+      return new Snapshot(size, stores, employees, products, categories, days, units, revenue, saleStarts, maxStore,
+                          maxEmployee, maxProduct, maxCategory, minDay, maxDay);
+    }
+  }
+}
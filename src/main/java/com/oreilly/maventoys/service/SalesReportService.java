@@ -0,0 +1,319 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.GeneralException;
+import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.model.DTO.SalesReportDTO;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds sales reports over any date range, by store, employee, category or day, straight from the {@code sales}
+ * and {@code invoices} tables.
+ * <p>
+ * Instead of one {@code GROUP BY} over the whole range, which the database runs on a single thread, the range of sale
+ * IDs in the period is split into chunks of {@code sales.report.chunk-size} IDs that are read in parallel on the
+ * {@code salesReportPool}, each over its own connection and by primary key. Every chunk aggregates its rows into a
+ * {@link SalesTotals} table, and the tables are merged as the chunks complete, so a report scales with the pool's
+ * parallelism and the connections available to it. Chunks are read independently, so a report taken while sales are
+ * written may include a sale in one chunk that it misses in another.
+ * </p>
+ * <p>
+ * The figures follow the rules of the daily sales rollup: a sale's revenue is its total, each sale is counted in the
+ * category of its first invoice line, which also absorbs any difference between the line amounts and the total, and
+ * sales without a date, store or employee are left out. The all-time store, employee and category rankings keep
+ * being answered from the leaderboards and the rollup.
+ * </p>
+ */
+@Service
+public class SalesReportService {
+
+  /**
+   * Reads the sales of a chunk that fall in the period.
+   */
+  private static final String SALES_QUERY = "SELECT id, store_id, employee_id, date, total FROM sales "
+      + "WHERE id BETWEEN ? AND ? AND date >= ? AND date < ? AND store_id IS NOT NULL AND employee_id IS NOT NULL";
+
+  /**
+   * Reads the units of the invoice lines of a chunk.
+   */
+  private static final String UNITS_QUERY = "SELECT sales_id, quantity FROM invoices WHERE sales_id BETWEEN ? AND ?";
+
+  /**
+   * Reads the invoice lines of a chunk with the category of their product, first lines first.
+   */
+  private static final String LINES_QUERY = "SELECT i.sales_id, i.quantity, i.subtotal, i.discount, p.category_id "
+      + "FROM invoices i LEFT JOIN products p ON p.id = i.product_id WHERE i.sales_id BETWEEN ? AND ? ORDER BY i.id";
+
+  /**
+   * Percentage base used by invoice discounts.
+   */
+  private static final int HUNDRED_PERCENT = 100;
+
+  /**
+   * What a report is grouped by.
+   */
+  public enum Dimension {
+    /**
+     * One row per store.
+     */
+    STORE,
+    /**
+     * One row per employee.
+     */
+    EMPLOYEE,
+    /**
+     * One row per product category; category {@code 0} holds the lines of products without one.
+     */
+    CATEGORY,
+    /**
+     * One row per day with sales.
+     */
+    DAY
+  }
+
+  /**
+   * Source of the connections each chunk is read over.
+   */
+  private final DataSource dataSource;
+
+  /**
+   * Pool the chunks are read and merged on.
+   */
+  private final ForkJoinPool pool;
+
+  /**
+   * Largest number of sale IDs read by one chunk.
+   */
+  private final int chunkSize;
+
+  /**
+   * Constructs a new SalesReportService.
+   *
+   * @param newDataSource source of the connections the chunks are read over.
+   * @param newPool       pool the chunks are read and merged on.
+   * @param newChunkSize  largest number of sale IDs read by one chunk.
+   */
+  public SalesReportService(final DataSource newDataSource,
+                            @Qualifier("salesReportPool") final ForkJoinPool newPool,
+                            @Value("${sales.report.chunk-size:50000}") final int newChunkSize) {
+    if (newChunkSize < 1) {
+      throw new IllegalArgumentException("sales.report.chunk-size must be at least 1");
+    }
+    this.dataSource = newDataSource;
+    this.pool = newPool;
+    this.chunkSize = newChunkSize;
+  }
+
+  /**
+   * Reports the revenue, sales and units of every store, employee, category or day over a period.
+   *
+   * @param dimension what the report is grouped by.
+   * @param startDate first day of the period.
+   * @param endDate   last day of the period, included.
+   *
+   * @return {@link CustomApiResponse} containing one row per store, employee or category, highest revenue first, or
+   * one row per day in date order; only rows with sales are included.
+   *
+   * @throws GeneralException if the period is invalid or the sales cannot be read.
+   */
+  public CustomApiResponse<List<SalesReportDTO>> getReport(final Dimension dimension, final LocalDate startDate,
+                                                           final LocalDate endDate) {
+    if (dimension == null || startDate == null || endDate == null || endDate.isBefore(startDate)) {
+      throw new GeneralException("Error building the sales report: CAUSE: invalid dimension or period");
+    }
+    Period period = new Period(dimension, Timestamp.valueOf(startDate.atStartOfDay()),
+                               Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+    long[] ids = idRange(period);
+    SalesTotals totals = ids == null ? new SalesTotals() : pool.invoke(new Chunk(period, ids[0], ids[1]));
+
+    List<SalesReportDTO> rows = new ArrayList<>(totals.size());
+    totals.forEach((key, revenue, sales, units) -> rows.add(dimension == Dimension.DAY
+        ? new SalesReportDTO(null, LocalDate.ofEpochDay(key), revenue, sales, units)
+        : new SalesReportDTO(key, null, revenue, sales, units)));
+    rows.sort(dimension == Dimension.DAY ? Comparator.comparing(SalesReportDTO::getDay)
+                  : Comparator.comparingDouble(SalesReportDTO::getRevenue).reversed());
+    return new CustomApiResponse<>("Sales report built successfully", rows);
+  }
+
+  /**
+   * Finds the lowest and highest ID of the sales in the period, through the index on date and ID.
+   *
+   * @return the IDs, or {@code null} if the period has no sales.
+   */
+  private long[] idRange(final Period period) {
+    try (Connection connection = dataSource.getConnection();
+         PreparedStatement statement = connection.prepareStatement(
+             "SELECT MIN(id), MAX(id) FROM sales WHERE date >= ? AND date < ?")) {
+      statement.setTimestamp(1, period.from());
+      statement.setTimestamp(2, period.until());
+      try (ResultSet result = statement.executeQuery()) {
+        result.next();
+        long first = result.getLong(1);
+        return result.wasNull() ? null : new long[] {first, result.getLong(2)};
+      }
+    } catch (SQLException error) {
+      throw new GeneralException("Error building the sales report: CAUSE: " + error.getMessage());
+    }
+  }
+
+  /**
+   * Aggregates the sales of one range of IDs.
+   *
+   * @param period the report being built.
+   * @param first  the lowest sale ID of the range.
+   * @param last   the highest sale ID of the range.
+   *
+   * @return the totals of the range.
+   */
+  private SalesTotals aggregate(final Period period, final long first, final long last) {
+    int span = (int) (last - first + 1);
+    int[] keys = new int[span];
+    double[] saleTotals = new double[span];
+    boolean[] included = new boolean[span];
+    SalesTotals totals = new SalesTotals();
+    try (Connection connection = dataSource.getConnection()) {
+      try (PreparedStatement statement = connection.prepareStatement(SALES_QUERY)) {
+        statement.setLong(1, first);
+        statement.setLong(2, last);
+        statement.setTimestamp(3, period.from());
+        statement.setTimestamp(4, period.until());
+        try (ResultSet sales = statement.executeQuery()) {
+          while (sales.next()) {
+            int index = (int) (sales.getLong(1) - first);
+            included[index] = true;
+            saleTotals[index] = sales.getDouble(5);
+            keys[index] = switch (period.dimension()) {
+              case STORE -> sales.getInt(2);
+              case EMPLOYEE -> sales.getInt(3);
+              case DAY -> (int) sales.getTimestamp(4).toLocalDateTime().toLocalDate().toEpochDay();
+              case CATEGORY -> 0;
+            };
+            if (period.dimension() != Dimension.CATEGORY) {
+              totals.add(keys[index], saleTotals[index], 1, 0);
+            }
+          }
+        }
+      }
+      if (period.dimension() == Dimension.CATEGORY) {
+        addLinesByCategory(connection, first, included, saleTotals, totals);
+      } else {
+        addUnits(connection, first, last, included, keys, totals);
+      }
+    } catch (SQLException error) {
+      throw new GeneralException("Error building the sales report: CAUSE: " + error.getMessage());
+    }
+    return totals;
+  }
+
+  /**
+   * Adds the units of the invoice lines of the included sales to the key of their sale.
+   */
+  private static void addUnits(final Connection connection, final long first, final long last,
+                               final boolean[] included, final int[] keys, final SalesTotals totals)
+      throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(UNITS_QUERY)) {
+      statement.setLong(1, first);
+      statement.setLong(2, last);
+      try (ResultSet lines = statement.executeQuery()) {
+        while (lines.next()) {
+          int index = (int) (lines.getLong(1) - first);
+          if (included[index]) {
+            totals.add(keys[index], 0, 0, lines.getInt(2));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds the invoice lines of the included sales to their product's category, then counts each sale, and the part
+   * of its total not covered by its lines, in the category of its first line.
+   */
+  private static void addLinesByCategory(final Connection connection, final long first, final boolean[] included,
+                                         final double[] saleTotals, final SalesTotals totals) throws SQLException {
+    int span = included.length;
+    int[] firstCategory = new int[span];
+    Arrays.fill(firstCategory, -1);
+    double[] linesTotals = new double[span];
+    try (PreparedStatement statement = connection.prepareStatement(LINES_QUERY)) {
+      statement.setLong(1, first);
+      statement.setLong(2, first + span - 1);
+      try (ResultSet lines = statement.executeQuery()) {
+        while (lines.next()) {
+          int index = (int) (lines.getLong(1) - first);
+          if (!included[index]) {
+            continue;
+          }
+          double subtotal = lines.getDouble(3);
+          double amount = subtotal - (subtotal * lines.getInt(4) / HUNDRED_PERCENT);
+          int category = lines.getInt(5);
+          totals.add(category, amount, 0, lines.getInt(2));
+          linesTotals[index] += amount;
+          if (firstCategory[index] < 0) {
+            firstCategory[index] = category;
+          }
+        }
+      }
+    }
+    for (int index = 0; index < span; index++) {
+      if (included[index]) {
+        totals.add(Math.max(firstCategory[index], 0), saleTotals[index] - linesTotals[index], 1, 0);
+      }
+    }
+  }
+
+  /**
+   * The dimension and half-open time interval of a report.
+   *
+   * @param dimension what the report is grouped by.
+   * @param from      start of the first day.
+   * @param until     start of the day after the last one.
+   */
+  private record Period(Dimension dimension, Timestamp from, Timestamp until) {
+  }
+
+  /**
+   * A range of sale IDs, split in halves until each part is no larger than a chunk.
+   */
+  private final class Chunk extends RecursiveTask<SalesTotals> {
+
+    private final Period period;
+
+    private final long first;
+
+    private final long last;
+
+    Chunk(final Period newPeriod, final long newFirst, final long newLast) {
+      this.period = newPeriod;
+      this.first = newFirst;
+      this.last = newLast;
+    }
+
+    @Override
+    protected SalesTotals compute() {
+      if (last - first < chunkSize) {
+        return aggregate(period, first, last);
+      }
+      long middle = first + (last - first) / 2;
+      Chunk lower = new Chunk(period, first, middle);
+      lower.fork();
+      SalesTotals upper = new Chunk(period, middle + 1, last).compute();
+      return upper.merge(lower.join());
+    }
+  }
+}
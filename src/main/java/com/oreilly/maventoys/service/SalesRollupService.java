@@ -0,0 +1,257 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.model.entity.DailySalesRollup;
+import com.oreilly.maventoys.model.entity.DailySalesRollupId;
+import com.oreilly.maventoys.model.entity.Invoice;
+import com.oreilly.maventoys.model.entity.Product;
+import com.oreilly.maventoys.model.entity.ProductSalesRollup;
+import com.oreilly.maventoys.model.entity.ProductSalesRollupId;
+import com.oreilly.maventoys.model.entity.Sale;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service that keeps the {@link DailySalesRollup} and {@link ProductSalesRollup} tables in step with the sales they
+ * summarize.
+ * <p>
+ * Every call must run inside the transaction that writes the sale, so the rollup and the fact tables
+ * commit or roll back together. Each row is changed with a single atomic upsert that adds the
+ * sale's contribution to the stored figures, or inserts the row if it is missing, so concurrent
+ * sales of the same store, employee, category and day neither lose increments nor race to insert
+ * the same new row.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class SalesRollupService {
+
+  /**
+   * Percentage base used by invoice discounts.
+   */
+  private static final int HUNDRED_PERCENT = 100;
+
+  /**
+   * Adds a contribution to a rollup row, inserting the row if it is missing, on MySQL.
+   */
+  private static final String MYSQL_UPSERT = "INSERT INTO daily_sales_rollup "
+      + "(sale_day, store_id, employee_id, category_id, revenue, sale_count, units) "
+      + "VALUES (:day, :storeId, :employeeId, :categoryId, :revenue, :saleCount, :units) "
+      + "ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), sale_count = sale_count + VALUES(sale_count), "
+      + "units = units + VALUES(units)";
+
+  /**
+   * Adds a contribution to a rollup row, inserting the row if it is missing, with a standard {@code MERGE}.
+   */
+  private static final String MERGE_UPSERT = "MERGE INTO daily_sales_rollup r USING (VALUES "
+      + "(CAST(:day AS DATE), :storeId, :employeeId, :categoryId, :revenue, :saleCount, :units)) "
+      + "AS c(sale_day, store_id, employee_id, category_id, revenue, sale_count, units) "
+      + "ON r.sale_day = c.sale_day AND r.store_id = c.store_id AND r.employee_id = c.employee_id "
+      + "AND r.category_id = c.category_id "
+      + "WHEN MATCHED THEN UPDATE SET revenue = r.revenue + c.revenue, sale_count = r.sale_count + c.sale_count, "
+      + "units = r.units + c.units "
+      + "WHEN NOT MATCHED THEN INSERT (sale_day, store_id, employee_id, category_id, revenue, sale_count, units) "
+      + "VALUES (c.sale_day, c.store_id, c.employee_id, c.category_id, c.revenue, c.sale_count, c.units)";
+
+  /**
+   * Adds units to a product rollup row, inserting the row if it is missing, on MySQL.
+   */
+  private static final String MYSQL_PRODUCT_UPSERT = "INSERT INTO product_sales_rollup (store_id, product_id, units) "
+      + "VALUES (:storeId, :productId, :units) ON DUPLICATE KEY UPDATE units = units + VALUES(units)";
+
+  /**
+   * Adds units to a product rollup row, inserting the row if it is missing, with a standard {@code MERGE}.
+   */
+  private static final String MERGE_PRODUCT_UPSERT = "MERGE INTO product_sales_rollup r USING (VALUES "
+      + "(:storeId, :productId, :units)) AS c(store_id, product_id, units) "
+      + "ON r.store_id = c.store_id AND r.product_id = c.product_id "
+      + "WHEN MATCHED THEN UPDATE SET units = r.units + c.units "
+      + "WHEN NOT MATCHED THEN INSERT (store_id, product_id, units) VALUES (c.store_id, c.product_id, c.units)";
+
+  /**
+   * Entity manager used to lock, update and insert rollup rows.
+   */
+  private final EntityManager entityManager;
+
+  /**
+   * Adds a newly persisted sale to the rollup.
+   *
+   * @param sale the sale, with its store, employee, date, total and invoices set.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordSale(final Sale sale) {
+    apply(contributions(sale), 1);
+    applyUnits(unitsPerProduct(sale), 1);
+  }
+
+  /**
+   * Removes a sale's current contribution from the rollup. Call this before changing the sale and
+   * {@link #recordSale(Sale)} afterwards to move it to its new store, employee or day.
+   *
+   * @param sale the sale as it is currently stored.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void retractSale(final Sale sale) {
+    apply(contributions(sale), -1);
+    applyUnits(unitsPerProduct(sale), -1);
+  }
+
+  /**
+   * Splits a sale into the rollup rows it contributes to. Each invoice line adds its discounted amount
+   * and quantity to the row of its product's category; the sale itself is counted in the row of its
+   * first line, the one with the lowest invoice ID as in the backfill script, which also absorbs any
+   * difference between the line amounts and the sale total. Sales without a date, store or employee
+   * have no row and contribute nothing.
+   *
+   * @param sale the sale to split.
+   *
+   * @return the contribution of the sale per rollup key.
+   */
+  private Map<DailySalesRollupId, Contribution> contributions(final Sale sale) {
+    Map<DailySalesRollupId, Contribution> contributions = new LinkedHashMap<>();
+    if (sale.getDate() == null || sale.getStoreId() == null || sale.getEmployeeId() == null) {
+      return contributions;
+    }
+    List<Invoice> invoices = sale.getInvoices() == null ? new ArrayList<>() : new ArrayList<>(sale.getInvoices());
+    invoices.sort(Comparator.comparing(Invoice::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+    double linesTotal = 0;
+    for (Invoice invoice : invoices) {
+      int discount = invoice.getDiscount() == null ? 0 : invoice.getDiscount();
+      double amount = invoice.getSubtotal() - (invoice.getSubtotal() * discount / HUNDRED_PERCENT);
+      linesTotal += amount;
+      contributions.computeIfAbsent(key(sale, categoryOf(invoice.getProduct())), id -> new Contribution())
+          .add(amount, 0, invoice.getQuantity() == null ? 0 : invoice.getQuantity());
+    }
+    DailySalesRollupId saleRow = contributions.isEmpty()
+        ? key(sale, DailySalesRollupId.NO_CATEGORY)
+        : contributions.keySet().iterator().next();
+    contributions.computeIfAbsent(saleRow, id -> new Contribution()).add(sale.getTotal() - linesTotal, 1, 0);
+    return contributions;
+  }
+
+  /**
+   * Sums the units of a sale's lines per store and product. Lines without a product, and sales left out of the daily
+   * rollup, contribute nothing.
+   *
+   * @param sale the sale to split.
+   *
+   * @return the units of the sale per product rollup key.
+   */
+  private static Map<ProductSalesRollupId, Long> unitsPerProduct(final Sale sale) {
+    Map<ProductSalesRollupId, Long> units = new LinkedHashMap<>();
+    if (sale.getDate() == null || sale.getStoreId() == null || sale.getEmployeeId() == null
+        || sale.getInvoices() == null) {
+      return units;
+    }
+    for (Invoice invoice : sale.getInvoices()) {
+      if (invoice.getProduct() != null && invoice.getProduct().getId() != null) {
+        units.merge(new ProductSalesRollupId(sale.getStoreId(), invoice.getProduct().getId()),
+                    invoice.getQuantity() == null ? 0L : invoice.getQuantity(), Long::sum);
+      }
+    }
+    return units;
+  }
+
+  /**
+   * Adds the contributions, multiplied by {@code sign}, to their rollup rows, creating missing rows.
+   *
+   * @param contributions the contributions per rollup key.
+   * @param sign          {@code 1} to add a sale, {@code -1} to remove it.
+   */
+  private void apply(final Map<DailySalesRollupId, Contribution> contributions, final int sign) {
+    String upsert = isMySql() ? MYSQL_UPSERT : MERGE_UPSERT;
+    contributions.forEach((id, contribution) -> entityManager.createNativeQuery(upsert)
+        .unwrap(NativeQuery.class)
+        .addSynchronizedEntityClass(DailySalesRollup.class)
+        .setParameter("day", id.getDay())
+        .setParameter("storeId", id.getStoreId())
+        .setParameter("employeeId", id.getEmployeeId())
+        .setParameter("categoryId", id.getCategoryId())
+        .setParameter("revenue", sign * contribution.revenue)
+        .setParameter("saleCount", sign * contribution.saleCount)
+        .setParameter("units", sign * contribution.units)
+        .executeUpdate());
+  }
+
+  /**
+   * Adds the units, multiplied by {@code sign}, to their product rollup rows, creating missing rows.
+   *
+   * @param units the units per product rollup key.
+   * @param sign  {@code 1} to add a sale, {@code -1} to remove it.
+   */
+  private void applyUnits(final Map<ProductSalesRollupId, Long> units, final int sign) {
+    String upsert = isMySql() ? MYSQL_PRODUCT_UPSERT : MERGE_PRODUCT_UPSERT;
+    units.forEach((id, quantity) -> entityManager.createNativeQuery(upsert)
+        .unwrap(NativeQuery.class)
+        .addSynchronizedEntityClass(ProductSalesRollup.class)
+        .setParameter("storeId", id.getStoreId())
+        .setParameter("productId", id.getProductId())
+        .setParameter("units", sign * quantity)
+        .executeUpdate());
+  }
+
+  /**
+   * Tells whether the database is MySQL, which has no {@code MERGE} statement.
+   *
+   * @return {@code true} for MySQL and MariaDB.
+   */
+  private boolean isMySql() {
+    return entityManager.unwrap(Session.class).getSessionFactory().unwrap(SessionFactoryImplementor.class)
+        .getJdbcServices().getDialect() instanceof MySQLDialect;
+  }
+
+  /**
+   * Builds the rollup key of a sale for the given category.
+   *
+   * @param sale       the sale.
+   * @param categoryId the product category.
+   *
+   * @return the rollup key.
+   */
+  private static DailySalesRollupId key(final Sale sale, final Integer categoryId) {
+    return new DailySalesRollupId(sale.getDate(), sale.getStoreId(), sale.getEmployeeId(), categoryId);
+  }
+
+  /**
+   * Returns the category ID of a product, or {@link DailySalesRollupId#NO_CATEGORY} if it has none.
+   *
+   * @param product the product sold.
+   *
+   * @return the category ID.
+   */
+  private static Integer categoryOf(final Product product) {
+    return product == null || product.getCategory() == null
+        ? DailySalesRollupId.NO_CATEGORY
+        : product.getCategory().getId();
+  }
+
+  /**
+   * Running sums of a sale's contribution to one rollup row.
+   */
+  private static final class Contribution {
+
+    private double revenue;
+
+    private long saleCount;
+
+    private long units;
+
+    void add(final double revenueDelta, final long saleCountDelta, final long unitsDelta) {
+      revenue += revenueDelta;
+      saleCount += saleCountDelta;
+      units += unitsDelta;
+    }
+  }
+}
@@ -0,0 +1,391 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.GeneralException;
+import com.oreilly.maventoys.exceptions.InvalidDateRange;
+import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.model.DTO.SalesReportDTO;
+import com.oreilly.maventoys.model.entity.DailySalesRollupId;
+import com.oreilly.maventoys.repository.SaleRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory daily sales per store and category, for charting sales over time by day, week or month.
+ * <p>
+ * For every store and category, the revenue, sales and units of each day are held in arrays indexed by day, along
+ * with the same series summed over all categories of a store, over all stores of a category and over everything, so
+ * any query reads a single series: a year of days costs one array copy, however many sales it covers. Weeks and
+ * months are then summed from the days of the range.
+ * </p>
+ * <p>
+ * The series are seeded from the daily sales rollup once the application is ready, updated with every
+ * {@link SaleTotalsChangedEvent} after its transaction commits following the rollup's rules, and periodically
+ * rebuilt ({@code analytics.timeseries.reload-interval}) to correct any drift, such as sales written by other
+ * application instances. Events applied while a rebuild reads the rollup are replayed onto the rebuilt series before
+ * they replace the old ones, so sales committed during a rebuild are not lost.
+ * </p>
+ */
+@Service
+public class SalesTimeSeriesService {
+
+  /**
+   * Series key component matching every store or category.
+   */
+  private static final int ANY = -1;
+
+  /**
+   * Days a series is first sized for.
+   */
+  private static final int INITIAL_DAYS = 64;
+
+  /**
+   * Longest range a time series may span, about ten years.
+   */
+  public static final int MAX_DAYS = 3_660;
+
+  /**
+   * First day a time series may start on.
+   */
+  private static final LocalDate FIRST_DAY = LocalDate.of(1, 1, 1);
+
+  /**
+   * Last day a time series may end on.
+   */
+  private static final LocalDate LAST_DAY = LocalDate.of(9999, 12, 31);
+
+  /**
+   * Width of the points of a time series.
+   */
+  public enum Bucket {
+    /**
+     * One point per day.
+     */
+    DAY,
+    /**
+     * One point per week, starting on Monday.
+     */
+    WEEK,
+    /**
+     * One point per calendar month.
+     */
+    MONTH;
+
+    /**
+     * Parses a bucket name, ignoring case.
+     *
+     * @param name {@code day}, {@code week} or {@code month}.
+     *
+     * @return the bucket.
+     *
+     * @throws GeneralException if the name is not a bucket.
+     */
+    public static Bucket of(final String name) {
+      try {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException error) {
+        throw new GeneralException("Error building the sales time series: CAUSE: unknown bucket " + name);
+      }
+    }
+
+    /**
+     * Returns the first day of the bucket holding a day.
+     */
+    LocalDate start(final LocalDate day) {
+      return switch (this) {
+        case DAY -> day;
+        case WEEK -> day.with(DayOfWeek.MONDAY);
+        case MONTH -> day.withDayOfMonth(1);
+      };
+    }
+
+    /**
+     * Returns the first day of the bucket following the one starting on a day.
+     */
+    LocalDate next(final LocalDate start) {
+      return switch (this) {
+        case DAY -> start.plusDays(1);
+        case WEEK -> start.plusWeeks(1);
+        case MONTH -> start.plusMonths(1);
+      };
+    }
+  }
+
+  /**
+   * Repository used to seed the series from the daily sales rollup.
+   */
+  private final SaleRepository saleRepository;
+
+  /**
+   * Daily series per store and category key, or {@code null} until they are seeded.
+   */
+  private volatile Map<Long, DailySeries> series;
+
+  /**
+   * Guards {@link #replay} and the swap of {@link #series}.
+   */
+  private final Object swapLock = new Object();
+
+  /**
+   * Events applied while a rebuild reads the rollup, to replay onto the rebuilt series, or {@code null} when no
+   * rebuild is running.
+   */
+  private List<SaleTotalsChangedEvent> replay;
+
+  /**
+   * Constructs a new SalesTimeSeriesService.
+   *
+   * @param newSaleRepository repository for the daily sales rollup.
+   */
+  public SalesTimeSeriesService(final SaleRepository newSaleRepository) {
+    this.saleRepository = newSaleRepository;
+  }
+
+  /**
+   * Seeds the series once the application has started.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    reload();
+  }
+
+  /**
+   * Rebuilds every series from the daily sales rollup, replacing the running totals in a single swap. Events applied
+   * while the rollup is read are replayed onto the rebuilt series first; a sale committed just as the read starts may
+   * therefore be counted twice until the next rebuild, where dropping it would lose it until then.
+   */
+  @Scheduled(fixedDelayString = "${analytics.timeseries.reload-interval:PT10M}",
+      initialDelayString = "${analytics.timeseries.reload-interval:PT10M}")
+  public synchronized void reload() {
+    synchronized (swapLock) {
+      replay = new ArrayList<>();
+    }
+    try {
+      Map<Long, DailySeries> seeded = new ConcurrentHashMap<>();
+      for (Object[] row : saleRepository.findDailyTotalsPerStoreAndCategory()) {
+        if (row[0] != null && row[1] != null && row[2] != null) {
+          add(seeded, ((Number) row[1]).intValue(), ((Number) row[2]).intValue(),
+              (int) ((LocalDate) row[0]).toEpochDay(), ((Number) row[3]).doubleValue(),
+              ((Number) row[4]).longValue(), ((Number) row[5]).longValue());
+        }
+      }
+      synchronized (swapLock) {
+        replay.forEach(event -> apply(seeded, event));
+        series = seeded;
+      }
+    } finally {
+      synchronized (swapLock) {
+        replay = null;
+      }
+    }
+  }
+
+  /**
+   * Applies a committed sale to the series, and keeps it for replay if a rebuild is reading the rollup. Events
+   * received before the first seed are otherwise ignored, as the seed already includes them.
+   *
+   * @param event the change in sales figures.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSaleTotalsChanged(final SaleTotalsChangedEvent event) {
+    Map<Long, DailySeries> current;
+    synchronized (swapLock) {
+      if (replay != null) {
+        replay.add(event);
+      }
+      current = series;
+    }
+    if (current != null) {
+      apply(current, event);
+    }
+  }
+
+  /**
+   * Adds a sale to a set of series, splitting it by category as the daily sales rollup does: each line adds its
+   * revenue and units to its category, and the sale is counted in the category of its first line, which also absorbs
+   * any difference between the line amounts and the sale total. Sales without a date, store or employee are left
+   * out.
+   *
+   * @param target the series to update.
+   * @param event  the change in sales figures.
+   */
+  private static void apply(final Map<Long, DailySeries> target, final SaleTotalsChangedEvent event) {
+    if (event.day() == null || event.storeId() == null || event.employeeId() == null) {
+      return;
+    }
+    int day = (int) event.day().toEpochDay();
+    double linesTotal = 0;
+    for (SaleTotalsChangedEvent.ProductUnits line : event.lines()) {
+      add(target, event.storeId(), categoryOf(line), day, line.revenue(), 0, line.units());
+      linesTotal += line.revenue();
+    }
+    int saleCategory = event.lines().isEmpty() ? DailySalesRollupId.NO_CATEGORY : categoryOf(event.lines().get(0));
+    add(target, event.storeId(), saleCategory, day, event.revenue() - linesTotal, event.sales(), 0);
+  }
+
+  /**
+   * Returns the revenue, sales and units of a store, a category, both or everything over a date range, one point per
+   * day, week or month. Every bucket of the range has a point, zero if nothing was sold; the first and last weeks
+   * or months only sum the days within the range.
+   *
+   * @param storeId    the store, or {@code null} for all stores.
+   * @param categoryId the category, or {@code null} for all categories.
+   * @param bucket     the width of each point.
+   * @param startDate  the first day of the range.
+   * @param endDate    the last day of the range, included.
+   *
+   * @return {@link CustomApiResponse} containing one point per bucket in date order, each dated with the first day
+   * of its bucket.
+   *
+   * @throws GeneralException if the bucket is missing.
+   * @throws InvalidDateRange if the range is missing, inverted, outside years 1 to 9999 or longer than
+   *                           {@link #MAX_DAYS} days.
+   */
+  public CustomApiResponse<List<SalesReportDTO>> getTimeSeries(final Integer storeId, final Integer categoryId,
+                                                               final Bucket bucket, final LocalDate startDate,
+                                                               final LocalDate endDate) {
+    if (bucket == null) {
+      throw new GeneralException("Error building the sales time series: CAUSE: missing bucket");
+    }
+    if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+      throw new InvalidDateRange("The end date must not be before the start date");
+    }
+    if (startDate.isBefore(FIRST_DAY) || endDate.isAfter(LAST_DAY)) {
+      throw new InvalidDateRange("Dates must be between " + FIRST_DAY + " and " + LAST_DAY);
+    }
+    long rangeDays = endDate.toEpochDay() - startDate.toEpochDay() + 1;
+    if (rangeDays > MAX_DAYS) {
+      throw new InvalidDateRange("A time series spans at most " + MAX_DAYS + " days, not " + rangeDays);
+    }
+    Map<Long, DailySeries> current = series;
+    if (current == null) {
+      reload();
+      current = series;
+    }
+    int from = (int) startDate.toEpochDay();
+    int days = (int) rangeDays;
+    double[] revenue = new double[days];
+    long[] sales = new long[days];
+    long[] units = new long[days];
+    DailySeries selected = current.get(key(storeId == null ? ANY : storeId, categoryId == null ? ANY : categoryId));
+    if (selected != null) {
+      selected.copy(from, revenue, sales, units);
+    }
+
+    List<SalesReportDTO> points = new ArrayList<>();
+    LocalDate start = bucket.start(startDate);
+    int index = 0;
+    while (index < days) {
+      LocalDate next = bucket.next(start);
+      int end = (int) Math.min(days, next.toEpochDay() - from);
+      double bucketRevenue = 0;
+      long bucketSales = 0;
+      long bucketUnits = 0;
+      for (; index < end; index++) {
+        bucketRevenue += revenue[index];
+        bucketSales += sales[index];
+        bucketUnits += units[index];
+      }
+      points.add(new SalesReportDTO(null, start, bucketRevenue, bucketSales, bucketUnits));
+      start = next;
+    }
+    return new CustomApiResponse<>("Sales time series built successfully", points);
+  }
+
+  /**
+   * Adds a day's figures of a store and category to its series and to the series summing it.
+   */
+  private static void add(final Map<Long, DailySeries> series, final int storeId, final int categoryId,
+                          final int day, final double revenue, final long sales, final long units) {
+    for (long key : new long[] {key(storeId, categoryId), key(storeId, ANY), key(ANY, categoryId), key(ANY, ANY)}) {
+      series.computeIfAbsent(key, k -> new DailySeries()).add(day, revenue, sales, units);
+    }
+  }
+
+  /**
+   * Returns the category of a line, or {@link DailySalesRollupId#NO_CATEGORY} if its product has none.
+   */
+  private static int categoryOf(final SaleTotalsChangedEvent.ProductUnits line) {
+    return line.categoryId() == null ? DailySalesRollupId.NO_CATEGORY : line.categoryId();
+  }
+
+  /**
+   * Packs a store and category ID, either of which may be {@link #ANY}, into a series key.
+   */
+  private static long key(final int storeId, final int categoryId) {
+    return (long) storeId << Integer.SIZE | (categoryId & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Revenue, sales and units per day, in arrays that grow in both directions to cover every day added.
+   */
+  private static final class DailySeries {
+
+    private int firstDay;
+
+    private double[] revenue = new double[0];
+
+    private long[] sales = new long[0];
+
+    private long[] units = new long[0];
+
+    synchronized void add(final int day, final double addedRevenue, final long addedSales, final long addedUnits) {
+      cover(day);
+      int index = day - firstDay;
+      revenue[index] += addedRevenue;
+      sales[index] += addedSales;
+      units[index] += addedUnits;
+    }
+
+    /**
+     * Copies the days from {@code from} onwards that the series covers into arrays indexed from {@code from}.
+     */
+    synchronized void copy(final int from, final double[] toRevenue, final long[] toSales, final long[] toUnits) {
+      int start = Math.max(from, firstDay);
+      int end = Math.min(from + toRevenue.length, firstDay + revenue.length);
+      if (start < end) {
+        System.arraycopy(revenue, start - firstDay, toRevenue, start - from, end - start);
+        System.arraycopy(sales, start - firstDay, toSales, start - from, end - start);
+        System.arraycopy(units, start - firstDay, toUnits, start - from, end - start);
+      }
+    }
+
+    private void cover(final int day) {
+      int length = revenue.length;
+      if (length == 0) {
+        firstDay = day;
+        revenue = new double[INITIAL_DAYS];
+        sales = new long[INITIAL_DAYS];
+        units = new long[INITIAL_DAYS];
+        return;
+      }
+      int endDay = firstDay + length;
+      if (day >= firstDay && day < endDay) {
+        return;
+      }
+      int capacity = Math.max(length * 2, day < firstDay ? endDay - day : day - firstDay + 1);
+      int newFirstDay = day < firstDay ? endDay - capacity : firstDay;
+      int offset = firstDay - newFirstDay;
+      double[] grownRevenue = new double[capacity];
+      long[] grownSales = new long[capacity];
+      long[] grownUnits = new long[capacity];
+      System.arraycopy(revenue, 0, grownRevenue, offset, length);
+      System.arraycopy(sales, 0, grownSales, offset, length);
+      System.arraycopy(units, 0, grownUnits, offset, length);
+      revenue = grownRevenue;
+      sales = grownSales;
+      units = grownUnits;
+      firstDay = newFirstDay;
+    }
+  }
+}
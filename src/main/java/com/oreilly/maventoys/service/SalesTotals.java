@@ -0,0 +1,159 @@
+package com.oreilly.maventoys.service;
+
+import java.util.Arrays;
+
+/**
+ * Revenue, sale count and units sold per {@code int} key, in an open-addressing hash table over parallel primitive
+ * arrays, so aggregating millions of rows allocates nothing per row.
+ * <p>
+ * Not thread-safe: each chunk of a report fills its own instance, and instances are combined with
+ * {@link #merge(SalesTotals)} once their chunks are done.
+ * </p>
+ */
+final class SalesTotals {
+
+  /**
+   * Marks a free slot; no store, employee, category or epoch day takes this value.
+   */
+  private static final int EMPTY = Integer.MIN_VALUE;
+
+  /**
+   * Initial number of slots.
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  private int[] keys;
+
+  private double[] revenue;
+
+  private long[] sales;
+
+  private long[] units;
+
+  private int size;
+
+  /**
+   * Creates an empty table.
+   */
+  SalesTotals() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Adds to the totals of a key, creating them at zero if absent.
+   *
+   * @param key          the store, employee or category ID, or the epoch day.
+   * @param addedRevenue revenue to add.
+   * @param addedSales   sales to add.
+   * @param addedUnits   units to add.
+   */
+  void add(final int key, final double addedRevenue, final long addedSales, final long addedUnits) {
+    int slot = slot(key);
+    if (keys[slot] == EMPTY) {
+      keys[slot] = key;
+      if (++size * 2 > keys.length) {
+        resize();
+        slot = slot(key);
+      }
+    }
+    revenue[slot] += addedRevenue;
+    sales[slot] += addedSales;
+    units[slot] += addedUnits;
+  }
+
+  /**
+   * Adds another table to this one, or this one to the other if the other is larger.
+   *
+   * @param other the table to combine with; either table may be returned and the other must not be used again.
+   *
+   * @return the combined table.
+   */
+  SalesTotals merge(final SalesTotals other) {
+    if (other.size > size) {
+      return other.merge(this);
+    }
+    for (int slot = 0; slot < other.keys.length; slot++) {
+      if (other.keys[slot] != EMPTY) {
+        add(other.keys[slot], other.revenue[slot], other.sales[slot], other.units[slot]);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Returns the number of keys.
+   *
+   * @return the number of keys with totals.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Passes the totals of every key to a visitor, in no particular order.
+   *
+   * @param visitor receives each key and its totals.
+   */
+  void forEach(final Visitor visitor) {
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != EMPTY) {
+        visitor.accept(keys[slot], revenue[slot], sales[slot], units[slot]);
+      }
+    }
+  }
+
+  /**
+   * Finds the slot holding a key, or the free slot where it belongs, by linear probing.
+   */
+  private int slot(final int key) {
+    int mask = keys.length - 1;
+    int hash = key * 0x9E3779B9;
+    int slot = (hash ^ hash >>> 16) & mask;
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void resize() {
+    int[] oldKeys = keys;
+    double[] oldRevenue = revenue;
+    long[] oldSales = sales;
+    long[] oldUnits = units;
+    allocate(oldKeys.length * 2);
+    for (int old = 0; old < oldKeys.length; old++) {
+      if (oldKeys[old] != EMPTY) {
+        int slot = slot(oldKeys[old]);
+        keys[slot] = oldKeys[old];
+        revenue[slot] = oldRevenue[old];
+        sales[slot] = oldSales[old];
+        units[slot] = oldUnits[old];
+      }
+    }
+  }
+
+  private void allocate(final int capacity) {
+    keys = new int[capacity];
+    Arrays.fill(keys, EMPTY);
+    revenue = new double[capacity];
+    sales = new long[capacity];
+    units = new long[capacity];
+  }
+
+  /**
+   * Receives the totals of one key.
+   */
+  @FunctionalInterface
+  interface Visitor {
+
+    /**
+     * Accepts the totals of a key.
+     *
+     * @param key     the key.
+     * @param revenue its revenue.
+     * @param sales   its number of sales.
+     * @param units   its units sold.
+     */
+    void accept(int key, double revenue, long sales, long units);
+  }
+}
@@ -0,0 +1,324 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.InsufficientStock;
+import com.oreilly.maventoys.repository.InventoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory stock engine for flash-sale traffic, enabled with {@code inventory.ledger.enabled=true}.
+ * <p>
+ * Stock on hand is kept per product in atomic counters, loaded from the {@code inventory} table at startup and on
+ * the first sale of a product created later. Sales take units with a compare-and-set loop, so an oversell is
+ * rejected without any lock or database round trip. The changes of committed sales are written to a local
+ * {@link StockReplayLog} and added up per product, then applied to the {@code inventory} table in one batch every
+ * {@code inventory.ledger.flush-interval}. Changes still in the log when the application stops abruptly are replayed
+ * into the table on the next start.
+ * </p>
+ * <p>
+ * The ledger owns the stock while it runs: it assumes a single application instance and that nothing else updates
+ * {@code stock_on_hand}. A crash right after a flush commits, before its segments are deleted, replays those changes
+ * twice, which can only understate the stock.
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.ledger.enabled", havingValue = "true")
+public class StockLedger {
+
+  /**
+   * Applies a flushed change to a product's stock.
+   */
+  private static final String APPLY_DELTA =
+      "UPDATE inventory SET stock_on_hand = stock_on_hand + ? WHERE product_id = ?";
+
+  /**
+   * Repository used to load the stock of every product and of products first sold after startup.
+   */
+  private final InventoryRepository inventoryRepository;
+
+  /**
+   * Entity manager whose connection runs the batched flushes.
+   */
+  private final EntityManager entityManager;
+
+  /**
+   * Runs each flush in its own transaction.
+   */
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Log of the changes not flushed yet.
+   */
+  private final StockReplayLog replayLog;
+
+  /**
+   * Stock per product ID.
+   */
+  private final Map<Integer, Slot> slots = new ConcurrentHashMap<>();
+
+  /**
+   * Serializes appends to the log with the rotation done by a flush, so every drained change is in a rotated
+   * segment.
+   */
+  private final Lock logLock = new ReentrantLock();
+
+  /**
+   * Constructs a new StockLedger.
+   *
+   * @param newInventoryRepository repository for the stock on hand.
+   * @param newEntityManager       entity manager used to flush changes.
+   * @param transactionManager     transaction manager used to flush changes.
+   * @param logDirectory           directory holding the replay log.
+   */
+  public StockLedger(final InventoryRepository newInventoryRepository, final EntityManager newEntityManager,
+                     final PlatformTransactionManager transactionManager,
+                     @Value("${inventory.ledger.log-dir:stock-ledger}") final Path logDirectory) {
+    this.inventoryRepository = newInventoryRepository;
+    this.entityManager = newEntityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.replayLog = new StockReplayLog(logDirectory);
+  }
+
+  /**
+   * Applies the changes left in the log by a previous run, then loads the stock of every product.
+   */
+  @PostConstruct
+  public void recover() {
+    Map<Integer, Integer> replayed = replayLog.replay();
+    if (!replayed.isEmpty()) {
+      transactionTemplate.executeWithoutResult(status -> applyDeltas(replayed));
+    }
+    replayLog.deleteBefore(replayLog.rotate());
+    for (Object[] row : inventoryRepository.findAllStock()) {
+      if (row[0] != null && row[1] != null) {
+        slots.putIfAbsent(((Number) row[0]).intValue(), new Slot(((Number) row[1]).intValue()));
+      }
+    }
+  }
+
+  /**
+   * Takes units from stock for a sale. Inside a transaction, the change is logged when the transaction commits and
+   * the units are given back if it rolls back; outside one, it is logged straight away.
+   *
+   * @param quantities the units to take per product ID, in ascending ID order.
+   *
+   * @throws InsufficientStock if any product has fewer units on hand than requested, or no inventory record. No
+   *                           product's stock is taken.
+   */
+  public void take(final Map<Integer, Integer> quantities) {
+    Map<Integer, Integer> taken = new LinkedHashMap<>();
+    List<Integer> shortfall = new ArrayList<>();
+    for (Map.Entry<Integer, Integer> quantity : quantities.entrySet()) {
+      Slot slot = slot(quantity.getKey());
+      if (slot != null && slot.take(quantity.getValue())) {
+        taken.put(quantity.getKey(), quantity.getValue());
+      } else {
+        shortfall.add(quantity.getKey());
+      }
+    }
+    if (!shortfall.isEmpty()) {
+      giveBack(taken);
+      throw new InsufficientStock("Insufficient stock for products with IDs: " + shortfall);
+    }
+    Map<Integer, Integer> deltas = new TreeMap<>();
+    taken.forEach((productId, units) -> deltas.put(productId, -units));
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      record(deltas);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      private boolean recorded;
+
+      @Override
+      public void beforeCommit(final boolean readOnly) {
+        record(deltas);
+        recorded = true;
+      }
+
+      @Override
+      public void afterCompletion(final int status) {
+        if (status != STATUS_COMMITTED) {
+          if (recorded) {
+            record(taken);
+          }
+          giveBack(taken);
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns a product's stock on hand as held by the ledger.
+   *
+   * @param productId the product ID.
+   *
+   * @return the units on hand, or {@code null} if the product has no inventory record.
+   */
+  public Integer stockOnHand(final int productId) {
+    Slot slot = slot(productId);
+    return slot == null ? null : slot.onHand.get();
+  }
+
+  /**
+   * Writes the changes logged since the last flush to the {@code inventory} table, one batched update per product,
+   * and drops the log segments they came from. If the write fails the changes stay pending for the next flush.
+   */
+  @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval:PT0.5S}")
+  public void flush() {
+    Map<Integer, Integer> deltas = new TreeMap<>();
+    long kept;
+    logLock.lock();
+    try {
+      slots.forEach((productId, slot) -> {
+        int delta = slot.unflushed.getAndSet(0);
+        if (delta != 0) {
+          deltas.put(productId, delta);
+        }
+      });
+      if (deltas.isEmpty()) {
+        return;
+      }
+      kept = replayLog.rotate();
+    } finally {
+      logLock.unlock();
+    }
+    try {
+      transactionTemplate.executeWithoutResult(status -> applyDeltas(deltas));
+    } catch (RuntimeException error) {
+      deltas.forEach((productId, delta) -> slots.get(productId).unflushed.addAndGet(delta));
+      throw error;
+    }
+    replayLog.deleteBefore(kept);
+  }
+
+  /**
+   * Flushes the pending changes and closes the log when the application stops.
+   */
+  @PreDestroy
+  public void close() {
+    try {
+      flush();
+    } finally {
+      replayLog.close();
+    }
+  }
+
+  /**
+   * Logs changes to the stock and marks them for the next flush.
+   *
+   * @param deltas the change in stock per product ID.
+   */
+  private void record(final Map<Integer, Integer> deltas) {
+    logLock.lock();
+    try {
+      replayLog.append(deltas);
+      deltas.forEach((productId, delta) -> slots.get(productId).unflushed.addAndGet(delta));
+    } finally {
+      logLock.unlock();
+    }
+  }
+
+  /**
+   * Puts units back in stock after a rejected or rolled back sale.
+   *
+   * @param taken the units taken per product ID.
+   */
+  private void giveBack(final Map<Integer, Integer> taken) {
+    taken.forEach((productId, units) -> slots.get(productId).onHand.addAndGet(units));
+  }
+
+  /**
+   * Returns the stock slot of a product, loading it from the database the first time the product is seen.
+   *
+   * @param productId the product ID.
+   *
+   * @return the slot, or {@code null} if the product has no inventory record.
+   */
+  private Slot slot(final int productId) {
+    Slot slot = slots.get(productId);
+    if (slot != null) {
+      return slot;
+    }
+    Integer stock = inventoryRepository.getStockByProductId(productId);
+    return stock == null ? null : slots.computeIfAbsent(productId, id -> new Slot(stock));
+  }
+
+  /**
+   * Applies changes to the {@code inventory} table as one JDBC batch. The caller holds a transaction.
+   *
+   * @param deltas the change in stock per product ID.
+   */
+  private void applyDeltas(final Map<Integer, Integer> deltas) {
+    entityManager.unwrap(Session.class).doWork(connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(APPLY_DELTA)) {
+        for (Map.Entry<Integer, Integer> delta : deltas.entrySet()) {
+          statement.setInt(1, delta.getValue());
+          statement.setInt(2, delta.getKey());
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+    });
+  }
+
+  /**
+   * Stock of one product.
+   */
+  private static final class Slot {
+
+    /**
+     * Units on hand, including changes not flushed yet.
+     */
+    private final AtomicInteger onHand;
+
+    /**
+     * Net change logged since the last flush.
+     */
+    private final AtomicInteger unflushed = new AtomicInteger();
+
+    Slot(final int stock) {
+      this.onHand = new AtomicInteger(stock);
+    }
+
+    /**
+     * Takes units if at least that many are on hand.
+     *
+     * @param units the units to take.
+     *
+     * @return whether the units were taken.
+     */
+    boolean take(final int units) {
+      int current = onHand.get();
+      while (current >= units) {
+        int witness = onHand.compareAndExchange(current, current - units);
+        if (witness == current) {
+          return true;
+        }
+        current = witness;
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package com.oreilly.maventoys.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Append-only log of the stock changes held by {@link StockLedger} that have not reached the database yet.
+ * <p>
+ * The log is a sequence of numbered segment files in one directory, each holding {@code (productId, delta)} pairs of
+ * big-endian ints. Changes are appended to the newest segment; a flush rotates to a new segment and, once the flushed
+ * changes are committed, deletes the older ones. On startup the segments left by a previous run are replayed. A
+ * record cut short by a crash ends its segment and is ignored. Callers serialize access.
+ * </p>
+ */
+final class StockReplayLog implements AutoCloseable {
+
+  /**
+   * Prefix of the segment file names, followed by the segment number.
+   */
+  private static final String PREFIX = "stock-";
+
+  /**
+   * Suffix of the segment file names.
+   */
+  private static final String SUFFIX = ".log";
+
+  /**
+   * Directory holding the segments.
+   */
+  private final Path directory;
+
+  /**
+   * Number of the segment being appended to.
+   */
+  private long current;
+
+  /**
+   * Stream writing to the current segment.
+   */
+  private DataOutputStream out;
+
+  /**
+   * Opens the log in a directory, creating it if needed, and starts a segment numbered after any existing one.
+   *
+   * @param newDirectory the directory holding the segments.
+   */
+  StockReplayLog(final Path newDirectory) {
+    this.directory = newDirectory;
+    try {
+      Files.createDirectories(directory);
+      long last = 0;
+      for (long segment : segments()) {
+        last = Math.max(last, segment);
+      }
+      open(last + 1);
+    } catch (IOException error) {
+      throw new UncheckedIOException(error);
+    }
+  }
+
+  /**
+   * Appends stock changes to the current segment and hands them to the operating system, so they survive a crash
+   * of the application.
+   *
+   * @param deltas the change in stock per product ID.
+   */
+  void append(final Map<Integer, Integer> deltas) {
+    try {
+      for (Map.Entry<Integer, Integer> delta : deltas.entrySet()) {
+        out.writeInt(delta.getKey());
+        out.writeInt(delta.getValue());
+      }
+      out.flush();
+    } catch (IOException error) {
+      throw new UncheckedIOException(error);
+    }
+  }
+
+  /**
+   * Closes the current segment and starts a new one.
+   *
+   * @return the number of the new segment; every change appended so far is in a segment numbered below it.
+   */
+  long rotate() {
+    try {
+      out.close();
+      open(current + 1);
+      return current;
+    } catch (IOException error) {
+      throw new UncheckedIOException(error);
+    }
+  }
+
+  /**
+   * Adds up the changes recorded in the segments numbered below the current one.
+   *
+   * @return the net change in stock per product ID.
+   */
+  Map<Integer, Integer> replay() {
+    Map<Integer, Integer> deltas = new TreeMap<>();
+    try {
+      for (long segment : segments()) {
+        if (segment < current) {
+          read(file(segment), deltas);
+        }
+      }
+    } catch (IOException error) {
+      throw new UncheckedIOException(error);
+    }
+    deltas.values().removeIf(delta -> delta == 0);
+    return deltas;
+  }
+
+  /**
+   * Deletes the segments numbered below the given one, once their changes are in the database.
+   *
+   * @param segment the first segment to keep.
+   */
+  void deleteBefore(final long segment) {
+    try {
+      for (long old : segments()) {
+        if (old < segment) {
+          Files.deleteIfExists(file(old));
+        }
+      }
+    } catch (IOException error) {
+      throw new UncheckedIOException(error);
+    }
+  }
+
+  /**
+   * Closes the current segment.
+   */
+  @Override
+  public void close() {
+    try {
+      out.close();
+    } catch (IOException error) {
+      throw new UncheckedIOException(error);
+    }
+  }
+
+  private void open(final long segment) throws IOException {
+    current = segment;
+    out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file(segment))));
+  }
+
+  private Path file(final long segment) {
+    return directory.resolve(PREFIX + segment + SUFFIX);
+  }
+
+  private List<Long> segments() throws IOException {
+    List<Long> segments = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        segments.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+      }
+    }
+    segments.sort(null);
+    return segments;
+  }
+
+  private static void read(final Path file, final Map<Integer, Integer> deltas) throws IOException {
+    try (InputStream stream = Files.newInputStream(file);
+         DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+      while (true) {
+        int productId;
+        int delta;
+        try {
+          productId = in.readInt();
+          delta = in.readInt();
+        } catch (EOFException end) {
+          return;
+        }
+        deltas.merge(productId, delta, Integer::sum);
+      }
+    }
+  }
+}
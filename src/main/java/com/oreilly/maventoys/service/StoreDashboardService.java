@@ -0,0 +1,172 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.GeneralException;
+import com.oreilly.maventoys.exceptions.IdNotFound;
+import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.model.DTO.EmployeeDTO;
+import com.oreilly.maventoys.model.DTO.SaleDTO;
+import com.oreilly.maventoys.model.DTO.StoreDTO;
+import com.oreilly.maventoys.model.DTO.StoreDashboardDTO;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Builds the store dashboard from the four {@link StoreService} lookups behind it: the store's details, employees,
+ * sales and total sales.
+ * <p>
+ * The lookups run concurrently on virtual threads, so the dashboard takes as long as the slowest of them rather than
+ * their sum. Every lookup must finish within {@code stores.dashboard.timeout} of the request; one that fails or runs
+ * late is cancelled and its section reported as unavailable, except the store's details, without which there is no
+ * dashboard.
+ * </p>
+ */
+@Service
+public class StoreDashboardService {
+
+  /**
+   * Service answering each section of the dashboard.
+   */
+  private final StoreService storeService;
+
+  /**
+   * Executor running each lookup on its own virtual thread.
+   */
+  private final ExecutorService executor;
+
+  /**
+   * Time allowed to every lookup, counted from the start of the request.
+   */
+  private final Duration timeout;
+
+  /**
+   * Constructs a new StoreDashboardService.
+   *
+   * @param newStoreService service answering the lookups.
+   * @param newExecutor     executor running the lookups.
+   * @param newTimeout      time allowed to every lookup.
+   */
+  public StoreDashboardService(final StoreService newStoreService,
+                               @Qualifier("virtualThreadExecutor") final ExecutorService newExecutor,
+                               @Value("${stores.dashboard.timeout:PT2S}") final Duration newTimeout) {
+    this.storeService = newStoreService;
+    this.executor = newExecutor;
+    this.timeout = newTimeout;
+  }
+
+  /**
+   * Loads the dashboard of a store.
+   *
+   * @param storeId the store ID.
+   *
+   * @return {@link CustomApiResponse} containing the dashboard; sections that could not be loaded are listed in
+   * {@link StoreDashboardDTO#getUnavailable()}.
+   *
+   * @throws IdNotFound       if the store does not exist.
+   * @throws GeneralException if the store's details cannot be loaded in time.
+   */
+  public CustomApiResponse<StoreDashboardDTO> getDashboard(final Integer storeId) {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    Future<StoreDTO> store = executor.submit(() -> storeService.getStoreById(storeId).getData());
+    Future<List<EmployeeDTO>> employees =
+        executor.submit(() -> storeService.getEmployeesFromStoreId(storeId).getData());
+    Future<List<SaleDTO>> sales = executor.submit(() -> salesOf(storeId));
+    Future<Double> totalSales = executor.submit(() -> storeService.getTotalSalesByStore(storeId).getData());
+
+    StoreDashboardDTO dashboard = new StoreDashboardDTO();
+    try {
+      dashboard.setStore(await(store, deadline));
+    } catch (IdNotFound notFound) {
+      cancel(employees, sales, totalSales);
+      throw notFound;
+    } catch (RuntimeException | TimeoutException error) {
+      cancel(employees, sales, totalSales);
+      throw new GeneralException("Error loading the store dashboard: CAUSE: " + error.getMessage());
+    }
+    section(dashboard, "employees", employees, deadline, dashboard::setEmployees);
+    section(dashboard, "sales", sales, deadline, dashboard::setSales);
+    section(dashboard, "totalSales", totalSales, deadline, dashboard::setTotalSales);
+    return new CustomApiResponse<>("Store dashboard fetched successfully", dashboard);
+  }
+
+  /**
+   * Loads the sales of a store, reading "no sales" as an empty section rather than an error.
+   *
+   * @param storeId the store ID.
+   *
+   * @return the store's sales.
+   */
+  private List<SaleDTO> salesOf(final Integer storeId) {
+    try {
+      return storeService.getSalesFromStoreId(storeId).getData();
+    } catch (IdNotFound noSales) {
+      return List.of();
+    }
+  }
+
+  /**
+   * Fills a section of the dashboard with the result of its lookup, or marks it unavailable if the lookup failed
+   * or missed the deadline.
+   *
+   * @param dashboard the dashboard being built.
+   * @param name      the name of the section.
+   * @param lookup    the running lookup.
+   * @param deadline  the deadline, in {@link System#nanoTime()} units.
+   * @param setter    sets the section on the dashboard.
+   * @param <T>       the type of the section.
+   */
+  private static <T> void section(final StoreDashboardDTO dashboard, final String name, final Future<T> lookup,
+                                  final long deadline, final Consumer<T> setter) {
+    try {
+      setter.accept(await(lookup, deadline));
+    } catch (RuntimeException | TimeoutException error) {
+      lookup.cancel(true);
+      dashboard.getUnavailable().add(name);
+    }
+  }
+
+  /**
+   * Waits for a lookup until the deadline, unwrapping the exception it failed with.
+   *
+   * @param lookup   the running lookup.
+   * @param deadline the deadline, in {@link System#nanoTime()} units.
+   * @param <T>      the type of the result.
+   *
+   * @return the result of the lookup.
+   *
+   * @throws TimeoutException if the lookup has not finished by the deadline.
+   */
+  private static <T> T await(final Future<T> lookup, final long deadline) throws TimeoutException {
+    try {
+      return lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException error) {
+      if (error.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new GeneralException("CAUSE: " + error.getCause());
+    } catch (InterruptedException interrupted) {
+      Thread.currentThread().interrupt();
+      throw new GeneralException("Interrupted while loading the store dashboard");
+    }
+  }
+
+  /**
+   * Cancels lookups whose results are no longer needed.
+   *
+   * @param lookups the running lookups.
+   */
+  private static void cancel(final Future<?>... lookups) {
+    for (Future<?> lookup : lookups) {
+      lookup.cancel(true);
+    }
+  }
+}
@@ -14,13 +14,19 @@ import com.oreilly.maventoys.model.entity.Store;
 import com.oreilly.maventoys.repository.EmployeeRepository;
 import com.oreilly.maventoys.repository.SaleRepository;
 import com.oreilly.maventoys.repository.StoreRepository;
+import com.oreilly.maventoys.repository.projections.StoreSummary;
 import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.repository.specifications.MatchMode;
 import com.oreilly.maventoys.repository.specifications.StoreSpec;
 import jakarta.persistence.EntityNotFoundException;
+import com.oreilly.maventoys.repository.CountMode;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -66,14 +72,35 @@ public class StoreService {
    */
   private final SaleMapper saleMapper;
 
+  /**
+   * In-memory leaderboards answering the top-selling stores ranking once they are seeded.
+   */
+  private final LeaderboardService leaderboardService;
+
+  /**
+   * Cache of stores by ID, refreshed whenever a store is written here.
+   */
+  private final CatalogCache catalogCache;
+
+  /**
+   * Modification counters answering conditional requests for {@code GET /stores} and the top stores ranking,
+   * bumped whenever a store is written.
+   */
+  private final TableVersions tableVersions;
+
+  /**
+   * Publishes a {@link NameChangedEvent} for every store written, keeping the name search index current.
+   */
+  private final ApplicationEventPublisher eventPublisher;
+
 
   /**
    * Fetches all stores marked as active within the database and converts them into a list of Data Transfer Objects
    * (DTOs).
    * This method filters stores based on their active status, ensuring only currently operational stores are included
    * in the results.
-   * Each active store entity is mapped to a {@link StoreDTO} to facilitate easy data transfer and interaction with
-   * other application layers or services.
+   * Active stores are read as {@link StoreSummary} projections, so no entity is tracked by the persistence context,
+   * and each one is mapped to a {@link StoreDTO} for the response.
    *
    * @return {@link <ApiResponse<List<StoreDTO>>> } containing a list of DTOs for all active stores and a status
    * indicating successful retrieval.
@@ -82,9 +109,9 @@ public class StoreService {
    *                          database.
    */
   public CustomApiResponse<List<StoreDTO>> getStores() {
-    List<Store> activeStores;
+    List<StoreSummary> activeStores;
     try {
-      activeStores = storeRepository.getByActiveTrue();
+      activeStores = storeRepository.findActiveSummaries();
     } catch (RuntimeException error) {
       throw new GeneralException("Error fetching all active stores: " + "CAUSE: " + error.getMessage(), error);
     }
@@ -92,7 +119,8 @@ public class StoreService {
       // la exepcion no seria una general esa se utiliza para los 500
       throw new EntityNotFoundException("No active stores found");
     }
-    List<StoreDTO> storeDTOs = activeStores.stream().map(storeMapper::storeToStoreDTO).collect(Collectors.toList());
+    List<StoreDTO> storeDTOs =
+        activeStores.stream().map(storeMapper::storeSummaryToStoreDTO).collect(Collectors.toList());
     return new CustomApiResponse<>("Active store details fetched successfully", storeDTOs);
   }
 
@@ -110,8 +138,8 @@ public class StoreService {
    */
   public CustomApiResponse<StoreDTO> getStoreById(final Integer id) {
     try {
-      StoreDTO storeDTO = storeRepository.findById(id).map(storeMapper::storeToStoreDTO)
-                                         .orElseThrow(() -> new IdNotFound("Store not found with ID: " + id));
+      StoreDTO storeDTO =
+          catalogCache.findStore(id).orElseThrow(() -> new IdNotFound("Store not found with ID: " + id));
       return new CustomApiResponse<>("Store details fetched successfully", storeDTO);
     } catch (GeneralException error) {
       throw new GeneralException(
@@ -131,6 +159,7 @@ public class StoreService {
    *
    * @throws GeneralException if an error occurs during the creation of the store record.
    */
+  @Transactional
   public CustomApiResponse<StoreDTO> createStore(final StoreDTO storeDTO) {
     if (storeDTO == null) {
       throw new IllegalArgumentException("StoreDTO cannot be null");
@@ -139,6 +168,9 @@ public class StoreService {
       Store store = storeMapper.storeDTOToStore(storeDTO);
       store = storeRepository.save(store);
       StoreDTO resultDTO = storeMapper.storeToStoreDTO(store);
+      catalogCache.putStore(resultDTO);
+      tableVersions.bump(TableVersions.Table.STORES);
+      eventPublisher.publishEvent(new NameChangedEvent(NameSearchService.Kind.STORE, store.getId(), store.getName()));
       return new CustomApiResponse<>("Store created successfully", resultDTO);
     } catch (Exception error) {
       throw new GeneralException("Error creating store: " + "CAUSE: " + error.getCause());
@@ -160,12 +192,16 @@ public class StoreService {
    * @throws GeneralException if an error occurs during the update process.
    */
 
+  @Transactional
   public CustomApiResponse<StoreDTO> patchStore(final int id, final StoreDTO storeDTO) {
     try {
       return storeRepository.findById(id).map(store -> {
         storeMapper.updateStoreFromDto(storeDTO, store);
         store = storeRepository.save(store);
         StoreDTO updatedStoreDTO = storeMapper.storeToStoreDTO(store);
+        catalogCache.putStore(updatedStoreDTO);
+        tableVersions.bump(TableVersions.Table.STORES);
+        eventPublisher.publishEvent(new NameChangedEvent(NameSearchService.Kind.STORE, store.getId(), store.getName()));
         return new CustomApiResponse<>("Store updated successfully", updatedStoreDTO);
       }).orElseThrow(() -> new IdNotFound("Store not found with ID: " + id));
     } catch (Exception error) {
@@ -188,12 +224,16 @@ public class StoreService {
    * @throws IdNotFound       if no store with the specified ID is found.
    * @throws GeneralException if an error occurs during the update process.
    */
+  @Transactional
   public CustomApiResponse<StoreDTO> updateStore(final Integer id, final StoreDTO storeDTO) {
     Store store = storeRepository.findById(id).orElseThrow(() -> new IdNotFound("Store not found with ID: " + id));
     try {
       storeMapper.updateStoreFromDto(storeDTO, store);
       store = storeRepository.save(store);
       StoreDTO resultDTO = storeMapper.storeToStoreDTO(store);
+      catalogCache.putStore(resultDTO);
+      tableVersions.bump(TableVersions.Table.STORES);
+      eventPublisher.publishEvent(new NameChangedEvent(NameSearchService.Kind.STORE, store.getId(), store.getName()));
       return new CustomApiResponse<>("Store updated successfully", resultDTO);
     } catch (Exception error) {
       throw new GeneralException("Error updating store: " + "CAUSE: " + error.getMessage());
@@ -289,18 +329,23 @@ public class StoreService {
    * @param location Optional. The location of the store. If specified, the results are filtered to include only
    *                 stores located in this area.
    * @param pageable A {@link Pageable} object specifying the page number and size for pagination.
+   * @param match    How the name is matched; {@link MatchMode#PREFIX} uses the indexed normalized name.
+   * @param countMode How the total number of stores is reported; with {@link CountMode#NONE} no count query is run
+   *                  and a {@link Slice} is returned instead of a {@link Page}.
    *
-   * @return A {@link CustomApiResponse} containing a {@link Page} of {@link StoreDTO}, with a message indicating
-   * successful retrieval of filtered stores.
+   * @return A {@link CustomApiResponse} containing a {@link Page} or {@link Slice} of {@link StoreDTO}, with a
+   * message indicating successful retrieval of filtered stores.
    *
    * @throws GeneralException If there is any error during the querying process, encapsulating the underlying cause.
    */
-  public CustomApiResponse<Page<StoreDTO>> getAllStoresPag(final Integer id, final String name, final String location,
-                                                           final Pageable pageable) {
+  public CustomApiResponse<Slice<StoreDTO>> getAllStoresPag(final Integer id, final String name,
+                                                            final String location, final Pageable pageable,
+                                                            final MatchMode match, final CountMode countMode) {
     try {
-      StoreSpec specifications = new StoreSpec(id, name, location);
-      Page<Store> storePage = storeRepository.findAll(specifications, pageable);
-      Page<StoreDTO> resultDTOPage = storePage.map(storeMapper::storeToStoreDTO);
+      StoreSpec specifications = new StoreSpec(id, name, location, match);
+      Slice<Store> storePage = storeRepository.findPage(specifications, pageable,
+                                                        countMode.unlessFiltered(id, name, location));
+      Slice<StoreDTO> resultDTOPage = storePage.map(storeMapper::storeToStoreDTO);
       return new CustomApiResponse<>("Filtered stores retrieved successfully", resultDTOPage);
     } catch (Exception error) {
       throw new GeneralException("Error finding filtered stores: " + "CAUSE: " + error.getCause());
@@ -314,12 +359,16 @@ public class StoreService {
    * This method interacts with the store repository to obtain sales data and maps the results
    * into a list of {@link StoreDTO} objects. Each store is represented by a {@link StoreDTO}
    * containing the store's ID, name, and total sales. It encapsulates the results in a
-   * {@link CustomApiResponse} with a success message.
+   * {@link CustomApiResponse} with a success message. Once the leaderboards are seeded the ranking is served from
+   * {@link LeaderboardService} without querying the database.
    *
    * @return A {@link CustomApiResponse} that contains a list of {@link StoreDTO} objects,
    * each representing a store's sales data with status message indicating the operation outcome.
    */
   public CustomApiResponse<List<StoreDTO>> getStoreSales() {
+    if (leaderboardService.isReady()) {
+      return new CustomApiResponse<>("Success", leaderboardService.topStores());
+    }
     List<Object[]> results = storeRepository.findStoresTopSellers();
     List<StoreDTO> storeSales = new ArrayList<>();
     for (Object[] result : results) {
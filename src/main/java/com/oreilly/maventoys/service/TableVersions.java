@@ -0,0 +1,135 @@
+package com.oreilly.maventoys.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Modification counters of the tables behind the catalog and ranking endpoints, from which those endpoints derive
+ * their {@code ETag} and {@code Last-Modified} headers and answer conditional requests with {@code 304 Not Modified}
+ * before running any query.
+ * <p>
+ * Services call {@link #bump} from every method that writes one of these tables; sales are counted from the
+ * {@link SaleTotalsChangedEvent} every sale write publishes. A bump made inside a transaction is applied once it
+ * commits, and endpoints read the version before running their query, so a response is never labelled with a
+ * version newer than the data it holds.
+ * </p>
+ * <p>
+ * Counters live in memory and start over with each instance, which is why every ETag also carries the instance's
+ * start time. Writes made through other instances, and the periodic leaderboard reconciliation, are not counted.
+ * </p>
+ */
+@Component
+public class TableVersions {
+
+  /**
+   * Tables with a modification counter.
+   */
+  public enum Table {
+    PRODUCTS, CATEGORIES, STORES, EMPLOYEES, SALES
+  }
+
+  /**
+   * Start time of this instance in base 36, prefixed to every ETag.
+   */
+  private final String epoch;
+
+  /**
+   * Current stamp of each table, indexed by {@link Table#ordinal()}.
+   */
+  private final AtomicReferenceArray<Stamp> stamps = new AtomicReferenceArray<>(Table.values().length);
+
+  /**
+   * Constructs a new TableVersions with every table at version 0, modified at start-up.
+   */
+  public TableVersions() {
+    Instant now = Instant.now();
+    this.epoch = Long.toString(now.toEpochMilli(), Character.MAX_RADIX);
+    for (Table table : Table.values()) {
+      stamps.set(table.ordinal(), new Stamp(0, now.getEpochSecond()));
+    }
+  }
+
+  /**
+   * Records a write to a table, once the current transaction commits, or at once if there is none. A rolled back
+   * transaction leaves the version unchanged.
+   *
+   * @param table the table written.
+   */
+  public void bump(final Table table) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      advance(table);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        advance(table);
+      }
+    });
+  }
+
+  /**
+   * Counts every committed sale write against the sales table.
+   *
+   * @param event the change in sales figures.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSaleTotalsChanged(final SaleTotalsChangedEvent event) {
+    advance(Table.SALES);
+  }
+
+  /**
+   * Returns the combined version of the tables a response is built from.
+   *
+   * @param tables the tables read by the endpoint.
+   *
+   * @return a weak ETag made of the instance start time and the version of each table, and the latest modification
+   * time among them.
+   */
+  public Version current(final Table... tables) {
+    StringBuilder etag = new StringBuilder("W/\"").append(epoch);
+    long lastModified = 0;
+    for (Table table : tables) {
+      Stamp stamp = stamps.get(table.ordinal());
+      etag.append('-').append(stamp.version());
+      lastModified = Math.max(lastModified, stamp.modifiedSecond());
+    }
+    return new Version(etag.append('"').toString(), lastModified * 1000);
+  }
+
+  /**
+   * Increments a table's version and moves its modification time to the end of the current second, the resolution
+   * of {@code Last-Modified}. Two writes within one second share a modification time; clients that send
+   * {@code If-None-Match} are told apart by the version.
+   *
+   * @param table the table written.
+   */
+  private void advance(final Table table) {
+    long endOfSecond = Instant.now().getEpochSecond() + 1;
+    stamps.updateAndGet(table.ordinal(),
+        stamp -> new Stamp(stamp.version() + 1, Math.max(endOfSecond, stamp.modifiedSecond())));
+  }
+
+  /**
+   * Validators of a response.
+   *
+   * @param etag         the weak entity tag.
+   * @param lastModified the modification time in milliseconds since the epoch.
+   */
+  public record Version(String etag, long lastModified) {
+  }
+
+  /**
+   * Version and modification time of one table.
+   *
+   * @param version        the number of writes since start-up.
+   * @param modifiedSecond the time of the last write in seconds since the epoch.
+   */
+  private record Stamp(long version, long modifiedSecond) {
+  }
+}
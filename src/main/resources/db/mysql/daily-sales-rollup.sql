@@ -0,0 +1,62 @@
+-- Daily sales rollup (one row per day, store, employee and product category).
+--
+-- SaleService keeps this table up to date in the same transaction as every sale it creates or updates, and the
+-- store, employee and category sales analytics read from it instead of scanning sales and invoices. Run this once
+-- before deploying with spring.jpa.hibernate.ddl-auto=validate; the INSERT backfills the existing history with the
+-- same rules SalesRollupService applies on write:
+--   * each invoice line adds its discounted amount and quantity to the row of its product's category;
+--   * each sale is counted once, in the row of its first invoice line (category 0 when it has none), and that row
+--     also absorbs any difference between the sale total and the sum of its lines.
+-- Sales without a date, store or employee are left out.
+
+CREATE TABLE IF NOT EXISTS daily_sales_rollup (
+    sale_day    DATE   NOT NULL,
+    store_id    INT    NOT NULL,
+    employee_id INT    NOT NULL,
+    category_id INT    NOT NULL,
+    revenue     DOUBLE NOT NULL DEFAULT 0,
+    sale_count  BIGINT NOT NULL DEFAULT 0,
+    units       BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (sale_day, store_id, employee_id, category_id),
+    KEY idx_daily_sales_rollup_store (store_id),
+    KEY idx_daily_sales_rollup_employee (employee_id),
+    KEY idx_daily_sales_rollup_category (category_id)
+) ENGINE = InnoDB;
+
+INSERT INTO daily_sales_rollup (sale_day, store_id, employee_id, category_id, revenue, sale_count, units)
+SELECT sale_day, store_id, employee_id, category_id, SUM(revenue), SUM(sale_count), SUM(units)
+FROM (
+    SELECT DATE(s.date)                                                   AS sale_day,
+           s.store_id,
+           s.employee_id,
+           COALESCE(p.category_id, 0)                                     AS category_id,
+           i.subtotal - i.subtotal * COALESCE(i.discount, 0) / 100        AS revenue,
+           0                                                              AS sale_count,
+           COALESCE(i.quantity, 0)                                        AS units
+    FROM sales s
+    JOIN invoices i ON i.sales_id = s.id
+    LEFT JOIN products p ON p.id = i.product_id
+    WHERE s.date IS NOT NULL AND s.store_id IS NOT NULL AND s.employee_id IS NOT NULL
+
+    UNION ALL
+
+    SELECT DATE(s.date),
+           s.store_id,
+           s.employee_id,
+           COALESCE(p.category_id, 0),
+           s.total - COALESCE(l.lines_total, 0),
+           1,
+           0
+    FROM sales s
+    LEFT JOIN (
+        SELECT sales_id,
+               MIN(id)                                                   AS first_invoice_id,
+               SUM(subtotal - subtotal * COALESCE(discount, 0) / 100)    AS lines_total
+        FROM invoices
+        GROUP BY sales_id
+    ) l ON l.sales_id = s.id
+    LEFT JOIN invoices fi ON fi.id = l.first_invoice_id
+    LEFT JOIN products p ON p.id = fi.product_id
+    WHERE s.date IS NOT NULL AND s.store_id IS NOT NULL AND s.employee_id IS NOT NULL
+) contributions
+GROUP BY sale_day, store_id, employee_id, category_id;
@@ -0,0 +1,21 @@
+-- Normalized name columns backing prefix search (GET /products/paged?match=PREFIX and the store and employee
+-- equivalents).
+--
+-- The application fills these columns on every insert and update with the name lower-cased, stripped of accents and
+-- with runs of whitespace collapsed, so WHERE name_key LIKE 'abc%' is an index range scan instead of the full scan
+-- that LOWER(name) LIKE '%abc%' needs. The backfill below only lower-cases and trims; the default accent-insensitive
+-- collation (utf8mb4_0900_ai_ci) already matches accented rows until they are next saved.
+-- Run this once before deploying with spring.jpa.hibernate.ddl-auto=validate.
+
+ALTER TABLE products ADD COLUMN name_key VARCHAR(255);
+ALTER TABLE stores ADD COLUMN name_key VARCHAR(255);
+ALTER TABLE employees ADD COLUMN first_name_key VARCHAR(255), ADD COLUMN last_name_key VARCHAR(255);
+
+UPDATE products SET name_key = LOWER(TRIM(name));
+UPDATE stores SET name_key = LOWER(TRIM(name));
+UPDATE employees SET first_name_key = LOWER(TRIM(first_name)), last_name_key = LOWER(TRIM(last_name));
+
+CREATE INDEX idx_products_name_key ON products (name_key);
+CREATE INDEX idx_stores_name_key ON stores (name_key);
+CREATE INDEX idx_employees_first_name_key ON employees (first_name_key);
+CREATE INDEX idx_employees_last_name_key ON employees (last_name_key);
@@ -0,0 +1,20 @@
+-- ID sequences for sales and invoices.
+--
+-- Sale and Invoice use pooled sequence generators (allocationSize = 50) so Hibernate can batch their inserts.
+-- MySQL has no native sequences, so Hibernate emulates each one with a single-row table. Run this once before
+-- deploying with spring.jpa.hibernate.ddl-auto=validate. The seed leaves a gap of one allocation block above the
+-- current maximum ID so the first pooled block can never collide with existing rows.
+
+CREATE TABLE IF NOT EXISTS sales_seq (
+    next_val BIGINT NOT NULL
+) ENGINE = InnoDB;
+
+INSERT INTO sales_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM sales;
+
+CREATE TABLE IF NOT EXISTS invoices_seq (
+    next_val BIGINT NOT NULL
+) ENGINE = InnoDB;
+
+INSERT INTO invoices_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM invoices;
@@ -0,0 +1,7 @@
+-- Index backing the newest-first keyset listing of sales (GET /sales?after=&order=DATE).
+--
+-- Slices are read with WHERE date < ? OR (date = ? AND id < ?) ORDER BY date DESC, id DESC LIMIT n, which this
+-- index answers with a single range scan however deep the client has paged. The ID order uses the primary key.
+-- Run this once before deploying with spring.jpa.hibernate.ddl-auto=validate.
+
+CREATE INDEX idx_sales_date_id ON sales (date, id);
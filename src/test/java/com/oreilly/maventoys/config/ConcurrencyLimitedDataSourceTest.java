@@ -0,0 +1,82 @@
+package com.oreilly.maventoys.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that {@link ConcurrencyLimitedDataSource} hands out at most the configured number of connections, times
+ * out the callers beyond it, and gives a permit back exactly once per borrowed connection.
+ */
+class ConcurrencyLimitedDataSourceTest {
+
+  private DataSource pool;
+
+  private ConcurrencyLimitedDataSource limited;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    pool = mock(DataSource.class);
+    when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+    limited = new ConcurrencyLimitedDataSource(pool, 2, Duration.ofMillis(50));
+  }
+
+  @Test
+  @DisplayName("Callers beyond the limit time out without reaching the pool")
+  void getConnection_TimesOutBeyondLimit() throws SQLException {
+    limited.getConnection();
+    limited.getConnection();
+
+    assertThatThrownBy(limited::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+    verify(pool, times(2)).getConnection();
+  }
+
+  @Test
+  @DisplayName("Closing a connection frees its permit once, however often it is closed")
+  void close_ReleasesPermitOnce() throws SQLException {
+    Connection first = limited.getConnection();
+    assertThat(limited.availablePermits()).isEqualTo(1);
+
+    first.close();
+    first.close();
+
+    assertThat(limited.availablePermits()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("A failure of the pool gives the permit back")
+  void getConnection_ReleasesPermitWhenPoolFails() throws SQLException {
+    when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+    assertThatThrownBy(limited::getConnection).hasMessage("pool exhausted");
+    assertThat(limited.availablePermits()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Calls other than close are forwarded to the pooled connection")
+  void connection_ForwardsCalls() throws SQLException {
+    Connection pooled = mock(Connection.class);
+    when(pool.getConnection()).thenReturn(pooled);
+
+    Connection connection = limited.getConnection();
+    connection.setAutoCommit(false);
+    connection.close();
+
+    verify(pooled).setAutoCommit(false);
+    verify(pooled).close();
+    assertThat(connection.unwrap(Connection.class)).isSameAs(connection);
+  }
+}
@@ -0,0 +1,111 @@
+package com.oreilly.maventoys.controller;
+
+import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.service.SaleBulkService;
+import com.oreilly.maventoys.service.SaleExportService;
+import com.oreilly.maventoys.service.SaleService;
+import com.oreilly.maventoys.service.SalesReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+@WebMvcTest(controllers = SaleController.class, properties = "sales.export.timeout=PT7M")
+class SaleControllerTest {
+
+  private static final LocalDate START = LocalDate.of(2023, 1, 1);
+
+  private static final LocalDate END = LocalDate.of(2023, 1, 31);
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private SaleService saleService;
+
+  @MockBean
+  private SaleBulkService saleBulkService;
+
+  @MockBean
+  private SalesReportService salesReportService;
+
+  @MockBean
+  private SaleExportService saleExportService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    doAnswer(invocation -> {
+      OutputStream out = invocation.getArgument(3);
+      out.write(invocation.getArgument(2).toString().getBytes(StandardCharsets.UTF_8));
+      return 1L;
+    }).when(saleExportService).exportSalesByDate(any(), any(), any(), any());
+    when(saleService.getSalesByDate(START, END)).thenReturn(new CustomApiResponse<>("Success",
+                                                                                    Collections.emptyList()));
+  }
+
+  @Test
+  void streamSalesByDateRange_HonoursQualityValues() throws Exception {
+    MvcResult result = mockMvc.perform(get("/sales/byDateRange").param("startDate", START.toString())
+                                           .param("endDate", END.toString())
+                                           .header(HttpHeaders.ACCEPT, "text/csv;q=0.5, application/x-ndjson"))
+                              .andExpect(request().asyncStarted())
+                              .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+           .andExpect(status().isOk())
+           .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+           .andExpect(content().string("NDJSON"));
+    assertEquals(420_000L, result.getRequest().getAsyncContext().getTimeout());
+  }
+
+  @Test
+  void streamSalesByDateRange_StreamsCsv() throws Exception {
+    MvcResult result = mockMvc.perform(get("/sales/byDateRange").param("startDate", START.toString())
+                                           .param("endDate", END.toString())
+                                           .header(HttpHeaders.ACCEPT, "application/x-ndjson;q=0.2, text/*"))
+                              .andExpect(request().asyncStarted())
+                              .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+           .andExpect(status().isOk())
+           .andExpect(content().contentTypeCompatibleWith(SaleExportService.TEXT_CSV_VALUE))
+           .andExpect(content().string("CSV"));
+    verify(saleExportService).exportSalesByDate(eq(START), eq(END), eq(SaleExportService.Format.CSV), any());
+  }
+
+  @Test
+  void getSalesByDateRange_AnyMediaTypeGetsJson() throws Exception {
+    mockMvc.perform(get("/sales/byDateRange").param("startDate", START.toString())
+                        .param("endDate", END.toString())
+                        .header(HttpHeaders.ACCEPT, MediaType.ALL_VALUE))
+           .andExpect(status().isOk())
+           .andExpect(request().asyncNotStarted())
+           .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+           .andExpect(content().json("{\"message\":\"Success\",\"data\":[]}"));
+    verify(saleExportService, never()).exportSalesByDate(any(), any(), any(), any());
+  }
+}
@@ -0,0 +1,257 @@
+package com.oreilly.maventoys.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oreilly.maventoys.MaventoysApplication;
+import com.oreilly.maventoys.model.DTO.InvoicesDTO;
+import com.oreilly.maventoys.model.DTO.SaleDTO;
+import com.oreilly.maventoys.model.entity.Category;
+import com.oreilly.maventoys.model.entity.Employee;
+import com.oreilly.maventoys.model.entity.Inventory;
+import com.oreilly.maventoys.model.entity.Product;
+import com.oreilly.maventoys.model.entity.Store;
+import com.oreilly.maventoys.repository.CategoryRepository;
+import com.oreilly.maventoys.repository.EmployeeRepository;
+import com.oreilly.maventoys.repository.InventoryRepository;
+import com.oreilly.maventoys.repository.ProductRepository;
+import com.oreilly.maventoys.repository.StoreRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load-test harness comparing the web tier on platform threads (the Tomcat pool) with the {@code virtual-threads}
+ * profile (virtual threads and the database concurrency limiter) on {@code GET /sales/paged} and {@code POST /sales}.
+ * <p>
+ * Each mode boots the whole application on a random port against its own H2 database, seeded with a small catalog.
+ * Every borrowed connection is held for an extra {@code load.db-latency} to stand in for a slow MySQL, so requests
+ * spend their time waiting on the database as they do in production. Clients on virtual threads then keep
+ * {@code load.concurrency} requests in flight until {@code load.requests} have completed per endpoint, and the
+ * throughput and latency percentiles of both modes are printed side by side.
+ * </p>
+ * <p>
+ * The harness boots two applications and runs for tens of seconds, so it only runs on request:
+ * {@code mvn test -Dtest=SalesLoadTest -Dload.test=true [-Dload.concurrency=500 -Dload.requests=5000]}.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "load.test", matches = "true")
+class SalesLoadTest {
+
+  private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 400);
+
+  private static final int REQUESTS = Integer.getInteger("load.requests", 4_000);
+
+  private static final Duration DB_LATENCY = Duration.parse(System.getProperty("load.db-latency", "PT0.02S"));
+
+  private static final int TOMCAT_THREADS = 200;
+
+  private static final int PRODUCT_COUNT = 20;
+
+  private final HttpClient client = HttpClient.newBuilder()
+      .executor(Executors.newVirtualThreadPerTaskExecutor())
+      .build();
+
+  @Test
+  @DisplayName("Platform and virtual threads serve /sales/paged and POST /sales without errors")
+  void sales_PlatformVsVirtualThreads() throws Exception {
+    List<Result> results = new ArrayList<>();
+    results.addAll(runMode("platform"));
+    results.addAll(runMode("virtual"));
+
+    System.out.printf("%n%-10s %-16s %12s %10s %10s %10s %8s%n", "mode", "endpoint", "req/sec", "p50 ms", "p99 ms",
+                      "max ms", "errors");
+    for (Result result : results) {
+      System.out.printf("%-10s %-16s %12.1f %10.1f %10.1f %10.1f %8d%n", result.mode(), result.endpoint(),
+                        result.requestsPerSecond(), result.percentile(0.50), result.percentile(0.99),
+                        result.percentile(1.0), result.errors());
+    }
+    assertThat(results).allSatisfy(result -> assertThat(result.errors()).as(result.toString()).isZero());
+  }
+
+  private List<Result> runMode(final String mode) throws Exception {
+    SpringApplicationBuilder builder = new SpringApplicationBuilder(MaventoysApplication.class)
+        .properties("server.port=0",
+                    "spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                    "server.tomcat.threads.max=" + TOMCAT_THREADS,
+                    "cors.allowedOrigins=http://localhost",
+                    "spring.jpa.show-sql=false",
+                    "logging.level.root=WARN",
+                    "logging.level.web=WARN",
+                    "logging.level.org.springframework.web=WARN",
+                    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+        .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new SlowDatabase()));
+    if ("virtual".equals(mode)) {
+      builder.profiles("virtual-threads");
+    }
+    try (ConfigurableApplicationContext context = builder.run()) {
+      String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+      byte[] sale = context.getBean(ObjectMapper.class).writeValueAsBytes(seed(context));
+      Supplier<HttpRequest> createSale = () -> HttpRequest.newBuilder(URI.create(baseUrl + "/sales"))
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofByteArray(sale))
+          .build();
+      Supplier<HttpRequest> pageSales =
+          () -> HttpRequest.newBuilder(URI.create(baseUrl + "/sales/paged?page=0&size=20")).GET().build();
+
+      run(createSale, CONCURRENCY / 4, REQUESTS / 10);
+      run(pageSales, CONCURRENCY / 4, REQUESTS / 10);
+      return List.of(new Result(mode, "POST /sales", run(createSale, CONCURRENCY, REQUESTS)),
+                     new Result(mode, "GET /sales/paged", run(pageSales, CONCURRENCY, REQUESTS)));
+    }
+  }
+
+  /**
+   * Sends {@code requests} requests with {@code concurrency} of them in flight at any time.
+   */
+  private Run run(final Supplier<HttpRequest> request, final int concurrency, final int requests) {
+    long[] latencies = new long[requests];
+    AtomicInteger next = new AtomicInteger();
+    AtomicInteger errors = new AtomicInteger();
+    long start = System.nanoTime();
+    try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int c = 0; c < concurrency; c++) {
+        clients.submit(() -> {
+          for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+            long sent = System.nanoTime();
+            try {
+              int status = client.send(request.get(), HttpResponse.BodyHandlers.discarding()).statusCode();
+              if (status >= 300) {
+                errors.incrementAndGet();
+              }
+            } catch (Exception e) {
+              errors.incrementAndGet();
+            }
+            latencies[i] = System.nanoTime() - sent;
+          }
+        });
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    Arrays.sort(latencies);
+    return new Run(latencies, elapsed, errors.get());
+  }
+
+  /**
+   * Persists one store, one employee and a few products with ample stock, and returns a two-line sale against them.
+   */
+  private static SaleDTO seed(final ConfigurableApplicationContext context) {
+    Store store = new Store();
+    store.setName("Load Store");
+    store.setCity("Load City");
+    store.setLocation("Downtown");
+    store.setActive(true);
+    store = context.getBean(StoreRepository.class).save(store);
+
+    Employee employee = new Employee();
+    employee.setFirstName("Load");
+    employee.setLastName("Test");
+    employee.setActive(true);
+    employee.setStore(store);
+    employee = context.getBean(EmployeeRepository.class).save(employee);
+
+    Category category = new Category();
+    category.setName("Toys");
+    category.setActive(true);
+    category = context.getBean(CategoryRepository.class).save(category);
+
+    List<InvoicesDTO> lines = new ArrayList<>();
+    for (int i = 0; i < PRODUCT_COUNT; i++) {
+      Product product = new Product();
+      product.setName("Product " + i);
+      product.setPrice(10.0 + i);
+      product.setCost(5.0);
+      product.setActive(true);
+      product.setCategory(category);
+      product = context.getBean(ProductRepository.class).save(product);
+
+      Inventory inventory = new Inventory();
+      inventory.setProduct(product);
+      inventory.setStockOnHand(Integer.MAX_VALUE);
+      context.getBean(InventoryRepository.class).save(inventory);
+
+      if (i < 2) {
+        InvoicesDTO line = new InvoicesDTO();
+        line.setProduct_id(product.getId());
+        line.setQuantity(1);
+        line.setDiscount(0);
+        lines.add(line);
+      }
+    }
+
+    SaleDTO sale = new SaleDTO();
+    sale.setStoreId(store.getId());
+    sale.setEmployeeId(employee.getId());
+    sale.setDate(LocalDate.now());
+    sale.setProducts(lines);
+    return sale;
+  }
+
+  /**
+   * Holds every connection borrowed from the pool for an extra {@link #DB_LATENCY}. Registered on the bean factory
+   * before the application's own post processors, so the database concurrency limiter wraps this data source.
+   */
+  private static final class SlowDatabase implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+      if (!(bean instanceof DataSource dataSource)) {
+        return bean;
+      }
+      return new DelegatingDataSource(dataSource) {
+        @Override
+        public Connection getConnection() throws SQLException {
+          Connection connection = super.getConnection();
+          try {
+            Thread.sleep(DB_LATENCY);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return connection;
+        }
+      };
+    }
+  }
+
+  private record Run(long[] latencies, long elapsedNanos, int errors) {
+  }
+
+  private record Result(String mode, String endpoint, Run run) {
+
+    double requestsPerSecond() {
+      return run.latencies().length * 1e9 / run.elapsedNanos();
+    }
+
+    double percentile(final double p) {
+      long[] latencies = run.latencies();
+      int index = Math.min(latencies.length - 1, (int) Math.ceil(p * latencies.length) - 1);
+      return latencies[Math.max(0, index)] / 1e6;
+    }
+
+    int errors() {
+      return run.errors();
+    }
+  }
+}
@@ -0,0 +1,332 @@
+package com.oreilly.maventoys.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oreilly.maventoys.MaventoysApplication;
+import com.oreilly.maventoys.model.DTO.InvoicesDTO;
+import com.oreilly.maventoys.model.DTO.SaleDTO;
+import com.oreilly.maventoys.repository.DatasetGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Repeatable load-test harness: fills a database with a synthetic Maven Toys dataset and drives the controller
+ * endpoints at a fixed request rate, reporting throughput and the p50, p99 and p99.9 latencies of each scenario.
+ * <p>
+ * The application boots on a random port against an in-memory H2 database, or against the database given by
+ * {@code load.datasource.url} (with {@code load.datasource.username} and {@code load.datasource.password}), whose
+ * schema must already match the entities. Once the context is refreshed, and before the leaderboards and search
+ * indexes warm up, {@link DatasetGenerator} appends a dataset sized by the {@code dataset.*} properties; set
+ * {@code dataset.generate=false} to reuse data loaded by an earlier run. A local MySQL holds the large volumes,
+ * e.g. {@code -Ddataset.invoices=50000000}; H2 keeps everything on the heap and suits a few million rows at most.
+ * </p>
+ * <p>
+ * Each scenario sends requests open-loop at {@code load.rps} for {@code load.warmup} and then for
+ * {@code load.duration}. Requests are scheduled at fixed intervals whether or not earlier ones have completed, and
+ * latency is measured from the scheduled send time, so a stall shows up in the percentiles instead of silently
+ * lowering the request rate. {@code load.scenarios} selects scenarios by name; the {@code mixed} scenario
+ * interleaves all the others in proportion to their weights.
+ * </p>
+ * <p>
+ * The harness runs for minutes, so it only runs on request:
+ * {@code mvn test -Dtest=ScenarioLoadTest -Dload.test=true [-Dload.rps=500 -Dload.scenarios=mixed]}.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "load.test", matches = "true")
+class ScenarioLoadTest {
+
+  private static final double RPS = Double.parseDouble(System.getProperty("load.rps", "200"));
+
+  private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT5S"));
+
+  private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT20S"));
+
+  private static final List<String> SELECTED = Arrays.stream(System.getProperty("load.scenarios", "").split(","))
+      .map(String::trim).filter(name -> !name.isEmpty()).toList();
+
+  private static final String DATASOURCE_URL = System.getProperty("load.datasource.url");
+
+  private static final boolean GENERATE = Boolean.parseBoolean(System.getProperty("dataset.generate", "true"));
+
+  private static final String[] SEARCH_TERMS = {"robot", "mag", "blocks", "super", "dino", "kite"};
+
+  private final HttpClient client = HttpClient.newBuilder()
+      .executor(Executors.newVirtualThreadPerTaskExecutor())
+      .build();
+
+  @Test
+  @DisplayName("Every scenario is served at the target rate without errors")
+  void scenarios_AtTargetRate() throws Exception {
+    try (ConfigurableApplicationContext context = application().run()) {
+      String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+      Keys keys = Keys.read(new JdbcTemplate(context.getBean(DataSource.class)));
+      List<Scenario> scenarios = scenarios(baseUrl, keys, context.getBean(ObjectMapper.class));
+
+      List<Result> results = new ArrayList<>();
+      for (Scenario scenario : scenarios) {
+        if (SELECTED.isEmpty() || SELECTED.contains(scenario.name())) {
+          run(scenario, WARMUP);
+          results.add(new Result(scenario.name(), run(scenario, DURATION)));
+        }
+      }
+
+      System.out.printf("%n%-16s %10s %10s %10s %10s %10s %10s %8s%n", "scenario", "target/s", "req/sec", "p50 ms",
+                        "p99 ms", "p999 ms", "max ms", "errors");
+      for (Result result : results) {
+        System.out.printf("%-16s %10.0f %10.1f %10.1f %10.1f %10.1f %10.1f %8d%n", result.scenario(), RPS,
+                          result.requestsPerSecond(), result.percentile(0.50), result.percentile(0.99),
+                          result.percentile(0.999), result.percentile(1.0), result.errors());
+      }
+      assertThat(results).isNotEmpty()
+          .allSatisfy(result -> assertThat(result.errors()).as(result.toString()).isZero());
+    }
+  }
+
+  private static SpringApplicationBuilder application() {
+    List<String> properties = new ArrayList<>(List.of(
+        "server.port=0",
+        "cors.allowedOrigins=http://localhost",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN",
+        "logging.level.web=WARN",
+        "logging.level.org.springframework.web=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+    if (DATASOURCE_URL == null) {
+      properties.add("spring.datasource.url=jdbc:h2:mem:scenarios;DB_CLOSE_DELAY=-1");
+    } else {
+      properties.add("spring.datasource.url=" + DATASOURCE_URL);
+      properties.add("spring.datasource.username=" + System.getProperty("load.datasource.username", "root"));
+      properties.add("spring.datasource.password=" + System.getProperty("load.datasource.password", ""));
+      properties.add("spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver");
+      properties.add("spring.jpa.hibernate.ddl-auto=validate");
+    }
+    SpringApplicationBuilder builder = new SpringApplicationBuilder(MaventoysApplication.class)
+        .properties(properties.toArray(new String[0]));
+    if (GENERATE) {
+      builder.listeners(new GenerateDataset(volumes()));
+    }
+    return builder;
+  }
+
+  /**
+   * Reads the dataset volumes from the {@code dataset.*} system properties, defaulting to
+   * {@link DatasetGenerator.Volumes#small()}.
+   */
+  private static DatasetGenerator.Volumes volumes() {
+    DatasetGenerator.Volumes small = DatasetGenerator.Volumes.small();
+    return new DatasetGenerator.Volumes(Integer.getInteger("dataset.categories", small.categories()),
+                                        Integer.getInteger("dataset.stores", small.stores()),
+                                        Integer.getInteger("dataset.employees-per-store", small.employeesPerStore()),
+                                        Integer.getInteger("dataset.products", small.products()),
+                                        Long.getLong("dataset.invoices", small.invoices()),
+                                        small.firstDay(),
+                                        Integer.getInteger("dataset.days", small.days()),
+                                        small.stockOnHand(),
+                                        Long.getLong("dataset.seed", small.seed()));
+  }
+
+  private static List<Scenario> scenarios(final String baseUrl, final Keys keys, final ObjectMapper objectMapper) {
+    List<Scenario> scenarios = new ArrayList<>(List.of(
+        new Scenario("products", 20, random -> get(baseUrl + "/products")),
+        new Scenario("store-dashboard", 10,
+                     random -> get(baseUrl + "/stores/" + keys.store(random) + "/dashboard")),
+        new Scenario("sale-by-id", 20, random -> get(baseUrl + "/sales/" + keys.sale(random))),
+        new Scenario("sales-paged", 10,
+                     random -> get(baseUrl + "/sales/paged?size=20&withTotal=false&page=" + random.nextInt(100))),
+        new Scenario("store-ranking", 5, random -> get(baseUrl + "/stores/sales")),
+        new Scenario("top-sellers", 5, random -> get(baseUrl + "/employees/top-sellers")),
+        new Scenario("category-sales", 5, random -> get(baseUrl + "/categories/sales")),
+        new Scenario("search", 15, random -> get(baseUrl + "/search/products?q="
+                                                 + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)])),
+        new Scenario("create-sale", 10, random -> HttpRequest.newBuilder(URI.create(baseUrl + "/sales"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(sale(objectMapper, keys, random)))
+            .build())));
+    List<Scenario> mix = List.copyOf(scenarios);
+    int totalWeight = mix.stream().mapToInt(Scenario::weight).sum();
+    scenarios.add(new Scenario("mixed", 0, random -> {
+      int pick = random.nextInt(totalWeight);
+      for (Scenario scenario : mix) {
+        pick -= scenario.weight();
+        if (pick < 0) {
+          return scenario.request().apply(random);
+        }
+      }
+      throw new IllegalStateException("No scenario picked");
+    }));
+    return scenarios;
+  }
+
+  private static HttpRequest get(final String url) {
+    return HttpRequest.newBuilder(URI.create(url)).GET().build();
+  }
+
+  /**
+   * Builds a sale of one to three single units by a random employee at their store.
+   */
+  private static byte[] sale(final ObjectMapper objectMapper, final Keys keys, final Random random) {
+    int employee = random.nextInt(keys.employees().length);
+    List<InvoicesDTO> lines = new ArrayList<>();
+    for (int l = 1 + random.nextInt(3); l > 0; l--) {
+      InvoicesDTO line = new InvoicesDTO();
+      line.setProduct_id(keys.products()[random.nextInt(keys.products().length)]);
+      line.setQuantity(1);
+      line.setDiscount(0);
+      lines.add(line);
+    }
+    SaleDTO sale = new SaleDTO();
+    sale.setStoreId(keys.employeeStores()[employee]);
+    sale.setEmployeeId(keys.employees()[employee]);
+    sale.setDate(LocalDate.now());
+    sale.setProducts(lines);
+    try {
+      return objectMapper.writeValueAsBytes(sale);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Sends requests at {@link #RPS} for the given time, each on its own virtual thread at its scheduled instant.
+   */
+  private Run run(final Scenario scenario, final Duration duration) {
+    int requests = (int) Math.max(1, RPS * duration.toNanos() / 1e9);
+    long interval = (long) (1e9 / RPS);
+    long[] latencies = new long[requests];
+    AtomicInteger errors = new AtomicInteger();
+    long start = System.nanoTime();
+    try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < requests; i++) {
+        long scheduled = start + i * interval;
+        for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+          LockSupport.parkNanos(wait);
+        }
+        int index = i;
+        clients.submit(() -> {
+          try {
+            HttpRequest request = scenario.request().apply(ThreadLocalRandom.current());
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status >= 400) {
+              errors.incrementAndGet();
+            }
+          } catch (Exception e) {
+            errors.incrementAndGet();
+          }
+          latencies[index] = System.nanoTime() - scheduled;
+        });
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    Arrays.sort(latencies);
+    return new Run(latencies, elapsed, errors.get());
+  }
+
+  /**
+   * Generates the dataset as soon as the schema exists, before the application-ready listeners read it.
+   */
+  private static final class GenerateDataset implements ApplicationListener<ContextRefreshedEvent> {
+
+    private final DatasetGenerator.Volumes volumes;
+
+    GenerateDataset(final DatasetGenerator.Volumes newVolumes) {
+      this.volumes = newVolumes;
+    }
+
+    @Override
+    public void onApplicationEvent(final ContextRefreshedEvent event) {
+      if (event.getApplicationContext().getParent() != null) {
+        return;
+      }
+      try {
+        DataSource dataSource = event.getApplicationContext().getBean(DataSource.class);
+        DatasetGenerator.Summary summary = new DatasetGenerator(dataSource, volumes).generate();
+        System.out.printf("%nGenerated %,d stores, %,d employees, %,d products, %,d sales and %,d invoices in %s "
+                              + "(%,.0f rows/s)%n", summary.stores(), summary.employees(), summary.products(),
+                          summary.sales(), summary.invoices(), summary.elapsed(), summary.rowsPerSecond());
+      } catch (SQLException e) {
+        throw new IllegalStateException("Could not generate the dataset", e);
+      }
+    }
+  }
+
+  /**
+   * IDs the scenarios draw from: the range of store and sale IDs, and every product and employee.
+   */
+  private record Keys(long[] stores, long[] sales, int[] products, int[] employees, int[] employeeStores) {
+
+    static Keys read(final JdbcTemplate jdbc) {
+      long[] stores = jdbc.queryForObject("SELECT MIN(id), MAX(id) FROM stores",
+                                          (row, n) -> new long[] {row.getLong(1), row.getLong(2)});
+      long[] sales = jdbc.queryForObject("SELECT MIN(id), MAX(id) FROM sales",
+                                         (row, n) -> new long[] {row.getLong(1), row.getLong(2)});
+      int[] products = jdbc.queryForList("SELECT id FROM products WHERE active = TRUE", Integer.class).stream()
+          .mapToInt(Integer::intValue).toArray();
+      List<int[]> employees = jdbc.query("SELECT id, store_id FROM employees WHERE store_id IS NOT NULL",
+                                         (row, n) -> new int[] {row.getInt(1), row.getInt(2)});
+      return new Keys(stores, sales, products, employees.stream().mapToInt(pair -> pair[0]).toArray(),
+                      employees.stream().mapToInt(pair -> pair[1]).toArray());
+    }
+
+    long store(final Random random) {
+      return stores[0] + random.nextLong(stores[1] - stores[0] + 1);
+    }
+
+    long sale(final Random random) {
+      return sales[0] + random.nextLong(sales[1] - sales[0] + 1);
+    }
+  }
+
+  /**
+   * A kind of request, with its share of the {@code mixed} scenario.
+   */
+  private record Scenario(String name, int weight, Function<Random, HttpRequest> request) {
+  }
+
+  private record Run(long[] latencies, long elapsedNanos, int errors) {
+  }
+
+  private record Result(String scenario, Run run) {
+
+    double requestsPerSecond() {
+      return run.latencies().length * 1e9 / run.elapsedNanos();
+    }
+
+    double percentile(final double p) {
+      long[] latencies = run.latencies();
+      int index = Math.min(latencies.length - 1, (int) Math.ceil(p * latencies.length) - 1);
+      return latencies[Math.max(0, index)] / 1e6;
+    }
+
+    int errors() {
+      return run.errors();
+    }
+  }
+}
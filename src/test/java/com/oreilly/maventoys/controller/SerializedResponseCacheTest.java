@@ -0,0 +1,80 @@
+package com.oreilly.maventoys.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oreilly.maventoys.service.TableVersions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@link SerializedResponseCache} serializes a body once per version, hands out the same bytes to every
+ * request of that version, and picks the compressed bytes only for clients that accept gzip.
+ */
+class SerializedResponseCacheTest {
+
+  private final SerializedResponseCache cache = new SerializedResponseCache(new ObjectMapper(), 16);
+
+  private final AtomicInteger builds = new AtomicInteger();
+
+  private final Supplier<List<String>> body = () -> {
+    builds.incrementAndGet();
+    return List.of("a fairly long entry", "and another one");
+  };
+
+  @Test
+  @DisplayName("The body is serialized once per version and the cached bytes are reused")
+  void get_ReusesBytesUntilVersionChanges() {
+    TableVersions.Version first = new TableVersions.Version("W/\"x-1\"", 1_000);
+    TableVersions.Version second = new TableVersions.Version("W/\"x-2\"", 2_000);
+
+    ResponseEntity<byte[]> one = cache.get("list", first, body, request(null));
+    ResponseEntity<byte[]> two = cache.get("list", first, body, request(null));
+    assertThat(builds).hasValue(1);
+    assertThat(two.getBody()).isSameAs(one.getBody());
+
+    cache.get("list", second, body, request(null));
+    assertThat(builds).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Compressed bytes are sent only to clients accepting gzip")
+  void get_NegotiatesGzip() {
+    TableVersions.Version version = new TableVersions.Version("W/\"x-1\"", 1_000);
+
+    ResponseEntity<byte[]> plain = cache.get("list", version, body, request(null));
+    ResponseEntity<byte[]> gzip = cache.get("list", version, body, request("br, gzip;q=0.8"));
+
+    assertThat(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    assertThat(new String(plain.getBody())).isEqualTo("[\"a fairly long entry\",\"and another one\"]");
+    assertThat(gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(gzip.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+  }
+
+  @Test
+  @DisplayName("Accept-Encoding is honoured, including q=0 refusals and wildcards")
+  void acceptsGzip_ParsesHeader() {
+    assertThat(SerializedResponseCache.acceptsGzip("gzip, deflate, br")).isTrue();
+    assertThat(SerializedResponseCache.acceptsGzip("*")).isTrue();
+    assertThat(SerializedResponseCache.acceptsGzip("GZIP;q=0.5")).isTrue();
+    assertThat(SerializedResponseCache.acceptsGzip("gzip;q=0")).isFalse();
+    assertThat(SerializedResponseCache.acceptsGzip("br, identity")).isFalse();
+    assertThat(SerializedResponseCache.acceptsGzip(null)).isFalse();
+  }
+
+  private static ServletWebRequest request(final String acceptEncoding) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/list");
+    if (acceptEncoding != null) {
+      request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+    }
+    return new ServletWebRequest(request);
+  }
+}
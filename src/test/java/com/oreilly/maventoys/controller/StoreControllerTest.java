@@ -3,31 +3,45 @@ package com.oreilly.maventoys.controller;
 import com.oreilly.maventoys.exceptions.IdNotFound;
 import com.oreilly.maventoys.model.CustomApiResponse;
 import com.oreilly.maventoys.model.DTO.StoreDTO;
+import com.oreilly.maventoys.model.DTO.StoreDashboardDTO;
 import com.oreilly.maventoys.model.entity.Store;
+import com.oreilly.maventoys.service.StoreDashboardService;
 import com.oreilly.maventoys.service.StoreService;
+import com.oreilly.maventoys.service.TableVersions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
 @WebMvcTest(StoreController.class)
+@Import({TableVersions.class, SerializedResponseCache.class})
 class StoreControllerTest {
 
   @Autowired
@@ -39,6 +53,17 @@ class StoreControllerTest {
   @MockBean
   private StoreService storeService;
 
+  @MockBean
+  private StoreDashboardService storeDashboardService;
+
+  @Autowired
+  private TableVersions tableVersions;
+
+  @BeforeEach
+  void setUp() {
+    tableVersions.bump(TableVersions.Table.STORES);
+  }
+
 
   @Test
   void getStores() throws Exception {
@@ -125,5 +150,77 @@ class StoreControllerTest {
     });
   }
 
-}
+  @Test
+  void getStoreDashboard_Success() throws Exception {
+    StoreDTO storeDTO = new StoreDTO();
+    storeDTO.setActive(true);
+    StoreDashboardDTO dashboard = new StoreDashboardDTO();
+    dashboard.setStore(storeDTO);
+    dashboard.setTotalSales(42.0);
+    dashboard.getUnavailable().add("sales");
+    when(storeDashboardService.getDashboard(1)).thenReturn(new CustomApiResponse<>("Success", dashboard));
 
+    mockMvc.perform(get("/stores/1/dashboard")
+                        .contentType(MediaType.APPLICATION_JSON))
+           .andExpect(status().isOk())
+           .andExpect(content().json("{\"message\":\"Success\",\"data\":{\"store\":{\"active\":true},"
+                                         + "\"totalSales\":42.0,\"unavailable\":[\"sales\"]}}"));
+  }
+
+  @Test
+  void getStores_WhenNotModified_SkipsLookup() throws Exception {
+    when(storeService.getStores()).thenReturn(new CustomApiResponse<>("Success", List.of(new StoreDTO())));
+    String etag = mockMvc.perform(get("/stores"))
+                         .andExpect(status().isOk())
+                         .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                         .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                         .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/stores").header(HttpHeaders.IF_NONE_MATCH, etag))
+           .andExpect(status().isNotModified())
+           .andExpect(content().string(""));
+
+    verify(storeService, times(1)).getStores();
+  }
+
+  @Test
+  void getStores_AfterStoreWritten_ReturnsNewVersion() throws Exception {
+    when(storeService.getStores()).thenReturn(new CustomApiResponse<>("Success", List.of(new StoreDTO())));
+    String etag = mockMvc.perform(get("/stores")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    tableVersions.bump(TableVersions.Table.SALES);
+    mockMvc.perform(get("/stores").header(HttpHeaders.IF_NONE_MATCH, etag))
+           .andExpect(status().isNotModified());
+
+    tableVersions.bump(TableVersions.Table.STORES);
+    mockMvc.perform(get("/stores").header(HttpHeaders.IF_NONE_MATCH, etag))
+           .andExpect(status().isOk())
+           .andExpect(content().json("{\"message\":\"Success\"}"));
+  }
+
+  @Test
+  void getStores_WhenGzipAccepted_ReturnsCompressedBody() throws Exception {
+    List<StoreDTO> stores = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      StoreDTO storeDTO = new StoreDTO();
+      storeDTO.setName("Store " + i);
+      stores.add(storeDTO);
+    }
+    when(storeService.getStores()).thenReturn(new CustomApiResponse<>("Success", stores));
+
+    byte[] body = mockMvc.perform(get("/stores").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                         .andExpect(status().isOk())
+                         .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                         .andReturn().getResponse().getContentAsByteArray();
+    mockMvc.perform(get("/stores"))
+           .andExpect(status().isOk())
+           .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+           .andExpect(content().json("{\"message\":\"Success\"}"));
+
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("\"Store 99\""));
+    }
+    verify(storeService, times(1)).getStores();
+  }
+
+}
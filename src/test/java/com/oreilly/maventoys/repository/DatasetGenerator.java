@@ -0,0 +1,622 @@
+package com.oreilly.maventoys.repository;
+
+import com.oreilly.maventoys.model.SearchText;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Fills the {@code categories}, {@code stores}, {@code employees}, {@code products}, {@code inventory},
+ * {@code sales}, {@code invoices}, {@code daily_sales_rollup} and {@code product_sales_rollup} tables with a synthetic
+ * Maven Toys dataset of the requested {@link Volumes}, for load tests and query plans that need realistic table sizes.
+ * <p>
+ * The data is skewed the way retail data is: a few stores and best-selling products account for most sales, most
+ * sales have one or two lines, most lines are a single unit at full price, and weekends and December sell more.
+ * The same volumes and seed always produce the same rows. Sales are generated day by day, so sale IDs follow their
+ * dates, and the daily and product rollups are written from the same numbers with the rules {@code SalesRollupService}
+ * applies.
+ * </p>
+ * <p>
+ * Rows are written over plain JDBC as multi-row {@code INSERT} statements of {@value #ROWS_PER_STATEMENT} rows,
+ * committed every {@value #STATEMENTS_PER_COMMIT} statements, which loads millions of invoices a minute into a local
+ * MySQL. The new rows take the IDs above those already in each table; afterwards the identity columns and the
+ * pooled {@code sales_seq} and {@code invoices_seq} sequences are moved past them, on H2 and MySQL, so the
+ * application can keep inserting. Run it before the application creates any sale, as a pooled block it already
+ * holds would overlap the new IDs. A failure leaves the chunks committed so far in place.
+ * </p>
+ */
+public final class DatasetGenerator {
+
+  /**
+   * Rows sent by each {@code INSERT} statement.
+   */
+  static final int ROWS_PER_STATEMENT = 500;
+
+  /**
+   * Statements sent between two commits.
+   */
+  static final int STATEMENTS_PER_COMMIT = 20;
+
+  /**
+   * Gap left above the highest sale and invoice ID, matching {@code db/mysql/sale-invoice-sequences.sql}.
+   */
+  private static final int SEQUENCE_GAP = 51;
+
+  /**
+   * Relative frequency of sales with one to five lines.
+   */
+  private static final double[] LINES_PER_SALE = {35, 30, 18, 10, 7};
+
+  /**
+   * Every table the generator writes, those referring to others first, in the order {@link #clear(DataSource)}
+   * empties them.
+   */
+  private static final String[] TABLES = {"daily_sales_rollup", "product_sales_rollup", "invoices", "sales",
+      "inventory", "employees", "products", "stores", "categories"};
+
+  private static final String[] CITIES = {"Guadalajara", "Monterrey", "Ciudad de Mexico", "Puebla", "Toluca",
+      "Merida", "Cancun", "Hermosillo", "Chihuahua", "Saltillo", "Culiacan", "Xalapa", "Morelia", "Oaxaca",
+      "Aguascalientes", "La Paz", "Campeche", "Durango", "Mexicali", "Zacatecas"};
+
+  private static final String[] LOCATIONS = {"Downtown", "Commercial", "Residential", "Airport"};
+
+  private static final String[] CATEGORIES = {"Toys", "Games", "Art & Crafts", "Electronics", "Sports & Outdoors",
+      "Dolls", "Puzzles", "Books", "Baby", "Collectibles"};
+
+  private static final String[] ADJECTIVES = {"Super", "Mini", "Magic", "Classic", "Deluxe", "Junior", "Mega",
+      "Glow", "Wild", "Tiny", "Rapid", "Cosmic"};
+
+  private static final String[] NOUNS = {"Blocks", "Racer", "Dinosaur", "Robot", "Puzzle", "Kite", "Yo-Yo", "Doll",
+      "Playset", "Slime", "Drone", "Marbles", "Dart Gun", "Teddy", "Chess", "Paint Kit"};
+
+  private static final String[] FIRST_NAMES = {"Ana", "Luis", "Maria", "Jose", "Sofia", "Diego", "Valeria",
+      "Carlos", "Fernanda", "Jorge", "Lucia", "Miguel", "Camila", "Pedro", "Elena", "Ricardo"};
+
+  private static final String[] LAST_NAMES = {"Garcia", "Hernandez", "Lopez", "Martinez", "Gonzalez", "Perez",
+      "Rodriguez", "Sanchez", "Ramirez", "Torres", "Flores", "Rivera", "Gomez", "Diaz", "Cruz", "Morales"};
+
+  /**
+   * Source of connections to the database being filled.
+   */
+  private final DataSource dataSource;
+
+  /**
+   * How much data to generate.
+   */
+  private final Volumes volumes;
+
+  /**
+   * Constructs a new DatasetGenerator.
+   *
+   * @param newDataSource the database to fill; its schema must already exist.
+   * @param newVolumes    how much data to generate.
+   */
+  public DatasetGenerator(final DataSource newDataSource, final Volumes newVolumes) {
+    this.dataSource = newDataSource;
+    this.volumes = newVolumes;
+  }
+
+  /**
+   * Deletes every row of the tables the generator writes, including rows the application wrote, so tests that run
+   * outside a test transaction leave an empty database behind.
+   *
+   * @param dataSource the database to empty.
+   *
+   * @throws SQLException if a statement fails.
+   */
+  public static void clear(final DataSource dataSource) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+         Statement statement = connection.createStatement()) {
+      for (String table : TABLES) {
+        statement.executeUpdate("DELETE FROM " + table);
+      }
+    }
+  }
+
+  /**
+   * Generates the dataset.
+   *
+   * @return the number of rows written to each table and the time it took.
+   *
+   * @throws SQLException if a statement fails.
+   */
+  public Summary generate() throws SQLException {
+    long start = System.nanoTime();
+    try (Connection connection = dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        Random random = new Random(volumes.seed());
+        Map<String, Long> baseIds = new HashMap<>();
+        for (String table : new String[] {"categories", "stores", "employees", "products", "inventory", "sales",
+            "invoices"}) {
+          baseIds.put(table, maxId(connection, table));
+        }
+        Catalog catalog = new Catalog(baseIds);
+        insertCategories(connection, catalog);
+        insertStores(connection, catalog, random);
+        insertEmployees(connection, catalog, random);
+        insertProducts(connection, catalog, random);
+        long[] written = insertSales(connection, catalog, random);
+        connection.commit();
+        moveIdGenerators(connection, catalog, written);
+        connection.commit();
+        return new Summary(volumes.categories(), volumes.stores(), volumes.stores() * volumes.employeesPerStore(),
+                           volumes.products(), written[0], written[1], written[2], written[3],
+                           Duration.ofNanos(System.nanoTime() - start));
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  private void insertCategories(final Connection connection, final Catalog catalog) throws SQLException {
+    try (MultiRowInsert categories = new MultiRowInsert(connection, null, "categories", "id", "name", "active")) {
+      for (int c = 0; c < volumes.categories(); c++) {
+        String name = CATEGORIES[c % CATEGORIES.length] + suffix(c, CATEGORIES.length);
+        categories.add(catalog.categoryId(c), name, true);
+      }
+    }
+  }
+
+  private void insertStores(final Connection connection, final Catalog catalog, final Random random)
+      throws SQLException {
+    Map<String, Integer> storesPerCity = new HashMap<>();
+    try (MultiRowInsert stores = new MultiRowInsert(connection, null, "stores", "id", "name", "name_key", "city",
+                                                    "location", "open_date", "active")) {
+      for (int s = 0; s < volumes.stores(); s++) {
+        String city = CITIES[s % CITIES.length];
+        String name = "Maven Toys " + city + " " + storesPerCity.merge(city, 1, Integer::sum);
+        LocalDate openDate = volumes.firstDay().minusDays(365 + random.nextInt(9000));
+        stores.add(catalog.storeId(s), name, SearchText.normalize(name), city,
+                   LOCATIONS[random.nextInt(LOCATIONS.length)], openDate, true);
+      }
+    }
+  }
+
+  private void insertEmployees(final Connection connection, final Catalog catalog, final Random random)
+      throws SQLException {
+    try (MultiRowInsert employees = new MultiRowInsert(connection, null, "employees", "id", "first_name",
+                                                       "last_name", "first_name_key", "last_name_key", "hire_date",
+                                                       "gender", "birth_date", "store_id", "active")) {
+      for (int e = 0; e < volumes.stores() * volumes.employeesPerStore(); e++) {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        employees.add(catalog.employeeId(e), firstName, lastName, SearchText.normalize(firstName),
+                      SearchText.normalize(lastName), volumes.firstDay().minusDays(random.nextInt(3000)),
+                      random.nextBoolean() ? "F" : "M", LocalDate.of(1960 + random.nextInt(43), 1, 1)
+                          .plusDays(random.nextInt(365)), catalog.storeId(e / volumes.employeesPerStore()), true);
+      }
+    }
+  }
+
+  private void insertProducts(final Connection connection, final Catalog catalog, final Random random)
+      throws SQLException {
+    int names = ADJECTIVES.length * NOUNS.length;
+    Timestamp created = Timestamp.valueOf(volumes.firstDay().minusYears(1).atStartOfDay());
+    try (MultiRowInsert products = new MultiRowInsert(connection, null, "products", "id", "name", "name_key",
+                                                      "cost", "price", "category_id", "creation_date", "active");
+         MultiRowInsert inventory = new MultiRowInsert(connection, products, "inventory", "id", "product_id",
+                                                       "stock_on_hand")) {
+      for (int p = 0; p < volumes.products(); p++) {
+        String name = ADJECTIVES[p % ADJECTIVES.length] + " " + NOUNS[(p / ADJECTIVES.length) % NOUNS.length]
+            + suffix(p, names);
+        double price = Math.min(499.99, cents(1.99 + Math.exp(2.3 + 0.7 * random.nextGaussian())));
+        double cost = cents(price * (0.45 + 0.25 * random.nextDouble()));
+        catalog.prices[p] = price;
+        products.add(catalog.productId(p), name, SearchText.normalize(name), cost, price,
+                     catalog.categoryId(p % volumes.categories()), created, true);
+        inventory.add(catalog.baseIds.get("inventory") + p + 1, catalog.productId(p), volumes.stockOnHand());
+      }
+    }
+  }
+
+  /**
+   * Writes the sales, their invoices and the daily rollup, one day at a time, then the product rollup.
+   *
+   * @return the number of sales, invoices, daily rollup rows and product rollup rows written.
+   */
+  private long[] insertSales(final Connection connection, final Catalog catalog, final Random random)
+      throws SQLException {
+    Skewed storePicker = Skewed.zipf(volumes.stores(), 0.8);
+    Skewed productPicker = Skewed.zipf(volumes.products(), 1.1);
+    Skewed linePicker = new Skewed(LINES_PER_SALE);
+    double meanLines = 0;
+    for (int l = 0; l < LINES_PER_SALE.length; l++) {
+      meanLines += (l + 1) * LINES_PER_SALE[l] / linePicker.total();
+    }
+    long targetSales = Math.max(1, Math.round(volumes.invoices() / meanLines));
+    double[] dayWeights = new double[volumes.days()];
+    for (int d = 0; d < dayWeights.length; d++) {
+      dayWeights[d] = dayWeight(volumes.firstDay().plusDays(d), d);
+    }
+    Skewed days = new Skewed(dayWeights);
+
+    int employees = volumes.stores() * volumes.employeesPerStore();
+    int cells = employees * volumes.categories();
+    double[] revenue = new double[cells];
+    long[] saleCounts = new long[cells];
+    long[] units = new long[cells];
+    int[] touched = new int[cells];
+    long[] productUnits = new long[volumes.stores() * volumes.products()];
+    int[] lineProducts = new int[LINES_PER_SALE.length];
+    int[] lineQuantities = new int[LINES_PER_SALE.length];
+    int[] lineDiscounts = new int[LINES_PER_SALE.length];
+    long saleId = catalog.baseIds.get("sales");
+    long invoiceId = catalog.baseIds.get("invoices");
+    long rollupRows = 0;
+    long productRollupRows = 0;
+    try (MultiRowInsert sales = new MultiRowInsert(connection, null, "sales", "id", "store_id", "employee_id",
+                                                   "total", "date");
+         MultiRowInsert invoices = new MultiRowInsert(connection, sales, "invoices", "id", "sales_id", "product_id",
+                                                      "quantity", "subtotal", "discount");
+         MultiRowInsert rollup = new MultiRowInsert(connection, null, "daily_sales_rollup", "sale_day", "store_id",
+                                                    "employee_id", "category_id", "revenue", "sale_count",
+                                                    "units");
+         MultiRowInsert productRollup = new MultiRowInsert(connection, null, "product_sales_rollup", "store_id",
+                                                           "product_id", "units")) {
+      for (int d = 0; d < volumes.days(); d++) {
+        LocalDate day = volumes.firstDay().plusDays(d);
+        Timestamp date = Timestamp.valueOf(day.atStartOfDay());
+        long salesToday = Math.round(targetSales * days.cumulative(d + 1) / days.total())
+            - Math.round(targetSales * days.cumulative(d) / days.total());
+        int touchedCount = 0;
+        for (long n = 0; n < salesToday; n++) {
+          int store = storePicker.next(random);
+          int employee = store * volumes.employeesPerStore() + random.nextInt(volumes.employeesPerStore());
+          int lines = linePicker.next(random) + 1;
+          double total = 0;
+          for (int l = 0; l < lines; l++) {
+            lineProducts[l] = productPicker.next(random);
+            lineQuantities[l] = random.nextDouble() < 0.7 ? 1 : 2 + random.nextInt(4);
+            lineDiscounts[l] = random.nextDouble() < 0.8 ? 0 : 5 * (1 + random.nextInt(6));
+            double subtotal = lineQuantities[l] * catalog.prices[lineProducts[l]];
+            total += subtotal - (subtotal * lineDiscounts[l] / 100);
+          }
+          sales.add(++saleId, catalog.storeId(store), catalog.employeeId(employee), total, date);
+          for (int l = 0; l < lines; l++) {
+            double subtotal = lineQuantities[l] * catalog.prices[lineProducts[l]];
+            invoices.add(++invoiceId, saleId, catalog.productId(lineProducts[l]), lineQuantities[l], subtotal,
+                         lineDiscounts[l]);
+
+            int cell = employee * volumes.categories() + lineProducts[l] % volumes.categories();
+            if (units[cell] == 0) {
+              touched[touchedCount++] = cell;
+            }
+            revenue[cell] += subtotal - (subtotal * lineDiscounts[l] / 100);
+            units[cell] += lineQuantities[l];
+            if (l == 0) {
+              saleCounts[cell]++;
+            }
+            productUnits[store * volumes.products() + lineProducts[l]] += lineQuantities[l];
+          }
+        }
+        for (int t = 0; t < touchedCount; t++) {
+          int cell = touched[t];
+          int employee = cell / volumes.categories();
+          rollup.add(day, catalog.storeId(employee / volumes.employeesPerStore()), catalog.employeeId(employee),
+                     catalog.categoryId(cell % volumes.categories()), revenue[cell], saleCounts[cell],
+                     units[cell]);
+          revenue[cell] = 0;
+          saleCounts[cell] = 0;
+          units[cell] = 0;
+        }
+        rollupRows += touchedCount;
+      }
+      for (int cell = 0; cell < productUnits.length; cell++) {
+        if (productUnits[cell] != 0) {
+          productRollup.add(catalog.storeId(cell / volumes.products()),
+                            catalog.productId(cell % volumes.products()), productUnits[cell]);
+          productRollupRows++;
+        }
+      }
+    }
+    return new long[] {saleId - catalog.baseIds.get("sales"), invoiceId - catalog.baseIds.get("invoices"),
+        rollupRows, productRollupRows};
+  }
+
+  /**
+   * Moves the identity columns and the sale and invoice sequences past the IDs just written. MySQL advances
+   * {@code AUTO_INCREMENT} by itself; other databases are left alone.
+   */
+  private void moveIdGenerators(final Connection connection, final Catalog catalog, final long[] written)
+      throws SQLException {
+    String product = connection.getMetaData().getDatabaseProductName();
+    long nextSale = catalog.baseIds.get("sales") + written[0] + SEQUENCE_GAP;
+    long nextInvoice = catalog.baseIds.get("invoices") + written[1] + SEQUENCE_GAP;
+    try (Statement statement = connection.createStatement()) {
+      if ("H2".equals(product)) {
+        for (String table : new String[] {"categories", "stores", "employees", "products", "inventory"}) {
+          long next = maxId(connection, table) + 1;
+          statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+        statement.execute("ALTER SEQUENCE sales_seq RESTART WITH " + nextSale);
+        statement.execute("ALTER SEQUENCE invoices_seq RESTART WITH " + nextInvoice);
+      } else if ("MySQL".equals(product)) {
+        statement.executeUpdate("UPDATE sales_seq SET next_val = GREATEST(next_val, " + nextSale + ")");
+        statement.executeUpdate("UPDATE invoices_seq SET next_val = GREATEST(next_val, " + nextInvoice + ")");
+      }
+    }
+  }
+
+  private static long maxId(final Connection connection, final String table) throws SQLException {
+    try (Statement statement = connection.createStatement();
+         ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+      result.next();
+      return result.getLong(1);
+    }
+  }
+
+  /**
+   * Relative number of sales on a day: weekends and December sell more, and sales grow over the period.
+   */
+  private double dayWeight(final LocalDate day, final int index) {
+    double weight = 0.8 + 0.4 * index / Math.max(1, volumes.days() - 1);
+    if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+      weight *= 1.4;
+    }
+    if (day.getMonth() == Month.DECEMBER) {
+      weight *= 1.8;
+    }
+    return weight;
+  }
+
+  private static String suffix(final int index, final int names) {
+    return index < names ? "" : " " + (index / names + 1);
+  }
+
+  private static double cents(final double amount) {
+    return Math.round(amount * 100) / 100.0;
+  }
+
+  /**
+   * How much data to generate.
+   *
+   * @param categories        product categories.
+   * @param stores            stores.
+   * @param employeesPerStore employees of each store.
+   * @param products          products, spread evenly over the categories, each with one inventory row.
+   * @param invoices          invoice lines to aim for; the sale count follows from the mean of about 2.2 lines per
+   *                          sale.
+   * @param firstDay          date of the first sale.
+   * @param days              number of days with sales.
+   * @param stockOnHand       units in stock of every product.
+   * @param seed              seed of the random choices; the same seed yields the same rows.
+   */
+  public record Volumes(int categories, int stores, int employeesPerStore, int products, long invoices,
+                        LocalDate firstDay, int days, int stockOnHand, long seed) {
+
+    /**
+     * Validates the volumes.
+     */
+    public Volumes {
+      if (categories < 1 || stores < 1 || employeesPerStore < 1 || products < 1 || invoices < 0 || days < 1) {
+        throw new IllegalArgumentException("Every volume must be positive");
+      }
+    }
+
+    /**
+     * Returns the volumes of a small dataset, loaded in seconds into an in-memory H2 database.
+     *
+     * @return ten categories, 50 stores of ten employees, 500 products and 100k invoices over a year.
+     */
+    public static Volumes small() {
+      return new Volumes(10, 50, 10, 500, 100_000, LocalDate.of(2023, 1, 1), 365, 1_000_000, 42);
+    }
+
+    /**
+     * Returns the volumes of a tiny dataset, for tests that compare results against SQL over the same rows.
+     *
+     * @param seed seed of the random choices.
+     *
+     * @return four categories, five stores of three employees, 60 products and 5k invoices over the 61 days from
+     *         1 November 2023.
+     */
+    public static Volumes tiny(final long seed) {
+      return new Volumes(4, 5, 3, 60, 5_000, LocalDate.of(2023, 11, 1), 61, 1_000, seed);
+    }
+  }
+
+  /**
+   * What a run wrote.
+   *
+   * @param categories        categories written.
+   * @param stores            stores written.
+   * @param employees         employees written.
+   * @param products          products written, with as many inventory rows.
+   * @param sales             sales written.
+   * @param invoices          invoices written.
+   * @param rollupRows        daily sales rollup rows written.
+   * @param productRollupRows product sales rollup rows written.
+   * @param elapsed           time the run took.
+   */
+  public record Summary(int categories, int stores, int employees, int products, long sales, long invoices,
+                        long rollupRows, long productRollupRows, Duration elapsed) {
+
+    /**
+     * Returns the load rate over every table.
+     *
+     * @return rows written per second.
+     */
+    public double rowsPerSecond() {
+      long rows = categories + stores + employees + 2L * products + sales + invoices + rollupRows
+          + productRollupRows;
+      return rows * 1e9 / Math.max(1, elapsed.toNanos());
+    }
+  }
+
+  /**
+   * Maps the zero-based indexes used while generating to the database IDs, and holds the product prices.
+   */
+  private final class Catalog {
+
+    private final Map<String, Long> baseIds;
+
+    private final double[] prices = new double[volumes.products()];
+
+    Catalog(final Map<String, Long> newBaseIds) {
+      this.baseIds = newBaseIds;
+    }
+
+    long categoryId(final int index) {
+      return baseIds.get("categories") + index + 1;
+    }
+
+    long storeId(final int index) {
+      return baseIds.get("stores") + index + 1;
+    }
+
+    long employeeId(final int index) {
+      return baseIds.get("employees") + index + 1;
+    }
+
+    long productId(final int index) {
+      return baseIds.get("products") + index + 1;
+    }
+  }
+
+  /**
+   * Picks indexes with fixed relative weights, by binary search over their running sums.
+   */
+  static final class Skewed {
+
+    private final double[] cumulative;
+
+    Skewed(final double[] weights) {
+      cumulative = new double[weights.length + 1];
+      for (int i = 0; i < weights.length; i++) {
+        cumulative[i + 1] = cumulative[i] + weights[i];
+      }
+    }
+
+    /**
+     * Weights {@code n} indexes by {@code 1 / (rank + 1)^exponent}, so index 0 is the most frequent.
+     */
+    static Skewed zipf(final int n, final double exponent) {
+      double[] weights = new double[n];
+      for (int i = 0; i < n; i++) {
+        weights[i] = 1 / Math.pow(i + 1, exponent);
+      }
+      return new Skewed(weights);
+    }
+
+    int next(final Random random) {
+      double target = random.nextDouble() * total();
+      int index = Arrays.binarySearch(cumulative, target);
+      int slot = index >= 0 ? index : -index - 2;
+      return Math.min(slot, cumulative.length - 2);
+    }
+
+    double cumulative(final int count) {
+      return cumulative[count];
+    }
+
+    double total() {
+      return cumulative[cumulative.length - 1];
+    }
+  }
+
+  /**
+   * Buffers rows of one table and sends them as multi-row {@code INSERT} statements.
+   */
+  private static final class MultiRowInsert implements AutoCloseable {
+
+    private final Connection connection;
+
+    /**
+     * Writer of the table this one references, flushed first so its rows exist when these arrive.
+     */
+    private final MultiRowInsert parent;
+
+    private final String prefix;
+
+    private final int width;
+
+    private final Object[] values;
+
+    private PreparedStatement full;
+
+    private int rows;
+
+    private int statements;
+
+    MultiRowInsert(final Connection newConnection, final MultiRowInsert newParent, final String table,
+                   final String... columns) {
+      this.connection = newConnection;
+      this.parent = newParent;
+      this.prefix = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ";
+      this.width = columns.length;
+      this.values = new Object[ROWS_PER_STATEMENT * width];
+    }
+
+    void add(final Object... row) throws SQLException {
+      System.arraycopy(row, 0, values, rows * width, width);
+      if (++rows == ROWS_PER_STATEMENT) {
+        flush();
+      }
+    }
+
+    void flush() throws SQLException {
+      if (parent != null) {
+        parent.flush();
+      }
+      if (rows == 0) {
+        return;
+      }
+      if (rows == ROWS_PER_STATEMENT) {
+        if (full == null) {
+          full = connection.prepareStatement(sql(rows));
+        }
+        execute(full);
+      } else {
+        try (PreparedStatement partial = connection.prepareStatement(sql(rows))) {
+          execute(partial);
+        }
+      }
+      rows = 0;
+      if (++statements % STATEMENTS_PER_COMMIT == 0) {
+        connection.commit();
+      }
+    }
+
+    private void execute(final PreparedStatement statement) throws SQLException {
+      for (int i = 0; i < rows * width; i++) {
+        statement.setObject(i + 1, values[i]);
+      }
+      statement.executeUpdate();
+    }
+
+    private String sql(final int rowCount) {
+      String row = "(" + "?, ".repeat(width - 1) + "?)";
+      StringBuilder sql = new StringBuilder(prefix.length() + rowCount * (row.length() + 2)).append(prefix);
+      for (int r = 0; r < rowCount; r++) {
+        sql.append(r == 0 ? "" : ", ").append(row);
+      }
+      return sql.toString();
+    }
+
+    @Override
+    public void close() throws SQLException {
+      try {
+        flush();
+      } finally {
+        if (full != null) {
+          full.close();
+        }
+      }
+    }
+  }
+}
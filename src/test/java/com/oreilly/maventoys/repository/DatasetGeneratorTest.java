@@ -0,0 +1,121 @@
+package com.oreilly.maventoys.repository;
+
+import com.oreilly.maventoys.model.entity.Sale;
+import com.oreilly.maventoys.model.entity.Store;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Checks that {@link DatasetGenerator} writes consistent, skewed and repeatable data that the application can keep
+ * writing to. Tests run outside a test transaction, as the generator commits on its own connection.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DatasetGeneratorTest {
+
+  private static final DatasetGenerator.Volumes VOLUMES =
+      DatasetGenerator.Volumes.tiny(7);
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private StoreRepository storeRepository;
+
+  @Autowired
+  private SaleRepository saleRepository;
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    DatasetGenerator.clear(dataSource);
+  }
+
+  @Test
+  @DisplayName("Every table is filled and the rollup matches the sales it summarizes")
+  void generate_FillsConsistentTables() throws SQLException {
+    DatasetGenerator.Summary summary = new DatasetGenerator(dataSource, VOLUMES).generate();
+
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    assertThat(count(jdbc, "stores")).isEqualTo(5);
+    assertThat(count(jdbc, "employees")).isEqualTo(15);
+    assertThat(count(jdbc, "products")).isEqualTo(60);
+    assertThat(count(jdbc, "inventory")).isEqualTo(60);
+    assertThat(count(jdbc, "sales")).isEqualTo(summary.sales());
+    assertThat(count(jdbc, "invoices")).isEqualTo(summary.invoices()).isBetween(4_500L, 5_500L);
+    assertThat(count(jdbc, "daily_sales_rollup")).isEqualTo(summary.rollupRows());
+
+    Double salesTotal = jdbc.queryForObject("SELECT SUM(total) FROM sales", Double.class);
+    Double rollupRevenue = jdbc.queryForObject("SELECT SUM(revenue) FROM daily_sales_rollup", Double.class);
+    assertThat(rollupRevenue).isCloseTo(salesTotal, within(0.01));
+    assertThat(jdbc.queryForObject("SELECT SUM(sale_count) FROM daily_sales_rollup", Long.class))
+        .isEqualTo(summary.sales());
+    assertThat(jdbc.queryForObject("SELECT SUM(units) FROM daily_sales_rollup", Long.class))
+        .isEqualTo(jdbc.queryForObject("SELECT SUM(quantity) FROM invoices", Long.class));
+    assertThat(count(jdbc, "product_sales_rollup")).isEqualTo(summary.productRollupRows());
+    assertThat(jdbc.queryForObject("SELECT SUM(units) FROM product_sales_rollup", Long.class))
+        .isEqualTo(jdbc.queryForObject("SELECT SUM(quantity) FROM invoices", Long.class));
+  }
+
+  @Test
+  @DisplayName("The first stores sell more than the last ones")
+  void generate_SkewsSalesTowardsFirstStores() throws SQLException {
+    new DatasetGenerator(dataSource, VOLUMES).generate();
+
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    Long first = jdbc.queryForObject("SELECT COUNT(*) FROM sales WHERE store_id = (SELECT MIN(id) FROM stores)",
+                                     Long.class);
+    Long last = jdbc.queryForObject("SELECT COUNT(*) FROM sales WHERE store_id = (SELECT MAX(id) FROM stores)",
+                                    Long.class);
+    assertThat(first).isGreaterThan(2 * last);
+  }
+
+  @Test
+  @DisplayName("A second run appends the same rows above the existing IDs")
+  void generate_IsRepeatable() throws SQLException {
+    DatasetGenerator.Summary first = new DatasetGenerator(dataSource, VOLUMES).generate();
+    DatasetGenerator.Summary second = new DatasetGenerator(dataSource, VOLUMES).generate();
+
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    assertThat(second.sales()).isEqualTo(first.sales());
+    Double firstTotal = jdbc.queryForObject("SELECT SUM(total) FROM sales WHERE id <= ?", Double.class,
+                                            first.sales());
+    Double secondTotal = jdbc.queryForObject("SELECT SUM(total) FROM sales WHERE id > ?", Double.class,
+                                             first.sales());
+    assertThat(secondTotal).isCloseTo(firstTotal, within(0.01));
+  }
+
+  @Test
+  @DisplayName("The application keeps inserting after the generated IDs")
+  void generate_MovesIdGeneratorsPastNewRows() throws SQLException {
+    DatasetGenerator.Summary summary = new DatasetGenerator(dataSource, VOLUMES).generate();
+
+    Store store = new Store();
+    store.setName("New Store");
+    store.setActive(true);
+    store = storeRepository.save(store);
+    Sale sale = new Sale();
+    sale.setStore(store);
+    sale.setDate(LocalDate.of(2024, 1, 2));
+    sale = saleRepository.save(sale);
+
+    assertThat(store.getId()).isEqualTo(VOLUMES.stores() + 1);
+    assertThat(sale.getId()).isGreaterThan((int) summary.sales());
+  }
+
+  private static long count(final JdbcTemplate jdbc, final String table) {
+    return jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+  }
+}
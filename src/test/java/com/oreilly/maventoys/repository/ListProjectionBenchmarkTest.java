@@ -0,0 +1,208 @@
+package com.oreilly.maventoys.repository;
+
+import com.oreilly.maventoys.mapper.CategoryMapper;
+import com.oreilly.maventoys.mapper.CategoryMapperImpl;
+import com.oreilly.maventoys.mapper.EmployeeMapper;
+import com.oreilly.maventoys.mapper.EmployeeMapperImpl;
+import com.oreilly.maventoys.mapper.ProductMapper;
+import com.oreilly.maventoys.mapper.ProductMapperImpl;
+import com.oreilly.maventoys.mapper.StoreMapper;
+import com.oreilly.maventoys.mapper.StoreMapperImpl;
+import com.oreilly.maventoys.model.entity.Category;
+import com.oreilly.maventoys.model.entity.Employee;
+import com.oreilly.maventoys.model.entity.Product;
+import com.oreilly.maventoys.model.entity.Store;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the list endpoints' former entity-hydrating reads with the projection-based ones. Projections must return
+ * the same rows while leaving the persistence context empty.
+ * <p>
+ * Measuring the bytes allocated per call repeats every read dozens of times, so it only runs on request:
+ * {@code mvn test -Dtest=ListProjectionBenchmarkTest -Dload.test=true}. Projections must then allocate less.
+ * </p>
+ */
+@DataJpaTest
+@Import({ProductMapperImpl.class, StoreMapperImpl.class, EmployeeMapperImpl.class, CategoryMapperImpl.class})
+class ListProjectionBenchmarkTest {
+
+  private static final int ROWS = 500;
+
+  private static final int WARMUP = 20;
+
+  private static final int ITERATIONS = 50;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private StoreRepository storeRepository;
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private ProductMapper productMapper;
+
+  @Autowired
+  private StoreMapper storeMapper;
+
+  @Autowired
+  private EmployeeMapper employeeMapper;
+
+  @Autowired
+  private CategoryMapper categoryMapper;
+
+  @BeforeEach
+  void setUp() {
+    for (int i = 0; i < ROWS; i++) {
+      Store store = new Store();
+      store.setName("Store " + i);
+      store.setCity("City");
+      store.setLocation("Downtown");
+      store.setActive(true);
+      entityManager.persist(store);
+
+      Employee employee = new Employee();
+      employee.setFirstName("First " + i);
+      employee.setLastName("Last " + i);
+      employee.setActive(true);
+      employee.setStore(store);
+      entityManager.persist(employee);
+
+      Category category = new Category();
+      category.setName("Category " + i);
+      category.setActive(true);
+      entityManager.persist(category);
+
+      Product product = new Product();
+      product.setName("Product " + i);
+      product.setPrice(10.0);
+      product.setCost(5.0);
+      product.setActive(true);
+      product.setCategory(category);
+      entityManager.persist(product);
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  @DisplayName("Projection reads return the same rows without managed entities")
+  void listEndpoints_EntityVersusProjection() {
+    for (ListRead list : lists()) {
+      int entityRows = list.entities().get().size();
+      int entityManaged = managed();
+      entityManager.clear();
+      int projectionRows = list.projections().get().size();
+      int projectionManaged = managed();
+      entityManager.clear();
+
+      assertThat(projectionRows).as("%s rows", list.name()).isEqualTo(entityRows).isEqualTo(ROWS);
+      assertThat(entityManaged).as("%s entities managed after the entity read", list.name()).isPositive();
+      assertThat(projectionManaged).as("%s entities managed after the projection read", list.name()).isZero();
+    }
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "load.test", matches = "true")
+  @DisplayName("Projection reads allocate less than entity reads")
+  void listEndpoints_ProjectionAllocatesLess() {
+    for (ListRead list : lists()) {
+      Measurement entityRun = measure(list.entities());
+      Measurement projectionRun = measure(list.projections());
+
+      assertThat(projectionRun.bytes()).as("%s bytes per call, projection vs entity (%.1f vs %.1f micros)",
+                                           list.name(), projectionRun.micros(), entityRun.micros())
+          .isLessThan(entityRun.bytes());
+    }
+  }
+
+  private List<ListRead> lists() {
+    return List.of(
+        new ListRead("products",
+                     () -> productRepository.getByActiveTrue().stream().map(productMapper::productToProductDTO)
+                         .collect(Collectors.toList()),
+                     () -> productRepository.findActiveSummaries().stream()
+                         .map(productMapper::productSummaryToProductDTO).collect(Collectors.toList())),
+        new ListRead("stores",
+                     () -> storeRepository.getByActiveTrue().stream().map(storeMapper::storeToStoreDTO)
+                         .collect(Collectors.toList()),
+                     () -> storeRepository.findActiveSummaries().stream().map(storeMapper::storeSummaryToStoreDTO)
+                         .collect(Collectors.toList())),
+        new ListRead("employees",
+                     () -> employeeRepository.getByActiveTrue().stream().map(employeeMapper::employeeToEmployeeDTO)
+                         .collect(Collectors.toList()),
+                     () -> employeeRepository.findActiveSummaries().stream()
+                         .map(employeeMapper::employeeSummaryToEmployeeDTO).collect(Collectors.toList())),
+        new ListRead("categories",
+                     () -> categoryRepository.findByActiveTrue().stream().map(categoryMapper::categoryToCategoryDTO)
+                         .collect(Collectors.toList()),
+                     () -> categoryRepository.findActiveSummaries().stream()
+                         .map(categoryMapper::categorySummaryToCategoryDTO).collect(Collectors.toList())));
+  }
+
+  private int managed() {
+    return entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount();
+  }
+
+  private Measurement measure(final Supplier<List<?>> read) {
+    for (int i = 0; i < WARMUP; i++) {
+      read.get();
+      entityManager.clear();
+    }
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    long elapsed = 0;
+    long allocated = 0;
+    for (int i = 0; i < ITERATIONS; i++) {
+      long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+      long start = System.nanoTime();
+      read.get();
+      elapsed += System.nanoTime() - start;
+      allocated += threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+      entityManager.clear();
+    }
+    return new Measurement(elapsed / 1_000.0 / ITERATIONS, allocated / ITERATIONS);
+  }
+
+  /**
+   * One list endpoint read both ways.
+   *
+   * @param name        the name of the list.
+   * @param entities    the former read, hydrating entities.
+   * @param projections the read through projections.
+   */
+  private record ListRead(String name, Supplier<List<?>> entities, Supplier<List<?>> projections) {
+  }
+
+  /**
+   * Averages of one measured read.
+   *
+   * @param micros mean latency per call.
+   * @param bytes  mean bytes allocated per call on the calling thread.
+   */
+  private record Measurement(double micros, long bytes) {
+  }
+}
@@ -0,0 +1,104 @@
+package com.oreilly.maventoys.repository;
+
+import com.oreilly.maventoys.model.entity.Store;
+import com.oreilly.maventoys.repository.specifications.StoreSpec;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the three count modes of {@link PagedSpecificationExecutor#findPage}: an exact total, a slice read without
+ * any count, and a total taken from the table statistics.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PagedSpecificationRepositoryTest {
+
+  private static final int STORES = 12;
+
+  private static final int PAGE_SIZE = 5;
+
+  @Autowired
+  private StoreRepository storeRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    for (int i = 0; i < STORES; i++) {
+      Store store = new Store();
+      store.setName("Store " + i);
+      store.setCity("Test City");
+      store.setLocation("Downtown");
+      store.setOpenDate(LocalDate.now());
+      store.setActive(true);
+      entityManager.persist(store);
+    }
+    entityManager.flush();
+    entityManager.clear();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  @DisplayName("Exact mode returns a page with the counted total")
+  void exact_CountsMatchingRows() {
+    Slice<Store> page = storeRepository.findPage(new StoreSpec(null, null, null, null), PageRequest.of(0, PAGE_SIZE),
+                                                 CountMode.EXACT);
+
+    assertThat(page).isInstanceOf(Page.class);
+    assertThat(((Page<Store>) page).getTotalElements()).isEqualTo(STORES);
+    assertThat(statistics.getPrepareStatementCount()).as("statements issued").isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Slice mode runs a single select and still knows whether a next page exists")
+  void none_SkipsCount() {
+    Slice<Store> middle = storeRepository.findPage(new StoreSpec(null, null, null, null), PageRequest.of(1, PAGE_SIZE),
+                                                   CountMode.NONE);
+    Slice<Store> last = storeRepository.findPage(new StoreSpec(null, null, null, null), PageRequest.of(2, PAGE_SIZE),
+                                                 CountMode.NONE);
+
+    assertThat(middle).isNotInstanceOf(Page.class).hasSize(PAGE_SIZE);
+    assertThat(middle.hasNext()).isTrue();
+    assertThat(last.getContent()).hasSize(STORES - 2 * PAGE_SIZE);
+    assertThat(last.hasNext()).isFalse();
+    assertThat(statistics.getPrepareStatementCount()).as("statements issued").isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Approximate mode returns a page whose total covers every row already seen")
+  void approximate_UsesTableStatistics() {
+    Slice<Store> page = storeRepository.findPage(null, PageRequest.of(1, PAGE_SIZE), CountMode.APPROXIMATE);
+
+    assertThat(page).isInstanceOf(Page.class).hasSize(PAGE_SIZE);
+    assertThat(((Page<Store>) page).getTotalElements()).isGreaterThan(2L * PAGE_SIZE);
+    assertThat(page.hasNext()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Approximate totals fall back to an exact count for filtered listings")
+  void approximate_FallsBackWhenFiltered() {
+    assertThat(CountMode.APPROXIMATE.unlessFiltered(null, "")).isEqualTo(CountMode.APPROXIMATE);
+    assertThat(CountMode.APPROXIMATE.unlessFiltered(null, "Store")).isEqualTo(CountMode.EXACT);
+    assertThat(CountMode.NONE.unlessFiltered(1)).isEqualTo(CountMode.NONE);
+  }
+}
@@ -0,0 +1,74 @@
+package com.oreilly.maventoys.repository;
+
+import com.oreilly.maventoys.model.entity.Store;
+import com.oreilly.maventoys.repository.specifications.MatchMode;
+import com.oreilly.maventoys.repository.specifications.StoreSpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the {@link MatchMode#PREFIX} name filter: it reads the normalized key column written on save, so it ignores
+ * case and accents, and wildcard characters typed by the user are matched literally. {@link MatchMode#KEY_CONTAINS}
+ * reads the same column for substrings.
+ */
+@DataJpaTest
+class PrefixMatchSpecTest {
+
+  @Autowired
+  private StoreRepository storeRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @BeforeEach
+  void setUp() {
+    for (String name : List.of("Éxito Centro", "exito  Norte", "Mall Éxito", "100% Toys", "1000 Toys")) {
+      Store store = new Store();
+      store.setName(name);
+      store.setCity("Test City");
+      store.setLocation("Downtown");
+      store.setOpenDate(LocalDate.now());
+      store.setActive(true);
+      entityManager.persist(store);
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  @DisplayName("Prefix matches ignore case, accents and repeated spaces")
+  void prefix_IgnoresCaseAndAccents() {
+    assertThat(names("EXITO n", MatchMode.PREFIX)).containsExactly("exito  Norte");
+    assertThat(names("éxito", MatchMode.PREFIX)).containsExactly("Éxito Centro", "exito  Norte");
+  }
+
+  @Test
+  @DisplayName("Wildcards in the term are matched literally")
+  void prefix_EscapesWildcards() {
+    assertThat(names("100%", MatchMode.PREFIX)).containsExactly("100% Toys");
+  }
+
+  @Test
+  @DisplayName("Substring matches still find names containing the term anywhere")
+  void contains_MatchesAnywhere() {
+    assertThat(names("Mall", MatchMode.CONTAINS)).containsExactly("Mall Éxito");
+    assertThat(names("Mall", null)).containsExactly("Mall Éxito");
+    assertThat(names("EXITO", MatchMode.KEY_CONTAINS)).containsExactly("Éxito Centro", "exito  Norte", "Mall Éxito");
+  }
+
+  private List<String> names(final String term, final MatchMode match) {
+    return storeRepository.findAll(new StoreSpec(null, term, null, match), PageRequest.of(0, 10, Sort.by("id")))
+        .map(Store::getName).getContent();
+  }
+}
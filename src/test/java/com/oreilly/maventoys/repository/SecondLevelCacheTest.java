@@ -0,0 +1,162 @@
+package com.oreilly.maventoys.repository;
+
+import com.oreilly.maventoys.model.entity.Category;
+import com.oreilly.maventoys.model.entity.Product;
+import com.oreilly.maventoys.model.entity.Store;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements issued when categories, stores and products are read a second time. Once warmed up,
+ * lookups by ID, the cacheable finder queries and lazy loads of a category's products must be answered from the
+ * Hibernate second-level and query caches. Each read runs in its own transaction, as it would in a request, so the
+ * persistence context never hides a cache miss.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+  private static final int PRODUCTS = 3;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private StoreRepository storeRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private Statistics statistics;
+
+  private Category category;
+
+  private Store store;
+
+  private Product product;
+
+  @BeforeEach
+  void setUp() {
+    category = new Category();
+    category.setName("Games");
+    category.setActive(true);
+    category = categoryRepository.save(category);
+    for (int i = 0; i < PRODUCTS; i++) {
+      product = productRepository.save(newProduct("Product " + i));
+    }
+    store = new Store();
+    store.setName("Cached Store");
+    store.setCity("Test City");
+    store.setLocation("Downtown");
+    store.setOpenDate(LocalDate.now());
+    store.setActive(true);
+    store = storeRepository.save(store);
+
+    entityManagerFactory.getCache().evictAll();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @AfterEach
+  void tearDown() {
+    productRepository.deleteAll();
+    categoryRepository.deleteAll();
+    storeRepository.deleteAll();
+    entityManagerFactory.getCache().evictAll();
+  }
+
+  @Test
+  @DisplayName("findById of a store or product, with its category, issues no SQL once cached")
+  void findById_IsServedFromSecondLevelCache() {
+    readByIds();
+    statistics.clear();
+
+    readByIds();
+
+    assertThat(statistics.getPrepareStatementCount()).as("statements issued").isZero();
+    assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThanOrEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Cacheable finder queries issue no SQL once cached")
+  void finderQueries_AreServedFromQueryCache() {
+    runFinders();
+    statistics.clear();
+
+    runFinders();
+
+    assertThat(statistics.getPrepareStatementCount()).as("statements issued").isZero();
+    assertThat(statistics.getQueryCacheHitCount()).isEqualTo(4);
+  }
+
+  @Test
+  @DisplayName("Saving a product invalidates the cached finder results")
+  void finderQueries_AreInvalidatedByWrites() {
+    assertThat(productRepository.getByCategoryId(category.getId())).hasSize(PRODUCTS);
+
+    productRepository.save(newProduct("Product " + PRODUCTS));
+
+    assertThat(productRepository.getByCategoryId(category.getId())).hasSize(PRODUCTS + 1);
+  }
+
+  @Test
+  @DisplayName("Lazily loading a category's products issues no SQL once cached")
+  void lazyCollection_IsServedFromSecondLevelCache() {
+    assertThat(countCategoryProducts()).isEqualTo(PRODUCTS);
+    statistics.clear();
+
+    assertThat(countCategoryProducts()).isEqualTo(PRODUCTS);
+
+    assertThat(statistics.getPrepareStatementCount()).as("statements issued").isZero();
+  }
+
+  private void readByIds() {
+    assertThat(storeRepository.findById(store.getId())).isPresent();
+    assertThat(productRepository.findById(product.getId()))
+        .hasValueSatisfying(found -> assertThat(found.getCategory().getName()).isEqualTo("Games"));
+  }
+
+  private void runFinders() {
+    assertThat(categoryRepository.findByActiveTrue()).hasSize(1);
+    assertThat(storeRepository.getByActiveTrue()).hasSize(1);
+    assertThat(productRepository.getByActiveTrue()).hasSize(PRODUCTS);
+    assertThat(productRepository.getByCategoryId(category.getId())).hasSize(PRODUCTS);
+  }
+
+  private Integer countCategoryProducts() {
+    return new TransactionTemplate(transactionManager).execute(
+        status -> categoryRepository.findById(category.getId()).orElseThrow().getProducts().size());
+  }
+
+  private Product newProduct(final String name) {
+    Product newProduct = new Product();
+    newProduct.setName(name);
+    newProduct.setCost(1.0);
+    newProduct.setPrice(2.0);
+    newProduct.setActive(true);
+    newProduct.setCreationDate(new Date());
+    newProduct.setCategory(category);
+    return newProduct;
+  }
+}
@@ -0,0 +1,111 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.config.CacheConfig;
+import com.oreilly.maventoys.mapper.CategoryMapperImpl;
+import com.oreilly.maventoys.mapper.ProductMapperImpl;
+import com.oreilly.maventoys.mapper.StoreMapperImpl;
+import com.oreilly.maventoys.model.DTO.StoreDTO;
+import com.oreilly.maventoys.model.entity.Store;
+import com.oreilly.maventoys.repository.StoreRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@link CatalogCache} answers repeated lookups without touching the database, does not cache missing
+ * IDs, and serves the DTO put back by a writer. Tests run outside a test transaction because the cache manager only
+ * applies puts once a transaction commits.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CatalogCache.class, CacheConfig.class, ProductMapperImpl.class, CategoryMapperImpl.class,
+    StoreMapperImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogCacheTest {
+
+  @Autowired
+  private CatalogCache catalogCache;
+
+  @Autowired
+  private StoreRepository storeRepository;
+
+  @Autowired
+  private CacheManager cacheManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  private Store store;
+
+  @BeforeEach
+  void setUp() {
+    store = new Store();
+    store.setName("Cached Store");
+    store.setCity("Test City");
+    store.setLocation("Downtown");
+    store.setOpenDate(LocalDate.now());
+    store.setActive(true);
+    store = storeRepository.save(store);
+    entityManagerFactory.getCache().evictAll();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @AfterEach
+  void tearDown() {
+    storeRepository.deleteAll();
+    cacheManager.getCache(CatalogCache.STORES).clear();
+  }
+
+  @Test
+  @DisplayName("Repeated lookups of the same store read the database once")
+  void findStore_ReadsDatabaseOnce() {
+    for (int i = 0; i < 3; i++) {
+      assertThat(catalogCache.findStore(store.getId())).map(StoreDTO::getName).contains("Cached Store");
+    }
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Lookups of a missing store are not cached")
+  void findStore_DoesNotCacheMisses() {
+    int missingId = store.getId() + 1;
+
+    assertThat(catalogCache.findStore(missingId)).isEmpty();
+    assertThat(catalogCache.findStore(missingId)).isEmpty();
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("A store put back after a write replaces the cached entry")
+  void putStore_ReplacesEntry() {
+    StoreDTO cached = catalogCache.findStore(store.getId()).orElseThrow();
+    StoreDTO saved = new StoreDTO();
+    saved.setId(cached.getId());
+    saved.setName("Renamed Store");
+
+    catalogCache.putStore(saved);
+
+    Optional<StoreDTO> found = catalogCache.findStore(store.getId());
+    assertThat(found).map(StoreDTO::getName).contains("Renamed Store");
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+}
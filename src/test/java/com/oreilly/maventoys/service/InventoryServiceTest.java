@@ -0,0 +1,123 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.InsufficientStock;
+import com.oreilly.maventoys.mapper.CategoryMapperImpl;
+import com.oreilly.maventoys.mapper.ProductMapperImpl;
+import com.oreilly.maventoys.mapper.SaleMapperImpl;
+import com.oreilly.maventoys.mapper.StoreMapperImpl;
+import com.oreilly.maventoys.model.DTO.SaleDTO;
+import com.oreilly.maventoys.model.entity.Product;
+import com.oreilly.maventoys.repository.InventoryRepository;
+import com.oreilly.maventoys.repository.projections.StockLevel;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that creating a sale takes the units sold from stock, adding up lines for the same product, that a basket
+ * asking for more units than are on hand is rejected naming only the short products, and that a product's stock is
+ * read with a single statement.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({SaleService.class, SalesRollupService.class, InventoryService.class, CatalogCache.class, SaleMapperImpl.class,
+    ProductMapperImpl.class, CategoryMapperImpl.class, StoreMapperImpl.class})
+class InventoryServiceTest {
+
+  @Autowired
+  private SaleService saleService;
+
+  @Autowired
+  private InventoryRepository inventoryRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private SaleTestData data;
+
+  @BeforeEach
+  void setUp() {
+    data = new SaleTestData(entityManager, 2);
+  }
+
+  @Test
+  @DisplayName("A sale takes the units of every line from stock")
+  void createSale_TakesStock() {
+    Product first = data.products().get(0);
+    Product second = data.products().get(1);
+    SaleDTO sale = data.newSale(1);
+    sale.setProducts(List.of(SaleTestData.line(first.getId()), SaleTestData.line(second.getId()),
+                             SaleTestData.line(first.getId())));
+
+    saleService.createSale(sale);
+
+    assertThat(stock(first)).isEqualTo(SaleTestData.STOCK_ON_HAND - 4);
+    assertThat(stock(second)).isEqualTo(SaleTestData.STOCK_ON_HAND - 2);
+  }
+
+  @Test
+  @DisplayName("A sale asking for more units than are on hand is rejected, naming the short products")
+  void createSale_RejectsOversell() {
+    Product plenty = data.products().get(0);
+    Product scarce = data.products().get(1);
+    setStock(scarce, 3);
+    SaleDTO sale = data.newSale(1);
+    sale.setProducts(List.of(SaleTestData.line(plenty.getId()), SaleTestData.line(scarce.getId()),
+                             SaleTestData.line(scarce.getId())));
+
+    assertThatThrownBy(() -> saleService.createSale(sale))
+        .isInstanceOf(InsufficientStock.class)
+        .hasMessageContaining("[" + scarce.getId() + "]");
+    assertThat(stock(scarce)).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("The last units on hand can be sold, and then no more")
+  void createSale_SellsDownToZero() {
+    Product product = data.products().get(0);
+    setStock(product, 2);
+
+    saleService.createSale(data.newSale(1));
+
+    assertThat(stock(product)).isZero();
+    assertThatThrownBy(() -> saleService.createSale(data.newSale(1))).isInstanceOf(InsufficientStock.class);
+  }
+
+  @Test
+  @DisplayName("A product's stock is read with one statement, and an unknown product reads as empty")
+  void findStockLevel_UsesOneStatement() {
+    Product product = data.products().get(0);
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    assertThat(inventoryRepository.findStockLevel(product.getId())).map(StockLevel::stockOnHand)
+                                                                   .contains(SaleTestData.STOCK_ON_HAND);
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    assertThat(inventoryRepository.findStockLevel(-1)).isEmpty();
+  }
+
+  private void setStock(final Product product, final int stock) {
+    entityManager.getEntityManager().createQuery(
+            "UPDATE Inventory i SET i.stockOnHand = :stock WHERE i.product.id = :productId")
+        .setParameter("stock", stock).setParameter("productId", product.getId()).executeUpdate();
+  }
+
+  private Integer stock(final Product product) {
+    entityManager.clear();
+    return inventoryRepository.getStockByProductId(product.getId());
+  }
+}
@@ -0,0 +1,96 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.mapper.ProductMapper;
+import com.oreilly.maventoys.model.DTO.EmployeeDTO;
+import com.oreilly.maventoys.model.DTO.ProductDTO;
+import com.oreilly.maventoys.model.DTO.StoreDTO;
+import com.oreilly.maventoys.model.entity.Product;
+import com.oreilly.maventoys.repository.EmployeeRepository;
+import com.oreilly.maventoys.repository.ProductRepository;
+import com.oreilly.maventoys.repository.StoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that a rebuild of the leaderboards keeps the sales applied while it reads the rollups, and that sales applied
+ * outside a rebuild are counted once.
+ */
+class LeaderboardServiceTest {
+
+  private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+  private final StoreRepository storeRepository = mock(StoreRepository.class);
+
+  private final EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+
+  private final ProductRepository productRepository = mock(ProductRepository.class);
+
+  private final ProductMapper productMapper = mock(ProductMapper.class);
+
+  private LeaderboardService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new LeaderboardService(storeRepository, employeeRepository, productRepository, productMapper,
+                                     mock(PlatformTransactionManager.class), 5);
+    Product product = new Product();
+    product.setId(5);
+    ProductDTO dto = new ProductDTO();
+    dto.setId(5);
+    when(productRepository.findAllById(any())).thenReturn(List.of(product));
+    when(productMapper.productToProductDTO(product)).thenReturn(dto);
+  }
+
+  @Test
+  @DisplayName("A sale applied while a rebuild reads the rollups is replayed onto the rebuilt leaderboards")
+  void reconcile_ReplaysEventsAppliedDuringRead() {
+    service.reconcile();
+    when(storeRepository.findSalesTotalsPerStore()).thenAnswer(invocation -> {
+      service.onSaleTotalsChanged(sale(2, 7, 80.0, 5, 3, 4));
+      return rows(new Object[] {1, 100.0});
+    });
+
+    service.reconcile();
+
+    assertThat(service.topStores()).extracting(StoreDTO::getId, StoreDTO::getTotalSales)
+        .containsExactly(tuple(1, 100.0), tuple(2, 80.0));
+    assertThat(service.topEmployees()).extracting(EmployeeDTO::getId).containsExactly(7);
+    assertThat(service.topProducts(3)).extracting(ProductDTO::getId).containsExactly(5);
+  }
+
+  @Test
+  @DisplayName("A sale applied between rebuilds is counted once and left to the next rebuild's read")
+  void onSaleTotalsChanged_OutsideRebuild_IsNotReplayed() {
+    when(storeRepository.findSalesTotalsPerStore()).thenReturn(rows(new Object[] {1, 100.0}));
+    service.reconcile();
+
+    service.onSaleTotalsChanged(sale(1, 7, 30.0, 5, 3, 1));
+    assertThat(service.topStores()).extracting(StoreDTO::getTotalSales).containsExactly(130.0);
+
+    when(storeRepository.findSalesTotalsPerStore()).thenReturn(rows(new Object[] {1, 130.0}));
+    service.reconcile();
+    assertThat(service.topStores()).extracting(StoreDTO::getTotalSales).containsExactly(130.0);
+  }
+
+  private static SaleTotalsChangedEvent sale(final int storeId, final int employeeId, final double revenue,
+                                             final int productId, final int categoryId, final int units) {
+    return new SaleTotalsChangedEvent(storeId, employeeId, DAY, revenue, 1, List.of(
+        new SaleTotalsChangedEvent.ProductUnits(productId, categoryId, units, revenue)));
+  }
+
+  private static List<Object[]> rows(final Object[]... rows) {
+    return new ArrayList<>(List.of(rows));
+  }
+}
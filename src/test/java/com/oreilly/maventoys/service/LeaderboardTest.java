@@ -0,0 +1,56 @@
+package com.oreilly.maventoys.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the ranking rules of {@link Leaderboard}: bounded size, descending order, deterministic ties, and a cached
+ * ranking that is rebuilt after every update.
+ */
+class LeaderboardTest {
+
+  @Test
+  @DisplayName("Only the best entries are kept, best first")
+  void top_KeepsBestEntries() {
+    Leaderboard leaderboard = Leaderboard.of(3, Map.of(1, 10.0, 2, 50.0, 3, 30.0, 4, 40.0, 5, 20.0));
+
+    assertThat(leaderboard.top()).extracting(Leaderboard.Ranked::id).containsExactly(2, 4, 3);
+  }
+
+  @Test
+  @DisplayName("Ties are ranked by ascending ID and non-positive totals are left out")
+  void top_BreaksTiesById() {
+    Leaderboard leaderboard = Leaderboard.of(5, Map.of(7, 5.0, 3, 5.0, 9, 0.0));
+    leaderboard.add(11, -1);
+
+    assertThat(leaderboard.top()).extracting(Leaderboard.Ranked::id).containsExactly(3, 7);
+  }
+
+  @Test
+  @DisplayName("The cached ranking is reused until the next update")
+  void top_RebuildsAfterUpdate() {
+    Leaderboard leaderboard = Leaderboard.of(2, Map.of(1, 10.0, 2, 20.0));
+    List<Leaderboard.Ranked> first = leaderboard.top();
+    assertThat(leaderboard.top()).isSameAs(first);
+
+    leaderboard.add(1, 15);
+
+    assertThat(leaderboard.top()).containsExactly(new Leaderboard.Ranked(1, 25.0), new Leaderboard.Ranked(2, 20.0));
+  }
+
+  @Test
+  @DisplayName("Concurrent updates are all counted")
+  void add_IsThreadSafe() {
+    Leaderboard leaderboard = new Leaderboard(1);
+
+    IntStream.range(0, 10_000).parallel().forEach(i -> leaderboard.add(1, 1));
+
+    assertThat(leaderboard.top()).containsExactly(new Leaderboard.Ranked(1, 10_000));
+  }
+}
@@ -0,0 +1,77 @@
+package com.oreilly.maventoys.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the matching rules of {@link NameIndex}: substring matches ignoring case and accents, prefix matches ranked
+ * first, bounded results, and index entries that follow renames and removals.
+ */
+class NameIndexTest {
+
+  @Test
+  @DisplayName("Names containing the term match regardless of case and accents")
+  void search_IgnoresCaseAndAccents() {
+    NameIndex index = new NameIndex();
+    index.put(1, "Café Racer");
+    index.put(2, "Lego Bricks");
+    index.put(3, "Jardín Set");
+
+    assertThat(index.search("CAFE", 10)).extracting(NameIndex.Hit::id).containsExactly(1);
+    assertThat(index.search("ardin", 10)).extracting(NameIndex.Hit::name).containsExactly("Jardín Set");
+    assertThat(index.search("bricks lego", 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Names starting with the term come first, then by ID, up to the limit")
+  void search_RanksPrefixesFirst() {
+    NameIndex index = new NameIndex();
+    index.put(1, "Toy Car");
+    index.put(2, "Car Wash");
+    index.put(3, "Race Car");
+    index.put(4, "Carousel");
+
+    assertThat(index.search("car", 10)).extracting(NameIndex.Hit::id).containsExactly(2, 4, 1, 3);
+    assertThat(index.search("car", 3)).extracting(NameIndex.Hit::id).containsExactly(2, 4, 1);
+  }
+
+  @Test
+  @DisplayName("Terms shorter than a gram are matched by scanning every name")
+  void search_MatchesShortTerms() {
+    NameIndex index = new NameIndex();
+    index.put(1, "Yo-yo");
+    index.put(2, "Kite");
+
+    assertThat(index.search("y", 10)).extracting(NameIndex.Hit::id).containsExactly(1);
+    assertThat(index.search("ki", 10)).extracting(NameIndex.Hit::id).containsExactly(2);
+    assertThat(index.search("  ", 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Renamed and removed names stop matching their old text")
+  void put_ReplacesAndRemovesEntries() {
+    NameIndex index = new NameIndex();
+    index.put(1, "Puzzle Box");
+    index.put(1, "Magic Box");
+    index.put(2, "Puzzle Mat");
+    index.put(2, null);
+
+    assertThat(index.search("puzzle", 10)).isEmpty();
+    assertThat(index.search("magic", 10)).extracting(NameIndex.Hit::id).containsExactly(1);
+    assertThat(index.size()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Seeding does not overwrite a name written after the snapshot was read")
+  void putIfAbsent_KeepsLaterWrites() {
+    NameIndex index = new NameIndex();
+    index.put(1, "New Name");
+
+    index.putIfAbsent(1, "Old Name");
+    index.putIfAbsent(2, "Other Name");
+
+    assertThat(index.search("name", 10)).extracting(NameIndex.Hit::name).containsExactly("New Name", "Other Name");
+  }
+}
@@ -0,0 +1,146 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.model.SearchText;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares search-as-you-type over a generated catalog answered by {@link NameIndex} with the linear substring scan
+ * it replaces. Both must return the same hits, which is checked on a small catalog in every build.
+ * <p>
+ * The timing comparison builds an index of one million names and takes tens of seconds, so it only runs on request:
+ * {@code mvn test -Dtest=NameSearchBenchmarkTest -Dload.test=true [-Dsearch.benchmark.size=1000000]}. It fails if
+ * the median search of the index is slower than the median scan for any term length.
+ * </p>
+ */
+class NameSearchBenchmarkTest {
+
+  private static final int SIZE = Integer.getInteger("search.benchmark.size", 1_000_000);
+
+  private static final int SMALL_SIZE = 20_000;
+
+  private static final int LIMIT = 20;
+
+  private static final int QUERIES = 200;
+
+  private static final int[] TERM_LENGTHS = {2, 3, 5, 8};
+
+  private static final String[] ADJECTIVES = {"Mini", "Mega", "Classic", "Électrique", "Wooden", "Magic", "Super",
+      "Deluxe", "Junior", "Cosmic", "Rainbow", "Turbo"};
+
+  private static final String[] NOUNS = {"Robot", "Puzzle", "Dinosaur", "Kite", "Racer", "Castle", "Dragon",
+      "Train", "Doll", "Blocks", "Yo-yo", "Café Set", "Rocket", "Unicorn"};
+
+  @Test
+  @DisplayName("The trigram index returns the same hits as a linear scan")
+  void search_MatchesLinearScan() {
+    Random random = new Random(42);
+    String[] names = names(random, SMALL_SIZE);
+    String[] keys = keys(names);
+    NameIndex index = index(names);
+
+    for (int length : TERM_LENGTHS) {
+      for (String term : terms(random, keys, length)) {
+        assertThat(index.search(term, LIMIT)).extracting(NameIndex.Hit::id).as("hits for '%s'", term)
+            .containsExactlyElementsOf(linearScan(keys, SearchText.normalize(term)));
+      }
+    }
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "load.test", matches = "true")
+  @DisplayName("The trigram index is no slower than a linear scan for any term length")
+  void search_IndexVersusLinearScan() {
+    Random random = new Random(42);
+    String[] names = names(random, SIZE);
+    String[] keys = keys(names);
+    NameIndex index = index(names);
+
+    for (int length : TERM_LENGTHS) {
+      List<String> terms = terms(random, keys, length);
+      long[] indexed = new long[terms.size()];
+      long[] scanned = new long[terms.size()];
+      for (int i = 0; i < terms.size(); i++) {
+        String term = terms.get(i);
+        long before = System.nanoTime();
+        List<NameIndex.Hit> hits = index.search(term, LIMIT);
+        indexed[i] = System.nanoTime() - before;
+        before = System.nanoTime();
+        List<Integer> expected = linearScan(keys, SearchText.normalize(term));
+        scanned[i] = System.nanoTime() - before;
+
+        assertThat(hits).extracting(NameIndex.Hit::id).as("hits for '%s'", term).containsExactlyElementsOf(expected);
+      }
+      assertThat(median(indexed)).as("median nanoseconds of the index for %d-character terms", length)
+          .isLessThanOrEqualTo(median(scanned));
+    }
+  }
+
+  private static String[] names(final Random random, final int size) {
+    String[] names = new String[size];
+    for (int i = 0; i < size; i++) {
+      names[i] = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " "
+          + Integer.toString(random.nextInt(1_000_000), 36);
+    }
+    return names;
+  }
+
+  private static String[] keys(final String[] names) {
+    return Arrays.stream(names).map(SearchText::normalize).toArray(String[]::new);
+  }
+
+  private static NameIndex index(final String[] names) {
+    NameIndex index = new NameIndex();
+    for (int i = 0; i < names.length; i++) {
+      index.put(i, names[i]);
+    }
+    return index;
+  }
+
+  /**
+   * Picks search terms as a user would type them: the start of a word, or a slice from the middle of a name.
+   */
+  private static List<String> terms(final Random random, final String[] keys, final int length) {
+    List<String> terms = new ArrayList<>(QUERIES);
+    while (terms.size() < QUERIES) {
+      String key = keys[random.nextInt(keys.length)];
+      int from = random.nextBoolean() ? 0 : random.nextInt(key.length());
+      if (from + length <= key.length()) {
+        terms.add(key.substring(from, from + length));
+      }
+    }
+    return terms;
+  }
+
+  /**
+   * The former approach: test every name and keep the best hits, with the same ranking as the index.
+   */
+  private static List<Integer> linearScan(final String[] keys, final String key) {
+    List<Integer> prefixes = new ArrayList<>();
+    List<Integer> others = new ArrayList<>();
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i].startsWith(key)) {
+        prefixes.add(i);
+      } else if (keys[i].contains(key)) {
+        others.add(i);
+      }
+    }
+    prefixes.addAll(others);
+    return prefixes.stream().limit(LIMIT).collect(Collectors.toList());
+  }
+
+  private static long median(final long[] nanos) {
+    long[] sorted = nanos.clone();
+    Arrays.sort(sorted);
+    return sorted[sorted.length / 2];
+  }
+}
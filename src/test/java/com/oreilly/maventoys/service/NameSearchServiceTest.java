@@ -0,0 +1,93 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.model.DTO.SearchResultDTO;
+import com.oreilly.maventoys.model.entity.Employee;
+import com.oreilly.maventoys.model.entity.Store;
+import com.oreilly.maventoys.repository.EmployeeRepository;
+import com.oreilly.maventoys.repository.ProductRepository;
+import com.oreilly.maventoys.repository.StoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that searches answered from the database before the indexes are seeded return the same hits, in the same
+ * order, as the indexes afterwards.
+ */
+@DataJpaTest
+class NameSearchServiceTest {
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private StoreRepository storeRepository;
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  private NameSearchService nameSearchService;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @BeforeEach
+  void setUp() {
+    for (String name : List.of("Mall Éxito", "Éxito Centro", "100% Toys", "exito  Norte", "Toys 100")) {
+      Store store = new Store();
+      store.setName(name);
+      store.setCity("Test City");
+      store.setLocation("Downtown");
+      store.setOpenDate(LocalDate.now());
+      store.setActive(true);
+      entityManager.persist(store);
+    }
+    for (String[] name : new String[][] {{"Ana", "Martínez"}, {"Martina", "Ruiz"}, {"Tina", "Lopez"}}) {
+      Employee employee = new Employee();
+      employee.setFirstName(name[0]);
+      employee.setLastName(name[1]);
+      employee.setActive(true);
+      entityManager.persist(employee);
+    }
+    entityManager.flush();
+    entityManager.clear();
+    nameSearchService = new NameSearchService(productRepository, storeRepository, employeeRepository, 50);
+  }
+
+  @Test
+  @DisplayName("The database fallback ignores accents and ranks prefixes first, as the index does")
+  void search_FallbackMatchesIndex() {
+    assertThat(nameSearchService.isReady()).isFalse();
+    List<String> stores = names(NameSearchService.Kind.STORE, "EXITO");
+    List<String> limited = names(NameSearchService.Kind.STORE, "toys", 1);
+    List<String> wildcard = names(NameSearchService.Kind.STORE, "100%");
+    List<String> employees = names(NameSearchService.Kind.EMPLOYEE, "martin");
+
+    assertThat(stores).containsExactly("Éxito Centro", "exito  Norte", "Mall Éxito");
+    assertThat(wildcard).containsExactly("100% Toys");
+    assertThat(employees).containsExactly("Martina Ruiz", "Ana Martínez");
+    assertThat(names(NameSearchService.Kind.STORE, " ")).isEmpty();
+
+    nameSearchService.warmUp();
+    assertThat(names(NameSearchService.Kind.STORE, "EXITO")).isEqualTo(stores);
+    assertThat(names(NameSearchService.Kind.STORE, "toys", 1)).isEqualTo(limited).containsExactly("Toys 100");
+    assertThat(names(NameSearchService.Kind.STORE, "100%")).isEqualTo(wildcard);
+    assertThat(names(NameSearchService.Kind.EMPLOYEE, "martin")).isEqualTo(employees);
+  }
+
+  private List<String> names(final NameSearchService.Kind kind, final String term) {
+    return names(kind, term, 10);
+  }
+
+  private List<String> names(final NameSearchService.Kind kind, final String term, final int limit) {
+    return nameSearchService.search(kind, term, limit).getData().stream().map(SearchResultDTO::getName).toList();
+  }
+}
@@ -0,0 +1,129 @@
+package com.oreilly.maventoys.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oreilly.maventoys.exceptions.MalformedPayload;
+import com.oreilly.maventoys.mapper.CategoryMapperImpl;
+import com.oreilly.maventoys.mapper.ProductMapperImpl;
+import com.oreilly.maventoys.mapper.SaleMapperImpl;
+import com.oreilly.maventoys.mapper.StoreMapperImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Exercises {@link SaleBulkService} against an in-memory database with a chunk size small enough that every
+ * payload spans several chunks.
+ */
+@DataJpaTest(properties = "sales.bulk.chunk-size=2")
+@Import({SaleBulkService.class, SaleService.class, SalesRollupService.class, InventoryService.class, CatalogCache.class,
+    SaleMapperImpl.class, ProductMapperImpl.class, CategoryMapperImpl.class, StoreMapperImpl.class,
+    JacksonAutoConfiguration.class})
+class SaleBulkServiceTest {
+
+  @Autowired
+  private SaleBulkService saleBulkService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private SaleTestData data;
+
+  @BeforeEach
+  void setUp() {
+    data = new SaleTestData(entityManager, 3);
+  }
+
+  @Test
+  @DisplayName("NDJSON upload reports one result per record and rejects invalid ones in place")
+  void importSales_NewlineDelimited() throws IOException {
+    String payload = String.join("\n", sale(), sale(), "{\"employeeId\": 1}", sale(), sale()) + "\n";
+
+    List<JsonNode> results = importSales(payload);
+
+    assertThat(results).hasSize(5);
+    assertThat(results).extracting(node -> node.get("index").asInt()).containsExactly(0, 1, 2, 3, 4);
+    assertThat(results).extracting(node -> node.get("status").asText())
+        .containsExactly("CREATED", "CREATED", "REJECTED", "CREATED", "CREATED");
+    assertThat(results.get(2).get("message").asText()).isEqualTo("storeId is required");
+    assertThat(results.get(0).get("saleId").isInt()).isTrue();
+  }
+
+  @Test
+  @DisplayName("JSON array upload is accepted and a trailing partial chunk is committed")
+  void importSales_JsonArray() throws IOException {
+    List<JsonNode> results = importSales("[" + String.join(",", sale(), sale(), sale()) + "]");
+
+    assertThat(results).extracting(node -> node.get("status").asText())
+        .containsExactly("CREATED", "CREATED", "CREATED");
+  }
+
+  @Test
+  @DisplayName("A record rejected by validation is reported in payload order with the rest of its chunk")
+  void importSales_KeepsPayloadOrder() throws IOException {
+    List<JsonNode> results = importSales(String.join("\n", sale(), "{\"employeeId\": 1}", sale()));
+
+    assertThat(results).extracting(node -> node.get("index").asInt()).containsExactly(0, 1, 2);
+    assertThat(results).extracting(node -> node.get("status").asText())
+        .containsExactly("CREATED", "REJECTED", "CREATED");
+  }
+
+  @Test
+  @DisplayName("A payload that is neither an array nor a sequence of objects is refused")
+  void importSales_WhenPayloadIsNotSales() {
+    assertThrows(MalformedPayload.class, () -> importSales("42"));
+    assertThrows(MalformedPayload.class, () -> importSales(sale() + "\n{\"storeId\": "));
+  }
+
+  @Test
+  @DisplayName("A payload malformed after results were sent ends with one result and leaves its chunk unsaved")
+  void importSales_WhenMalformedMidStream() throws IOException {
+    long before = countSales();
+
+    List<JsonNode> results = importSales(String.join("\n", sale(), sale(), sale(), "{\"storeId\": ]"));
+
+    assertThat(results).extracting(node -> node.get("status").asText())
+        .containsExactly("CREATED", "CREATED", "MALFORMED");
+    assertThat(results.get(2).get("index").asInt()).isEqualTo(2);
+    assertThat(countSales()).isEqualTo(before + 2);
+  }
+
+  private long countSales() {
+    return entityManager.getEntityManager().createQuery("SELECT COUNT(s) FROM Sale s", Long.class)
+                        .getSingleResult();
+  }
+
+  private List<JsonNode> importSales(final String payload) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    saleBulkService.importSales(new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)), out);
+    List<JsonNode> results = new ArrayList<>();
+    for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+      if (!line.isBlank()) {
+        results.add(objectMapper.readTree(line));
+      }
+    }
+    return results;
+  }
+
+  private String sale() throws IOException {
+    return objectMapper.writeValueAsString(data.newSale(2));
+  }
+}
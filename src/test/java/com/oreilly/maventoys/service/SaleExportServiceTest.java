@@ -0,0 +1,101 @@
+package com.oreilly.maventoys.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oreilly.maventoys.mapper.CategoryMapperImpl;
+import com.oreilly.maventoys.mapper.ProductMapperImpl;
+import com.oreilly.maventoys.mapper.SaleMapperImpl;
+import com.oreilly.maventoys.mapper.StoreMapperImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the NDJSON and CSV sale exports and that streamed sales do not accumulate in the persistence context.
+ */
+@DataJpaTest
+@Import({SaleExportService.class, SaleService.class, SalesRollupService.class, InventoryService.class,
+    CatalogCache.class, SaleMapperImpl.class, ProductMapperImpl.class, CategoryMapperImpl.class, StoreMapperImpl.class,
+    JacksonAutoConfiguration.class})
+class SaleExportServiceTest {
+
+  private static final int SALE_COUNT = 25;
+
+  @Autowired
+  private SaleExportService saleExportService;
+
+  @Autowired
+  private SaleService saleService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @BeforeEach
+  void setUp() {
+    SaleTestData data = new SaleTestData(entityManager, 5);
+    for (int i = 0; i < SALE_COUNT; i++) {
+      saleService.createSale(data.newSale(3));
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  @DisplayName("NDJSON export writes one sale per line and leaves the persistence context empty")
+  void exportSalesByDate_Ndjson() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long written = saleExportService.exportSalesByDate(LocalDate.now().minusDays(1), LocalDate.now().plusDays(1),
+                                                       SaleExportService.Format.NDJSON, out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertThat(written).isEqualTo(SALE_COUNT);
+    assertThat(lines).hasSize(SALE_COUNT);
+    JsonNode first = objectMapper.readTree(lines[0]);
+    assertThat(first.get("id").isInt()).isTrue();
+    assertThat(first.get("total").asDouble()).isPositive();
+    assertThat(entityManager.getEntityManager().unwrap(org.hibernate.Session.class).getStatistics().getEntityCount())
+        .isZero();
+  }
+
+  @Test
+  @DisplayName("CSV export writes a header followed by one row per sale")
+  void exportSalesByDate_Csv() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    saleExportService.exportSalesByDate(LocalDate.now().minusDays(1), LocalDate.now().plusDays(1),
+                                        SaleExportService.Format.CSV, out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertThat(lines).hasSize(SALE_COUNT + 1);
+    assertThat(lines[0]).isEqualTo("id,storeId,employeeId,date,total");
+    assertThat(lines[1].split(",")).hasSize(5);
+  }
+
+  @Test
+  @DisplayName("An empty range produces an empty NDJSON body")
+  void exportSalesByDate_EmptyRange() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long written = saleExportService.exportSalesByDate(LocalDate.now().plusDays(10), LocalDate.now().plusDays(20),
+                                                       SaleExportService.Format.NDJSON, out);
+
+    assertThat(written).isZero();
+    assertThat(out.size()).isZero();
+  }
+}
@@ -0,0 +1,141 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.InvalidCursor;
+import com.oreilly.maventoys.exceptions.InvalidPageSize;
+import com.oreilly.maventoys.mapper.CategoryMapperImpl;
+import com.oreilly.maventoys.mapper.ProductMapperImpl;
+import com.oreilly.maventoys.mapper.SaleMapperImpl;
+import com.oreilly.maventoys.mapper.StoreMapperImpl;
+import com.oreilly.maventoys.model.CursorSlice;
+import com.oreilly.maventoys.model.DTO.SaleDTO;
+import com.oreilly.maventoys.repository.specifications.SaleCursor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Walks the keyset-paginated sale listing slice by slice in both orders. Every sale must be returned exactly once
+ * and in order, and each slice, however deep, must cost a single select with no count query.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({SaleService.class, SalesRollupService.class, InventoryService.class, CatalogCache.class, SaleMapperImpl.class,
+    StoreMapperImpl.class, ProductMapperImpl.class, CategoryMapperImpl.class})
+class SaleKeysetPaginationTest {
+
+  private static final int SALE_COUNT = 23;
+
+  private static final int DAYS = 4;
+
+  private static final int SLICE_SIZE = 5;
+
+  @Autowired
+  private SaleService saleService;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  private final List<SaleDTO> created = new ArrayList<>();
+
+  private SaleDTO undated;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    SaleTestData data = new SaleTestData(entityManager, 2);
+    for (int i = 0; i < SALE_COUNT; i++) {
+      SaleDTO sale = data.newSale(1);
+      sale.setDate(LocalDate.now().minusDays(i % DAYS));
+      created.add(saleService.createSale(sale).getData());
+    }
+    SaleDTO sale = data.newSale(1);
+    sale.setDate(null);
+    undated = saleService.createSale(sale).getData();
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  @DisplayName("ID order returns every sale once, by ascending ID")
+  void idOrder_CoversAllSales() {
+    List<SaleDTO> expected = new ArrayList<>(created);
+    expected.add(undated);
+    expected.sort(Comparator.comparing(SaleDTO::getId));
+
+    assertThat(walk(SaleCursor.Order.ID)).extracting(SaleDTO::getId)
+                                         .containsExactlyElementsOf(expected.stream().map(SaleDTO::getId).toList());
+  }
+
+  @Test
+  @DisplayName("Date order returns every dated sale once, newest first")
+  void dateOrder_CoversDatedSales() {
+    List<SaleDTO> expected = new ArrayList<>(created);
+    expected.sort(Comparator.comparing(SaleDTO::getDate).thenComparing(SaleDTO::getId).reversed());
+
+    assertThat(walk(SaleCursor.Order.DATE)).extracting(SaleDTO::getId)
+                                           .containsExactlyElementsOf(expected.stream().map(SaleDTO::getId).toList());
+  }
+
+  @Test
+  @DisplayName("A resumed listing keeps the order recorded in its token")
+  void resume_UsesOrderOfToken() {
+    String token = saleService.getSalesAfter("", SaleCursor.Order.DATE, SLICE_SIZE, null, null, null)
+                              .getData().getNextCursor();
+
+    CursorSlice<SaleDTO> next = saleService.getSalesAfter(token, SaleCursor.Order.ID, SLICE_SIZE, null, null, null)
+                                           .getData();
+
+    assertThat(next.getContent()).extracting(SaleDTO::getDate).isSortedAccordingTo(Comparator.reverseOrder());
+  }
+
+  @Test
+  @DisplayName("A malformed token is rejected")
+  void malformedToken_IsRejected() {
+    assertThatThrownBy(() -> saleService.getSalesAfter("not-a-cursor", SaleCursor.Order.ID, SLICE_SIZE, null, null,
+                                                       null)).isInstanceOf(InvalidCursor.class);
+  }
+
+  @Test
+  @DisplayName("A slice size below one or above the limit is rejected")
+  void invalidSize_IsRejected() {
+    for (int size : new int[] {-1, 0, SaleService.MAX_PAGE_SIZE + 1}) {
+      assertThatThrownBy(() -> saleService.getSalesAfter("", SaleCursor.Order.ID, size, null, null, null))
+          .isInstanceOf(InvalidPageSize.class);
+    }
+  }
+
+  private List<SaleDTO> walk(final SaleCursor.Order order) {
+    List<SaleDTO> seen = new ArrayList<>();
+    String after = "";
+    do {
+      entityManager.clear();
+      statistics.clear();
+      CursorSlice<SaleDTO> slice = saleService.getSalesAfter(after, order, SLICE_SIZE, null, null, null).getData();
+      assertThat(statistics.getPrepareStatementCount()).as("statements issued").isEqualTo(1);
+      assertThat(slice.getContent()).hasSizeLessThanOrEqualTo(SLICE_SIZE);
+      assertThat(slice.hasNext()).isEqualTo(slice.getNextCursor() != null);
+      seen.addAll(slice.getContent());
+      after = slice.getNextCursor();
+    } while (after != null);
+    return seen;
+  }
+}
@@ -0,0 +1,112 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.mapper.CategoryMapperImpl;
+import com.oreilly.maventoys.mapper.EmployeeMapperImpl;
+import com.oreilly.maventoys.mapper.ProductMapperImpl;
+import com.oreilly.maventoys.mapper.SaleMapperImpl;
+import com.oreilly.maventoys.mapper.StoreMapperImpl;
+import com.oreilly.maventoys.model.DTO.SaleDTO;
+import com.oreilly.maventoys.repository.CountMode;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements issued by every sale read path. Store and employee IDs must come from the sale rows
+ * themselves, so the cost of a page or list does not grow with the number of sales it contains.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({SaleService.class, SalesRollupService.class, InventoryService.class, CatalogCache.class, StoreService.class,
+    EmployeeService.class, LeaderboardService.class, TableVersions.class, SaleMapperImpl.class, StoreMapperImpl.class,
+    EmployeeMapperImpl.class, ProductMapperImpl.class, CategoryMapperImpl.class})
+class SaleReadQueryCountTest {
+
+  private static final int SALE_COUNT = 60;
+
+  private static final int[] PAGE_SIZES = {5, 20, 60};
+
+  @Autowired
+  private SaleService saleService;
+
+  @Autowired
+  private StoreService storeService;
+
+  @Autowired
+  private EmployeeService employeeService;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  private SaleTestData data;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    data = new SaleTestData(entityManager, 3);
+    for (int i = 0; i < SALE_COUNT; i++) {
+      saleService.createSale(data.newSale(1));
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  @DisplayName("Paged sale listings cost one select plus one count whatever the page size")
+  void pagedReads_UseFixedStatementCount() {
+    for (int size : PAGE_SIZES) {
+      List<SaleDTO> page = countStatements(2, () ->
+          saleService.getAllSales(PageRequest.of(0, size)).getData().getContent());
+      assertIdsPresent(page, Math.min(size, SALE_COUNT));
+
+      List<SaleDTO> filtered = countStatements(2, () -> saleService.getAllSalesPaged(
+          PageRequest.of(0, size), null, data.store().getId(), null, CountMode.EXACT).getData().getContent());
+      assertIdsPresent(filtered, Math.min(size, SALE_COUNT));
+    }
+  }
+
+  @Test
+  @DisplayName("Sale lists by date, store and employee cost a single select")
+  void listReads_UseSingleStatement() {
+    assertIdsPresent(countStatements(1, () -> saleService.getSalesByDate(
+        LocalDate.now().minusDays(1), LocalDate.now().plusDays(1)).getData()), SALE_COUNT);
+    assertIdsPresent(countStatements(1, () -> storeService.getSalesFromStoreId(data.store().getId()).getData()),
+                     SALE_COUNT);
+    assertIdsPresent(countStatements(1, () -> employeeService.getSalesByEmployee(data.employee().getId()).getData()),
+                     SALE_COUNT);
+  }
+
+  private <T> T countStatements(final long expected, final Supplier<T> read) {
+    entityManager.clear();
+    statistics.clear();
+    T result = read.get();
+    assertThat(statistics.getPrepareStatementCount()).as("statements issued").isEqualTo(expected);
+    return result;
+  }
+
+  private void assertIdsPresent(final List<SaleDTO> sales, final int expectedSize) {
+    assertThat(sales).hasSize(expectedSize);
+    assertThat(sales).allSatisfy(sale -> {
+      assertThat(sale.getStoreId()).isEqualTo(data.store().getId());
+      assertThat(sale.getEmployeeId()).isEqualTo(data.employee().getId());
+    });
+  }
+}
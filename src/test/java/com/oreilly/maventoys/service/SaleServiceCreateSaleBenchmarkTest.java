@@ -0,0 +1,84 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.IdNotFound;
+import com.oreilly.maventoys.mapper.CategoryMapperImpl;
+import com.oreilly.maventoys.mapper.ProductMapperImpl;
+import com.oreilly.maventoys.mapper.SaleMapperImpl;
+import com.oreilly.maventoys.mapper.StoreMapperImpl;
+import com.oreilly.maventoys.model.DTO.SaleDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Counts the queries {@link SaleService#createSale(SaleDTO)} needs as the number of invoice lines in a basket grows.
+ * Product lookups must stay at a single query no matter how many lines there are.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({SaleService.class, SalesRollupService.class, InventoryService.class, CatalogCache.class, SaleMapperImpl.class,
+    ProductMapperImpl.class, CategoryMapperImpl.class, StoreMapperImpl.class})
+class SaleServiceCreateSaleBenchmarkTest {
+
+  private static final int[] BASKET_SIZES = {1, 10, 40, 100};
+
+  private static final int PRODUCT_COUNT = 100;
+
+  @Autowired
+  private SaleService saleService;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  private SaleTestData data;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    data = new SaleTestData(entityManager, PRODUCT_COUNT);
+  }
+
+  @Test
+  @DisplayName("createSale resolves all products with one query regardless of basket size")
+  void createSale_QueryCountByBasketSize() {
+    saleService.createSale(data.newSale(BASKET_SIZES[BASKET_SIZES.length - 1]));
+    entityManager.flush();
+    entityManager.clear();
+
+    for (int lines : BASKET_SIZES) {
+      statistics.clear();
+      saleService.createSale(data.newSale(lines));
+      entityManager.flush();
+      long queries = statistics.getQueryExecutionCount();
+      entityManager.clear();
+
+      assertThat(queries).as("product lookups for %d lines", lines).isEqualTo(1);
+    }
+  }
+
+  @Test
+  @DisplayName("createSale rejects unknown product IDs listing every bad ID")
+  void createSale_WhenProductsAreMissing() {
+    SaleDTO saleDTO = data.newSale(2);
+    saleDTO.getProducts().add(SaleTestData.line(-1));
+    saleDTO.getProducts().add(SaleTestData.line(-2));
+
+    IdNotFound exception = assertThrows(IdNotFound.class, () -> saleService.createSale(saleDTO));
+
+    assertThat(exception.getMessage()).contains("-1").contains("-2");
+  }
+}
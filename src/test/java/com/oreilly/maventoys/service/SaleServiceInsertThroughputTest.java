@@ -0,0 +1,115 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.mapper.CategoryMapperImpl;
+import com.oreilly.maventoys.mapper.ProductMapperImpl;
+import com.oreilly.maventoys.mapper.SaleMapperImpl;
+import com.oreilly.maventoys.mapper.StoreMapperImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares sale persistence throughput with JDBC batching disabled (one INSERT per invoice line, which is what the
+ * former IDENTITY IDs forced) against the configured batch size, for 1-, 10- and 100-line baskets. From ten lines
+ * up, batching must at least halve the statements per sale; the in-memory database has no round trips to save, so
+ * the sales per second are only reported with a failure.
+ * <p>
+ * The runs persist tens of thousands of invoice lines and take about half a minute, so they only run on request:
+ * {@code mvn test -Dtest=SaleServiceInsertThroughputTest -Dload.test=true}.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "load.test", matches = "true")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({SaleService.class, SalesRollupService.class, InventoryService.class, CatalogCache.class, SaleMapperImpl.class,
+    ProductMapperImpl.class, CategoryMapperImpl.class, StoreMapperImpl.class})
+class SaleServiceInsertThroughputTest {
+
+  private static final int[] BASKET_SIZES = {1, 10, 100};
+
+  private static final int TOTAL_LINES_PER_RUN = 2_000;
+
+  private static final int PRODUCT_COUNT = 100;
+
+  @Autowired
+  private SaleService saleService;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  private SaleTestData data;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    data = new SaleTestData(entityManager, PRODUCT_COUNT);
+  }
+
+  @Test
+  @DisplayName("Batched inserts use fewer statements and sustain more sales per second")
+  void createSale_ThroughputUnbatchedVsBatched() {
+    for (int lines : BASKET_SIZES) {
+      int sales = Math.max(1, TOTAL_LINES_PER_RUN / lines);
+      run(lines, sales, 1);
+      run(lines, sales, null);
+
+      Run unbatched = run(lines, sales, 1);
+      Run batched = run(lines, sales, null);
+
+      if (lines >= 10) {
+        assertThat(batched.statementsPerSale())
+            .as("statements per %d-line sale, batched vs unbatched (%.1f vs %.1f sales/s)", lines,
+                batched.salesPerSecond(), unbatched.salesPerSecond())
+            .isLessThan(unbatched.statementsPerSale() / 2);
+      }
+    }
+  }
+
+  private Run run(final int lines, final int sales, final Integer jdbcBatchSize) {
+    Session session = entityManager.getEntityManager().unwrap(Session.class);
+    session.setJdbcBatchSize(jdbcBatchSize);
+    statistics.clear();
+    long start = System.nanoTime();
+    for (int i = 0; i < sales; i++) {
+      saleService.createSale(data.newSale(lines));
+      entityManager.flush();
+      entityManager.clear();
+    }
+    long elapsed = System.nanoTime() - start;
+    session.setJdbcBatchSize(null);
+    return new Run(sales, elapsed, statistics.getPrepareStatementCount());
+  }
+
+  /**
+   * Outcome of one measured run.
+   *
+   * @param sales      number of sales persisted.
+   * @param nanos      elapsed wall-clock time.
+   * @param statements JDBC statements prepared during the run.
+   */
+  private record Run(int sales, long nanos, long statements) {
+
+    double salesPerSecond() {
+      return sales * 1_000_000_000.0 / nanos;
+    }
+
+    double statementsPerSale() {
+      return (double) statements / sales;
+    }
+  }
+}
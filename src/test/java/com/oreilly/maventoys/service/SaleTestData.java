@@ -0,0 +1,106 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.model.DTO.InvoicesDTO;
+import com.oreilly.maventoys.model.DTO.SaleDTO;
+import com.oreilly.maventoys.model.entity.Category;
+import com.oreilly.maventoys.model.entity.Employee;
+import com.oreilly.maventoys.model.entity.Inventory;
+import com.oreilly.maventoys.model.entity.Product;
+import com.oreilly.maventoys.model.entity.Store;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists a small catalog (one store, one employee, one category and a fixed number of products, each with ample
+ * stock) and builds {@link SaleDTO} baskets against it for the sale persistence tests.
+ */
+final class SaleTestData {
+
+  static final int STOCK_ON_HAND = 1_000_000;
+
+  private final Store store;
+
+  private final Employee employee;
+
+  private final Category category;
+
+  private final List<Product> products = new ArrayList<>();
+
+  SaleTestData(final TestEntityManager entityManager, final int productCount) {
+    store = new Store();
+    store.setName("Benchmark Store");
+    store.setCity("Benchmark City");
+    store.setLocation("Benchmark Location");
+    store.setActive(true);
+    entityManager.persist(store);
+
+    employee = new Employee();
+    employee.setFirstName("Bench");
+    employee.setLastName("Mark");
+    employee.setActive(true);
+    employee.setStore(store);
+    entityManager.persist(employee);
+
+    category = new Category();
+    category.setName("Toys");
+    category.setActive(true);
+    entityManager.persist(category);
+
+    for (int i = 0; i < productCount; i++) {
+      Product product = new Product();
+      product.setName("Product " + i);
+      product.setPrice(10.0 + i);
+      product.setCost(5.0);
+      product.setActive(true);
+      product.setCategory(category);
+      products.add(entityManager.persist(product));
+
+      Inventory inventory = new Inventory();
+      inventory.setProduct(product);
+      inventory.setStockOnHand(STOCK_ON_HAND);
+      entityManager.persist(inventory);
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  Store store() {
+    return store;
+  }
+
+  Employee employee() {
+    return employee;
+  }
+
+  Category category() {
+    return category;
+  }
+
+  List<Product> products() {
+    return products;
+  }
+
+  SaleDTO newSale(final int lines) {
+    SaleDTO saleDTO = new SaleDTO();
+    saleDTO.setStoreId(store.getId());
+    saleDTO.setEmployeeId(employee.getId());
+    saleDTO.setDate(LocalDate.now());
+    List<InvoicesDTO> invoiceLines = new ArrayList<>();
+    for (int i = 0; i < lines; i++) {
+      invoiceLines.add(line(products.get(i % products.size()).getId()));
+    }
+    saleDTO.setProducts(invoiceLines);
+    return saleDTO;
+  }
+
+  static InvoicesDTO line(final Integer productId) {
+    InvoicesDTO line = new InvoicesDTO();
+    line.setProduct_id(productId);
+    line.setQuantity(2);
+    line.setDiscount(10);
+    return line;
+  }
+}
@@ -0,0 +1,172 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.model.DTO.SalesReportDTO;
+import com.oreilly.maventoys.repository.DatasetGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Checks that scans of the in-memory sales facts match the same grouping in SQL, with and without filters, and that
+ * committed and retracted sales are reflected without a reload. Tests run outside a test transaction, as the facts
+ * are loaded over their own connection.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SalesFactCacheTest {
+
+  private static final DatasetGenerator.Volumes VOLUMES =
+      DatasetGenerator.Volumes.tiny(13);
+
+  private static final LocalDate START = LocalDate.of(2023, 11, 20);
+
+  private static final LocalDate END = LocalDate.of(2023, 12, 10);
+
+  private static final SalesFactCache.Filter PERIOD = new SalesFactCache.Filter(null, null, null, null, START, END);
+
+  private static final String LINE_REVENUE = "SUM(i.subtotal - i.subtotal * i.discount / 100.0)";
+
+  @Autowired
+  private DataSource dataSource;
+
+  private SalesFactCache cache;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    new DatasetGenerator(dataSource, VOLUMES).generate();
+    cache = new SalesFactCache(dataSource, 16);
+    cache.reload();
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    DatasetGenerator.clear(dataSource);
+  }
+
+  @ParameterizedTest
+  @EnumSource(SalesFactCache.GroupBy.class)
+  @DisplayName("Every group matches the invoice lines grouped in SQL")
+  void scan_MatchesSql(final SalesFactCache.GroupBy groupBy) {
+    List<SalesReportDTO> report = cache.scan(groupBy, PERIOD).getData();
+
+    String key = switch (groupBy) {
+      case STORE -> "s.store_id";
+      case EMPLOYEE -> "s.employee_id";
+      case PRODUCT -> "i.product_id";
+      case CATEGORY -> "p.category_id";
+      case DAY -> "CAST(s.date AS DATE)";
+    };
+    Map<Object, Map<String, Object>> expected = query(key, "1 = 1");
+    assertThat((long) cache.size()).isEqualTo(count("invoices"));
+    assertThat(report).hasSize(expected.size());
+    long sales = 0;
+    for (SalesReportDTO row : report) {
+      Map<String, Object> totals = expected.get(groupBy == SalesFactCache.GroupBy.DAY ? row.getDay() : row.getId());
+      assertThat(totals).as("row %s %s", row.getId(), row.getDay()).isNotNull();
+      assertThat(row.getRevenue()).isCloseTo(((Number) totals.get("REVENUE")).doubleValue(), within(0.01));
+      assertThat(row.getUnits()).isEqualTo(((Number) totals.get("UNITS")).longValue());
+      sales += row.getSales();
+    }
+    assertThat(sales).isEqualTo(new JdbcTemplate(dataSource).queryForObject(
+        "SELECT COUNT(DISTINCT s.id) FROM sales s JOIN invoices i ON i.sales_id = s.id "
+            + "WHERE s.date >= ? AND s.date < ?", Long.class, START, END.plusDays(1)));
+  }
+
+  @Test
+  @DisplayName("Filters on store, category and dates combine")
+  void scan_AppliesFilters() {
+    Map<String, Object> store = new JdbcTemplate(dataSource).queryForMap(
+        "SELECT MIN(id) AS store, (SELECT MIN(id) FROM categories) AS category FROM stores");
+    int storeId = ((Number) store.get("STORE")).intValue();
+    int categoryId = ((Number) store.get("CATEGORY")).intValue();
+
+    List<SalesReportDTO> report = cache.scan(SalesFactCache.GroupBy.PRODUCT,
+        new SalesFactCache.Filter(storeId, null, null, categoryId, START, END)).getData();
+
+    Map<Object, Map<String, Object>> expected =
+        query("i.product_id", "s.store_id = " + storeId + " AND p.category_id = " + categoryId);
+    assertThat(report).isNotEmpty().hasSize(expected.size());
+    for (SalesReportDTO row : report) {
+      assertThat(row.getRevenue())
+          .isCloseTo(((Number) expected.get(row.getId()).get("REVENUE")).doubleValue(), within(0.01));
+    }
+  }
+
+  @Test
+  @DisplayName("A committed sale is added and a retracted one removed without a reload")
+  void onSaleTotalsChanged_AppendsLines() {
+    double before = storeRevenue(1);
+    LocalDate day = START.plusDays(1);
+    List<SaleTotalsChangedEvent.ProductUnits> lines = List.of(new SaleTotalsChangedEvent.ProductUnits(1, 1, 2, 30.0),
+                                                              new SaleTotalsChangedEvent.ProductUnits(2, 1, 1, 12.5));
+
+    cache.onSaleTotalsChanged(new SaleTotalsChangedEvent(1, 1, day, 42.5, 1, lines));
+    assertThat(storeRevenue(1)).isCloseTo(before + 42.5, within(0.001));
+
+    cache.onSaleTotalsChanged(new SaleTotalsChangedEvent(1, 1, day, -42.5, -1, lines.stream()
+        .map(line -> new SaleTotalsChangedEvent.ProductUnits(line.productId(), line.categoryId(), -line.units(),
+                                                             -line.revenue())).toList()));
+    assertThat(storeRevenue(1)).isCloseTo(before, within(0.001));
+  }
+
+  @Test
+  @DisplayName("A sale committed while the facts load is appended to the loaded rows")
+  void reload_ReplaysEventsAppliedDuringLoad() {
+    double before = storeRevenue(1);
+    SalesFactCache[] loading = new SalesFactCache[1];
+    loading[0] = new SalesFactCache(new DelegatingDataSource(dataSource) {
+      @Override
+      public Connection getConnection() throws SQLException {
+        loading[0].onSaleTotalsChanged(new SaleTotalsChangedEvent(1, 1, START, 20.0, 1, List.of(
+            new SaleTotalsChangedEvent.ProductUnits(1, 1, 2, 20.0))));
+        return super.getConnection();
+      }
+    }, 16);
+
+    loading[0].reload();
+
+    cache = loading[0];
+    assertThat(storeRevenue(1)).isCloseTo(before + 20.0, within(0.001));
+    assertThat((long) cache.size()).isEqualTo(count("invoices") + 1);
+  }
+
+  private double storeRevenue(final int storeId) {
+    return cache.scan(SalesFactCache.GroupBy.STORE, new SalesFactCache.Filter(storeId, null, null, null, START, END))
+        .getData().stream().mapToDouble(SalesReportDTO::getRevenue).sum();
+  }
+
+  private long count(final String table) {
+    return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+  }
+
+  private Map<Object, Map<String, Object>> query(final String key, final String condition) {
+    List<Map<String, Object>> rows = new JdbcTemplate(dataSource).queryForList(
+        "SELECT " + key + " AS k, " + LINE_REVENUE + " AS revenue, SUM(i.quantity) AS units FROM sales s "
+            + "JOIN invoices i ON i.sales_id = s.id LEFT JOIN products p ON p.id = i.product_id "
+            + "WHERE s.date >= ? AND s.date < ? AND " + condition + " GROUP BY " + key, START, END.plusDays(1));
+    return rows.stream().collect(Collectors.toMap(
+        row -> row.get("K") instanceof Date date ? date.toLocalDate() : ((Number) row.get("K")).intValue(),
+        row -> row));
+  }
+}
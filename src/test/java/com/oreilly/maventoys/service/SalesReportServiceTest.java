@@ -0,0 +1,121 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.GeneralException;
+import com.oreilly.maventoys.model.DTO.SalesReportDTO;
+import com.oreilly.maventoys.repository.DatasetGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Checks that sales reports read in many parallel chunks add up to the daily sales rollup over the same period, for
+ * every dimension. Tests run outside a test transaction, as the chunks read over their own connections.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SalesReportServiceTest {
+
+  private static final DatasetGenerator.Volumes VOLUMES =
+      DatasetGenerator.Volumes.tiny(11);
+
+  private static final LocalDate START = LocalDate.of(2023, 11, 20);
+
+  private static final LocalDate END = LocalDate.of(2023, 12, 10);
+
+  @Autowired
+  private DataSource dataSource;
+
+  private ForkJoinPool pool;
+
+  private SalesReportService service;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    new DatasetGenerator(dataSource, VOLUMES).generate();
+    pool = new ForkJoinPool(4);
+    service = new SalesReportService(dataSource, pool, 50);
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    pool.close();
+    DatasetGenerator.clear(dataSource);
+  }
+
+  @ParameterizedTest
+  @EnumSource(SalesReportService.Dimension.class)
+  @DisplayName("Every row matches the rollup over the same days")
+  void getReport_MatchesRollup(final SalesReportService.Dimension dimension) {
+    List<SalesReportDTO> report = service.getReport(dimension, START, END).getData();
+
+    Map<Object, Map<String, Object>> expected = rollup(dimension);
+    assertThat(report).hasSize(expected.size());
+    for (SalesReportDTO row : report) {
+      Map<String, Object> totals = expected.get(dimension == SalesReportService.Dimension.DAY
+                                                    ? row.getDay() : row.getId());
+      assertThat(totals).as("row %s %s", row.getId(), row.getDay()).isNotNull();
+      assertThat(row.getRevenue()).isCloseTo(((Number) totals.get("REVENUE")).doubleValue(), within(0.01));
+      assertThat(row.getSales()).isEqualTo(((Number) totals.get("SALES")).longValue());
+      assertThat(row.getUnits()).isEqualTo(((Number) totals.get("UNITS")).longValue());
+    }
+  }
+
+  @Test
+  @DisplayName("Rows are sorted by revenue, or by day for a report by day")
+  void getReport_SortsRows() {
+    List<SalesReportDTO> stores = service.getReport(SalesReportService.Dimension.STORE, START, END).getData();
+    List<SalesReportDTO> days = service.getReport(SalesReportService.Dimension.DAY, START, END).getData();
+
+    assertThat(stores).extracting(SalesReportDTO::getRevenue)
+        .isSortedAccordingTo((first, second) -> Double.compare(second, first));
+    assertThat(days).extracting(SalesReportDTO::getDay).isSorted();
+    assertThat(days.get(0).getDay()).isAfterOrEqualTo(START);
+    assertThat(days.get(days.size() - 1).getDay()).isBeforeOrEqualTo(END);
+  }
+
+  @Test
+  @DisplayName("A period without sales gives an empty report and an inverted one is rejected")
+  void getReport_HandlesEmptyAndInvalidPeriods() {
+    assertThat(service.getReport(SalesReportService.Dimension.STORE, LocalDate.of(2020, 1, 1),
+                                 LocalDate.of(2020, 1, 31)).getData()).isEmpty();
+    assertThatThrownBy(() -> service.getReport(SalesReportService.Dimension.STORE, END, START))
+        .isInstanceOf(GeneralException.class);
+  }
+
+  private Map<Object, Map<String, Object>> rollup(final SalesReportService.Dimension dimension) {
+    String column = switch (dimension) {
+      case STORE -> "store_id";
+      case EMPLOYEE -> "employee_id";
+      case CATEGORY -> "category_id";
+      case DAY -> "sale_day";
+    };
+    List<Map<String, Object>> rows = new JdbcTemplate(dataSource).queryForList(
+        "SELECT " + column + " AS k, SUM(revenue) AS revenue, SUM(sale_count) AS sales, SUM(units) AS units "
+            + "FROM daily_sales_rollup WHERE sale_day BETWEEN ? AND ? GROUP BY " + column, START, END);
+    return rows.stream().collect(Collectors.toMap(
+        row -> dimension == SalesReportService.Dimension.DAY
+            ? ((Date) row.get("K")).toLocalDate() : ((Number) row.get("K")).intValue(),
+        row -> row));
+  }
+}
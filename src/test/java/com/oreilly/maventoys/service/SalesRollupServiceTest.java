@@ -0,0 +1,162 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.mapper.CategoryMapperImpl;
+import com.oreilly.maventoys.mapper.ProductMapperImpl;
+import com.oreilly.maventoys.mapper.SaleMapperImpl;
+import com.oreilly.maventoys.mapper.StoreMapperImpl;
+import com.oreilly.maventoys.model.DTO.SaleDTO;
+import com.oreilly.maventoys.model.entity.Employee;
+import com.oreilly.maventoys.model.entity.Invoice;
+import com.oreilly.maventoys.model.entity.Sale;
+import com.oreilly.maventoys.model.entity.Store;
+import com.oreilly.maventoys.repository.CategoryRepository;
+import com.oreilly.maventoys.repository.EmployeeRepository;
+import com.oreilly.maventoys.repository.ProductRepository;
+import com.oreilly.maventoys.repository.SaleRepository;
+import com.oreilly.maventoys.repository.StoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Checks that the analytics queries answered from the daily and product sales rollups match the sales they
+ * summarize, both after sales are created and after a sale is moved to another store and employee.
+ */
+@DataJpaTest
+@Import({SaleService.class, SalesRollupService.class, InventoryService.class, CatalogCache.class, SaleMapperImpl.class,
+    ProductMapperImpl.class, CategoryMapperImpl.class, StoreMapperImpl.class})
+class SalesRollupServiceTest {
+
+  private static final int SALE_COUNT = 4;
+
+  @Autowired
+  private SaleService saleService;
+
+  @Autowired
+  private SaleRepository saleRepository;
+
+  @Autowired
+  private StoreRepository storeRepository;
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private SaleTestData data;
+
+  private double salesTotal;
+
+  @BeforeEach
+  void setUp() {
+    data = new SaleTestData(entityManager, 5);
+    for (int i = 1; i <= SALE_COUNT; i++) {
+      salesTotal += saleService.createSale(data.newSale(i)).getData().getTotal();
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  @DisplayName("Store, employee and category analytics match the sales written")
+  void analytics_MatchSales() {
+    List<Object[]> stores = storeRepository.findStoresTopSellers();
+    assertThat(stores).hasSize(1);
+    assertThat(((Number) stores.get(0)[0]).intValue()).isEqualTo(data.store().getId());
+    assertThat(((Number) stores.get(0)[2]).doubleValue()).isCloseTo(salesTotal, within(1e-6));
+
+    assertThat(saleRepository.getTotalByStoreId(data.store().getId())).hasValueSatisfying(
+        total -> assertThat(total).isCloseTo(salesTotal, within(1e-6)));
+
+    List<Object[]> employees = employeeRepository.findTopSellersWithStoreId();
+    assertThat(employees).hasSize(1);
+    assertThat(((Number) employees.get(0)[4]).longValue()).isEqualTo(SALE_COUNT);
+
+    List<Object[]> categories = categoryRepository.findCategorySales();
+    assertThat(categories).hasSize(1);
+    assertThat(((Number) categories.get(0)[2]).doubleValue()).isCloseTo(salesTotal, within(1e-6));
+  }
+
+  @Test
+  @DisplayName("Units sold per product match the invoice lines, with the product's category")
+  void findUnitsSoldPerProduct_MatchesInvoices() {
+    List<Object[]> invoices = entityManager.getEntityManager().createQuery(
+        "SELECT i.product.id, i.product.category.id, SUM(i.quantity) FROM Invoice i "
+            + "GROUP BY i.product.id, i.product.category.id", Object[].class).getResultList();
+
+    assertThat(invoices).isNotEmpty();
+    assertThat(productRepository.findUnitsSoldPerProduct())
+        .extracting(row -> List.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue(),
+                                   ((Number) row[2]).longValue()))
+        .containsExactlyInAnyOrderElementsOf(invoices.stream()
+            .map(row -> List.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue(),
+                                ((Number) row[2]).longValue())).toList());
+  }
+
+  @Test
+  @DisplayName("Sales of the same store, employee, day and category in one transaction add up in a single row")
+  void createSale_SameKeyInOneTransaction_AddsUpInOneRow() {
+    double added = saleService.createSale(data.newSale(2)).getData().getTotal()
+        + saleService.createSale(data.newSale(3)).getData().getTotal();
+    entityManager.flush();
+    entityManager.clear();
+
+    Object[] row = (Object[]) entityManager.getEntityManager().createNativeQuery(
+        "SELECT COUNT(*), SUM(sale_count), SUM(revenue) FROM daily_sales_rollup").getSingleResult();
+    assertThat(((Number) row[0]).longValue()).isEqualTo(1);
+    assertThat(((Number) row[1]).longValue()).isEqualTo(SALE_COUNT + 2);
+    assertThat(((Number) row[2]).doubleValue()).isCloseTo(salesTotal + added, within(1e-6));
+  }
+
+  @Test
+  @DisplayName("Moving a sale to another store and employee moves its rollup figures")
+  void updateSale_MovesRollupFigures() {
+    Store otherStore = new Store();
+    otherStore.setName("Other Store");
+    otherStore.setActive(true);
+    entityManager.persist(otherStore);
+    Employee otherEmployee = new Employee();
+    otherEmployee.setFirstName("Other");
+    otherEmployee.setLastName("Seller");
+    otherEmployee.setActive(true);
+    otherEmployee.setStore(otherStore);
+    entityManager.persist(otherEmployee);
+
+    Sale moved = saleRepository.getByStoreId(data.store().getId()).get(0);
+    long movedUnits = moved.getInvoices().stream().mapToLong(Invoice::getQuantity).sum();
+    SaleDTO patch = new SaleDTO();
+    patch.setStoreId(otherStore.getId());
+    patch.setEmployeeId(otherEmployee.getId());
+    saleService.updateSale(moved.getId(), patch);
+    entityManager.flush();
+    entityManager.clear();
+
+    double movedTotal = moved.getTotal();
+    assertThat(saleRepository.getTotalByStoreId(otherStore.getId())).hasValueSatisfying(
+        total -> assertThat(total).isCloseTo(movedTotal, within(1e-6)));
+    assertThat(saleRepository.getTotalByStoreId(data.store().getId())).hasValueSatisfying(
+        total -> assertThat(total).isCloseTo(salesTotal - movedTotal, within(1e-6)));
+    assertThat(employeeRepository.findTopSellersWithStoreId())
+        .extracting(row -> ((Number) row[4]).longValue())
+        .containsExactly((long) SALE_COUNT - 1, 1L);
+    assertThat(((Number) entityManager.getEntityManager().createNativeQuery(
+        "SELECT COALESCE(SUM(units), 0) FROM product_sales_rollup WHERE store_id = ?1")
+        .setParameter(1, otherStore.getId()).getSingleResult()).longValue()).isPositive().isEqualTo(movedUnits);
+  }
+}
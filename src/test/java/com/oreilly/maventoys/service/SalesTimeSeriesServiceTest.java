@@ -0,0 +1,186 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.GeneralException;
+import com.oreilly.maventoys.exceptions.InvalidDateRange;
+import com.oreilly.maventoys.model.DTO.SalesReportDTO;
+import com.oreilly.maventoys.repository.DatasetGenerator;
+import com.oreilly.maventoys.repository.SaleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that the sales time series match the daily sales rollup, that weeks and months add up to their days, and
+ * that committed sales are reflected without a rebuild. Tests run outside a test transaction, as the dataset is
+ * written over its own connection.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SalesTimeSeriesServiceTest {
+
+  private static final DatasetGenerator.Volumes VOLUMES =
+      DatasetGenerator.Volumes.tiny(17);
+
+  private static final LocalDate START = LocalDate.of(2023, 11, 15);
+
+  private static final LocalDate END = LocalDate.of(2023, 12, 31);
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private SaleRepository saleRepository;
+
+  private SalesTimeSeriesService service;
+
+  private int storeId;
+
+  private int categoryId;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    new DatasetGenerator(dataSource, VOLUMES).generate();
+    service = new SalesTimeSeriesService(saleRepository);
+    service.reload();
+    Map<String, Object> ids = new JdbcTemplate(dataSource).queryForMap(
+        "SELECT MIN(id) AS store, (SELECT MIN(id) FROM categories) AS category FROM stores");
+    storeId = ((Number) ids.get("STORE")).intValue();
+    categoryId = ((Number) ids.get("CATEGORY")).intValue();
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    DatasetGenerator.clear(dataSource);
+  }
+
+  @Test
+  @DisplayName("Every day of a store and category matches the rollup, with a zero point for days without sales")
+  void getTimeSeries_MatchesRollupPerDay() {
+    List<SalesReportDTO> points =
+        service.getTimeSeries(storeId, categoryId, SalesTimeSeriesService.Bucket.DAY, START, END).getData();
+
+    assertThat(points).hasSize(47);
+    assertThat(points.get(0).getDay()).isEqualTo(START);
+    assertThat(points.get(46).getDay()).isEqualTo(END);
+    for (SalesReportDTO point : points) {
+      Map<String, Object> rollup = new JdbcTemplate(dataSource).queryForMap(
+          "SELECT COALESCE(SUM(revenue), 0) AS revenue, COALESCE(SUM(sale_count), 0) AS sales, "
+              + "COALESCE(SUM(units), 0) AS units FROM daily_sales_rollup "
+              + "WHERE store_id = ? AND category_id = ? AND sale_day = ?", storeId, categoryId, point.getDay());
+      assertThat(point.getRevenue()).isCloseTo(((Number) rollup.get("REVENUE")).doubleValue(), within(0.01));
+      assertThat(point.getSales()).isEqualTo(((Number) rollup.get("SALES")).longValue());
+      assertThat(point.getUnits()).isEqualTo(((Number) rollup.get("UNITS")).longValue());
+    }
+  }
+
+  @Test
+  @DisplayName("Weeks and months sum the days of the range and start on Monday and the first of the month")
+  void getTimeSeries_DownsamplesDays() {
+    List<SalesReportDTO> days =
+        service.getTimeSeries(null, null, SalesTimeSeriesService.Bucket.DAY, START, END).getData();
+    List<SalesReportDTO> weeks =
+        service.getTimeSeries(null, null, SalesTimeSeriesService.Bucket.WEEK, START, END).getData();
+    List<SalesReportDTO> months =
+        service.getTimeSeries(null, null, SalesTimeSeriesService.Bucket.MONTH, START, END).getData();
+
+    assertThat(months).extracting(SalesReportDTO::getDay)
+        .containsExactly(LocalDate.of(2023, 11, 1), LocalDate.of(2023, 12, 1));
+    assertThat(weeks.get(0).getDay()).isEqualTo(LocalDate.of(2023, 11, 13));
+    assertThat(weeks).hasSize(7);
+    double december = days.stream().filter(day -> day.getDay().getMonthValue() == 12)
+                          .mapToDouble(SalesReportDTO::getRevenue).sum();
+    assertThat(months.get(1).getRevenue()).isCloseTo(december, within(0.01));
+    assertThat(weeks.stream().mapToLong(SalesReportDTO::getSales).sum())
+        .isEqualTo(days.stream().mapToLong(SalesReportDTO::getSales).sum())
+        .isEqualTo(new JdbcTemplate(dataSource).queryForObject(
+            "SELECT SUM(sale_count) FROM daily_sales_rollup WHERE sale_day BETWEEN ? AND ?", Long.class, START,
+            END));
+  }
+
+  @Test
+  @DisplayName("A committed sale is added to its store, its category and the totals without a rebuild")
+  void onSaleTotalsChanged_UpdatesSeries() {
+    LocalDate day = LocalDate.of(2024, 2, 10);
+    service.onSaleTotalsChanged(new SaleTotalsChangedEvent(storeId, 1, day, 50.0, 1, List.of(
+        new SaleTotalsChangedEvent.ProductUnits(1, categoryId, 3, 45.0))));
+
+    SalesReportDTO store = service.getTimeSeries(storeId, categoryId, SalesTimeSeriesService.Bucket.MONTH, day, day)
+                                  .getData().get(0);
+    SalesReportDTO all = service.getTimeSeries(null, null, SalesTimeSeriesService.Bucket.WEEK, day, day)
+                                .getData().get(0);
+    assertThat(store.getDay()).isEqualTo(LocalDate.of(2024, 2, 1));
+    assertThat(store.getRevenue()).isCloseTo(50.0, within(0.001));
+    assertThat(store.getSales()).isEqualTo(1);
+    assertThat(store.getUnits()).isEqualTo(3);
+    assertThat(all.getRevenue()).isCloseTo(50.0, within(0.001));
+  }
+
+  @Test
+  @DisplayName("A sale applied while the series are rebuilt is replayed onto the rebuilt series")
+  void reload_ReplaysEventsAppliedDuringRead() {
+    SaleRepository rollup = mock(SaleRepository.class);
+    SalesTimeSeriesService rebuilding = new SalesTimeSeriesService(rollup);
+    LocalDate day = LocalDate.of(2024, 2, 10);
+    when(rollup.findDailyTotalsPerStoreAndCategory()).thenAnswer(invocation -> {
+      rebuilding.onSaleTotalsChanged(new SaleTotalsChangedEvent(storeId, 1, day, 50.0, 1, List.of(
+          new SaleTotalsChangedEvent.ProductUnits(1, categoryId, 3, 45.0))));
+      return List.<Object[]>of(new Object[] {day, storeId, categoryId, 20.0, 1L, 2L});
+    });
+
+    rebuilding.reload();
+
+    SalesReportDTO point = rebuilding.getTimeSeries(storeId, categoryId, SalesTimeSeriesService.Bucket.DAY, day, day)
+                                     .getData().get(0);
+    assertThat(point.getRevenue()).isCloseTo(70.0, within(0.001));
+    assertThat(point.getSales()).isEqualTo(2);
+    assertThat(point.getUnits()).isEqualTo(5);
+  }
+
+  @Test
+  @DisplayName("Unknown buckets, inverted ranges and ranges over the maximum length are rejected")
+  void getTimeSeries_RejectsInvalidArguments() {
+    assertThat(SalesTimeSeriesService.Bucket.of("Week")).isEqualTo(SalesTimeSeriesService.Bucket.WEEK);
+    assertThatThrownBy(() -> SalesTimeSeriesService.Bucket.of("year"))
+        .isInstanceOf(GeneralException.class);
+    assertThatThrownBy(() -> service.getTimeSeries(null, null, SalesTimeSeriesService.Bucket.DAY, END, START))
+        .isInstanceOf(InvalidDateRange.class);
+    assertThatThrownBy(() -> service.getTimeSeries(null, null, SalesTimeSeriesService.Bucket.MONTH,
+                                                   LocalDate.of(1, 1, 1), LocalDate.of(9999, 12, 31)))
+        .isInstanceOf(InvalidDateRange.class);
+    assertThatThrownBy(() -> service.getTimeSeries(null, null, SalesTimeSeriesService.Bucket.DAY, START,
+                                                   LocalDate.MAX))
+        .isInstanceOf(InvalidDateRange.class);
+    assertThat(service.getTimeSeries(null, null, SalesTimeSeriesService.Bucket.DAY, START,
+                                     START.plusDays(SalesTimeSeriesService.MAX_DAYS - 1)).getData())
+        .hasSize(SalesTimeSeriesService.MAX_DAYS);
+  }
+
+  @Test
+  @DisplayName("A range far from any sale gives zero points")
+  void getTimeSeries_FarFromSales_GivesZeroPoints() {
+    LocalDate end = LocalDate.of(9999, 12, 31);
+
+    List<SalesReportDTO> points =
+        service.getTimeSeries(null, null, SalesTimeSeriesService.Bucket.DAY, end.minusDays(9), end).getData();
+
+    assertThat(points).hasSize(10).allSatisfy(point -> assertThat(point.getSales()).isZero());
+  }
+}
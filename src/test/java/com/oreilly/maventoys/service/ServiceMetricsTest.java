@@ -0,0 +1,89 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.config.MetricsConfig;
+import com.oreilly.maventoys.config.ServiceMetricsAspect;
+import com.oreilly.maventoys.exceptions.GeneralException;
+import com.oreilly.maventoys.mapper.CategoryMapperImpl;
+import com.oreilly.maventoys.mapper.ProductMapperImpl;
+import com.oreilly.maventoys.mapper.StoreMapperImpl;
+import com.oreilly.maventoys.model.DTO.CategoryDTO;
+import com.oreilly.maventoys.repository.CategoryRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that calls to the instrumented services publish a timer and a count of the SQL statements they issued,
+ * tagged by service, method and outcome. Tests run outside a test transaction so that every call flushes and
+ * commits on its own, and without the query cache so that repeated reads issue their statements again.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.cache.use_query_cache=false")
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Import({MetricsConfig.class, SimpleMeterRegistry.class, CategoryService.class, CatalogCache.class,
+    TableVersions.class, CategoryMapperImpl.class, ProductMapperImpl.class, StoreMapperImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ServiceMetricsTest {
+
+  @Autowired
+  private CategoryService categoryService;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private MeterRegistry registry;
+
+  @AfterEach
+  void tearDown() {
+    categoryRepository.deleteAll();
+    registry.clear();
+  }
+
+  @Test
+  @DisplayName("Each call is timed and its SQL statements are counted")
+  void serviceCall_RecordsTimerAndStatements() {
+    CategoryDTO category = new CategoryDTO();
+    category.setName("Games");
+    category.setActive(true);
+    categoryService.createCategory(category);
+
+    categoryService.getAllCategories();
+    categoryService.getAllCategories();
+
+    Timer timer = registry.find(ServiceMetricsAspect.TIMER)
+        .tags("class", "CategoryService", "method", "getAllCategories", "exception", "none").timer();
+    DistributionSummary statements = registry.find(ServiceMetricsAspect.STATEMENTS)
+        .tags("class", "CategoryService", "method", "getAllCategories").summary();
+    assertThat(timer).isNotNull();
+    assertThat(timer.count()).isEqualTo(2);
+    assertThat(statements.count()).isEqualTo(2);
+    assertThat(statements.totalAmount()).isEqualTo(2);
+    assertThat(registry.find(ServiceMetricsAspect.STATEMENTS).tags("method", "createCategory").summary().max())
+        .isGreaterThanOrEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("A failed call is tagged with its exception")
+  void serviceCall_TagsException() {
+    assertThatThrownBy(() -> categoryService.createCategory(null)).isInstanceOf(GeneralException.class);
+
+    Timer timer = registry.find(ServiceMetricsAspect.TIMER)
+        .tags("method", "createCategory", "exception", "GeneralException").timer();
+    assertThat(timer).isNotNull();
+    assertThat(timer.count()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,170 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.InsufficientStock;
+import com.oreilly.maventoys.model.entity.Category;
+import com.oreilly.maventoys.model.entity.Inventory;
+import com.oreilly.maventoys.model.entity.Product;
+import com.oreilly.maventoys.repository.CategoryRepository;
+import com.oreilly.maventoys.repository.InventoryRepository;
+import com.oreilly.maventoys.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that {@link StockLedger} takes stock in memory without overselling, even under concurrent sales, gives
+ * units back when a sale rolls back, writes its changes to the inventory table only when flushed, and replays
+ * unflushed changes after a crash. Tests run outside a test transaction so that flushes commit.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockLedgerTest {
+
+  private static final int STOCK = 10;
+
+  @TempDir
+  private Path logDirectory;
+
+  @Autowired
+  private InventoryRepository inventoryRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private int productId;
+
+  @BeforeEach
+  void setUp() {
+    Category category = new Category();
+    category.setName("Toys");
+    category.setActive(true);
+    category = categoryRepository.save(category);
+
+    Product product = new Product();
+    product.setName("Flash Sale Robot");
+    product.setCost(1.0);
+    product.setPrice(2.0);
+    product.setActive(true);
+    product.setCreationDate(new Date());
+    product.setCategory(category);
+    product = productRepository.save(product);
+    productId = product.getId();
+
+    Inventory inventory = new Inventory();
+    inventory.setProduct(product);
+    inventory.setStockOnHand(STOCK);
+    inventoryRepository.save(inventory);
+  }
+
+  @AfterEach
+  void tearDown() {
+    inventoryRepository.deleteAll();
+    productRepository.deleteAll();
+    categoryRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Units are taken in memory and reach the table on the next flush")
+  void take_IsWrittenOnFlush() {
+    StockLedger ledger = newLedger();
+
+    ledger.take(Map.of(productId, 3));
+
+    assertThat(ledger.stockOnHand(productId)).isEqualTo(STOCK - 3);
+    assertThat(inventoryRepository.getStockByProductId(productId)).isEqualTo(STOCK);
+    ledger.flush();
+    assertThat(inventoryRepository.getStockByProductId(productId)).isEqualTo(STOCK - 3);
+  }
+
+  @Test
+  @DisplayName("Asking for more units than are on hand is rejected and takes nothing")
+  void take_RejectsOversell() {
+    StockLedger ledger = newLedger();
+
+    assertThatThrownBy(() -> ledger.take(Map.of(productId, STOCK + 1))).isInstanceOf(InsufficientStock.class);
+
+    assertThat(ledger.stockOnHand(productId)).isEqualTo(STOCK);
+  }
+
+  @Test
+  @DisplayName("Concurrent sales sell exactly the units on hand")
+  void take_NeverOversellsConcurrently() {
+    StockLedger ledger = newLedger();
+    AtomicInteger sold = new AtomicInteger();
+
+    IntStream.range(0, 200).parallel().forEach(i -> {
+      try {
+        ledger.take(Map.of(productId, 1));
+        sold.incrementAndGet();
+      } catch (InsufficientStock rejected) {
+        // expected once the stock runs out
+      }
+    });
+    ledger.flush();
+
+    assertThat(sold.get()).isEqualTo(STOCK);
+    assertThat(ledger.stockOnHand(productId)).isZero();
+    assertThat(inventoryRepository.getStockByProductId(productId)).isZero();
+  }
+
+  @Test
+  @DisplayName("Units taken by a sale that rolls back are given back and never written")
+  void take_IsUndoneOnRollback() {
+    StockLedger ledger = newLedger();
+
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      ledger.take(Map.of(productId, 4));
+      status.setRollbackOnly();
+    });
+    ledger.flush();
+
+    assertThat(ledger.stockOnHand(productId)).isEqualTo(STOCK);
+    assertThat(inventoryRepository.getStockByProductId(productId)).isEqualTo(STOCK);
+  }
+
+  @Test
+  @DisplayName("Changes not flushed before a crash are replayed on the next start")
+  void recover_ReplaysUnflushedChanges() {
+    StockLedger crashed = newLedger();
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> crashed.take(Map.of(productId, 4)));
+    crashed.take(Map.of(productId, 1));
+
+    StockLedger restarted = newLedger();
+
+    assertThat(inventoryRepository.getStockByProductId(productId)).isEqualTo(STOCK - 5);
+    assertThat(restarted.stockOnHand(productId)).isEqualTo(STOCK - 5);
+  }
+
+  private StockLedger newLedger() {
+    StockLedger ledger = new StockLedger(inventoryRepository, entityManager, transactionManager, logDirectory);
+    ledger.recover();
+    return ledger;
+  }
+}
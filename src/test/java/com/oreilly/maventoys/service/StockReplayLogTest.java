@@ -0,0 +1,62 @@
+package com.oreilly.maventoys.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@link StockReplayLog} adds up the changes left by a previous run, ignores a record cut short by a
+ * crash, and forgets the segments deleted after a flush.
+ */
+class StockReplayLogTest {
+
+  @TempDir
+  private Path directory;
+
+  @Test
+  @DisplayName("Changes of a previous run are added up per product")
+  void replay_SumsPreviousSegments() {
+    StockReplayLog previous = new StockReplayLog(directory);
+    previous.append(Map.of(1, -2, 2, -1));
+    previous.rotate();
+    previous.append(Map.of(1, -3, 2, 1));
+    previous.close();
+
+    assertThat(new StockReplayLog(directory).replay()).containsExactlyInAnyOrderEntriesOf(Map.of(1, -5));
+  }
+
+  @Test
+  @DisplayName("A record cut short by a crash is ignored")
+  void replay_IgnoresTruncatedRecord() throws IOException {
+    StockReplayLog previous = new StockReplayLog(directory);
+    previous.append(Map.of(7, -4));
+    previous.close();
+    try (var files = Files.list(directory)) {
+      Path segment = files.findFirst().orElseThrow();
+      Files.write(segment, new byte[] {0, 0, 0, 7, 0}, StandardOpenOption.APPEND);
+    }
+
+    assertThat(new StockReplayLog(directory).replay()).containsExactlyInAnyOrderEntriesOf(Map.of(7, -4));
+  }
+
+  @Test
+  @DisplayName("Segments deleted after a flush are not replayed")
+  void deleteBefore_DropsFlushedSegments() {
+    StockReplayLog log = new StockReplayLog(directory);
+    log.append(Map.of(1, -2));
+    long kept = log.rotate();
+    log.append(Map.of(1, -1));
+    log.deleteBefore(kept);
+    log.close();
+
+    assertThat(new StockReplayLog(directory).replay()).containsExactlyInAnyOrderEntriesOf(Map.of(1, -1));
+  }
+}
@@ -0,0 +1,101 @@
+package com.oreilly.maventoys.service;
+
+import com.oreilly.maventoys.exceptions.IdNotFound;
+import com.oreilly.maventoys.model.CustomApiResponse;
+import com.oreilly.maventoys.model.DTO.StoreDTO;
+import com.oreilly.maventoys.model.DTO.StoreDashboardDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that the store dashboard runs its lookups concurrently, so it takes about as long as the slowest one, that
+ * a section missing the deadline or failing is reported as unavailable, and that an unknown store is still a 404.
+ */
+@ExtendWith(MockitoExtension.class)
+class StoreDashboardServiceTest {
+
+  private static final long LOOKUP_MILLIS = 300;
+
+  @Mock
+  private StoreService storeService;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.close();
+  }
+
+  @Test
+  @DisplayName("The four lookups run concurrently")
+  void getDashboard_TakesTheSlowestLookup() {
+    StoreDTO store = new StoreDTO();
+    store.setId(1);
+    when(storeService.getStoreById(1)).thenAnswer(slow(store));
+    when(storeService.getEmployeesFromStoreId(1)).thenAnswer(slow(List.of()));
+    when(storeService.getSalesFromStoreId(1)).thenAnswer(slow(List.of()));
+    when(storeService.getTotalSalesByStore(1)).thenAnswer(slow(25.0));
+    StoreDashboardService service = new StoreDashboardService(storeService, executor, Duration.ofSeconds(5));
+
+    long start = System.nanoTime();
+    StoreDashboardDTO dashboard = service.getDashboard(1).getData();
+    long millis = (System.nanoTime() - start) / 1_000_000;
+
+    assertThat(dashboard.getStore()).isSameAs(store);
+    assertThat(dashboard.getTotalSales()).isEqualTo(25.0);
+    assertThat(dashboard.getUnavailable()).isEmpty();
+    assertThat(millis).as("elapsed millis").isLessThan(2 * LOOKUP_MILLIS);
+  }
+
+  @Test
+  @DisplayName("A late or failed section is reported as unavailable")
+  void getDashboard_ReportsUnavailableSections() {
+    when(storeService.getStoreById(1)).thenReturn(new CustomApiResponse<>("Success", new StoreDTO()));
+    when(storeService.getEmployeesFromStoreId(1)).thenAnswer(slow(List.of()));
+    when(storeService.getSalesFromStoreId(1)).thenThrow(new IdNotFound("No sales found for store ID: 1"));
+    when(storeService.getTotalSalesByStore(1)).thenThrow(new IllegalStateException("Database unavailable"));
+    StoreDashboardService service = new StoreDashboardService(storeService, executor, Duration.ofMillis(50));
+
+    StoreDashboardDTO dashboard = service.getDashboard(1).getData();
+
+    assertThat(dashboard.getEmployees()).isNull();
+    assertThat(dashboard.getSales()).isEmpty();
+    assertThat(dashboard.getUnavailable()).containsExactly("employees", "totalSales");
+  }
+
+  @Test
+  @DisplayName("An unknown store is reported as not found")
+  void getDashboard_WhenStoreIsMissing() {
+    when(storeService.getStoreById(9)).thenThrow(new IdNotFound("Store not found with ID: 9"));
+    StoreDashboardService service = new StoreDashboardService(storeService, executor, Duration.ofSeconds(5));
+
+    assertThatThrownBy(() -> service.getDashboard(9)).isInstanceOf(IdNotFound.class);
+  }
+
+  private static <T> Answer<CustomApiResponse<T>> slow(final T data) {
+    return invocation -> {
+      Thread.sleep(LOOKUP_MILLIS);
+      return new CustomApiResponse<>("Success", data);
+    };
+  }
+}
@@ -17,9 +17,12 @@ import com.oreilly.maventoys.model.DTO.StoreDTO;
 import com.oreilly.maventoys.model.entity.Employee;
 import com.oreilly.maventoys.model.entity.Sale;
 import com.oreilly.maventoys.model.entity.Store;
+import com.oreilly.maventoys.repository.CountMode;
 import com.oreilly.maventoys.repository.EmployeeRepository;
 import com.oreilly.maventoys.repository.SaleRepository;
 import com.oreilly.maventoys.repository.StoreRepository;
+import com.oreilly.maventoys.repository.projections.StoreSummary;
+import com.oreilly.maventoys.repository.specifications.MatchMode;
 import com.oreilly.maventoys.repository.specifications.StoreSpec;
 import com.oreilly.maventoys.service.StoreService;
 import jakarta.persistence.EntityNotFoundException;
@@ -34,10 +37,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -73,6 +78,18 @@ public class StoreServiceTest {
   @Mock
   private SaleRepository saleRepository;
 
+  @Mock
+  private LeaderboardService leaderboardService;
+
+  @Mock
+  private CatalogCache catalogCache;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private TableVersions tableVersions;
+
   @InjectMocks  // inyecta los mocks (store mapper y store repository) en la clase de prueba (store service)
   private StoreService storeService;
 
@@ -88,23 +105,17 @@ public class StoreServiceTest {
   @DisplayName("GetStores Test")
   void getStoreTest() {
     // config inicial
-    Store store = new Store();
+    StoreSummary store = new StoreSummary(1, "Test Store", "Test City", "Test Location", null, true);
     StoreDTO storeDTO = new StoreDTO();
-    store = new Store();
-    storeDTO = new StoreDTO();
-    store.setName("Test Store");
-    store.setCity("Test City");
-    store.setLocation("Test Location");
-    store.setActive(true);
 
     storeDTO.setName("Test Store");
     storeDTO.setCity("Test City");
 
-    //en esta línea, estamos diciendo: "cuando el método getByActiveTrue() del objeto storeRepository sea llamado,
+    //en esta línea, estamos diciendo: "cuando el método findActiveSummaries() del objeto storeRepository sea llamado,
     // entonces retorna una lista del objeto que acabamos de setear arriba." Esto simula que la base de datos tiene
     // una tienda activa sin necesidad de interactuar con la base de datos real
-    when(storeRepository.getByActiveTrue()).thenReturn(Arrays.asList(store));
-    when(storeMapper.storeToStoreDTO(store)).thenReturn(storeDTO);
+    when(storeRepository.findActiveSummaries()).thenReturn(Arrays.asList(store));
+    when(storeMapper.storeSummaryToStoreDTO(store)).thenReturn(storeDTO);
 
     // llamada al metodo
     CustomApiResponse<List<StoreDTO>> response = storeService.getStores();
@@ -116,8 +127,8 @@ public class StoreServiceTest {
     assertEquals("Test Store", response.getData().get(0).getName(), "Store name does not match expected");
 
     // verificaciones de interac
-    verify(storeRepository).getByActiveTrue();
-    verify(storeMapper).storeToStoreDTO(store);
+    verify(storeRepository).findActiveSummaries();
+    verify(storeMapper).storeSummaryToStoreDTO(store);
   }
 
 
@@ -127,7 +138,7 @@ public class StoreServiceTest {
     //cambiar por otra exepcion adecuada entity not foud por ejenmplo
   void getStores_WhenNoActiveStores() {
     // Setup
-    when(storeRepository.getByActiveTrue()).thenReturn(Collections.emptyList());
+    when(storeRepository.findActiveSummaries()).thenReturn(Collections.emptyList());
 
     Exception exception = assertThrows(EntityNotFoundException.class, () -> {
       storeService.getStores();
@@ -143,7 +154,7 @@ public class StoreServiceTest {
   @DisplayName("GetStores con exception ")
   void getStores_WhenErrorOccurs() {
 
-    when(storeRepository.getByActiveTrue()).thenThrow(new RuntimeException());
+    when(storeRepository.findActiveSummaries()).thenThrow(new RuntimeException());
 
     Exception exception = assertThrows(GeneralException.class, () -> {
       storeService.getStores();
@@ -158,15 +169,11 @@ public class StoreServiceTest {
   @Test
   public void getStoreByIdTest() {
     Integer storeId = 1;
-    Store store = new Store();
-    store.setId(storeId);
-    store.setName("Test Store");
-
     StoreDTO storeDTO = new StoreDTO();
+    storeDTO.setId(storeId);
     storeDTO.setName("Test Store");
 
-    when(storeRepository.findById(storeId)).thenReturn(Optional.of(store));
-    when(storeMapper.storeToStoreDTO(store)).thenReturn(storeDTO);
+    when(catalogCache.findStore(storeId)).thenReturn(Optional.of(storeDTO));
 
     CustomApiResponse<StoreDTO> response = storeService.getStoreById(storeId);
 
@@ -176,8 +183,8 @@ public class StoreServiceTest {
     assertEquals("Test Store", response.getData().getName(), "Store name does not match expected");
 
 
-    verify(storeRepository).findById(storeId);
-    verify(storeMapper).storeToStoreDTO(store);
+    verify(catalogCache).findStore(storeId);
+    verifyNoInteractions(storeRepository);
   }
 
 
@@ -185,9 +192,9 @@ public class StoreServiceTest {
   public void getStoreById_WhenStoreIsNotFound() {
     // config
     Integer storeId = 1;
-    when(storeRepository.findById(storeId)).thenReturn(Optional.empty());
-    // cuando se llame el metodo findById del
-    // store repository con el id 1, simulamos
+    when(catalogCache.findStore(storeId)).thenReturn(Optional.empty());
+    // cuando se llame el metodo findStore de la
+    // cache del catalogo con el id 1, simulamos
     // que no se encuentra la tienda y retorna un optional vacio
 
 
@@ -200,7 +207,7 @@ public class StoreServiceTest {
   @Test
   void getStoreById_WhenErrorOccurs() {
     Integer storeId = 1;
-    when(storeRepository.findById(storeId)).thenThrow(
+    when(catalogCache.findStore(storeId)).thenThrow(
         new GeneralException("A problem was encountered while retrieving the store. "));
 
     Exception exception = assertThrows(GeneralException.class, () -> {
@@ -286,6 +293,7 @@ public class StoreServiceTest {
     verify(storeRepository).findById(storeId);
     verify(storeMapper).updateStoreFromDto(storeDTO, store);
     verify(storeRepository).save(any(Store.class));
+    verify(catalogCache).putStore(storeDTO);
   }
 
   @Test
@@ -553,17 +561,19 @@ public class StoreServiceTest {
 
     Page<Store> storePage = new PageImpl<>(Collections.singletonList(store));
 
-    when(storeRepository.findAll(any(StoreSpec.class), any(Pageable.class))).thenReturn(storePage);
+    when(storeRepository.findPage(any(StoreSpec.class), any(Pageable.class), eq(CountMode.EXACT)))
+        .thenReturn(storePage);
     when(storeMapper.storeToStoreDTO(store)).thenReturn(storeDTO);
 
-    CustomApiResponse<Page<StoreDTO>> response = storeService.getAllStoresPag(id, name, location, pageable);
+    CustomApiResponse<Slice<StoreDTO>> response =
+        storeService.getAllStoresPag(id, name, location, pageable, MatchMode.CONTAINS, CountMode.EXACT);
 
     assertNotNull(response, "The response should not be null");
     assertEquals("Filtered stores retrieved successfully", response.getMessage(), "Unexpected response message");
     assertFalse(response.getData().isEmpty(), "The data list should not be empty");
     assertEquals(name, response.getData().getContent().get(0).getName(), "Store name does not match expected");
 
-    verify(storeRepository).findAll(any(StoreSpec.class), any(Pageable.class));
+    verify(storeRepository).findPage(any(StoreSpec.class), any(Pageable.class), eq(CountMode.EXACT));
     verify(storeMapper).storeToStoreDTO(store);
   }
 
@@ -575,17 +585,18 @@ public class StoreServiceTest {
     String location = "Test Location";
     Pageable pageable = PageRequest.of(0, 10);
 
-    when(storeRepository.findAll(any(StoreSpec.class), any(Pageable.class))).thenThrow(new RuntimeException());
+    when(storeRepository.findPage(any(StoreSpec.class), any(Pageable.class), any(CountMode.class)))
+        .thenThrow(new RuntimeException());
 
     Exception exception = assertThrows(GeneralException.class, () -> {
-      storeService.getAllStoresPag(id, name, location, pageable);
+      storeService.getAllStoresPag(id, name, location, pageable, MatchMode.CONTAINS, CountMode.EXACT);
     });
     String expectedMessage = "Error finding filtered stores: ";
     String actualMessage = exception.getMessage();
 
     assertTrue(actualMessage.contains(expectedMessage));
 
-    verify(storeRepository).findAll(any(StoreSpec.class), any(Pageable.class));
+    verify(storeRepository).findPage(any(StoreSpec.class), any(Pageable.class), any(CountMode.class));
   }
 
 
@@ -597,7 +608,7 @@ public class StoreServiceTest {
     Store store2 = new Store();
     store2.setName("Test Store 2");
 
-    StoreSpec spec = new StoreSpec(null, "Test Store 1", null);
+    StoreSpec spec = new StoreSpec(null, "Test Store 1", null, null);
 
     Page<Store> page = new PageImpl<>(Collections.singletonList(store1));
     when(storeRepository.findAll(any(StoreSpec.class), any(PageRequest.class))).thenReturn(page);
@@ -643,4 +654,21 @@ public class StoreServiceTest {
     verify(storeRepository).findStoresTopSellers();
   }
 
+  @Test
+  @DisplayName("Get Store Sales From Leaderboard Once Seeded")
+  void getStoreSales_FromLeaderboardWhenReady() {
+    StoreDTO top = new StoreDTO();
+    top.setId(1);
+    top.setName("Test Store");
+    top.setTotalSales(1000.0);
+    when(leaderboardService.isReady()).thenReturn(true);
+    when(leaderboardService.topStores()).thenReturn(List.of(top));
+
+    CustomApiResponse<List<StoreDTO>> response = storeService.getStoreSales();
+
+    assertEquals("Success", response.getMessage(), "Unexpected response message");
+    assertEquals(List.of(top), response.getData(), "The leaderboard ranking should be returned");
+    verify(storeRepository, never()).findStoresTopSellers();
+  }
+
 }
@@ -0,0 +1,68 @@
+package com.oreilly.maventoys.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@link TableVersions} changes the validators of exactly the tables written, and only once the writing
+ * transaction commits.
+ */
+class TableVersionsTest {
+
+  private final TableVersions versions = new TableVersions();
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  @DisplayName("A write changes the ETag of the listings reading that table only")
+  void bump_ChangesOnlyTablesWritten() {
+    TableVersions.Version stores = versions.current(TableVersions.Table.STORES);
+    TableVersions.Version ranking = versions.current(TableVersions.Table.STORES, TableVersions.Table.SALES);
+    TableVersions.Version products = versions.current(TableVersions.Table.PRODUCTS);
+
+    versions.onSaleTotalsChanged(null);
+
+    assertThat(versions.current(TableVersions.Table.STORES)).isEqualTo(stores);
+    assertThat(versions.current(TableVersions.Table.PRODUCTS)).isEqualTo(products);
+    TableVersions.Version changed = versions.current(TableVersions.Table.STORES, TableVersions.Table.SALES);
+    assertThat(changed.etag()).isNotEqualTo(ranking.etag()).startsWith("W/\"");
+    assertThat(changed.lastModified()).isGreaterThan(ranking.lastModified());
+  }
+
+  @Test
+  @DisplayName("A write inside a transaction counts once it commits")
+  void bump_WaitsForCommit() {
+    TableVersions.Version before = versions.current(TableVersions.Table.PRODUCTS);
+    TransactionSynchronizationManager.initSynchronization();
+
+    versions.bump(TableVersions.Table.PRODUCTS);
+    assertThat(versions.current(TableVersions.Table.PRODUCTS)).isEqualTo(before);
+
+    TransactionSynchronizationUtils.triggerAfterCommit();
+    assertThat(versions.current(TableVersions.Table.PRODUCTS)).isNotEqualTo(before);
+  }
+
+  @Test
+  @DisplayName("A rolled back write leaves the version unchanged")
+  void bump_IgnoresRollback() {
+    TableVersions.Version before = versions.current(TableVersions.Table.CATEGORIES);
+    TransactionSynchronizationManager.initSynchronization();
+
+    versions.bump(TableVersions.Table.CATEGORIES);
+    TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+        TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    assertThat(versions.current(TableVersions.Table.CATEGORIES)).isEqualTo(before);
+  }
+}